@@ -3,6 +3,7 @@ package com.claro.ecuador.logstash;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Aplicación principal para Back Logstash Connect
@@ -14,6 +15,7 @@ import org.springframework.kafka.annotation.EnableKafka;
  */
 @SpringBootApplication
 @EnableKafka
+@EnableScheduling
 public class BackLogstashConnectApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,29 @@
+package com.claro.ecuador.logstash.config;
+
+import com.claro.ecuador.commons.instrumentation.InstrumentationProperties;
+import com.claro.ecuador.commons.instrumentation.PipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas del pipeline compartidas (pipeline-commons) con la configuración de back-logstash-connect.instrumentation
+ * Etapas validate y enrich por registro y deliver por lote; series en /actuator/prometheus
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class InstrumentationConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "back-logstash-connect.instrumentation")
+    public InstrumentationProperties instrumentationProperties() {
+        return new InstrumentationProperties();
+    }
+
+    @Bean
+    public PipelineMetrics pipelineMetrics(InstrumentationProperties instrumentationProperties, MeterRegistry meterRegistry) {
+        return new PipelineMetrics(instrumentationProperties, meterRegistry);
+    }
+}
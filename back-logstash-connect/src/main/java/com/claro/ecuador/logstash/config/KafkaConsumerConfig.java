@@ -0,0 +1,50 @@
+package com.claro.ecuador.logstash.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.Map;
+
+/**
+ * Configuración del listener batch de back-logstash-connect
+ * Sin auto-commit: cada lote de poll se confirma (AckMode MANUAL) recién cuando Logstash
+ * aceptó todos sus registros; las confirmaciones llegan desde los hilos HTTP y el contenedor
+ * las aplica en el hilo de consumo.
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Value("${back-logstash-connect.consumer.concurrency:1}")
+    private int concurrency;
+
+    @Value("${back-logstash-connect.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${back-logstash-connect.consumer.poll-timeout-ms:1000}")
+    private long pollTimeoutMs;
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> logstashKafkaListenerContainerFactory(
+            KafkaProperties kafkaProperties) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties();
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setPollTimeout(pollTimeoutMs);
+        return factory;
+    }
+}
@@ -0,0 +1,23 @@
+package com.claro.ecuador.logstash.config;
+
+import com.claro.ecuador.commons.logging.LogSummaryReporter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Resumen periódico de logs compartido (pipeline-commons) con la configuración de back-logstash-connect.logging
+ * SampledLogFilter y JsonLineLayout se configuran en logback-spring.xml
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class LoggingConfig {
+
+    @Bean
+    public LogSummaryReporter logSummaryReporter(MeterRegistry meterRegistry,
+                                                 @Value("${back-logstash-connect.logging.summary-interval-ms:60000}") long summaryIntervalMs) {
+        return new LogSummaryReporter(meterRegistry, "LOGSTASH CONNECT", summaryIntervalMs);
+    }
+}
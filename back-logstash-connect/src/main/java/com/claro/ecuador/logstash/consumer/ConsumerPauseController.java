@@ -0,0 +1,81 @@
+package com.claro.ecuador.logstash.consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Único dueño de la pausa de los listeners de Kafka
+ * Cada componente que necesita frenar el consumo (sink HTTP atrasado, cola de desborde llena) registra
+ * su motivo; los contenedores se pausan con el primer motivo y se reanudan recién cuando no queda
+ * ninguno, así un componente no reanuda el consumo mientras otro todavía lo necesita pausado.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class ConsumerPauseController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsumerPauseController.class);
+
+    public static final String REASON_LOGSTASH_PENDING = "logstash-pending";
+    public static final String REASON_SPILL_FULL = "spill-full";
+
+    @Autowired
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    // Motivos activos, protegidos por el monitor de la instancia
+    private final Set<String> reasons = new TreeSet<>();
+
+    /**
+     * @return true si el motivo no estaba registrado
+     */
+    public synchronized boolean pause(String reason) {
+        if (!reasons.add(reason)) {
+            return false;
+        }
+        if (reasons.size() == 1) {
+            for (MessageListenerContainer container : kafkaListenerEndpointRegistry.getListenerContainers()) {
+                if (container.isRunning()) {
+                    container.pause();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retira el motivo y reanuda los listeners si era el último
+     *
+     * @return true si el motivo estaba registrado
+     */
+    public synchronized boolean resume(String reason) {
+        if (!reasons.remove(reason)) {
+            return false;
+        }
+        if (!reasons.isEmpty()) {
+            logger.info("⏸️ Consumo de Kafka sigue pausado por: {}", reasons);
+            return true;
+        }
+        for (MessageListenerContainer container : kafkaListenerEndpointRegistry.getListenerContainers()) {
+            if (container.isRunning()) {
+                container.resume();
+            }
+        }
+        logger.info("▶️ Consumo de Kafka reanudado");
+        return true;
+    }
+
+    public synchronized boolean isPausedBy(String reason) {
+        return reasons.contains(reason);
+    }
+
+    public synchronized Set<String> reasons() {
+        return new TreeSet<>(reasons);
+    }
+}
@@ -1,16 +1,27 @@
 package com.claro.ecuador.logstash.consumer;
 
+import com.claro.ecuador.commons.instrumentation.PipelineMetrics;
+import com.claro.ecuador.logstash.deadletter.DeadLetterPublisher;
+import com.claro.ecuador.logstash.enrich.LogstashEventEnricher;
+import com.claro.ecuador.logstash.spill.SpillBuffer;
+import com.claro.ecuador.logstash.validation.SchemaValidationStage;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Consumer específico para topic: back-logstash-connect
- * Maneja únicamente eventos de conexión Kafka-Logstash
+ * Maneja los eventos de conexión Kafka-Logstash y los topics indexados en Elasticsearch
  *
  * @author Global HITSS
  */
@@ -19,78 +30,129 @@ public class LogstashConnectConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(LogstashConnectConsumer.class);
 
+    @Autowired
+    private LogstashEventEnricher logstashEventEnricher;
+
+    @Autowired
+    private SchemaValidationStage schemaValidationStage;
+
+    @Autowired
+    private SpillBuffer spillBuffer;
+
+    @Autowired
+    private DeadLetterPublisher deadLetterPublisher;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
     /**
      * Consumer exclusivo para topic back-logstash-connect
      * Propósito: Procesar eventos de conexión entre Kafka y Logstash
+     * Recibe el lote completo del poll; los offsets se confirman cuando Logstash acepta el lote.
      */
-    @KafkaListener(topics = "back-logstash-connect", groupId = "back-logstash-connect-group")
-    public void consumeLogstashConnectEvents(@Payload String message,
-                                           @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                                           @Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                                           @Header(KafkaHeaders.OFFSET) long offset) {
-        try {
-            logger.info("🔗 LOGSTASH CONNECT - Recibido evento en topic: {}, partition: {}, offset: {}",
-                       topic, partition, offset);
-            logger.debug("Mensaje: {}", message);
-
-            // Procesamiento específico para eventos de conexión Logstash
-            processLogstashConnectEvent(message);
-
-            logger.info("✅ LOGSTASH CONNECT - Evento procesado exitosamente - Offset: {}", offset);
-
-        } catch (Exception e) {
-            logger.error("❌ LOGSTASH CONNECT - Error procesando evento en topic {}: {}",
-                        topic, e.getMessage(), e);
-
-            // Manejo de errores específico para este topic
-            handleLogstashConnectError(message, topic, e);
-        }
+    @KafkaListener(topics = "back-logstash-connect", groupId = "back-logstash-connect-group",
+                   containerFactory = "logstashKafkaListenerContainerFactory")
+    public void consumeLogstashConnectEvents(List<ConsumerRecord<String, String>> records, Acknowledgment ack) {
+        logger.debug("🔗 LOGSTASH CONNECT - Recibidos {} eventos", records.size());
+        processBatch(records, ack);
     }
 
     /**
-     * Lógica específica para eventos de conexión Logstash
+     * Topics que antes indexaba el input kafka de Logstash (Events, salesforce.customer, salesforce.orders)
+     * Usa el group id de ese input para continuar desde sus offsets; varios hilos de consumo
+     * (enrichment.concurrency) reemplazan el consumer_threads => 1 de Logstash.
      */
-    private void processLogstashConnectEvent(String message) {
-        logger.info("🔧 Procesando evento específico de conexión Logstash");
-
-        // Aquí va la lógica específica para:
-        // 1. Validar formato de eventos para Logstash
-        // 2. Transformar datos para compatibilidad
-        // 3. Preparar datos para envío a Elasticsearch vía Logstash
-        // 4. Aplicar filtros específicos de Logstash
-
-        // Simular procesamiento específico
-        if (message.contains("logstash") || message.contains("connect")) {
-            logger.info("📊 Evento identificado como específico de Logstash Connect");
+    @KafkaListener(topics = "#{'${back-logstash-connect.enrichment.kafka-topics:Events,salesforce.customer,salesforce.orders}'.split(',')}",
+                   groupId = "${back-logstash-connect.enrichment.group-id:elasticsearch-group}",
+                   concurrency = "${back-logstash-connect.enrichment.concurrency:3}",
+                   containerFactory = "logstashKafkaListenerContainerFactory")
+    public void consumeIndexedTopics(List<ConsumerRecord<String, String>> records, Acknowledgment ack) {
+        logger.debug("🔗 INDEXACIÓN - Recibidos {} eventos", records.size());
+        processBatch(records, ack);
+    }
+
+    private void processBatch(List<ConsumerRecord<String, String>> records, Acknowledgment ack) {
+        List<byte[]> documents = new ArrayList<>(records.size());
+        // Envíos a errors.events de este poll; el ack los espera
+        List<CompletableFuture<Void>> deadLetters = new ArrayList<>();
+        for (ConsumerRecord<String, String> record : records) {
+            String eventType = logstashEventEnricher.eventType(record.topic());
+            try {
+                logger.debug("Mensaje en partition {}, offset {}: {}", record.partition(), record.offset(), record.value());
+                // Los registros que no cumplen el esquema de su topic se envían a errors.events (en deadLetters)
+                long stageStart = pipelineMetrics.start();
+                boolean accepted = schemaValidationStage.accept(record, deadLetters);
+                pipelineMetrics.recordStage(PipelineMetrics.STAGE_VALIDATE, record.topic(), eventType, stageStart);
+                if (accepted) {
+                    stageStart = pipelineMetrics.start();
+                    processLogstashConnectEvent(record, documents);
+                    pipelineMetrics.recordStage(PipelineMetrics.STAGE_ENRICH, record.topic(), eventType, stageStart);
+                    pipelineMetrics.recordOutcome(record.topic(), eventType, PipelineMetrics.OUTCOME_PROCESSED);
+                } else {
+                    pipelineMetrics.recordOutcome(record.topic(), eventType, PipelineMetrics.OUTCOME_REJECTED);
+                }
+            } catch (Exception e) {
+                logger.error("❌ LOGSTASH CONNECT - Error procesando evento en topic {} (offset {}): {}",
+                            record.topic(), record.offset(), e.getMessage(), e);
+                pipelineMetrics.recordOutcome(record.topic(), eventType, PipelineMetrics.OUTCOME_FAILED);
+
+                // Manejo de errores específico para este topic
+                deadLetters.add(handleLogstashConnectError(record, e));
+            }
         }
 
         // Enviar a Logstash pipeline
-        sendToLogstashPipeline(message);
+        long stageStart = pipelineMetrics.start();
+        sendToLogstashPipeline(documents, deadLetters, ack);
+        pipelineMetrics.recordStage(PipelineMetrics.STAGE_DELIVER, batchTopic(records), PipelineMetrics.TYPE_BATCH, stageStart);
     }
 
     /**
-     * Envío específico al pipeline de Logstash
+     * Topic del lote para la métrica de entrega ("mixed" si trae registros de varios topics)
      */
-    private void sendToLogstashPipeline(String message) {
-        logger.info("📤 Enviando evento al pipeline de Logstash");
+    private static String batchTopic(List<ConsumerRecord<String, String>> records) {
+        String topic = records.isEmpty() ? null : records.get(0).topic();
+        for (ConsumerRecord<String, String> record : records) {
+            if (!record.topic().equals(topic)) {
+                return PipelineMetrics.MIXED_TOPICS;
+            }
+        }
+        return topic;
+    }
 
-        // Aquí iría la integración específica con Logstash:
-        // 1. Formateo específico para Logstash
-        // 2. Envío HTTP a Logstash input
-        // 3. Validación de entrega
+    /**
+     * Lógica específica para eventos de conexión Logstash
+     * Enriquece el registro como lo hacía el filtro de Logstash y lo deja listo para indexar
+     * (ver LogstashEventEnricher)
+     * Visible en el paquete: es el punto de entrada que mide el módulo benchmarks
+     */
+    void processLogstashConnectEvent(ConsumerRecord<String, String> record, List<byte[]> documents)
+            throws IOException {
+        logstashEventEnricher.enrich(record, documents);
+    }
 
-        logger.info("✅ Evento enviado al pipeline de Logstash");
+    /**
+     * Envío específico al pipeline de Logstash (input HTTP, ver LogstashHttpSink)
+     * Si Logstash está caído o atrasado el lote pasa por la cola de desborde en disco (ver SpillBuffer)
+     */
+    private void sendToLogstashPipeline(List<byte[]> documents, List<CompletableFuture<Void>> deadLetters,
+                                        Acknowledgment ack) {
+        spillBuffer.deliver(documents, deadLetters, ack);
+        logger.debug("📤 {} eventos encolados para el pipeline de Logstash", documents.size());
     }
 
     /**
      * Manejo de errores específico para este topic
+     * El registro no se indexa: se publica en errors.events (errorType = clase de la excepción, como
+     * en events-processor) y el ack del poll espera esa publicación.
      */
-    private void handleLogstashConnectError(String message, String topic, Exception error) {
-        logger.error("🚨 Error específico en LOGSTASH CONNECT: {}", error.getMessage());
-
-        // Lógica de error específica para conexión Logstash:
-        // 1. Reintentos específicos
-        // 2. Alertas para equipo de Logstash
-        // 3. Métricas específicas de conectividad
+    private CompletableFuture<Void> handleLogstashConnectError(ConsumerRecord<String, String> record, Exception error) {
+        logger.error("🚨 Error específico en LOGSTASH CONNECT, registro enviado a {}: {}",
+                    deadLetterPublisher.getTopic(), error.getMessage());
+        Map<String, Object> errorEvent = deadLetterPublisher.errorEvent(record.topic(), error.getClass().getSimpleName(),
+                String.valueOf(error.getMessage()), record.value());
+        errorEvent.put("partition", record.partition());
+        errorEvent.put("offset", record.offset());
+        return deadLetterPublisher.publish(record.key(), errorEvent);
     }
-}
\ No newline at end of file
+}
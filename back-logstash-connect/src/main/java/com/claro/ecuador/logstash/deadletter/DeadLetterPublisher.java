@@ -0,0 +1,160 @@
+package com.claro.ecuador.logstash.deadletter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publicación de registros fallidos en errors.events con el esquema que espera errors-handler
+ * (topic, errorType, error, timestamp, originalMessage)
+ * El futuro de publish() se completa recién cuando el broker confirmó el envío: los llamadores retienen
+ * el ack de Kafka hasta entonces (ver LogstashHttpSink), así un registro no se confirma sin haber
+ * llegado a errors.events. Un envío fallido se reintenta con backoff exponencial mientras la aplicación
+ * esté activa; al detenerla queda sin completar y el registro se vuelve a leer de Kafka.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class DeadLetterPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterPublisher.class);
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${back-logstash-connect.dead-letter.topic:errors.events}")
+    private String topic;
+
+    @Value("${back-logstash-connect.dead-letter.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${back-logstash-connect.dead-letter.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    private ScheduledExecutorService retryExecutor;
+    private volatile boolean running;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder unserializable = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        retryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dead-letter-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    /**
+     * Evento de error con los campos comunes; el llamador puede agregar detalles propios
+     */
+    public Map<String, Object> errorEvent(String originalTopic, String errorType, String error, String originalMessage) {
+        Map<String, Object> errorEvent = new LinkedHashMap<>();
+        errorEvent.put("topic", originalTopic);
+        errorEvent.put("errorType", errorType);
+        errorEvent.put("error", error);
+        errorEvent.put("timestamp", Instant.now().toString());
+        errorEvent.put("originalMessage", originalMessage);
+        return errorEvent;
+    }
+
+    /**
+     * Publica en el topic de back-logstash-connect.dead-letter.topic
+     */
+    public CompletableFuture<Void> publish(String key, Map<String, Object> errorEvent) {
+        return publish(topic, key, errorEvent);
+    }
+
+    /**
+     * @return futuro completado cuando el broker confirmó el envío (nunca se completa con error)
+     */
+    public CompletableFuture<Void> publish(String deadLetterTopic, String key, Map<String, Object> errorEvent) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(errorEvent);
+        } catch (JsonProcessingException e) {
+            // Reintentar no lo corrige: se descarta para no retener el ack para siempre
+            unserializable.increment();
+            logger.error("❌ No se pudo serializar el evento de error para {}: {}", deadLetterTopic, e.getMessage());
+            done.complete(null);
+            return done;
+        }
+        send(deadLetterTopic, key, payload, 0, done);
+        return done;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("topic", topic);
+        stats.put("published", published.sum());
+        stats.put("retries", retries.sum());
+        stats.put("unserializable", unserializable.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        retryExecutor.shutdownNow();
+    }
+
+    private void send(String deadLetterTopic, String key, String payload, int attempt, CompletableFuture<Void> done) {
+        try {
+            kafkaTemplate.send(deadLetterTopic, key, payload).addCallback(
+                    result -> {
+                        published.increment();
+                        done.complete(null);
+                    },
+                    failure -> retryLater(deadLetterTopic, key, payload, attempt, done, failure));
+        } catch (RuntimeException e) {
+            retryLater(deadLetterTopic, key, payload, attempt, done, e);
+        }
+    }
+
+    private void retryLater(String deadLetterTopic, String key, String payload, int attempt,
+                            CompletableFuture<Void> done, Throwable failure) {
+        if (!running) {
+            logger.error("❌ Evento de error sin publicar en {} al detener: el registro se volverá a leer de Kafka",
+                    deadLetterTopic);
+            return;
+        }
+        long backoff = Math.min(retryBackoffMs << Math.min(attempt, 16), maxBackoffMs);
+        retries.increment();
+        logger.warn("⚠️ No se pudo publicar en {} ({}), reintento en {} ms", deadLetterTopic, failure.getMessage(), backoff);
+        try {
+            retryExecutor.schedule(() -> send(deadLetterTopic, key, payload, attempt + 1, done),
+                    backoff, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.error("❌ Evento de error sin publicar en {} al detener: el registro se volverá a leer de Kafka",
+                    deadLetterTopic);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.claro.ecuador.logstash.enrich;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/enrichment
+ * Destino, documentos enriquecidos, fallos de parseo JSON e índice en curso por topic
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "enrichment")
+public class EnrichmentEndpoint {
+
+    @Autowired
+    private LogstashEventEnricher logstashEventEnricher;
+
+    @ReadOperation
+    public Map<String, Object> enrichment() {
+        return logstashEventEnricher.stats();
+    }
+}
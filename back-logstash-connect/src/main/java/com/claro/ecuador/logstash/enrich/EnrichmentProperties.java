@@ -0,0 +1,121 @@
+package com.claro.ecuador.logstash.enrich;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Enriquecimiento y ruteo a índices (back-logstash-connect.enrichment)
+ * Una entrada por topic; replica el filtro de logstash/config/kafka-to-elasticsearch.conf.
+ * Los topics sin entrada solo reciben los campos comunes (timestamp y metadatos de Kafka).
+ *
+ * @author Global HITSS
+ */
+@Component
+@ConfigurationProperties(prefix = "back-logstash-connect.enrichment")
+public class EnrichmentProperties {
+
+    private String indexPrefix = "transforma-ecuador-";
+    private String indexDatePattern = "yyyy.MM.dd";
+    private String documentType = "_doc";
+    private Map<String, Topic> topics = new LinkedHashMap<>();
+
+    public String getIndexPrefix() {
+        return indexPrefix;
+    }
+
+    public void setIndexPrefix(String indexPrefix) {
+        this.indexPrefix = indexPrefix;
+    }
+
+    public String getIndexDatePattern() {
+        return indexDatePattern;
+    }
+
+    public void setIndexDatePattern(String indexDatePattern) {
+        this.indexDatePattern = indexDatePattern;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public void setDocumentType(String documentType) {
+        this.documentType = documentType;
+    }
+
+    public Map<String, Topic> getTopics() {
+        return topics;
+    }
+
+    public void setTopics(Map<String, Topic> topics) {
+        this.topics = topics;
+    }
+
+    /**
+     * Reglas de un topic
+     */
+    public static class Topic {
+
+        private String eventType;
+        private String sourceSystem;
+        // kafka_topic / kafka_partition / kafka_offset del registro (input kafka de Logstash)
+        private boolean kafkaMetadata = true;
+        private List<String> tags = new ArrayList<>();
+        private List<String> removeFields = new ArrayList<>();
+        // Valores de eventType (sin distinguir mayúsculas) cuyos eventos no se indexan
+        private List<String> dropEventTypes = new ArrayList<>();
+
+        public String getEventType() {
+            return eventType;
+        }
+
+        public void setEventType(String eventType) {
+            this.eventType = eventType;
+        }
+
+        public String getSourceSystem() {
+            return sourceSystem;
+        }
+
+        public void setSourceSystem(String sourceSystem) {
+            this.sourceSystem = sourceSystem;
+        }
+
+        public boolean isKafkaMetadata() {
+            return kafkaMetadata;
+        }
+
+        public void setKafkaMetadata(boolean kafkaMetadata) {
+            this.kafkaMetadata = kafkaMetadata;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+        public List<String> getRemoveFields() {
+            return removeFields;
+        }
+
+        public void setRemoveFields(List<String> removeFields) {
+            this.removeFields = removeFields;
+        }
+
+        public List<String> getDropEventTypes() {
+            return dropEventTypes;
+        }
+
+        public void setDropEventTypes(List<String> dropEventTypes) {
+            this.dropEventTypes = dropEventTypes;
+        }
+    }
+}
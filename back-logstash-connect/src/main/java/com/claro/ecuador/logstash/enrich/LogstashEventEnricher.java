@@ -0,0 +1,429 @@
+package com.claro.ecuador.logstash.enrich;
+
+import com.claro.ecuador.commons.instrumentation.PipelineMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Enriquecimiento y ruteo en proceso, equivalente al filtro de Logstash
+ * - Decodifica como el codec json (objeto, arreglo de objetos o _jsonparsefailure) y completa
+ *   @timestamp / @version como un evento de Logstash
+ * - Tabla de reglas compilada por topic: tags, timestamp, kafka_topic/partition/offset,
+ *   event_type, source_system y campos a quitar, con la semántica de add_field (un campo
+ *   existente pasa a arreglo)
+ * - Índice transforma-ecuador-{event_type}-{yyyy.MM.dd} según @timestamp (UTC), cacheado por día
+ * - Descarte por eventType (drop-event-types): los SYSTEM_METRIC de Events no se indexan crudos
+ *   porque events-processor los almacena agregados por ventana (rollups)
+ * Con output.target=elasticsearch cada documento es una acción bulk (acción + fuente); con
+ * output.target=logstash el índice viaja en [@metadata][index] y Logstash solo reenvía.
+ * Es thread-safe: lo usan todos los hilos de consumo.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class LogstashEventEnricher {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogstashEventEnricher.class);
+
+    static final String TARGET_LOGSTASH = "logstash";
+    static final String TARGET_ELASTICSEARCH = "elasticsearch";
+
+    private static final String TIMESTAMP = "@timestamp";
+    private static final String VERSION = "@version";
+    private static final String METADATA = "@metadata";
+    private static final String TAGS = "tags";
+    private static final String EVENT_TYPE = "event_type";
+    private static final String SOURCE_EVENT_TYPE = "eventType";
+    private static final long DAY_MS = 86_400_000L;
+
+    // Formato de LogStash::Timestamp#to_s (ISO8601 UTC con milisegundos)
+    private static final DateTimeFormatter LOGSTASH_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT).withZone(ZoneOffset.UTC);
+
+    @Autowired
+    private EnrichmentProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Value("${back-logstash-connect.output.target:logstash}")
+    private String target;
+
+    private final Map<String, CompiledRule> rules = new ConcurrentHashMap<>();
+    private boolean bulk;
+    private DateTimeFormatter indexDate;
+
+    @PostConstruct
+    public void compile() {
+        if (!TARGET_LOGSTASH.equals(target) && !TARGET_ELASTICSEARCH.equals(target)) {
+            throw new IllegalStateException("back-logstash-connect.output.target debe ser logstash o elasticsearch: " + target);
+        }
+        bulk = TARGET_ELASTICSEARCH.equals(target);
+        indexDate = DateTimeFormatter.ofPattern(properties.getIndexDatePattern(), Locale.ROOT).withZone(ZoneOffset.UTC);
+        for (Map.Entry<String, EnrichmentProperties.Topic> entry : properties.getTopics().entrySet()) {
+            rules.put(entry.getKey(), new CompiledRule(entry.getKey(), entry.getValue()));
+        }
+        logger.info("🧩 Enriquecimiento en proceso - {} reglas por topic ({}), destino: {}",
+                rules.size(), rules.keySet(), target);
+    }
+
+    /**
+     * Enriquece un registro y agrega a out los documentos listos para indexar (normalmente uno;
+     * un arreglo JSON genera uno por elemento)
+     *
+     * @return cantidad de documentos agregados
+     */
+    public int enrich(ConsumerRecord<String, String> record, List<byte[]> out) throws IOException {
+        String value = record.value();
+        if (value == null || value.trim().isEmpty()) {
+            return 0;
+        }
+        CompiledRule rule = rule(record.topic());
+        List<ObjectNode> events = decode(value, rule);
+        int added = 0;
+        for (ObjectNode event : events) {
+            if (rule.drops(event)) {
+                rule.dropped.increment();
+                continue;
+            }
+            recordLag(rule, event);
+            long millis = initEvent(event);
+            rule.apply(event, record);
+            out.add(render(rule, event, millis));
+            added++;
+        }
+        rule.enriched.add(added);
+        return added;
+    }
+
+    /**
+     * event_type que la regla del topic agrega a sus documentos (null si no agrega ninguno)
+     */
+    public String eventType(String topic) {
+        return rule(topic).eventType;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("target", target);
+        Map<String, Object> byTopic = new LinkedHashMap<>();
+        for (CompiledRule rule : rules.values()) {
+            Map<String, Object> topicStats = new LinkedHashMap<>();
+            topicStats.put("eventType", rule.eventType);
+            topicStats.put("enriched", rule.enriched.sum());
+            topicStats.put("jsonParseFailures", rule.parseFailures.sum());
+            topicStats.put("dropEventTypes", rule.dropEventTypes);
+            topicStats.put("dropped", rule.dropped.sum());
+            topicStats.put("currentIndex", rule.day != null ? rule.day.index : null);
+            byTopic.put(rule.topic, topicStats);
+        }
+        stats.put("topics", byTopic);
+        return stats;
+    }
+
+    private CompiledRule rule(String topic) {
+        CompiledRule rule = rules.get(topic);
+        if (rule != null) {
+            return rule;
+        }
+        return rules.computeIfAbsent(topic, name -> new CompiledRule(name, new EnrichmentProperties.Topic()));
+    }
+
+    /**
+     * Codec json: un objeto es un evento, un arreglo de objetos un evento por elemento y
+     * cualquier otra cosa un evento con message y el tag _jsonparsefailure
+     */
+    private List<ObjectNode> decode(String value, CompiledRule rule) {
+        List<ObjectNode> events = new ArrayList<>(1);
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(value);
+        } catch (IOException e) {
+            json = null;
+        }
+        if (json != null && json.isObject()) {
+            events.add((ObjectNode) json);
+            return events;
+        }
+        if (json != null && json.isArray() && json.size() > 0) {
+            for (JsonNode element : json) {
+                if (!element.isObject()) {
+                    events.clear();
+                    break;
+                }
+                events.add((ObjectNode) element);
+            }
+            if (!events.isEmpty()) {
+                return events;
+            }
+        }
+        rule.parseFailures.increment();
+        ObjectNode failure = objectMapper.createObjectNode();
+        failure.put("message", value);
+        addTag(failure, "_jsonparsefailure");
+        events.add(failure);
+        return events;
+    }
+
+    /**
+     * Lag desde el timestamp de origen del evento (campo timestamp de Salesforce o, si falta, @timestamp)
+     */
+    private void recordLag(CompiledRule rule, ObjectNode event) {
+        JsonNode timestamp = event.get("timestamp");
+        if (timestamp == null || !timestamp.isTextual()) {
+            timestamp = event.get(TIMESTAMP);
+        }
+        if (timestamp != null && timestamp.isTextual()) {
+            pipelineMetrics.recordLag(rule.topic, rule.eventType, timestamp.asText());
+        }
+    }
+
+    /**
+     * @timestamp y @version como en el constructor de un evento de Logstash
+     *
+     * @return @timestamp del evento en milisegundos
+     */
+    private long initEvent(ObjectNode event) {
+        long millis = System.currentTimeMillis();
+        JsonNode timestamp = event.get(TIMESTAMP);
+        if (timestamp != null && !timestamp.isNull()) {
+            Long parsed = timestamp.isTextual() ? parseTimestamp(timestamp.asText()) : null;
+            if (parsed != null) {
+                millis = parsed;
+            } else {
+                event.set("_@timestamp", timestamp);
+                addTag(event, "_timestampparsefailure");
+            }
+        }
+        event.put(TIMESTAMP, LOGSTASH_TIMESTAMP.format(Instant.ofEpochMilli(millis)));
+        if (!event.has(VERSION)) {
+            event.put(VERSION, "1");
+        }
+        return millis;
+    }
+
+    private byte[] render(CompiledRule rule, ObjectNode event, long millis) throws IOException {
+        String index = rule.index(event.get(EVENT_TYPE), millis);
+        JsonNode metadata = event.remove(METADATA);
+        if (!bulk) {
+            ObjectNode forwarded = metadata instanceof ObjectNode ? (ObjectNode) metadata : objectMapper.createObjectNode();
+            forwarded.put("index", index);
+            event.set(METADATA, forwarded);
+            return objectMapper.writeValueAsBytes(event);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.write(rule.actionLine(index));
+        out.write('\n');
+        objectMapper.writeValue(out, event);
+        return out.toByteArray();
+    }
+
+    private static Long parseTimestamp(String text) {
+        try {
+            return OffsetDateTime.parse(text, DateTimeFormatter.ISO_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            try {
+                // Sin zona: UTC
+                return LocalDateTime.parse(text, DateTimeFormatter.ISO_DATE_TIME).toInstant(ZoneOffset.UTC).toEpochMilli();
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * add_field de Logstash: si el campo existe se convierte en arreglo y se agrega el valor
+     */
+    private static void addField(ObjectNode event, String field, String value) {
+        JsonNode existing = event.get(field);
+        if (existing == null) {
+            event.put(field, value);
+        } else if (existing.isArray()) {
+            ((ArrayNode) existing).add(value);
+        } else {
+            ArrayNode values = event.arrayNode();
+            values.add(existing);
+            values.add(value);
+            event.set(field, values);
+        }
+    }
+
+    /**
+     * Event#tag de Logstash: agrega el tag si no está
+     */
+    private static void addTag(ObjectNode event, String tag) {
+        JsonNode existing = event.get(TAGS);
+        ArrayNode tags;
+        if (existing != null && existing.isArray()) {
+            tags = (ArrayNode) existing;
+        } else {
+            tags = event.arrayNode();
+            if (existing != null && !existing.isNull()) {
+                tags.add(existing);
+            }
+            event.set(TAGS, tags);
+        }
+        for (JsonNode current : tags) {
+            if (tag.equals(current.asText())) {
+                return;
+            }
+        }
+        tags.add(tag);
+    }
+
+    /**
+     * Regla compilada de un topic
+     */
+    private final class CompiledRule {
+
+        private final String topic;
+        private final String eventType;
+        private final String sourceSystem;
+        private final boolean kafkaMetadata;
+        private final String[] tags;
+        private final String[] removeFields;
+        private final Set<String> dropEventTypes = new HashSet<>();
+
+        private final LongAdder enriched = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder parseFailures = new LongAdder();
+
+        // Índice del día en curso para el event_type de la regla
+        private volatile DayIndex day;
+
+        private CompiledRule(String topic, EnrichmentProperties.Topic config) {
+            this.topic = topic;
+            this.eventType = config.getEventType();
+            this.sourceSystem = config.getSourceSystem();
+            this.kafkaMetadata = config.isKafkaMetadata();
+            this.tags = config.getTags().toArray(new String[0]);
+            this.removeFields = config.getRemoveFields().toArray(new String[0]);
+            for (String type : config.getDropEventTypes()) {
+                dropEventTypes.add(type.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+
+        private boolean drops(ObjectNode event) {
+            if (dropEventTypes.isEmpty()) {
+                return false;
+            }
+            JsonNode type = event.get(SOURCE_EVENT_TYPE);
+            return type != null && type.isTextual() && dropEventTypes.contains(type.asText().toUpperCase(Locale.ROOT));
+        }
+
+        private void apply(ObjectNode event, ConsumerRecord<String, String> record) {
+            for (String tag : tags) {
+                addTag(event, tag);
+            }
+            JsonNode timestamp = event.get("timestamp");
+            if (timestamp == null || timestamp.isNull()) {
+                addField(event, "timestamp", event.get(TIMESTAMP).asText());
+            }
+            addField(event, "kafka_topic", topic);
+            if (kafkaMetadata) {
+                addField(event, "kafka_partition", Integer.toString(record.partition()));
+                addField(event, "kafka_offset", Long.toString(record.offset()));
+            }
+            if (eventType != null) {
+                addField(event, EVENT_TYPE, eventType);
+            }
+            if (sourceSystem != null) {
+                addField(event, "source_system", sourceSystem);
+            }
+            for (String field : removeFields) {
+                event.remove(field);
+            }
+        }
+
+        private String index(JsonNode eventTypeNode, long millis) {
+            String type;
+            if (eventTypeNode == null) {
+                // Logstash deja la referencia sin resolver
+                type = "%{event_type}";
+            } else if (eventTypeNode.isArray()) {
+                StringBuilder joined = new StringBuilder();
+                for (JsonNode element : eventTypeNode) {
+                    if (joined.length() > 0) {
+                        joined.append(',');
+                    }
+                    joined.append(element.asText());
+                }
+                type = joined.toString();
+            } else {
+                type = eventTypeNode.asText();
+            }
+            long dayNumber = Math.floorDiv(millis, DAY_MS);
+            if (!type.equals(eventType)) {
+                return properties.getIndexPrefix() + type + "-" + indexDate.format(Instant.ofEpochMilli(millis));
+            }
+            DayIndex current = day;
+            if (current == null || current.day != dayNumber) {
+                String index = properties.getIndexPrefix() + type + "-" + indexDate.format(Instant.ofEpochMilli(millis));
+                current = new DayIndex(dayNumber, index);
+                day = current;
+            }
+            return current.index;
+        }
+
+        private byte[] actionLine(String index) throws IOException {
+            DayIndex current = day;
+            if (current != null && current.index.equals(index)) {
+                if (current.actionLine == null) {
+                    current.actionLine = buildActionLine(index);
+                }
+                return current.actionLine;
+            }
+            return buildActionLine(index);
+        }
+
+        private byte[] buildActionLine(String index) throws IOException {
+            ObjectNode action = objectMapper.createObjectNode();
+            ObjectNode metadata = action.putObject("index");
+            metadata.put("_index", index);
+            metadata.put("_type", properties.getDocumentType());
+            return objectMapper.writeValueAsBytes(action);
+        }
+    }
+
+    private static final class DayIndex {
+
+        private final long day;
+        private final String index;
+        private volatile byte[] actionLine;
+
+        private DayIndex(long day, String index) {
+            this.day = day;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,596 @@
+package com.claro.ecuador.logstash.sink;
+
+import com.claro.ecuador.logstash.consumer.ConsumerPauseController;
+import com.claro.ecuador.logstash.deadletter.DeadLetterPublisher;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sink hacia el input HTTP de Logstash, o directo a la API _bulk de Elasticsearch con
+ * back-logstash-connect.output.target=elasticsearch (documentos ya enriquecidos, ver LogstashEventEnricher)
+ * 1. Los documentos se acumulan y se envían como NDJSON comprimido con gzip al llegar a
+ *    batch-size documentos / batch-bytes o cada linger-ms
+ * 2. Cliente HTTP con conexiones keep-alive reutilizadas y a lo sumo max-in-flight peticiones en vuelo
+ * 3. Un lote de poll de Kafka se confirma solo cuando Logstash aceptó todos sus documentos, sus
+ *    envíos a errors.events terminaron y todos los polls anteriores ya se confirmaron (el commit
+ *    nunca salta registros no entregados)
+ * 4. Fallos de conexión, 408, 429 y 5xx se reintentan con backoff exponencial hasta lograrlo;
+ *    ante otro 4xx el lote se divide en mitades hasta aislar los documentos rechazados, que se
+ *    publican en errors.events (LOGSTASH_REJECTED) antes de confirmar su poll
+ * 5. Con max-pending-records sin confirmar se pausan los listeners y se reanudan a la mitad
+ *    (ConsumerPauseController: no se reanudan si la cola de desborde también los tiene pausados)
+ *
+ * @author Global HITSS
+ */
+@Component
+public class LogstashHttpSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogstashHttpSink.class);
+
+    private static final ContentType NDJSON = ContentType.create("application/x-ndjson");
+
+    // Campos topic / errorType de los documentos rechazados en errors.events (el documento ya está enriquecido)
+    static final String DEAD_LETTER_TOPIC_LABEL = "back-logstash-connect";
+    static final String REJECTED_ERROR_TYPE = "LOGSTASH_REJECTED";
+
+    @Autowired
+    private ConsumerPauseController consumerPauseController;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DeadLetterPublisher deadLetterPublisher;
+
+    @Value("${back-logstash-connect.output.target:logstash}")
+    private String target;
+
+    @Value("${back-logstash-connect.logstash.url:http://logstash:8080}")
+    private String logstashUrl;
+
+    @Value("${back-logstash-connect.elasticsearch.bulk-url:http://elasticsearch:9200/_bulk}")
+    private String bulkUrl;
+
+    private String url;
+    private boolean bulk;
+
+    @Value("${back-logstash-connect.logstash.batch-size:500}")
+    private int batchSize;
+
+    @Value("${back-logstash-connect.logstash.batch-bytes:1048576}")
+    private int batchBytes;
+
+    @Value("${back-logstash-connect.logstash.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${back-logstash-connect.logstash.gzip:true}")
+    private boolean gzip;
+
+    @Value("${back-logstash-connect.logstash.request-timeout-ms:10000}")
+    private int requestTimeoutMs;
+
+    @Value("${back-logstash-connect.logstash.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${back-logstash-connect.logstash.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    @Value("${back-logstash-connect.logstash.max-pending-records:20000}")
+    private int maxPendingRecords;
+
+    private CloseableHttpClient httpClient;
+    private ExecutorService senders;
+    private volatile boolean running;
+    private volatile boolean failing;
+
+    // Lote en armado, protegido por el monitor de la instancia
+    private Batch current = new Batch();
+
+    // Polls en orden de llegada; se confirman desde la cabeza cuando se completan
+    private final ArrayDeque<PendingPoll> polls = new ArrayDeque<>();
+
+    private final AtomicInteger pendingRecords = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder bisections = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder committedPolls = new LongAdder();
+    private final LongAdder bulkItemErrors = new LongAdder();
+    private final LongAdder pauses = new LongAdder();
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong lastLatencyMs = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        bulk = "elasticsearch".equals(target);
+        url = bulk ? bulkUrl : logstashUrl;
+        PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager();
+        connections.setMaxTotal(maxInFlight);
+        connections.setDefaultMaxPerRoute(maxInFlight);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(requestTimeoutMs)
+                .setSocketTimeout(requestTimeoutMs)
+                .setConnectionRequestTimeout(requestTimeoutMs)
+                .build();
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connections)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+
+        AtomicInteger threads = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "logstash-http-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        logger.info("🔌 Sink HTTP activo ({}) - URL: {}, lote: {} docs / {} bytes, gzip: {}, en vuelo: {}",
+                target, url, batchSize, batchBytes, gzip, maxInFlight);
+    }
+
+    /**
+     * Agrega los documentos (una línea JSON cada uno) de un lote de poll
+     * El ack se ejecuta cuando Logstash aceptó todos los documentos de este poll y de los anteriores.
+     */
+    public void send(List<byte[]> documents, Acknowledgment ack) {
+        send(documents, Collections.<CompletableFuture<Void>>emptyList(), ack);
+    }
+
+    /**
+     * Igual que send(documents, ack), esperando además los envíos a errors.events de los registros
+     * del poll que no generaron documento (rechazados por esquema o con error de enriquecimiento)
+     */
+    public void send(List<byte[]> documents, List<CompletableFuture<Void>> deadLetters, Acknowledgment ack) {
+        Runnable onDelivered = ack != null ? ack::acknowledge : null;
+        enqueue(documents, deadLetters, onDelivered);
+    }
+
+    /**
+     * Igual que send(documents, ack) pero con una acción propia al completarse (p. ej. la cola de desborde)
+     * onDelivered se ejecuta en orden respecto de los demás envíos, bajo el mismo criterio que el ack.
+     */
+    public void enqueue(List<byte[]> documents, Runnable onDelivered) {
+        enqueue(documents, Collections.<CompletableFuture<Void>>emptyList(), onDelivered);
+    }
+
+    private void enqueue(List<byte[]> documents, List<CompletableFuture<Void>> deadLetters, Runnable onDelivered) {
+        PendingPoll poll = new PendingPoll(onDelivered, documents.size() + deadLetters.size());
+        synchronized (polls) {
+            polls.addLast(poll);
+        }
+        for (CompletableFuture<Void> deadLetter : deadLetters) {
+            deadLetter.thenRun(() -> {
+                poll.remaining.decrementAndGet();
+                commitCompletedPolls();
+            });
+        }
+        if (documents.isEmpty()) {
+            commitCompletedPolls();
+            return;
+        }
+        if (pendingRecords.addAndGet(documents.size()) >= maxPendingRecords) {
+            pauseConsumers();
+        }
+        for (byte[] document : documents) {
+            Batch ready = null;
+            synchronized (this) {
+                current.add(document, poll);
+                if (current.size() >= batchSize || current.bytes >= batchBytes) {
+                    ready = current;
+                    current = new Batch();
+                }
+            }
+            if (ready != null) {
+                submit(ready);
+            }
+        }
+    }
+
+    /**
+     * Documentos entregados al sink y aún no aceptados por Logstash
+     */
+    public int pendingRecords() {
+        return pendingRecords.get();
+    }
+
+    /**
+     * @return true si la última petición a Logstash falló y se está reintentando
+     */
+    public boolean isFailing() {
+        return failing;
+    }
+
+    /**
+     * Envía el lote en armado aunque no esté lleno
+     */
+    @Scheduled(fixedDelayString = "${back-logstash-connect.logstash.linger-ms:200}")
+    public void flush() {
+        Batch ready;
+        synchronized (this) {
+            if (current.size() == 0) {
+                return;
+            }
+            ready = current;
+            current = new Batch();
+        }
+        submit(ready);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("target", target);
+        stats.put("url", url);
+        stats.put("gzip", gzip);
+        stats.put("pendingRecords", pendingRecords.get());
+        synchronized (polls) {
+            stats.put("pendingPolls", polls.size());
+        }
+        stats.put("inFlight", inFlight.get());
+        stats.put("failing", failing);
+        stats.put("maxInFlight", maxInFlight);
+        stats.put("consumersPaused", consumerPauseController.isPausedBy(ConsumerPauseController.REASON_LOGSTASH_PENDING));
+        stats.put("pauseReasons", consumerPauseController.reasons());
+        stats.put("pauses", pauses.sum());
+        stats.put("requests", requests.sum());
+        stats.put("sent", sent.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("bisections", bisections.sum());
+        stats.put("retries", retries.sum());
+        if (bulk) {
+            stats.put("bulkItemErrors", bulkItemErrors.sum());
+        }
+        stats.put("committedPolls", committedPolls.sum());
+        long raw = rawBytes.get();
+        stats.put("rawBytes", raw);
+        stats.put("wireBytes", wireBytes.get());
+        stats.put("compressionRatio", raw > 0 ? Math.round(wireBytes.get() * 1000.0 / raw) / 1000.0 : null);
+        stats.put("lastLatencyMs", lastLatencyMs.get());
+        stats.put("deadLetter", deadLetterPublisher.stats());
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flush();
+        running = false;
+        senders.shutdown();
+        if (!senders.awaitTermination(requestTimeoutMs, TimeUnit.MILLISECONDS)) {
+            logger.warn("⚠️ Lotes a Logstash sin confirmar al detener: se volverán a leer de Kafka");
+            senders.shutdownNow();
+        }
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            logger.warn("Error cerrando cliente HTTP de Logstash: {}", e.getMessage());
+        }
+    }
+
+    private void submit(Batch batch) {
+        senders.execute(() -> deliver(batch));
+    }
+
+    /**
+     * Envía el lote hasta que Logstash lo acepte y confirma los polls completos
+     * Los documentos que Logstash rechaza (o un lote que no se pudo armar) pasan a errors.events;
+     * solo un lote interrumpido al detener la aplicación queda sin confirmar.
+     */
+    private void deliver(Batch batch) {
+        inFlight.incrementAndGet();
+        List<Rejection> rejections = new ArrayList<>();
+        boolean completed = false;
+        try {
+            rawBytes.addAndGet(batch.bytes);
+            completed = deliverRange(batch, 0, batch.size(), rejections);
+        } catch (IOException | RuntimeException e) {
+            if (!running) {
+                // Cliente cerrado al detener: el lote se vuelve a leer de Kafka
+                return;
+            }
+            logger.error("❌ No se pudo armar el lote para Logstash, {} documentos a errors.events: {}",
+                    batch.size(), e.getMessage());
+            rejections.clear();
+            for (int i = 0; i < batch.size(); i++) {
+                rejections.add(new Rejection(i, "Lote no armado: " + e));
+            }
+            rejected.add(batch.size());
+            completed = true;
+        } finally {
+            inFlight.decrementAndGet();
+            if (completed) {
+                settle(batch, rejections);
+            }
+        }
+    }
+
+    /**
+     * Envía los documentos [from, to) del lote; ante un 4xx no reintentable divide el rango en mitades
+     * hasta aislar los documentos rechazados
+     *
+     * @return false si la aplicación se detuvo antes de terminar
+     */
+    private boolean deliverRange(Batch batch, int from, int to, List<Rejection> rejections) throws IOException {
+        byte[] body = batch.body(from, to, gzip);
+        for (int attempt = 0; running || attempt == 0; attempt++) {
+            if (attempt > 0) {
+                retries.increment();
+                long backoff = Math.min(retryBackoffMs << Math.min(attempt - 1, 16), maxBackoffMs);
+                if (!sleep(backoff)) {
+                    return false;
+                }
+            }
+            int status = post(body);
+            if (status >= 200 && status < 300) {
+                failing = false;
+                sent.add(to - from);
+                return true;
+            }
+            if (status >= 400 && status < 500 && status != 408 && status != 429) {
+                failing = false;
+                if (to - from > 1) {
+                    bisections.increment();
+                    int middle = (from + to) >>> 1;
+                    logger.warn("⚠️ Logstash rechazó un lote de {} documentos con estado {}: se divide para aislar los rechazados",
+                            to - from, status);
+                    return deliverRange(batch, from, middle, rejections) && deliverRange(batch, middle, to, rejections);
+                }
+                rejected.increment();
+                rejections.add(new Rejection(from, "Logstash respondió " + status));
+                logger.error("❌ Logstash rechazó un documento con estado {}: se envía a errors.events", status);
+                return true;
+            }
+            failing = true;
+        }
+        return false;
+    }
+
+    /**
+     * Libera los documentos del lote en sus polls; los rechazados cuentan recién cuando su evento de
+     * error quedó publicado
+     */
+    private void settle(Batch batch, List<Rejection> rejections) {
+        boolean[] isRejected = new boolean[batch.size()];
+        for (Rejection rejection : rejections) {
+            isRejected[rejection.index] = true;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (!isRejected[i]) {
+                batch.owners.get(i).remaining.decrementAndGet();
+            }
+        }
+        for (Rejection rejection : rejections) {
+            PendingPoll owner = batch.owners.get(rejection.index);
+            Map<String, Object> errorEvent = deadLetterPublisher.errorEvent(DEAD_LETTER_TOPIC_LABEL, REJECTED_ERROR_TYPE,
+                    rejection.reason, new String(batch.documents.get(rejection.index), StandardCharsets.UTF_8));
+            errorEvent.put("target", target);
+            deadLetterPublisher.publish(null, errorEvent).thenRun(() -> {
+                owner.remaining.decrementAndGet();
+                commitCompletedPolls();
+            });
+        }
+        pendingRecords.addAndGet(-batch.size());
+        commitCompletedPolls();
+        resumeConsumersIfDrained();
+    }
+
+    /**
+     * @return estado HTTP, o -1 ante un error de conexión
+     */
+    private int post(byte[] body) {
+        requests.increment();
+        HttpPost post = new HttpPost(url);
+        ByteArrayEntity entity = new ByteArrayEntity(body, NDJSON);
+        if (gzip) {
+            entity.setContentEncoding("gzip");
+        }
+        post.setEntity(entity);
+        long start = System.currentTimeMillis();
+        try (CloseableHttpResponse response = httpClient.execute(post)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (bulk && status >= 200 && status < 300) {
+                countBulkItemErrors(EntityUtils.toByteArray(response.getEntity()));
+            } else {
+                // Consumir la respuesta devuelve la conexión al pool
+                EntityUtils.consume(response.getEntity());
+            }
+            lastLatencyMs.set(System.currentTimeMillis() - start);
+            wireBytes.addAndGet(body.length);
+            if (status >= 300) {
+                logger.warn("⚠️ Logstash respondió {} a un lote", status);
+            }
+            return status;
+        } catch (IOException e) {
+            logger.warn("⚠️ Error de conexión con Logstash ({}), se reintenta el lote", e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * La API _bulk responde 200 aunque fallen documentos: se cuentan los ítems con error
+     * (no se reintentan, igual que el output elasticsearch de Logstash con errores de mapeo)
+     */
+    private void countBulkItemErrors(byte[] response) {
+        JsonNode result;
+        try {
+            result = objectMapper.readTree(response);
+        } catch (IOException e) {
+            // El lote ya fue aceptado: no se reintenta por una respuesta ilegible
+            logger.warn("⚠️ Respuesta de _bulk ilegible: {}", e.getMessage());
+            return;
+        }
+        if (result == null || !result.path("errors").asBoolean()) {
+            return;
+        }
+        int errors = 0;
+        JsonNode firstError = null;
+        for (JsonNode item : result.path("items")) {
+            JsonNode action = item.elements().hasNext() ? item.elements().next() : item;
+            if (action.path("status").asInt() >= 300) {
+                errors++;
+                if (firstError == null) {
+                    firstError = action.path("error");
+                }
+            }
+        }
+        bulkItemErrors.add(errors);
+        logger.error("❌ Elasticsearch rechazó {} documentos del lote: {}", errors, firstError);
+    }
+
+    private void commitCompletedPolls() {
+        synchronized (polls) {
+            while (!polls.isEmpty() && polls.peekFirst().remaining.get() == 0) {
+                PendingPoll poll = polls.pollFirst();
+                if (poll.onDelivered != null) {
+                    poll.onDelivered.run();
+                }
+                committedPolls.increment();
+            }
+        }
+    }
+
+    private void pauseConsumers() {
+        if (!consumerPauseController.pause(ConsumerPauseController.REASON_LOGSTASH_PENDING)) {
+            return;
+        }
+        pauses.increment();
+        logger.warn("⏸️ Logstash atrasado ({} registros sin confirmar): consumo de Kafka pausado", pendingRecords.get());
+    }
+
+    private void resumeConsumersIfDrained() {
+        if (pendingRecords.get() > maxPendingRecords / 2
+                || !consumerPauseController.resume(ConsumerPauseController.REASON_LOGSTASH_PENDING)) {
+            return;
+        }
+        logger.info("▶️ Logstash al día ({} registros sin confirmar)", pendingRecords.get());
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Lote de poll de Kafka (o chunk de la cola de desborde) a la espera de que Logstash acepte
+     * todos sus documentos
+     */
+    private static final class PendingPoll {
+
+        private final Runnable onDelivered;
+        private final AtomicInteger remaining;
+
+        private PendingPoll(Runnable onDelivered, int records) {
+            this.onDelivered = onDelivered;
+            this.remaining = new AtomicInteger(records);
+        }
+    }
+
+    /**
+     * Documento del lote rechazado por Logstash, pendiente de publicar en errors.events
+     */
+    private static final class Rejection {
+
+        private final int index;
+        private final String reason;
+
+        private Rejection(int index, String reason) {
+            this.index = index;
+            this.reason = reason;
+        }
+    }
+
+    /**
+     * Lote HTTP: documentos y el poll al que pertenece cada uno
+     */
+    private static final class Batch {
+
+        private final List<byte[]> documents = new ArrayList<>();
+        private final List<PendingPoll> owners = new ArrayList<>();
+        private int bytes;
+
+        private void add(byte[] document, PendingPoll owner) {
+            documents.add(document);
+            owners.add(owner);
+            bytes += document.length + 1;
+        }
+
+        private int size() {
+            return documents.size();
+        }
+
+        /**
+         * Cuerpo NDJSON de los documentos [from, to)
+         */
+        private byte[] body(int from, int to, boolean gzip) throws IOException {
+            int rangeBytes = from == 0 && to == documents.size() ? bytes : rangeBytes(from, to);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(gzip ? rangeBytes / 4 + 64 : rangeBytes);
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 8192)) {
+                    writeLines(compressed, from, to);
+                }
+            } else {
+                writeLines(out, from, to);
+            }
+            return out.toByteArray();
+        }
+
+        private int rangeBytes(int from, int to) {
+            int rangeBytes = 0;
+            for (int i = from; i < to; i++) {
+                rangeBytes += documents.get(i).length + 1;
+            }
+            return rangeBytes;
+        }
+
+        private void writeLines(OutputStream out, int from, int to) throws IOException {
+            for (int i = from; i < to; i++) {
+                out.write(documents.get(i));
+                out.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.claro.ecuador.logstash.sink;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/logstashsink
+ * Registros sin confirmar, peticiones en vuelo, enviados/rechazados/reintentos, compresión y latencia
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "logstashsink")
+public class LogstashSinkEndpoint {
+
+    @Autowired
+    private LogstashHttpSink logstashHttpSink;
+
+    @ReadOperation
+    public Map<String, Object> logstashSink() {
+        return logstashHttpSink.stats();
+    }
+}
@@ -0,0 +1,262 @@
+package com.claro.ecuador.logstash.spill;
+
+import com.claro.ecuador.logstash.consumer.ConsumerPauseController;
+import com.claro.ecuador.logstash.sink.LogstashHttpSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffer de desborde en disco delante del sink de Logstash
+ * 1. Con la cola vacía y Logstash al día los documentos van directo al sink
+ * 2. Si Logstash falla o acumula spill-threshold-records sin confirmar, los polls se escriben en
+ *    la cola de segmentos (SpillQueue) y su offset se confirma en Kafka una vez en disco
+ * 3. Un hilo de drenaje entrega la cola en orden FIFO, por lotes de batch-size, mientras el sink
+ *    tenga menos de spill-threshold-records pendientes; mientras haya cola, lo nuevo también va a la cola
+ * 4. Con high-water-mark-bytes de segmentos en disco se pausan los listeners de Kafka y se
+ *    reanudan al bajar de low-water-mark-bytes (ConsumerPauseController: siguen pausados si el
+ *    sink HTTP también lo pidió)
+ *
+ * @author Global HITSS
+ */
+@Component
+public class SpillBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillBuffer.class);
+
+    private static final long IDLE_SLEEP_MS = 5;
+
+    @Autowired
+    private LogstashHttpSink logstashHttpSink;
+
+    @Autowired
+    private ConsumerPauseController consumerPauseController;
+
+    @Value("${back-logstash-connect.spill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${back-logstash-connect.spill.directory:./data/spill}")
+    private String directory;
+
+    @Value("${back-logstash-connect.spill.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${back-logstash-connect.spill.high-water-mark-bytes:1073741824}")
+    private long highWaterMarkBytes;
+
+    @Value("${back-logstash-connect.spill.low-water-mark-bytes:536870912}")
+    private long lowWaterMarkBytes;
+
+    @Value("${back-logstash-connect.spill.spill-threshold-records:10000}")
+    private int spillThresholdRecords;
+
+    @Value("${back-logstash-connect.spill.fsync:true}")
+    private boolean fsync;
+
+    @Value("${back-logstash-connect.logstash.batch-size:500}")
+    private int batchSize;
+
+    @Value("${back-logstash-connect.logstash.batch-bytes:1048576}")
+    private int batchBytes;
+
+    private SpillQueue queue;
+    private Thread drainer;
+    private volatile boolean running;
+
+    private final LongAdder direct = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder drained = new LongAdder();
+    private final LongAdder pauses = new LongAdder();
+
+    // Tasa de drenaje calculada en cada checkpoint
+    private long lastDrained;
+    private long lastRateNanos = System.nanoTime();
+    private volatile double drainRate;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            logger.info("💾 Buffer de desborde en disco desactivado");
+            return;
+        }
+        if (lowWaterMarkBytes >= highWaterMarkBytes || segmentBytes > highWaterMarkBytes) {
+            throw new IllegalStateException(
+                    "back-logstash-connect.spill: se requiere low-water-mark-bytes < high-water-mark-bytes y segment-bytes <= high-water-mark-bytes");
+        }
+        queue = SpillQueue.open(new File(directory), segmentBytes);
+        running = true;
+        drainer = new Thread(this::drainLoop, "logstash-spill-drain");
+        drainer.setDaemon(true);
+        drainer.start();
+
+        logger.info("💾 Buffer de desborde en {} - segmentos de {} bytes, pausa en {} bytes, reanuda en {} bytes, {} registros pendientes",
+                directory, segmentBytes, highWaterMarkBytes, lowWaterMarkBytes, queue.pendingRecords());
+        if (queue.diskBytes() >= highWaterMarkBytes) {
+            pauseConsumers();
+        }
+    }
+
+    /**
+     * Entrega un lote de poll: directo al sink o a la cola en disco
+     * El ack se ejecuta cuando Logstash aceptó los documentos o cuando quedaron forzados a disco, y los
+     * envíos a errors.events del poll terminaron (siempre en el orden de los polls, ver LogstashHttpSink).
+     */
+    public void deliver(List<byte[]> documents, List<CompletableFuture<Void>> deadLetters, Acknowledgment ack) {
+        if (!enabled) {
+            logstashHttpSink.send(documents, deadLetters, ack);
+            return;
+        }
+        synchronized (this) {
+            if (queue.unreadRecords() == 0 && !logstashHttpSink.isFailing()
+                    && logstashHttpSink.pendingRecords() < spillThresholdRecords) {
+                direct.add(documents.size());
+                logstashHttpSink.send(documents, deadLetters, ack);
+                return;
+            }
+            try {
+                queue.append(documents, fsync);
+            } catch (IOException e) {
+                // Sin ack: los registros se vuelven a leer de Kafka tras un reinicio
+                throw new UncheckedIOException("No se pudo escribir en la cola de desborde", e);
+            }
+            spilled.add(documents.size());
+        }
+        logstashHttpSink.send(Collections.<byte[]>emptyList(), deadLetters, ack);
+        if (queue.diskBytes() >= highWaterMarkBytes) {
+            pauseConsumers();
+        }
+    }
+
+    /**
+     * Persiste el cursor de drenaje y actualiza la tasa de drenaje
+     */
+    @Scheduled(fixedDelayString = "${back-logstash-connect.spill.checkpoint-interval-ms:1000}")
+    public void checkpoint() {
+        if (!running) {
+            return;
+        }
+        try {
+            queue.checkpoint();
+        } catch (IOException e) {
+            logger.error("❌ No se pudo guardar el checkpoint de la cola de desborde: {}", e.getMessage());
+        }
+        long now = System.nanoTime();
+        long total = drained.sum();
+        drainRate = (total - lastDrained) * 1_000_000_000.0 / Math.max(1, now - lastRateNanos);
+        lastDrained = total;
+        lastRateNanos = now;
+        resumeConsumersIfDrained();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        if (!enabled) {
+            return stats;
+        }
+        stats.put("directory", directory);
+        stats.put("depthRecords", queue.pendingRecords());
+        stats.put("depthBytes", queue.pendingBytes());
+        stats.put("segments", queue.segmentCount());
+        stats.put("diskBytes", queue.diskBytes());
+        stats.put("highWaterMarkBytes", highWaterMarkBytes);
+        stats.put("lowWaterMarkBytes", lowWaterMarkBytes);
+        stats.put("consumersPaused", consumerPauseController.isPausedBy(ConsumerPauseController.REASON_SPILL_FULL));
+        stats.put("pauses", pauses.sum());
+        stats.put("direct", direct.sum());
+        stats.put("spilled", spilled.sum());
+        stats.put("drained", drained.sum());
+        stats.put("drainRatePerSecond", Math.round(drainRate * 10) / 10.0);
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        drainer.interrupt();
+        drainer.join(1000);
+        try {
+            // Lo leído y no confirmado por Logstash se vuelve a entregar tras el reinicio
+            queue.close();
+        } catch (IOException e) {
+            logger.warn("Error cerrando la cola de desborde: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Entrega la cola al sink mientras haya cola y el sink tenga capacidad
+     */
+    private void drainLoop() {
+        while (running) {
+            boolean sent = false;
+            synchronized (this) {
+                if (queue.unreadRecords() > 0 && !logstashHttpSink.isFailing()
+                        && logstashHttpSink.pendingRecords() < spillThresholdRecords) {
+                    SpillQueue.Chunk chunk = queue.read(batchSize, batchBytes);
+                    if (!chunk.documents.isEmpty()) {
+                        logstashHttpSink.enqueue(chunk.documents, () -> delivered(chunk));
+                        sent = true;
+                    }
+                }
+            }
+            if (!sent) {
+                try {
+                    Thread.sleep(IDLE_SLEEP_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Chunk aceptado por Logstash (llamado en orden de lectura)
+     */
+    private void delivered(SpillQueue.Chunk chunk) {
+        if (!running) {
+            return;
+        }
+        try {
+            queue.commit(chunk);
+            drained.add(chunk.documents.size());
+        } catch (IOException e) {
+            logger.error("❌ No se pudo liberar un segmento de la cola de desborde: {}", e.getMessage());
+        }
+    }
+
+    private void pauseConsumers() {
+        if (!consumerPauseController.pause(ConsumerPauseController.REASON_SPILL_FULL)) {
+            return;
+        }
+        pauses.increment();
+        logger.warn("⏸️ Cola de desborde llena ({} bytes en disco, {} registros): consumo de Kafka pausado",
+                queue.diskBytes(), queue.pendingRecords());
+    }
+
+    private void resumeConsumersIfDrained() {
+        if (queue.diskBytes() > lowWaterMarkBytes
+                || !consumerPauseController.resume(ConsumerPauseController.REASON_SPILL_FULL)) {
+            return;
+        }
+        logger.info("▶️ Cola de desborde drenada ({} bytes en disco)", queue.diskBytes());
+    }
+}
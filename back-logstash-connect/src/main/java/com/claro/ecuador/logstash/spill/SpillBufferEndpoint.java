@@ -0,0 +1,27 @@
+package com.claro.ecuador.logstash.spill;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/spillbuffer
+ * Profundidad de la cola de desborde (registros, bytes, segmentos), pausas y tasa de drenaje
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "spillbuffer")
+public class SpillBufferEndpoint {
+
+    @Autowired
+    private SpillBuffer spillBuffer;
+
+    @ReadOperation
+    public Map<String, Object> spillBuffer() {
+        return spillBuffer.stats();
+    }
+}
@@ -0,0 +1,254 @@
+package com.claro.ecuador.logstash.spill;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cola FIFO en disco de segmentos mapeados en memoria (spill-NNN.seg)
+ * - append() escribe al final del segmento activo y abre uno nuevo al llenarse
+ * - read() entrega los siguientes documentos sin leer (cursor de lectura en memoria)
+ * - commit() avanza el cursor confirmado, en orden, y borra los segmentos ya entregados
+ * El cursor confirmado se persiste en spill.checkpoint con checkpoint(); tras un reinicio la
+ * lectura sigue desde ahí, así que lo leído y no confirmado se vuelve a entregar.
+ *
+ * @author Global HITSS
+ */
+final class SpillQueue {
+
+    private static final String CHECKPOINT = "spill.checkpoint";
+
+    private final File directory;
+    private final int segmentBytes;
+    private final TreeMap<Long, SpillSegment> segments = new TreeMap<>();
+
+    private SpillSegment readSegment;
+    private int readPosition;
+    private long committedSegment;
+    private int committedPosition;
+    private boolean checkpointDirty;
+
+    private long pendingRecords;
+    private long pendingBytes;
+    private long unreadRecords;
+
+    private SpillQueue(File directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    static SpillQueue open(File directory, int segmentBytes) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio de desborde " + directory);
+        }
+        SpillQueue queue = new SpillQueue(directory, segmentBytes);
+        queue.loadCheckpoint();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("spill-") && name.endsWith(".seg"));
+        if (files != null) {
+            for (File file : files) {
+                long number = Long.parseLong(file.getName().substring(6, file.getName().length() - 4));
+                if (number < queue.committedSegment) {
+                    // Ya entregado antes del reinicio
+                    if (!file.delete()) {
+                        throw new IOException("No se pudo borrar el segmento " + file);
+                    }
+                    continue;
+                }
+                queue.segments.put(number, SpillSegment.open(directory, number, segmentBytes));
+            }
+        }
+        if (queue.segments.isEmpty()) {
+            queue.committedPosition = 0;
+        } else if (queue.segments.firstKey() > queue.committedSegment) {
+            queue.committedSegment = queue.segments.firstKey();
+            queue.committedPosition = 0;
+        }
+        queue.readSegment = queue.segments.get(queue.committedSegment);
+        queue.readPosition = queue.committedPosition;
+
+        // Profundidad pendiente desde el cursor confirmado
+        for (SpillSegment segment : queue.segments.values()) {
+            int position = segment.number == queue.committedSegment ? queue.committedPosition : 0;
+            while (position < segment.limit()) {
+                int length = segment.read(position).length;
+                queue.pendingRecords++;
+                queue.pendingBytes += length;
+                position += SpillSegment.HEADER_BYTES + length;
+            }
+        }
+        queue.unreadRecords = queue.pendingRecords;
+        return queue;
+    }
+
+    /**
+     * Agrega los documentos al final de la cola
+     *
+     * @param force forzar a disco antes de volver (los offsets de Kafka se confirman después)
+     */
+    synchronized void append(List<byte[]> documents, boolean force) throws IOException {
+        SpillSegment writer = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        List<SpillSegment> touched = new ArrayList<>(2);
+        for (byte[] document : documents) {
+            if (writer == null || writer.isSealed() || !writer.append(document)) {
+                if (writer != null && !writer.isSealed()) {
+                    writer.seal();
+                }
+                long number = writer != null ? writer.number + 1 : committedSegment;
+                writer = SpillSegment.create(directory, number, segmentBytes);
+                segments.put(number, writer);
+                if (readSegment == null) {
+                    readSegment = writer;
+                    readPosition = 0;
+                }
+                if (!writer.append(document)) {
+                    throw new IllegalArgumentException("Documento de " + document.length
+                            + " bytes mayor que el segmento de desborde");
+                }
+            }
+            if (touched.isEmpty() || touched.get(touched.size() - 1) != writer) {
+                touched.add(writer);
+            }
+            pendingRecords++;
+            pendingBytes += document.length;
+            unreadRecords++;
+        }
+        if (force) {
+            for (SpillSegment segment : touched) {
+                segment.force();
+            }
+        }
+    }
+
+    /**
+     * Siguientes documentos sin leer, hasta maxRecords o maxBytes
+     */
+    synchronized Chunk read(int maxRecords, int maxBytes) {
+        List<byte[]> documents = new ArrayList<>();
+        int bytes = 0;
+        while (readSegment != null && documents.size() < maxRecords && bytes < maxBytes) {
+            if (readPosition < readSegment.limit()) {
+                byte[] document = readSegment.read(readPosition);
+                documents.add(document);
+                bytes += document.length;
+                readPosition += SpillSegment.HEADER_BYTES + document.length;
+                continue;
+            }
+            Map.Entry<Long, SpillSegment> next = segments.higherEntry(readSegment.number);
+            if (next == null) {
+                break;
+            }
+            readSegment = next.getValue();
+            readPosition = 0;
+        }
+        unreadRecords -= documents.size();
+        return new Chunk(documents, bytes, readSegment != null ? readSegment.number : committedSegment, readPosition);
+    }
+
+    /**
+     * Confirma un chunk entregado (los chunks se confirman en el orden en que se leyeron)
+     */
+    synchronized void commit(Chunk chunk) throws IOException {
+        committedSegment = chunk.segment;
+        committedPosition = chunk.position;
+        checkpointDirty = true;
+        pendingRecords -= chunk.documents.size();
+        pendingBytes -= chunk.bytes;
+        while (!segments.isEmpty() && segments.firstKey() < committedSegment) {
+            segments.pollFirstEntry().getValue().delete();
+        }
+    }
+
+    /**
+     * Persiste el cursor confirmado si cambió
+     */
+    synchronized void checkpoint() throws IOException {
+        if (!checkpointDirty) {
+            return;
+        }
+        File tmp = new File(directory, CHECKPOINT + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(file)) {
+            out.writeLong(committedSegment);
+            out.writeInt(committedPosition);
+            out.flush();
+            file.getFD().sync();
+        }
+        if (!tmp.renameTo(new File(directory, CHECKPOINT))) {
+            throw new IOException("No se pudo publicar el checkpoint de desborde");
+        }
+        checkpointDirty = false;
+    }
+
+    synchronized long pendingRecords() {
+        return pendingRecords;
+    }
+
+    synchronized long pendingBytes() {
+        return pendingBytes;
+    }
+
+    synchronized long unreadRecords() {
+        return unreadRecords;
+    }
+
+    /**
+     * Espacio en disco ocupado por los segmentos (tamaño fijo cada uno)
+     */
+    synchronized long diskBytes() {
+        long bytes = 0;
+        for (SpillSegment segment : segments.values()) {
+            bytes += segment.capacity();
+        }
+        return bytes;
+    }
+
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    synchronized void close() throws IOException {
+        checkpoint();
+        // Sin segmento de lectura: read() no vuelve a tocar un mapeo liberado
+        readSegment = null;
+        for (SpillSegment segment : segments.values()) {
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    private void loadCheckpoint() throws IOException {
+        File file = new File(directory, CHECKPOINT);
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            committedSegment = in.readLong();
+            committedPosition = in.readInt();
+        }
+    }
+
+    /**
+     * Documentos leídos de la cola y el cursor al final de ellos
+     */
+    static final class Chunk {
+
+        final List<byte[]> documents;
+        final long bytes;
+        final long segment;
+        final int position;
+
+        private Chunk(List<byte[]> documents, long bytes, long segment, int position) {
+            this.documents = documents;
+            this.bytes = bytes;
+            this.segment = segment;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.claro.ecuador.logstash.spill;
+
+import com.claro.ecuador.commons.io.MappedBuffers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Segmento de la cola de desborde: archivo de tamaño fijo mapeado en memoria
+ * Registro: int longitud (> 0) + bytes del documento. Una longitud 0 (archivo sin escribir)
+ * o -1 (marca de fin al sellar) indica el final de los datos.
+ * close() y delete() liberan el mapeo: el segmento no se puede volver a leer (SpillQueue los llama
+ * con su monitor tomado, cuando ya no es el segmento de lectura).
+ *
+ * @author Global HITSS
+ */
+final class SpillSegment {
+
+    static final int HEADER_BYTES = 4;
+    private static final int END_MARKER = -1;
+
+    final long number;
+    final File file;
+    private final int capacity;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    // Fin de los datos escritos; publicado para el lector después de escribir el registro
+    private volatile int limit;
+    private volatile boolean sealed;
+    private boolean dirty;
+
+    private SpillSegment(File directory, long number, int capacity) throws IOException {
+        this.number = number;
+        this.capacity = capacity;
+        this.file = new File(directory, String.format("spill-%020d.seg", number));
+        this.raf = new RandomAccessFile(file, "rw");
+        if (raf.length() < capacity) {
+            raf.setLength(capacity);
+        }
+        this.channel = raf.getChannel();
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    static SpillSegment create(File directory, long number, int capacity) throws IOException {
+        return new SpillSegment(directory, number, capacity);
+    }
+
+    /**
+     * Abre un segmento existente y recorre sus registros para ubicar el final de los datos
+     */
+    static SpillSegment open(File directory, long number, int capacity) throws IOException {
+        File segmentFile = new File(directory, String.format("spill-%020d.seg", number));
+        SpillSegment segment = new SpillSegment(directory, number, (int) Math.max(capacity, segmentFile.length()));
+        int position = 0;
+        while (position + HEADER_BYTES <= segment.capacity) {
+            int length = segment.buffer.getInt(position);
+            if (length == END_MARKER) {
+                segment.sealed = true;
+                break;
+            }
+            if (length <= 0 || position + HEADER_BYTES + length > segment.capacity) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        segment.limit = position;
+        return segment;
+    }
+
+    /**
+     * @return false si el documento no cabe en lo que queda del segmento
+     */
+    boolean append(byte[] document) {
+        int position = limit;
+        if (position + HEADER_BYTES + document.length > capacity) {
+            return false;
+        }
+        ByteBuffer target = buffer.duplicate();
+        target.position(position + HEADER_BYTES);
+        target.put(document);
+        // La longitud se escribe al final: un registro a medio escribir se ve como fin de datos
+        buffer.putInt(position, document.length);
+        limit = position + HEADER_BYTES + document.length;
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Lee el documento en la posición indicada (que debe ser menor que limit())
+     */
+    byte[] read(int position) {
+        int length = buffer.getInt(position);
+        byte[] document = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(position + HEADER_BYTES);
+        source.get(document);
+        return document;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * Marca el fin de datos y fuerza el segmento a disco; no admite más escrituras
+     */
+    void seal() {
+        if (limit + HEADER_BYTES <= capacity) {
+            buffer.putInt(limit, END_MARKER);
+        }
+        dirty = true;
+        force();
+        sealed = true;
+    }
+
+    /**
+     * @return true si había escrituras pendientes de forzar a disco
+     */
+    boolean force() {
+        if (!dirty) {
+            return false;
+        }
+        dirty = false;
+        buffer.force();
+        return true;
+    }
+
+    void close() throws IOException {
+        force();
+        release();
+    }
+
+    void delete() throws IOException {
+        // Sin liberar el mapeo el espacio en disco no se recupera hasta que el GC recolecta el buffer
+        release();
+        if (!file.delete()) {
+            throw new IOException("No se pudo borrar el segmento " + file);
+        }
+    }
+
+    private void release() throws IOException {
+        try {
+            channel.close();
+            raf.close();
+        } finally {
+            MappedBuffers.unmap(buffer);
+        }
+    }
+}
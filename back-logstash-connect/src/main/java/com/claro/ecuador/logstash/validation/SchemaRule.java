@@ -0,0 +1,34 @@
+package com.claro.ecuador.logstash.validation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Restricción compilada de un esquema (una palabra clave en una ruta) con su contador de rechazos
+ * El errorType es el que recibe errors.events al rechazar un registro por esta regla.
+ *
+ * @author Global HITSS
+ */
+final class SchemaRule {
+
+    static final String MALFORMED_JSON = "SCHEMA_MALFORMED_JSON";
+    static final String TYPE_MISMATCH = "SCHEMA_TYPE_MISMATCH";
+    static final String REQUIRED_FIELD_MISSING = "SCHEMA_REQUIRED_FIELD_MISSING";
+    static final String UNKNOWN_FIELD = "SCHEMA_UNKNOWN_FIELD";
+    static final String ENUM_MISMATCH = "SCHEMA_ENUM_MISMATCH";
+    static final String PATTERN_MISMATCH = "SCHEMA_PATTERN_MISMATCH";
+    static final String LENGTH_OUT_OF_RANGE = "SCHEMA_LENGTH_OUT_OF_RANGE";
+    static final String NUMBER_OUT_OF_RANGE = "SCHEMA_NUMBER_OUT_OF_RANGE";
+    static final String INVALID_DATE_TIME = "SCHEMA_INVALID_DATE_TIME";
+    static final String INVALID_EMBEDDED_JSON = "SCHEMA_INVALID_EMBEDDED_JSON";
+
+    final String id;
+    final String errorType;
+    final String pointer;
+    final LongAdder rejects = new LongAdder();
+
+    SchemaRule(String topic, String pointer, String keyword, String errorType) {
+        this.id = topic + "#" + (pointer.isEmpty() ? "/" : pointer) + " " + keyword;
+        this.errorType = errorType;
+        this.pointer = pointer;
+    }
+}
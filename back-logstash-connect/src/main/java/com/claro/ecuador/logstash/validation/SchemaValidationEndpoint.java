@@ -0,0 +1,27 @@
+package com.claro.ecuador.logstash.validation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/schemavalidation
+ * Validados, rechazados y costo medio por topic; rechazos por regla del esquema
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "schemavalidation")
+public class SchemaValidationEndpoint {
+
+    @Autowired
+    private SchemaValidationStage schemaValidationStage;
+
+    @ReadOperation
+    public Map<String, Object> schemaValidation() {
+        return schemaValidationStage.stats();
+    }
+}
@@ -0,0 +1,167 @@
+package com.claro.ecuador.logstash.validation;
+
+import com.claro.ecuador.logstash.deadletter.DeadLetterPublisher;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Etapa de validación previa al enriquecimiento
+ * Cada registro de un topic con esquema se valida por streaming (ver StreamingSchemaValidator);
+ * los inválidos no se indexan y se publican en errors.events con el errorType de la regla
+ * incumplida, la ruta del campo y el mensaje original. El envío se entrega al llamador para que el
+ * ack del poll lo espere (ver LogstashHttpSink).
+ * Cuenta rechazos por regla y el costo de validación por registro.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class SchemaValidationStage {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaValidationStage.class);
+
+    @Autowired
+    private ValidationProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private DeadLetterPublisher deadLetterPublisher;
+
+    private final Map<String, TopicValidator> validators = new HashMap<>();
+
+    private final LongAdder rejectsPublished = new LongAdder();
+
+    @PostConstruct
+    public void load() throws IOException {
+        if (!properties.isEnabled()) {
+            logger.info("📐 Validación de esquemas desactivada");
+            return;
+        }
+        for (Map.Entry<String, String> entry : properties.getSchemas().entrySet()) {
+            Resource resource = resourceLoader.getResource(entry.getValue());
+            JsonNode schema;
+            try (InputStream in = resource.getInputStream()) {
+                schema = objectMapper.readTree(in);
+            }
+            StreamingSchemaValidator validator;
+            try {
+                validator = StreamingSchemaValidator.compile(entry.getKey(), schema, objectMapper.getFactory());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Esquema inválido " + entry.getValue() + ": " + e.getMessage(), e);
+            }
+            validators.put(entry.getKey(), new TopicValidator(validator));
+            logger.info("📐 Esquema de {} compilado desde {} ({} reglas)",
+                    entry.getKey(), entry.getValue(), validator.rules().size());
+        }
+    }
+
+    /**
+     * @param deadLetters recibe el envío a errors.events de un registro rechazado; el ack del poll
+     *                    debe esperarlo
+     * @return true si el registro es válido o su topic no tiene esquema; false si se rechazó
+     */
+    public boolean accept(ConsumerRecord<String, String> record, List<CompletableFuture<Void>> deadLetters) {
+        TopicValidator topicValidator = validators.get(record.topic());
+        if (topicValidator == null || record.value() == null) {
+            return true;
+        }
+        long start = System.nanoTime();
+        SchemaViolation violation;
+        try {
+            violation = topicValidator.validator.validate(record.value());
+        } catch (IOException e) {
+            // Un parser sobre un String no hace I/O: solo puede fallar el contenido, que se reporta como violación
+            throw new IllegalStateException("Error inesperado validando " + record.topic(), e);
+        }
+        topicValidator.nanos.add(System.nanoTime() - start);
+        topicValidator.validated.increment();
+        if (violation == null) {
+            return true;
+        }
+        violation.rule().rejects.increment();
+        topicValidator.rejected.increment();
+        deadLetters.add(reject(record, violation));
+        return false;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("errorTopic", properties.getErrorTopic());
+        stats.put("rejectsPublished", rejectsPublished.sum());
+        Map<String, Object> topics = new LinkedHashMap<>();
+        for (Map.Entry<String, TopicValidator> entry : validators.entrySet()) {
+            TopicValidator topicValidator = entry.getValue();
+            long validated = topicValidator.validated.sum();
+            Map<String, Object> topicStats = new LinkedHashMap<>();
+            topicStats.put("validated", validated);
+            topicStats.put("rejected", topicValidator.rejected.sum());
+            topicStats.put("avgValidationNanos", validated > 0 ? topicValidator.nanos.sum() / validated : null);
+            List<Map<String, Object>> rules = new ArrayList<>();
+            for (SchemaRule rule : topicValidator.validator.rules()) {
+                Map<String, Object> ruleStats = new LinkedHashMap<>();
+                ruleStats.put("rule", rule.id);
+                ruleStats.put("errorType", rule.errorType);
+                ruleStats.put("rejects", rule.rejects.sum());
+                rules.add(ruleStats);
+            }
+            topicStats.put("rules", rules);
+            topics.put(entry.getKey(), topicStats);
+        }
+        stats.put("topics", topics);
+        return stats;
+    }
+
+    /**
+     * Evento de error con el esquema que espera errors-handler
+     * (topic, errorType, error, timestamp, originalMessage) más la regla y la ruta incumplidas
+     */
+    private CompletableFuture<Void> reject(ConsumerRecord<String, String> record, SchemaViolation violation) {
+        Map<String, Object> errorEvent = deadLetterPublisher.errorEvent(record.topic(), violation.getErrorType(),
+                violation.toString(), record.value());
+        errorEvent.put("schemaRule", violation.getRuleId());
+        errorEvent.put("errorPath", violation.getPath());
+        errorEvent.put("partition", record.partition());
+        errorEvent.put("offset", record.offset());
+
+        logger.warn("🚫 Registro rechazado por esquema - Topic: {}, Offset: {}, {}",
+                record.topic(), record.offset(), violation);
+        // Los reintentos y eventos no serializables los cuenta DeadLetterPublisher
+        return deadLetterPublisher.publish(properties.getErrorTopic(), record.key(), errorEvent)
+                .thenRun(rejectsPublished::increment);
+    }
+
+    private static final class TopicValidator {
+
+        private final StreamingSchemaValidator validator;
+        private final LongAdder validated = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private TopicValidator(StreamingSchemaValidator validator) {
+            this.validator = validator;
+        }
+    }
+}
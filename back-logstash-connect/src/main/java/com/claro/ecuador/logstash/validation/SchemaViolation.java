@@ -0,0 +1,44 @@
+package com.claro.ecuador.logstash.validation;
+
+/**
+ * Primera restricción incumplida por un registro
+ *
+ * @author Global HITSS
+ */
+public final class SchemaViolation {
+
+    private final SchemaRule rule;
+    private final String path;
+    private final String detail;
+
+    SchemaViolation(SchemaRule rule, String path, String detail) {
+        this.rule = rule;
+        this.path = path;
+        this.detail = detail;
+    }
+
+    public String getRuleId() {
+        return rule.id;
+    }
+
+    public String getErrorType() {
+        return rule.errorType;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    SchemaRule rule() {
+        return rule;
+    }
+
+    @Override
+    public String toString() {
+        return rule.errorType + " en " + (path.isEmpty() ? "/" : path) + ": " + detail;
+    }
+}
@@ -0,0 +1,550 @@
+package com.claro.ecuador.logstash.validation;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Validador de un topic compilado desde un subconjunto de JSON Schema (draft-07)
+ * Palabras clave: type, required, properties, additionalProperties (boolean), items, enum,
+ * pattern, minLength, maxLength, minimum, maximum, format (date-time y date de RFC 3339) y
+ * contentMediaType application/json (string con un objeto JSON embebido, p. ej. eventData)
+ *
+ * La validación recorre los tokens con JsonParser en una sola pasada, sin construir el árbol,
+ * y se detiene en la primera restricción incumplida. Las rutas del error salen de las rutas
+ * precompiladas de cada nodo: no se arma ninguna ruta mientras el registro es válido.
+ * Es inmutable y thread-safe.
+ *
+ * @author Global HITSS
+ */
+final class StreamingSchemaValidator {
+
+    private static final int NULL = 1;
+    private static final int BOOLEAN = 1 << 1;
+    private static final int INTEGER = 1 << 2;
+    private static final int NUMBER = 1 << 3;
+    private static final int STRING = 1 << 4;
+    private static final int OBJECT = 1 << 5;
+    private static final int ARRAY = 1 << 6;
+    private static final int ANY = NULL | BOOLEAN | INTEGER | NUMBER | STRING | OBJECT | ARRAY;
+
+    private static final Set<String> ANNOTATIONS = new HashSet<>(Arrays.asList(
+            "$schema", "$id", "$comment", "title", "description", "examples", "default"));
+
+    private final String topic;
+    private final JsonFactory jsonFactory;
+    private final List<SchemaRule> rules = new ArrayList<>();
+    private final SchemaRule malformed;
+    private Node root;
+
+    private StreamingSchemaValidator(String topic, JsonFactory jsonFactory) {
+        this.topic = topic;
+        this.jsonFactory = jsonFactory;
+        this.malformed = rule("", "json", SchemaRule.MALFORMED_JSON);
+    }
+
+    /**
+     * Compila el esquema de un topic
+     *
+     * @throws IllegalArgumentException ante palabras clave no soportadas o valores inválidos
+     */
+    static StreamingSchemaValidator compile(String topic, JsonNode schema, JsonFactory jsonFactory) {
+        StreamingSchemaValidator validator = new StreamingSchemaValidator(topic, jsonFactory);
+        validator.root = validator.compileNode(schema, "");
+        return validator;
+    }
+
+    /**
+     * @return la primera restricción incumplida, o null si el mensaje es válido
+     */
+    SchemaViolation validate(String message) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(message)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return new SchemaViolation(malformed, "", "mensaje vacío");
+            }
+            SchemaViolation violation = root.validate(parser, token);
+            if (violation == null && parser.nextToken() != null) {
+                return new SchemaViolation(malformed, "", "contenido después del documento JSON");
+            }
+            return violation;
+        } catch (JsonParseException e) {
+            return new SchemaViolation(malformed, "", e.getOriginalMessage());
+        }
+    }
+
+    List<SchemaRule> rules() {
+        return rules;
+    }
+
+    private SchemaRule rule(String pointer, String keyword, String errorType) {
+        SchemaRule rule = new SchemaRule(topic, pointer, keyword, errorType);
+        rules.add(rule);
+        return rule;
+    }
+
+    private Node compileNode(JsonNode schema, String pointer) {
+        if (!schema.isObject()) {
+            throw new IllegalArgumentException(topic + " " + pointer + ": el esquema debe ser un objeto");
+        }
+        Node node = new Node(pointer);
+        Iterator<String> keywords = schema.fieldNames();
+        while (keywords.hasNext()) {
+            String keyword = keywords.next();
+            JsonNode value = schema.get(keyword);
+            switch (keyword) {
+                case "type":
+                    node.types = 0;
+                    if (value.isArray()) {
+                        for (JsonNode type : value) {
+                            node.types |= typeBit(type.asText(), pointer);
+                        }
+                    } else {
+                        node.types = typeBit(value.asText(), pointer);
+                    }
+                    node.typeRule = rule(pointer, "type", SchemaRule.TYPE_MISMATCH);
+                    break;
+                case "properties":
+                case "required":
+                case "additionalProperties":
+                    // Se compilan juntas más abajo
+                    break;
+                case "items":
+                    node.items = compileNode(value, pointer + "/*");
+                    break;
+                case "enum":
+                    node.enumValues = new LinkedHashSet<>();
+                    for (JsonNode allowed : value) {
+                        node.enumValues.add(allowed.asText());
+                    }
+                    node.enumRule = rule(pointer, "enum", SchemaRule.ENUM_MISMATCH);
+                    break;
+                case "pattern":
+                    node.pattern = Pattern.compile(value.asText());
+                    node.patternRule = rule(pointer, "pattern", SchemaRule.PATTERN_MISMATCH);
+                    break;
+                case "minLength":
+                    node.minLength = value.asInt();
+                    node.lengthRule = node.lengthRule != null ? node.lengthRule
+                            : rule(pointer, "minLength/maxLength", SchemaRule.LENGTH_OUT_OF_RANGE);
+                    break;
+                case "maxLength":
+                    node.maxLength = value.asInt();
+                    node.lengthRule = node.lengthRule != null ? node.lengthRule
+                            : rule(pointer, "minLength/maxLength", SchemaRule.LENGTH_OUT_OF_RANGE);
+                    break;
+                case "minimum":
+                    node.minimum = value.asDouble();
+                    node.rangeRule = node.rangeRule != null ? node.rangeRule
+                            : rule(pointer, "minimum/maximum", SchemaRule.NUMBER_OUT_OF_RANGE);
+                    break;
+                case "maximum":
+                    node.maximum = value.asDouble();
+                    node.rangeRule = node.rangeRule != null ? node.rangeRule
+                            : rule(pointer, "minimum/maximum", SchemaRule.NUMBER_OUT_OF_RANGE);
+                    break;
+                case "format":
+                    if ("date-time".equals(value.asText())) {
+                        node.dateTime = true;
+                    } else if ("date".equals(value.asText())) {
+                        node.dateTime = false;
+                    } else {
+                        throw new IllegalArgumentException(topic + " " + pointer + ": format no soportado " + value);
+                    }
+                    node.formatRule = rule(pointer, "format=" + value.asText(), SchemaRule.INVALID_DATE_TIME);
+                    break;
+                case "contentMediaType":
+                    if (!"application/json".equals(value.asText())) {
+                        throw new IllegalArgumentException(topic + " " + pointer + ": contentMediaType no soportado " + value);
+                    }
+                    node.contentRule = rule(pointer, "contentMediaType", SchemaRule.INVALID_EMBEDDED_JSON);
+                    break;
+                default:
+                    if (!ANNOTATIONS.contains(keyword)) {
+                        throw new IllegalArgumentException(topic + " " + pointer + ": palabra clave no soportada " + keyword);
+                    }
+            }
+        }
+        compileObject(node, schema, pointer);
+        return node;
+    }
+
+    private void compileObject(Node node, JsonNode schema, String pointer) {
+        JsonNode properties = schema.get("properties");
+        JsonNode required = schema.get("required");
+        JsonNode additional = schema.get("additionalProperties");
+        if (properties == null && required == null && additional == null) {
+            return;
+        }
+        node.properties = new HashMap<>();
+        if (properties != null) {
+            Iterator<Map.Entry<String, JsonNode>> fields = properties.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                node.properties.put(field.getKey(),
+                        new Property(compileNode(field.getValue(), pointer + "/" + field.getKey())));
+            }
+        }
+        if (required != null) {
+            if (required.size() > 64) {
+                throw new IllegalArgumentException(topic + " " + pointer + ": máximo 64 campos requeridos por objeto");
+            }
+            node.requiredNames = new String[required.size()];
+            node.requiredRules = new SchemaRule[required.size()];
+            int bit = 0;
+            for (JsonNode name : required) {
+                String field = name.asText();
+                Property property = node.properties.get(field);
+                if (property == null) {
+                    property = new Property(null);
+                    node.properties.put(field, property);
+                }
+                property.requiredBit = bit;
+                node.requiredNames[bit] = field;
+                node.requiredRules[bit] = rule(pointer + "/" + field, "required", SchemaRule.REQUIRED_FIELD_MISSING);
+                node.requiredMask |= 1L << bit;
+                bit++;
+            }
+        }
+        if (additional != null) {
+            if (!additional.isBoolean()) {
+                throw new IllegalArgumentException(topic + " " + pointer + ": additionalProperties debe ser boolean");
+            }
+            node.additionalAllowed = additional.asBoolean();
+            if (!node.additionalAllowed) {
+                node.additionalRule = rule(pointer, "additionalProperties", SchemaRule.UNKNOWN_FIELD);
+            }
+        }
+    }
+
+    private int typeBit(String type, String pointer) {
+        switch (type) {
+            case "null": return NULL;
+            case "boolean": return BOOLEAN;
+            case "integer": return INTEGER;
+            case "number": return NUMBER;
+            case "string": return STRING;
+            case "object": return OBJECT;
+            case "array": return ARRAY;
+            default:
+                throw new IllegalArgumentException(topic + " " + pointer + ": tipo desconocido " + type);
+        }
+    }
+
+    private static int tokenBit(JsonToken token) {
+        switch (token) {
+            case START_OBJECT: return OBJECT;
+            case START_ARRAY: return ARRAY;
+            case VALUE_STRING: return STRING;
+            case VALUE_NUMBER_INT: return INTEGER;
+            case VALUE_NUMBER_FLOAT: return NUMBER;
+            case VALUE_TRUE:
+            case VALUE_FALSE: return BOOLEAN;
+            default: return NULL;
+        }
+    }
+
+    private static String typeName(int bit) {
+        switch (bit) {
+            case OBJECT: return "object";
+            case ARRAY: return "array";
+            case STRING: return "string";
+            case INTEGER: return "integer";
+            case NUMBER: return "number";
+            case BOOLEAN: return "boolean";
+            default: return "null";
+        }
+    }
+
+    /**
+     * Nodo compilado: restricciones de un valor en una ruta
+     */
+    private final class Node {
+
+        private final String pointer;
+        private int types = ANY;
+        private SchemaRule typeRule;
+
+        private Map<String, Property> properties;
+        private String[] requiredNames;
+        private SchemaRule[] requiredRules;
+        private long requiredMask;
+        private boolean additionalAllowed = true;
+        private SchemaRule additionalRule;
+        private Node items;
+
+        private Set<String> enumValues;
+        private SchemaRule enumRule;
+        private Pattern pattern;
+        private SchemaRule patternRule;
+        private int minLength = -1;
+        private int maxLength = -1;
+        private SchemaRule lengthRule;
+        private boolean dateTime;
+        private SchemaRule formatRule;
+        private SchemaRule contentRule;
+        private double minimum = Double.NEGATIVE_INFINITY;
+        private double maximum = Double.POSITIVE_INFINITY;
+        private SchemaRule rangeRule;
+
+        private Node(String pointer) {
+            this.pointer = pointer;
+        }
+
+        private boolean hasTextConstraints() {
+            return enumRule != null || patternRule != null || lengthRule != null;
+        }
+
+        private SchemaViolation validate(JsonParser parser, JsonToken token) throws IOException {
+            int bit = tokenBit(token);
+            if ((types & bit) == 0 && !(bit == INTEGER && (types & NUMBER) != 0)) {
+                return new SchemaViolation(typeRule, pointer, "se esperaba " + expectedTypes() + " y llegó " + typeName(bit));
+            }
+            switch (token) {
+                case START_OBJECT:
+                    return validateObject(parser);
+                case START_ARRAY:
+                    return validateArray(parser);
+                case VALUE_STRING:
+                    return validateString(parser);
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    if (rangeRule != null) {
+                        double number = parser.getDoubleValue();
+                        if (number < minimum || number > maximum) {
+                            return new SchemaViolation(rangeRule, pointer, number + " fuera de [" + minimum + ", " + maximum + "]");
+                        }
+                    }
+                    return null;
+                default:
+                    return null;
+            }
+        }
+
+        private SchemaViolation validateObject(JsonParser parser) throws IOException {
+            if (properties == null) {
+                parser.skipChildren();
+                return null;
+            }
+            long seen = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                Property property = properties.get(name);
+                if (property == null) {
+                    if (!additionalAllowed) {
+                        return new SchemaViolation(additionalRule, pointer + "/" + name, "campo no permitido");
+                    }
+                    parser.skipChildren();
+                    continue;
+                }
+                if (property.requiredBit >= 0) {
+                    seen |= 1L << property.requiredBit;
+                }
+                if (property.node == null) {
+                    parser.skipChildren();
+                    continue;
+                }
+                SchemaViolation violation = property.node.validate(parser, value);
+                if (violation != null) {
+                    return violation;
+                }
+            }
+            if (seen != requiredMask) {
+                int missing = Long.numberOfTrailingZeros(requiredMask & ~seen);
+                return new SchemaViolation(requiredRules[missing], pointer + "/" + requiredNames[missing],
+                        "campo requerido ausente");
+            }
+            return null;
+        }
+
+        private SchemaViolation validateArray(JsonParser parser) throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (items == null) {
+                    parser.skipChildren();
+                    continue;
+                }
+                SchemaViolation violation = items.validate(parser, token);
+                if (violation != null) {
+                    return violation;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Formato y JSON embebido se revisan sobre el buffer de caracteres del parser;
+         * el String solo se crea si hay enum, pattern o longitudes
+         */
+        private SchemaViolation validateString(JsonParser parser) throws IOException {
+            if (hasTextConstraints()) {
+                SchemaViolation violation = validateText(parser.getText());
+                if (violation != null) {
+                    return violation;
+                }
+            }
+            if (formatRule == null && contentRule == null) {
+                return null;
+            }
+            char[] chars = parser.getTextCharacters();
+            int offset = parser.getTextOffset();
+            int length = parser.getTextLength();
+            if (formatRule != null && !(dateTime ? isDateTime(chars, offset, length) : isFullDate(chars, offset, length))) {
+                return new SchemaViolation(formatRule, pointer, "'" + abbreviate(new String(chars, offset, length))
+                        + "' no es una fecha RFC 3339 válida");
+            }
+            if (contentRule != null) {
+                String problem = embeddedJsonProblem(chars, offset, length);
+                if (problem != null) {
+                    return new SchemaViolation(contentRule, pointer, problem);
+                }
+            }
+            return null;
+        }
+
+        private SchemaViolation validateText(String text) {
+            if (enumRule != null && !enumValues.contains(text)) {
+                return new SchemaViolation(enumRule, pointer, "'" + abbreviate(text) + "' no está en " + enumValues);
+            }
+            if (lengthRule != null) {
+                int length = text.codePointCount(0, text.length());
+                if (length < minLength || (maxLength >= 0 && length > maxLength)) {
+                    return new SchemaViolation(lengthRule, pointer, "longitud " + length + " fuera de ["
+                            + Math.max(minLength, 0) + ", " + (maxLength >= 0 ? maxLength : "∞") + "]");
+                }
+            }
+            if (patternRule != null && !pattern.matcher(text).find()) {
+                return new SchemaViolation(patternRule, pointer, "'" + abbreviate(text) + "' no cumple " + pattern.pattern());
+            }
+            return null;
+        }
+
+        /**
+         * El string debe contener exactamente un objeto JSON (se recorre sin materializarlo)
+         */
+        private String embeddedJsonProblem(char[] chars, int offset, int length) throws IOException {
+            try (JsonParser embedded = jsonFactory.createParser(chars, offset, length)) {
+                if (embedded.nextToken() != JsonToken.START_OBJECT) {
+                    return "se esperaba un objeto JSON embebido";
+                }
+                embedded.skipChildren();
+                if (embedded.nextToken() != null) {
+                    return "contenido después del objeto JSON embebido";
+                }
+                return null;
+            } catch (JsonParseException e) {
+                return "JSON embebido inválido: " + e.getOriginalMessage();
+            }
+        }
+
+        private String expectedTypes() {
+            StringBuilder expected = new StringBuilder();
+            for (int bit = NULL; bit <= ARRAY; bit <<= 1) {
+                if ((types & bit) != 0) {
+                    if (expected.length() > 0) {
+                        expected.append('|');
+                    }
+                    expected.append(typeName(bit));
+                }
+            }
+            return expected.toString();
+        }
+    }
+
+    private static final class Property {
+
+        private final Node node;
+        private int requiredBit = -1;
+
+        private Property(Node node) {
+            this.node = node;
+        }
+    }
+
+    /**
+     * date-time de RFC 3339: full-date "T" HH:MM:SS[.fracción](Z|±HH:MM), sin crear objetos
+     */
+    static boolean isDateTime(char[] c, int offset, int length) {
+        if (length < 20 || !isFullDate(c, offset, 10)) {
+            return false;
+        }
+        char separator = c[offset + 10];
+        if (separator != 'T' && separator != 't') {
+            return false;
+        }
+        int p = offset + 11;
+        int end = offset + length;
+        if (!twoDigits(c, p, 23) || c[p + 2] != ':' || !twoDigits(c, p + 3, 59)
+                || c[p + 5] != ':' || !twoDigits(c, p + 6, 60)) {
+            return false;
+        }
+        p += 8;
+        if (p < end && c[p] == '.') {
+            int digits = ++p;
+            while (p < end && c[p] >= '0' && c[p] <= '9') {
+                p++;
+            }
+            if (p == digits) {
+                return false;
+            }
+        }
+        if (p == end - 1) {
+            return c[p] == 'Z' || c[p] == 'z';
+        }
+        return p == end - 6 && (c[p] == '+' || c[p] == '-')
+                && twoDigits(c, p + 1, 23) && c[p + 3] == ':' && twoDigits(c, p + 4, 59);
+    }
+
+    /**
+     * full-date de RFC 3339: YYYY-MM-DD con días según mes y año bisiesto
+     */
+    static boolean isFullDate(char[] c, int offset, int length) {
+        if (length != 10 || c[offset + 4] != '-' || c[offset + 7] != '-') {
+            return false;
+        }
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            char digit = c[offset + i];
+            if (digit < '0' || digit > '9') {
+                return false;
+            }
+            year = year * 10 + (digit - '0');
+        }
+        if (!twoDigits(c, offset + 5, 12) || !twoDigits(c, offset + 8, 31)) {
+            return false;
+        }
+        int month = (c[offset + 5] - '0') * 10 + (c[offset + 6] - '0');
+        int day = (c[offset + 8] - '0') * 10 + (c[offset + 9] - '0');
+        if (month == 0 || day == 0) {
+            return false;
+        }
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        int maxDay = month == 2 ? (leap ? 29 : 28) : (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+        return day <= maxDay;
+    }
+
+    private static boolean twoDigits(char[] c, int p, int max) {
+        char high = c[p];
+        char low = c[p + 1];
+        return high >= '0' && high <= '9' && low >= '0' && low <= '9' && (high - '0') * 10 + (low - '0') <= max;
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() <= 60 ? text : text.substring(0, 57) + "...";
+    }
+}
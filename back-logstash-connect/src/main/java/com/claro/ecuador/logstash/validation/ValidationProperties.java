@@ -0,0 +1,46 @@
+package com.claro.ecuador.logstash.validation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Validación de esquema por topic (back-logstash-connect.validation)
+ * schemas: topic -> ubicación del JSON Schema (classpath: o file:); los topics sin esquema no se validan.
+ *
+ * @author Global HITSS
+ */
+@Component
+@ConfigurationProperties(prefix = "back-logstash-connect.validation")
+public class ValidationProperties {
+
+    private boolean enabled = true;
+    private String errorTopic = "errors.events";
+    private Map<String, String> schemas = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getErrorTopic() {
+        return errorTopic;
+    }
+
+    public void setErrorTopic(String errorTopic) {
+        this.errorTopic = errorTopic;
+    }
+
+    public Map<String, String> getSchemas() {
+        return schemas;
+    }
+
+    public void setSchemas(Map<String, String> schemas) {
+        this.schemas = schemas;
+    }
+}
@@ -0,0 +1,63 @@
+package com.claro.ecuador.logstash.consumer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pausa compartida entre el sink HTTP y la cola de desborde
+ *
+ * @author Global HITSS
+ */
+public class ConsumerPauseControllerTest {
+
+    private MessageListenerContainer container;
+    private ConsumerPauseController controller;
+
+    @Before
+    public void setUp() {
+        container = mock(MessageListenerContainer.class);
+        when(container.isRunning()).thenReturn(true);
+        KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+        when(registry.getListenerContainers()).thenReturn(Collections.singletonList(container));
+        controller = new ConsumerPauseController();
+        ReflectionTestUtils.setField(controller, "kafkaListenerEndpointRegistry", registry);
+    }
+
+    @Test
+    public void resumesOnlyWhenNoReasonRemains() {
+        assertTrue(controller.pause(ConsumerPauseController.REASON_LOGSTASH_PENDING));
+        assertTrue(controller.pause(ConsumerPauseController.REASON_SPILL_FULL));
+        verify(container, times(1)).pause();
+
+        assertTrue(controller.resume(ConsumerPauseController.REASON_LOGSTASH_PENDING));
+        verify(container, never()).resume();
+        assertTrue(controller.isPausedBy(ConsumerPauseController.REASON_SPILL_FULL));
+
+        assertTrue(controller.resume(ConsumerPauseController.REASON_SPILL_FULL));
+        verify(container, times(1)).resume();
+        assertTrue(controller.reasons().isEmpty());
+    }
+
+    @Test
+    public void repeatedPauseAndUnknownResumeAreIgnored() {
+        assertTrue(controller.pause(ConsumerPauseController.REASON_SPILL_FULL));
+        assertFalse(controller.pause(ConsumerPauseController.REASON_SPILL_FULL));
+        assertFalse(controller.resume(ConsumerPauseController.REASON_LOGSTASH_PENDING));
+
+        verify(container, times(1)).pause();
+        verify(container, never()).resume();
+    }
+}
@@ -0,0 +1,114 @@
+package com.claro.ecuador.logstash.consumer;
+
+import com.claro.ecuador.commons.instrumentation.PipelineMetrics;
+import com.claro.ecuador.logstash.deadletter.DeadLetterPublisher;
+import com.claro.ecuador.logstash.enrich.LogstashEventEnricher;
+import com.claro.ecuador.logstash.spill.SpillBuffer;
+import com.claro.ecuador.logstash.validation.SchemaValidationStage;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Registros rechazados por esquema o con error de enriquecimiento: van a errors.events y el ack del
+ * poll espera esa publicación
+ *
+ * @author Global HITSS
+ */
+public class LogstashConnectConsumerTest {
+
+    private LogstashEventEnricher enricher;
+    private SchemaValidationStage validation;
+    private SpillBuffer spillBuffer;
+    private DeadLetterPublisher deadLetterPublisher;
+    private LogstashConnectConsumer consumer;
+
+    @Before
+    public void setUp() {
+        enricher = mock(LogstashEventEnricher.class);
+        validation = mock(SchemaValidationStage.class);
+        spillBuffer = mock(SpillBuffer.class);
+        deadLetterPublisher = mock(DeadLetterPublisher.class);
+        when(deadLetterPublisher.errorEvent(anyString(), anyString(), anyString(), anyString())).thenCallRealMethod();
+        when(validation.accept(any(), anyList())).thenReturn(true);
+
+        consumer = new LogstashConnectConsumer();
+        ReflectionTestUtils.setField(consumer, "logstashEventEnricher", enricher);
+        ReflectionTestUtils.setField(consumer, "schemaValidationStage", validation);
+        ReflectionTestUtils.setField(consumer, "spillBuffer", spillBuffer);
+        ReflectionTestUtils.setField(consumer, "deadLetterPublisher", deadLetterPublisher);
+        ReflectionTestUtils.setField(consumer, "pipelineMetrics", mock(PipelineMetrics.class));
+    }
+
+    @Test
+    public void enrichmentFailureIsDeadLetteredBeforeTheAck() throws IOException {
+        ConsumerRecord<String, String> good = new ConsumerRecord<>("Events", 0, 10, "k1", "{\"id\":1}");
+        ConsumerRecord<String, String> broken = new ConsumerRecord<>("Events", 0, 11, "k2", "{\"id\":2}");
+        doAnswer(invocation -> {
+            invocation.<List<byte[]>>getArgument(1).add(new byte[]{'{', '}'});
+            return 1;
+        }).when(enricher).enrich(eq(good), anyList());
+        when(enricher.enrich(eq(broken), anyList())).thenThrow(new IOException("campo ilegible"));
+        CompletableFuture<Void> published = new CompletableFuture<>();
+        when(deadLetterPublisher.publish(eq("k2"), any())).thenReturn(published);
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        consumer.consumeIndexedTopics(Arrays.asList(good, broken), ack);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> errorEvent = ArgumentCaptor.forClass(Map.class);
+        verify(deadLetterPublisher).publish(eq("k2"), errorEvent.capture());
+        assertEquals("Events", errorEvent.getValue().get("topic"));
+        assertEquals("IOException", errorEvent.getValue().get("errorType"));
+        assertEquals("{\"id\":2}", errorEvent.getValue().get("originalMessage"));
+        assertEquals(11L, errorEvent.getValue().get("offset"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<byte[]>> documents = ArgumentCaptor.forClass(List.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CompletableFuture<Void>>> deadLetters = ArgumentCaptor.forClass(List.class);
+        verify(spillBuffer).deliver(documents.capture(), deadLetters.capture(), eq(ack));
+        assertEquals(1, documents.getValue().size());
+        assertEquals(1, deadLetters.getValue().size());
+        assertSame(published, deadLetters.getValue().get(0));
+    }
+
+    @Test
+    public void schemaRejectionHoldsTheAckUntilPublished() {
+        ConsumerRecord<String, String> invalid = new ConsumerRecord<>("Events", 0, 12, "k3", "{\"eventType\":1}");
+        CompletableFuture<Void> published = new CompletableFuture<>();
+        when(validation.accept(eq(invalid), anyList())).thenAnswer(invocation -> {
+            invocation.<List<CompletableFuture<Void>>>getArgument(1).add(published);
+            return false;
+        });
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        consumer.consumeIndexedTopics(Collections.singletonList(invalid), ack);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CompletableFuture<Void>>> deadLetters = ArgumentCaptor.forClass(List.class);
+        verify(spillBuffer).deliver(eq(Collections.<byte[]>emptyList()), deadLetters.capture(), eq(ack));
+        assertEquals(Collections.singletonList(published), deadLetters.getValue());
+    }
+}
@@ -0,0 +1,165 @@
+package com.claro.ecuador.logstash.enrich;
+
+import com.claro.ecuador.commons.instrumentation.PipelineMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Salida del enriquecimiento en proceso contra la del pipeline de baseline
+ * (golden/enrichment-baseline.json, derivado de logstash/config/kafka-to-elasticsearch.conf), con las
+ * reglas por topic del application.yml real
+ * El baseline no tenía decorate_events en el input kafka: [@metadata][kafka] no se resolvía, ningún
+ * condicional por kafka_topic coincidía y el índice quedaba transforma-ecuador-%{event_type}-fecha. Los
+ * casos golden son los del filtro con decorate_events, que es lo que el enriquecimiento reproduce.
+ *
+ * @author Global HITSS
+ */
+public class LogstashEventEnricherTest {
+
+    private static final DateTimeFormatter INDEX_DATE =
+            DateTimeFormatter.ofPattern("yyyy.MM.dd", Locale.ROOT).withZone(ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void matchesBaselinePipelineOutput() throws Exception {
+        LogstashEventEnricher enricher = newEnricher(LogstashEventEnricher.TARGET_LOGSTASH);
+        JsonNode golden = readGolden();
+
+        for (JsonNode goldenCase : golden.get("cases")) {
+            String name = goldenCase.get("name").asText();
+            long before = System.currentTimeMillis();
+            List<byte[]> out = new ArrayList<>();
+            int count = enricher.enrich(record(goldenCase), out);
+            long after = System.currentTimeMillis();
+
+            JsonNode expected = goldenCase.get("expected");
+            assertEquals(name, expected.size(), count);
+            assertEquals(name, expected.size(), out.size());
+            for (int i = 0; i < out.size(); i++) {
+                JsonNode actual = objectMapper.readTree(out.get(i));
+                assertEquals(name, resolve(expected.get(i), actual, before, after), actual);
+            }
+        }
+    }
+
+    @Test
+    public void writesBulkActionForElasticsearchTarget() throws Exception {
+        LogstashEventEnricher enricher = newEnricher(LogstashEventEnricher.TARGET_ELASTICSEARCH);
+        JsonNode goldenCase = readGolden().get("cases").get(1);
+
+        List<byte[]> out = new ArrayList<>();
+        enricher.enrich(record(goldenCase), out);
+
+        String[] lines = new String(out.get(0), StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(2, lines.length);
+        assertEquals("{\"index\":{\"_index\":\"transforma-ecuador-order-2024.03.05\",\"_type\":\"_doc\"}}", lines[0]);
+        // En bulk el índice va en la acción: la fuente es la del golden sin @metadata
+        ObjectNode expected = (ObjectNode) goldenCase.get("expected").get(0).deepCopy();
+        expected.remove("@metadata");
+        assertEquals(expected, objectMapper.readTree(lines[1]));
+    }
+
+    @Test
+    public void skipsEmptyRecords() throws Exception {
+        LogstashEventEnricher enricher = newEnricher(LogstashEventEnricher.TARGET_LOGSTASH);
+        List<byte[]> out = new ArrayList<>();
+
+        assertEquals(0, enricher.enrich(new ConsumerRecord<>("Events", 0, 0L, "k", "  "), out));
+        assertEquals(0, enricher.enrich(new ConsumerRecord<>("Events", 0, 1L, "k", null), out));
+        assertTrue(out.isEmpty());
+    }
+
+    @Test
+    public void dropsConfiguredEventTypes() throws Exception {
+        LogstashEventEnricher enricher = newEnricher(LogstashEventEnricher.TARGET_LOGSTASH);
+        List<byte[]> out = new ArrayList<>();
+
+        // Events descarta SYSTEM_METRIC (se indexa como rollup en events-processor) sin importar mayúsculas
+        String batch = "[{\"eventId\":\"m-1\",\"eventType\":\"system_metric\"},"
+                + "{\"eventId\":\"u-1\",\"eventType\":\"USER_ACTION\"}]";
+        assertEquals(1, enricher.enrich(new ConsumerRecord<>("Events", 0, 0L, "k", batch), out));
+        assertEquals("u-1", objectMapper.readTree(out.get(0)).get("eventId").asText());
+
+        // El descarte es por topic: otro topic indexa el mismo tipo
+        String metric = "{\"eventId\":\"m-2\",\"eventType\":\"SYSTEM_METRIC\"}";
+        assertEquals(1, enricher.enrich(new ConsumerRecord<>("salesforce.customer", 0, 0L, "k", metric), out));
+        assertEquals(2, out.size());
+    }
+
+    /**
+     * Reemplaza ${now} (@timestamp de ingesta) y ${today} por los valores del documento, después de
+     * comprobar que ese @timestamp cae dentro de la llamada a enrich
+     */
+    private JsonNode resolve(JsonNode expected, JsonNode actual, long before, long after) throws IOException {
+        String text = objectMapper.writeValueAsString(expected);
+        if (!text.contains("${now}") && !text.contains("${today}")) {
+            return expected;
+        }
+        String now = actual.get("@timestamp").asText();
+        long millis = Instant.parse(now).toEpochMilli();
+        assertFalse("@timestamp de ingesta " + now, millis < before || millis > after);
+        return objectMapper.readTree(text.replace("${now}", now)
+                .replace("${today}", INDEX_DATE.format(Instant.ofEpochMilli(millis))));
+    }
+
+    private LogstashEventEnricher newEnricher(String target) throws IOException {
+        LogstashEventEnricher enricher = new LogstashEventEnricher();
+        ReflectionTestUtils.setField(enricher, "properties", applicationProperties());
+        ReflectionTestUtils.setField(enricher, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(enricher, "pipelineMetrics", mock(PipelineMetrics.class));
+        ReflectionTestUtils.setField(enricher, "target", target);
+        enricher.compile();
+        return enricher;
+    }
+
+    /**
+     * Reglas por topic tal como las publica application.yml
+     */
+    private static EnrichmentProperties applicationProperties() throws IOException {
+        MutablePropertySources sources = new MutablePropertySources();
+        for (PropertySource<?> source : new YamlPropertySourceLoader()
+                .load("application", new ClassPathResource("application.yml"))) {
+            sources.addLast(source);
+        }
+        return new Binder(ConfigurationPropertySources.from(sources))
+                .bind("back-logstash-connect.enrichment", EnrichmentProperties.class)
+                .get();
+    }
+
+    private JsonNode readGolden() throws IOException {
+        try (InputStream in = new ClassPathResource("golden/enrichment-baseline.json").getInputStream()) {
+            return objectMapper.readTree(in);
+        }
+    }
+
+    private static ConsumerRecord<String, String> record(JsonNode goldenCase) {
+        return new ConsumerRecord<>(goldenCase.get("topic").asText(), goldenCase.get("partition").asInt(),
+                goldenCase.get("offset").asLong(), null, goldenCase.get("value").asText());
+    }
+}
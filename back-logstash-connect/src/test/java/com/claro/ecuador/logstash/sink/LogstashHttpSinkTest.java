@@ -0,0 +1,227 @@
+package com.claro.ecuador.logstash.sink;
+
+import com.claro.ecuador.logstash.consumer.ConsumerPauseController;
+import com.claro.ecuador.logstash.deadletter.DeadLetterPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Entrega a Logstash contra un input HTTP de prueba: confirmación en orden, reintentos, división del
+ * lote ante 4xx y ack retenido hasta publicar en errors.events
+ *
+ * @author Global HITSS
+ */
+public class LogstashHttpSinkTest {
+
+    private HttpServer server;
+    // Estado a responder por petición; sin entrada se responde 400 si algún documento trae "bad", si no 200
+    private final ConcurrentLinkedQueue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private final List<List<String>> requests = new CopyOnWriteArrayList<>();
+
+    private DeadLetterPublisher deadLetterPublisher;
+    private LogstashHttpSink sink;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            List<String> lines = lines(exchange.getRequestBody(),
+                    "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding")));
+            requests.add(lines);
+            Integer status = statuses.poll();
+            if (status == null) {
+                status = lines.stream().anyMatch(line -> line.contains("bad")) ? 400 : 200;
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+
+        deadLetterPublisher = mock(DeadLetterPublisher.class);
+        when(deadLetterPublisher.errorEvent(anyString(), anyString(), anyString(), anyString())).thenCallRealMethod();
+        when(deadLetterPublisher.publish(isNull(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        sink = new LogstashHttpSink();
+        ReflectionTestUtils.setField(sink, "consumerPauseController", mock(ConsumerPauseController.class));
+        ReflectionTestUtils.setField(sink, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(sink, "deadLetterPublisher", deadLetterPublisher);
+        ReflectionTestUtils.setField(sink, "target", "logstash");
+        ReflectionTestUtils.setField(sink, "logstashUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(sink, "batchSize", 100);
+        ReflectionTestUtils.setField(sink, "batchBytes", 1048576);
+        ReflectionTestUtils.setField(sink, "maxInFlight", 1);
+        ReflectionTestUtils.setField(sink, "gzip", true);
+        ReflectionTestUtils.setField(sink, "requestTimeoutMs", 5000);
+        ReflectionTestUtils.setField(sink, "retryBackoffMs", 5L);
+        ReflectionTestUtils.setField(sink, "maxBackoffMs", 50L);
+        ReflectionTestUtils.setField(sink, "maxPendingRecords", 1000);
+        sink.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        sink.stop();
+        server.stop(0);
+    }
+
+    @Test
+    public void acknowledgesPollOnceLogstashAcceptsIt() {
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        sink.send(documents("{\"id\":1}", "{\"id\":2}"), ack);
+        sink.flush();
+
+        verify(ack, timeout(5000)).acknowledge();
+        assertEquals(1, requests.size());
+        assertEquals(Arrays.asList("{\"id\":1}", "{\"id\":2}"), requests.get(0));
+        assertEquals(0, sink.pendingRecords());
+    }
+
+    @Test
+    public void retriesServerErrorsUntilAccepted() {
+        statuses.add(503);
+        statuses.add(429);
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        sink.send(documents("{\"id\":1}"), ack);
+        sink.flush();
+
+        verify(ack, timeout(5000)).acknowledge();
+        assertEquals(3, requests.size());
+        assertEquals(2L, sink.stats().get("retries"));
+        verify(deadLetterPublisher, never()).publish(any(), any());
+    }
+
+    @Test
+    public void bisectsRejectedBatchAndDeadLettersOnlyTheRejectedDocument() {
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        sink.send(documents("{\"id\":1}", "{\"id\":2,\"bad\":true}", "{\"id\":3}", "{\"id\":4}"), ack);
+        sink.flush();
+
+        verify(ack, timeout(5000)).acknowledge();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> errorEvent = ArgumentCaptor.forClass(Map.class);
+        verify(deadLetterPublisher).publish(isNull(), errorEvent.capture());
+        assertEquals("{\"id\":2,\"bad\":true}", errorEvent.getValue().get("originalMessage"));
+        assertEquals(LogstashHttpSink.REJECTED_ERROR_TYPE, errorEvent.getValue().get("errorType"));
+
+        Map<String, Object> stats = sink.stats();
+        assertEquals(3L, stats.get("sent"));
+        assertEquals(1L, stats.get("rejected"));
+        // [1,2,3,4] → [1,2] + [3,4]; [1,2] → [1] + [2]
+        assertEquals(2L, stats.get("bisections"));
+    }
+
+    @Test
+    public void holdsAckUntilRejectedDocumentIsDeadLettered() {
+        CompletableFuture<Void> published = new CompletableFuture<>();
+        when(deadLetterPublisher.publish(isNull(), any())).thenReturn(published);
+        Acknowledgment first = mock(Acknowledgment.class);
+        Acknowledgment second = mock(Acknowledgment.class);
+
+        sink.send(documents("{\"bad\":true}"), first);
+        sink.flush();
+        verify(deadLetterPublisher, timeout(5000)).publish(isNull(), any());
+        sink.send(documents("{\"id\":2}"), second);
+        sink.flush();
+
+        // El segundo poll ya se entregó, pero no se confirma antes que el primero
+        verify(first, after(300).never()).acknowledge();
+        verify(second, never()).acknowledge();
+
+        published.complete(null);
+        InOrder order = inOrder(first, second);
+        order.verify(first, timeout(5000)).acknowledge();
+        order.verify(second, timeout(5000)).acknowledge();
+    }
+
+    @Test
+    public void holdsAckUntilPollDeadLettersArePublished() {
+        CompletableFuture<Void> deadLetter = new CompletableFuture<>();
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        sink.send(documents("{\"id\":1}"), Collections.singletonList(deadLetter), ack);
+        sink.flush();
+
+        verify(ack, after(300).never()).acknowledge();
+        assertEquals(1, requests.size());
+
+        deadLetter.complete(null);
+        verify(ack, timeout(5000)).acknowledge();
+    }
+
+    @Test
+    public void pollWithoutDocumentsWaitsForItsDeadLetters() {
+        CompletableFuture<Void> deadLetter = new CompletableFuture<>();
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        sink.send(Collections.<byte[]>emptyList(), Collections.singletonList(deadLetter), ack);
+        verify(ack, never()).acknowledge();
+
+        deadLetter.complete(null);
+        verify(ack).acknowledge();
+        assertTrue(requests.isEmpty());
+    }
+
+    private static List<byte[]> documents(String... documents) {
+        List<byte[]> bytes = new ArrayList<>();
+        for (String document : documents) {
+            bytes.add(document.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes;
+    }
+
+    private static List<String> lines(InputStream body, boolean gzip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = gzip ? new GZIPInputStream(body) : body) {
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+        }
+        List<String> lines = new ArrayList<>();
+        for (String line : new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
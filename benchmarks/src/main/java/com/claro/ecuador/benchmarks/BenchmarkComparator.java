@@ -0,0 +1,103 @@
+package com.claro.ecuador.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara dos resultados JSON de BenchmarkRunner (por ejemplo, el commit base y el candidato)
+ * Por benchmark, parámetros y modo muestra el score, su variación y la asignación por operación
+ * (gc.alloc.rate.norm). Termina con código 1 si algún score empeora más que el umbral
+ * (menor throughput o mayor tiempo promedio), para usarlo como gate en CI.
+ *
+ *   java -cp target/benchmarks.jar com.claro.ecuador.benchmarks.BenchmarkComparator base.json candidato.json [umbral%=10]
+ *
+ * @author Global HITSS
+ */
+public final class BenchmarkComparator {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private BenchmarkComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: BenchmarkComparator <base.json> <candidato.json> [umbral%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> base = load(new File(args[0]));
+        Map<String, JsonNode> candidate = load(new File(args[1]));
+
+        int regressions = 0;
+        System.out.println(String.format(Locale.ROOT, "%-80s %14s %14s %9s %12s %12s %9s",
+                "benchmark", "base", "candidato", "var%", "B/op base", "B/op cand", "var%"));
+        for (Map.Entry<String, JsonNode> entry : base.entrySet()) {
+            JsonNode after = candidate.get(entry.getKey());
+            if (after == null) {
+                System.out.println(String.format(Locale.ROOT, "%-80s %14s", entry.getKey(), "(sin resultado)"));
+                continue;
+            }
+            JsonNode before = entry.getValue();
+            double scoreBefore = before.path("primaryMetric").path("score").asDouble();
+            double scoreAfter = after.path("primaryMetric").path("score").asDouble();
+            double scoreChange = change(scoreBefore, scoreAfter);
+            double allocationBefore = before.path("secondaryMetrics").path(ALLOCATION).path("score").asDouble(Double.NaN);
+            double allocationAfter = after.path("secondaryMetrics").path(ALLOCATION).path("score").asDouble(Double.NaN);
+
+            // En thrpt más es mejor; en avgt/sample/ss menos es mejor
+            boolean higherIsBetter = "thrpt".equals(before.path("mode").asText());
+            boolean regression = higherIsBetter ? scoreChange < -threshold : scoreChange > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.println(String.format(Locale.ROOT, "%-80s %14.5g %14.5g %+8.1f%% %12.0f %12.0f %+8.1f%%%s",
+                    entry.getKey(), scoreBefore, scoreAfter, scoreChange, allocationBefore, allocationAfter,
+                    change(allocationBefore, allocationAfter), regression ? "  <<" : ""));
+        }
+        for (String key : candidate.keySet()) {
+            if (!base.containsKey(key)) {
+                System.out.println(String.format(Locale.ROOT, "%-80s %14s", key, "(nuevo)"));
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) empeoran más de " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Resultados por "benchmark [param=valor,...] modo", en orden estable
+     */
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new TreeMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            Map<String, String> params = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                params.put(field.getKey(), field.getValue().asText());
+            }
+            String benchmark = result.path("benchmark").asText().replace("com.claro.ecuador.benchmarks.", "");
+            String key = benchmark + (params.isEmpty() ? "" : " " + params) + " " + result.path("mode").asText();
+            results.put(key, result);
+        }
+        return results;
+    }
+
+    private static double change(double before, double after) {
+        if (Double.isNaN(before) || Double.isNaN(after) || before == 0) {
+            return Double.NaN;
+        }
+        return (after - before) / before * 100.0;
+    }
+}
@@ -0,0 +1,104 @@
+package com.claro.ecuador.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Punto de entrada de benchmarks.jar
+ * Acepta las mismas opciones que el Main de JMH y agrega los valores por defecto del proyecto:
+ * profiler gc (asignación por operación) y resultados JSON en target/jmh-results/{fecha}-{commit}.json,
+ * comparables entre commits con BenchmarkComparator.
+ *
+ * Ejemplos:
+ *   java -jar target/benchmarks.jar                              (todas las suites completas)
+ *   java -jar target/benchmarks.jar LogstashConnect -p size=64kb (una suite / un tamaño)
+ *   java -jar target/benchmarks.jar ErrorRules -p rules=regex    (reglas de errores aisladas)
+ *   java -jar target/benchmarks.jar -wi 1 -i 1 -f 1              (corrida rápida)
+ *
+ * @author Global HITSS
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!hasGcProfiler(commandLine)) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            Path result = defaultResultFile();
+            Files.createDirectories(result.getParent());
+            options.result(result.toString());
+            System.out.println("📈 Resultados en " + result);
+        }
+        new Runner(options.build()).run();
+    }
+
+    private static boolean hasGcProfiler(CommandLineOptions commandLine) {
+        for (ProfilerConfig profiler : commandLine.getProfilers()) {
+            if ("gc".equals(profiler.getKlass()) || GCProfiler.class.getName().equals(profiler.getKlass())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * target/jmh-results junto a benchmarks.jar (o bajo el directorio actual si no se ejecuta desde el jar)
+     */
+    private static Path defaultResultFile() {
+        Path directory = Paths.get("target", "jmh-results");
+        try {
+            File codeSource = new File(BenchmarkRunner.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (codeSource.isFile()) {
+                directory = codeSource.toPath().toAbsolutePath().getParent().resolve("jmh-results");
+            }
+        } catch (Exception ignored) {
+            // Se usa el directorio relativo
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        return directory.resolve(timestamp + "-" + gitCommit() + ".json");
+    }
+
+    private static String gitCommit() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line = reader.readLine();
+                if (process.waitFor() == 0 && line != null && !line.trim().isEmpty()) {
+                    return line.trim();
+                }
+            }
+        } catch (Exception ignored) {
+            // Sin git disponible
+        }
+        return "local";
+    }
+}
@@ -0,0 +1,149 @@
+package com.claro.ecuador.benchmarks;
+
+import com.claro.ecuador.errors.ErrorsHandlerApplication;
+import com.claro.ecuador.commons.sink.ElasticsearchBulkSink;
+import com.claro.ecuador.errors.consumer.ErrorEventsConsumer;
+import com.claro.ecuador.errors.consumer.ErrorEventsConsumerHotPath;
+import com.claro.ecuador.errors.retry.RetryScheduler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * errors-handler: ErrorEventsConsumer.processErrorEvent sobre el contexto real del módulo
+ * (reglas, plantillas, ventana de conteo, alertas con MailStubConfiguration, retry scheduler,
+ * almacén local y sink _bulk hacia el HttpStub)
+ * Los reintentos vencen a los pocos ms y se republican en KafkaTemplateStubConfiguration, así que
+ * RetryScheduler no acumula mensajes; al final de cada iteración se espera a que queden vacíos
+ * el retry scheduler y el buffer del sink, para que una iteración no herede la memoria de la anterior.
+ * Cada registro del DLQ envuelve un evento del fixture con una mezcla fija de errorType que recorre
+ * todas las severidades; 1 de cada 8 es crítico y genera alerta por email.
+ *
+ * @author Global HITSS
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms256m", "-Xmx256m"})
+public class ErrorEventsBenchmark {
+
+    // errorType y plantilla del mensaje de error ({id} = eventId, {n} = número variable)
+    private static final String[][] ERRORS = {
+            {"ValidationException", "Campo customerId inválido en evento {id}: longitud {n}"},
+            {"SCHEMA_PATTERN_MISMATCH", "Valor no cumple ^[A-Za-z0-9]{15,18}$ en /accountId (offset {n})"},
+            {"ConnectionTimeoutException", "Timeout conectando a Salesforce tras {n} ms procesando {id}"},
+            {"SQLException", "ORA-00001: restricción única violada al insertar {id} (fila {n})"},
+            {"JsonProcessingException", "Unexpected character at line 1 column {n} in {id}"},
+            {"ConnectionTimeoutException", "Read timed out después de {n} ms hacia elasticsearch:9200"},
+            {"IllegalArgumentException", "Estado desconocido para {id}: {n}"},
+            {"DatabaseConnectionException", "No se pudo obtener conexión del pool tras {n} ms"}
+    };
+
+    @Param({"customer", "order", "contract"})
+    public String fixture;
+
+    @Param({Payloads.FIXTURE_SIZE, "4kb", "64kb"})
+    public String size;
+
+    private ModuleContext module;
+    private ErrorEventsConsumer consumer;
+    private RetryScheduler retryScheduler;
+    private ElasticsearchBulkSink elasticsearchBulkSink;
+    private String[] messages;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        module = ModuleContext.start("errors-handler",
+                new Class<?>[]{ErrorsHandlerApplication.class, MailStubConfiguration.class,
+                        KafkaTemplateStubConfiguration.class},
+                "error-handler.retry.journal-file={data}/retries/pending-retries.log",
+                "error-handler.store.directory={data}/error-store",
+                "error-handler.replay.ledger-file={data}/replay/replayed-offsets.ledger",
+                // Vencimiento casi inmediato: los pendientes (con el mensaje original) no se acumulan
+                "error-handler.retry.backoff-delay=10",
+                "error-handler.retry.max-backoff-ms=100",
+                "error-handler.retry.compact-interval-ms=1000",
+                // Digest corto para que las alertas lleguen al mail stub dentro de la medición
+                "error-handler.alert.digest-window-ms=1000");
+        consumer = module.bean(ErrorEventsConsumer.class);
+        retryScheduler = module.bean(RetryScheduler.class);
+        elasticsearchBulkSink = module.bean(ElasticsearchBulkSink.class);
+        messages = dlqRecords(Payloads.events(fixture, size));
+    }
+
+    @Benchmark
+    public void processErrorEvent() throws Exception {
+        String message = messages[next];
+        next = next + 1 == messages.length ? 0 : next + 1;
+        ErrorEventsConsumerHotPath.processErrorEvent(consumer, message);
+    }
+
+    @TearDown(Level.Iteration)
+    public void drain() throws InterruptedException {
+        elasticsearchBulkSink.flush();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (((Number) retryScheduler.stats().get("pending")).intValue() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Reintentos pendientes sin vencer tras la iteración: "
+                        + retryScheduler.stats().get("pending"));
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.out.println("📧 Alertas enviadas al mail stub: "
+                + module.bean(MailStubConfiguration.CountingMailSender.class).sent()
+                + ", reintentos republicados: "
+                + module.bean(KafkaTemplateStubConfiguration.CountingKafkaTemplate.class).sent());
+        module.close();
+    }
+
+    /**
+     * Registros con el formato que publican los productores en errors.events
+     */
+    private String[] dlqRecords(List<byte[]> events) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> records = new ArrayList<>();
+        // Varias vueltas para que cada evento aparezca con distintos errorType
+        for (int round = 0; round < ERRORS.length; round++) {
+            for (int i = 0; i < events.size(); i++) {
+                String originalMessage = new String(events.get(i), StandardCharsets.UTF_8);
+                String eventId = mapper.readTree(originalMessage).path("eventId").asText();
+                String[] error = ERRORS[(round + i) % ERRORS.length];
+                int number = 1000 + (round * 7919 + i * 104729) % 30000;
+
+                ObjectNode record = mapper.createObjectNode();
+                record.put("topic", Payloads.topic(fixture));
+                record.put("errorType", error[0]);
+                record.put("error", error[1].replace("{id}", eventId).replace("{n}", String.valueOf(number)));
+                record.put("timestamp", String.format(Locale.ROOT, "2025-09-17T%02d:%02d:00Z", round, i));
+                record.put("originalMessage", originalMessage);
+                records.add(mapper.writeValueAsString(record));
+            }
+        }
+        return records.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,146 @@
+package com.claro.ecuador.benchmarks;
+
+import com.claro.ecuador.errors.rules.ErrorClassification;
+import com.claro.ecuador.errors.rules.ErrorRuleEngine;
+import com.claro.ecuador.errors.rules.ErrorRuleEngineHotPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * errors-handler: ErrorRuleEngine.classify aislado del consumer, con tres conjuntos de reglas
+ * - default: error-rules.yml del módulo (solo errorType, lookup en tabla hash)
+ * - substring: 48 reglas message-contains (una pasada Aho-Corasick por mensaje)
+ * - regex: 48 reglas message-regex (cada regla candidata evalúa su expresión)
+ * Los mensajes mezclan coincidencias tempranas, tardías y ninguna; 1 de cada 4 lleva un stack trace
+ * que supera max-scan-chars, para medir el corte del escaneo.
+ *
+ * @author Global HITSS
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms256m", "-Xmx256m"})
+public class ErrorRulesBenchmark {
+
+    private static final int GENERATED_RULES = 48;
+    private static final int MAX_SCAN_CHARS = 4096;
+    private static final String[] SEVERITIES = {"CRITICAL", "HIGH", "MEDIUM", "LOW"};
+
+    // errorType y plantilla del mensaje ({n} = número variable)
+    private static final String[][] ERRORS = {
+            {"ValidationException", "Campo customerId inválido en evento evt-{n}: longitud {n}"},
+            {"SCHEMA_PATTERN_MISMATCH", "Valor no cumple ^[A-Za-z0-9]{15,18}$ en /accountId (offset {n})"},
+            {"ConnectionTimeoutException", "Timeout conectando a Salesforce tras {n} ms"},
+            {"SQLException", "ORA-00001: restricción única violada al insertar fila {n}"},
+            {"JsonProcessingException", "Unexpected character at line 1 column {n}"},
+            {"ConnectionTimeoutException", "Read timed out después de {n} ms hacia elasticsearch:9200"},
+            {"IllegalArgumentException", "Estado desconocido para la orden {n}"},
+            {"DatabaseConnectionException", "No se pudo obtener conexión del pool tras {n} ms"}
+    };
+
+    @Param({"default", "substring", "regex"})
+    public String rules;
+
+    private Path rulesFile;
+    private ErrorRuleEngine engine;
+    private String[][] inputs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String file = "";
+        if (!"default".equals(rules)) {
+            rulesFile = Files.createTempFile("error-rules-", ".yml");
+            Files.write(rulesFile, generatedRules("regex".equals(rules)).getBytes(StandardCharsets.UTF_8));
+            file = rulesFile.toString();
+        }
+        engine = ErrorRuleEngineHotPath.start(file, MAX_SCAN_CHARS);
+        inputs = inputs();
+    }
+
+    @Benchmark
+    public ErrorClassification classify() {
+        String[] input = inputs[next];
+        next = next + 1 == inputs.length ? 0 : next + 1;
+        return engine.classify(input[0], input[1], input[2]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        long matches = 0;
+        for (Object rule : (List<?>) engine.stats().get("rules")) {
+            matches += ((Number) ((Map<?, ?>) rule).get("matches")).longValue();
+        }
+        System.out.println("📐 Coincidencias de reglas durante la medición: " + matches);
+        if (rulesFile != null) {
+            Files.deleteIfExists(rulesFile);
+        }
+    }
+
+    /**
+     * Reglas sobre el texto del error: cada una con tres fragmentos (o una alternancia equivalente)
+     * que en su mayoría no aparecen en los mensajes, como en un archivo de reglas real
+     */
+    private static String generatedRules(boolean regex) {
+        StringBuilder yaml = new StringBuilder("defaults:\n  severity: LOW\n  recoverable: false\nrules:\n");
+        for (int i = 0; i < GENERATED_RULES; i++) {
+            String[] fragments = {"fallo-" + i + " en servicio", "código e" + (1000 + i), "cola-" + i + " saturada"};
+            if (i == GENERATED_RULES / 2) {
+                fragments[0] = "timed out";
+            } else if (i == GENERATED_RULES - 1) {
+                fragments[0] = "ora-00001";
+            }
+            yaml.append("  - name: rule-").append(i).append('\n');
+            if (regex) {
+                yaml.append("    message-regex: '(?i)(")
+                        .append(String.join("|", fragments)).append(")'\n");
+            } else {
+                yaml.append("    message-contains: [").append(String.join(", ", fragments)).append("]\n");
+            }
+            yaml.append("    severity: ").append(SEVERITIES[i % SEVERITIES.length]).append('\n');
+            if (i % 8 == 0) {
+                yaml.append("    recoverable: ").append(i % 16 == 0).append('\n');
+            }
+        }
+        return yaml.toString();
+    }
+
+    private static String[][] inputs() {
+        StringBuilder stackTrace = new StringBuilder();
+        while (stackTrace.length() < MAX_SCAN_CHARS * 2) {
+            stackTrace.append("\n\tat com.claro.ecuador.events.consumer.GeneralEventsConsumer.processRecord(GeneralEventsConsumer.java:")
+                    .append(300 + stackTrace.length() % 97).append(')');
+        }
+        String[][] inputs = new String[ERRORS.length * 4][];
+        for (int i = 0; i < inputs.length; i++) {
+            String[] error = ERRORS[i % ERRORS.length];
+            String message = error[1].replace("{n}", String.format(Locale.ROOT, "%d", 1000 + i * 7919 % 30000));
+            if (i % 4 == 3) {
+                message += stackTrace;
+            }
+            inputs[i] = new String[]{i % 2 == 0 ? "Events" : "salesforce.orders", error[0], message};
+        }
+        return inputs;
+    }
+}
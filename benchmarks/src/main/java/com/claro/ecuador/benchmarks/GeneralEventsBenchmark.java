@@ -0,0 +1,82 @@
+package com.claro.ecuador.benchmarks;
+
+import com.claro.ecuador.events.EventsProcessorApplication;
+import com.claro.ecuador.events.consumer.GeneralEventsConsumer;
+import com.claro.ecuador.events.consumer.GeneralEventsConsumerHotPath;
+import com.claro.ecuador.events.handler.EventHandlerRegistry.AsyncFailureHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * events-processor: GeneralEventsConsumer.processGeneralEvent sobre el contexto real del módulo
+ * (extracción de cabecera, dispatch al handler del tipo y almacenamiento)
+ * El sink _bulk propio queda como en application.yml (deshabilitado, el topic se indexa vía
+ * back-logstash-connect).
+ *
+ * @author Global HITSS
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms256m", "-Xmx256m"})
+public class GeneralEventsBenchmark {
+
+    @Param({"customer", "order", "contract"})
+    public String fixture;
+
+    @Param({Payloads.FIXTURE_SIZE, "4kb", "64kb"})
+    public String size;
+
+    private ModuleContext module;
+    private GeneralEventsConsumer consumer;
+    private byte[][] messages;
+    private int next;
+
+    private final LongAdder asyncFailures = new LongAdder();
+    private final AsyncFailureHandler asyncFailureHandler = error -> asyncFailures.increment();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        module = ModuleContext.start("events-processor",
+                new Class<?>[]{EventsProcessorApplication.class},
+                "events-processor.audit.directory={data}/audit",
+                // Los topics de reintento no se crean (no hay broker); el benchmark no pasa por ese camino
+                "events-processor.retry.enabled=false");
+        consumer = module.bean(GeneralEventsConsumer.class);
+        List<byte[]> events = Payloads.events(fixture, size);
+        messages = events.toArray(new byte[0][]);
+    }
+
+    @Benchmark
+    public CompletableFuture<Void> processGeneralEvent() throws Exception {
+        byte[] message = messages[next];
+        next = next + 1 == messages.length ? 0 : next + 1;
+        return GeneralEventsConsumerHotPath.processGeneralEvent(consumer, message, asyncFailureHandler);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (asyncFailures.sum() > 0) {
+            System.out.println("⚠️ Fallas asíncronas de handlers durante la medición: " + asyncFailures.sum());
+        }
+        module.close();
+    }
+}
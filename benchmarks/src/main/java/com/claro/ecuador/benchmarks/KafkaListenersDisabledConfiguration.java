@@ -0,0 +1,32 @@
+package com.claro.ecuador.benchmarks;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+
+/**
+ * Los listeners de los módulos no consumen durante el benchmark: no hay broker y los registros
+ * los entrega el propio benchmark a la ruta de consumo
+ * Sin missingTopicsFatal el arranque no espera la metadata de los topics; ModuleContext detiene
+ * los contenedores apenas termina de levantar el contexto (algunos listeners fijan su propio autoStartup).
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class KafkaListenersDisabledConfiguration {
+
+    @Bean
+    public static BeanPostProcessor kafkaListenersDisabled() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractKafkaListenerContainerFactory) {
+                    ((AbstractKafkaListenerContainerFactory<?, ?, ?>) bean).getContainerProperties()
+                            .setMissingTopicsFatal(false);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.claro.ecuador.benchmarks;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * KafkaTemplate que confirma cada envío al instante sin conectarse al broker
+ * Reemplaza al de la autoconfiguración de Spring Boot (ConditionalOnMissingBean); con él los
+ * reintentos de errors-handler vencen, se republican y salen de memoria durante la medición.
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class KafkaTemplateStubConfiguration {
+
+    @Bean
+    public CountingKafkaTemplate kafkaTemplate() {
+        return new CountingKafkaTemplate();
+    }
+
+    public static class CountingKafkaTemplate extends KafkaTemplate<String, String> {
+
+        private final LongAdder sent = new LongAdder();
+
+        CountingKafkaTemplate() {
+            // La factory nunca crea un productor: doSend no la usa
+            super(new DefaultKafkaProducerFactory<>(Collections.<String, Object>emptyMap()));
+        }
+
+        @Override
+        protected ListenableFuture<SendResult<String, String>> doSend(ProducerRecord<String, String> producerRecord) {
+            sent.increment();
+            SettableListenableFuture<SendResult<String, String>> future = new SettableListenableFuture<>();
+            future.set(new SendResult<>(producerRecord, null));
+            return future;
+        }
+
+        public long sent() {
+            return sent.sum();
+        }
+    }
+}
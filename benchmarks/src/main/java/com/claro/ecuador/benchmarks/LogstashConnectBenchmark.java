@@ -0,0 +1,111 @@
+package com.claro.ecuador.benchmarks;
+
+import com.claro.ecuador.logstash.BackLogstashConnectApplication;
+import com.claro.ecuador.logstash.consumer.LogstashConnectConsumer;
+import com.claro.ecuador.logstash.consumer.LogstashConnectConsumerHotPath;
+import com.claro.ecuador.logstash.validation.SchemaValidationStage;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * back-logstash-connect: LogstashConnectConsumer.processLogstashConnectEvent (enriquecimiento y
+ * documento listo para indexar) y la misma ruta precedida de la validación por esquema, como en processBatch
+ * Cada fixture llega por su topic indexado (customer → salesforce.customer, order → salesforce.orders,
+ * contract → Events).
+ *
+ * @author Global HITSS
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms256m", "-Xmx256m"})
+public class LogstashConnectBenchmark {
+
+    @Param({"customer", "order", "contract"})
+    public String fixture;
+
+    @Param({Payloads.FIXTURE_SIZE, "4kb", "64kb"})
+    public String size;
+
+    private ModuleContext module;
+    private LogstashConnectConsumer consumer;
+    private SchemaValidationStage schemaValidationStage;
+    private List<ConsumerRecord<String, String>> records;
+    private final List<byte[]> documents = new ArrayList<>();
+    private final List<CompletableFuture<Void>> deadLetters = new ArrayList<>();
+    private int next;
+    private long rejected;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        module = ModuleContext.start("back-logstash-connect",
+                new Class<?>[]{BackLogstashConnectApplication.class},
+                "back-logstash-connect.logstash.url={stub}",
+                "back-logstash-connect.spill.directory={data}/spill");
+        consumer = module.bean(LogstashConnectConsumer.class);
+        schemaValidationStage = module.bean(SchemaValidationStage.class);
+
+        String topic = Payloads.topic(fixture);
+        records = new ArrayList<>();
+        long offset = 0;
+        for (byte[] event : Payloads.events(fixture, size)) {
+            records.add(new ConsumerRecord<>(topic, 0, offset++, null, new String(event, StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Benchmark
+    public List<byte[]> enrich() throws IOException {
+        documents.clear();
+        LogstashConnectConsumerHotPath.processLogstashConnectEvent(consumer, nextRecord(), documents);
+        return documents;
+    }
+
+    @Benchmark
+    public List<byte[]> validateAndEnrich() throws IOException {
+        documents.clear();
+        deadLetters.clear();
+        ConsumerRecord<String, String> record = nextRecord();
+        if (schemaValidationStage.accept(record, deadLetters)) {
+            LogstashConnectConsumerHotPath.processLogstashConnectEvent(consumer, record, documents);
+        } else {
+            rejected++;
+        }
+        return documents;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (rejected > 0) {
+            // Los payloads generados deben cumplir el esquema; un rechazo mide el envío a errors.events
+            System.out.println("⚠️ Registros rechazados por esquema durante la medición: " + rejected);
+        }
+        module.close();
+    }
+
+    private ConsumerRecord<String, String> nextRecord() {
+        ConsumerRecord<String, String> record = records.get(next);
+        next = next + 1 == records.size() ? 0 : next + 1;
+        return record;
+    }
+}
@@ -0,0 +1,50 @@
+package com.claro.ecuador.benchmarks;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+
+import javax.mail.internet.MimeMessage;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JavaMailSender que cuenta los envíos en lugar de conectarse al SMTP
+ * Reemplaza al de la autoconfiguración de Spring Boot (ConditionalOnMissingBean).
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class MailStubConfiguration {
+
+    @Bean
+    public CountingMailSender javaMailSender() {
+        return new CountingMailSender();
+    }
+
+    public static class CountingMailSender extends JavaMailSenderImpl {
+
+        private final LongAdder sent = new LongAdder();
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            sent.add(simpleMessages.length);
+        }
+
+        @Override
+        public void send(MimeMessage... mimeMessages) {
+            sent.add(mimeMessages.length);
+        }
+
+        @Override
+        public void send(MimeMessagePreparator... mimeMessagePreparators) {
+            sent.add(mimeMessagePreparators.length);
+        }
+
+        public long sent() {
+            return sent.sum();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.claro.ecuador.benchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contexto Spring real de un microservicio, arrancado dentro del fork de JMH
+ * Usa el application.yml del módulo (copiado a bench-config/) con estas diferencias:
+ * sin servidor web, Kafka inalcanzable con los listeners detenidos (los registros los entrega el benchmark),
+ * Elasticsearch/Logstash apuntando a un HttpStub local, directorios de datos temporales y logs de la
+ * aplicación apagados, para medir el procesamiento y no la escritura a consola.
+ * Al cerrar se detienen también los hilos de @Scheduled (scheduling-N, no daemon): si alguno sigue vivo,
+ * el fork de JMH no termina.
+ *
+ * @author Global HITSS
+ */
+final class ModuleContext implements Closeable {
+
+    private final ConfigurableApplicationContext context;
+    private final HttpStub httpStub;
+    private final Path dataDirectory;
+
+    private ModuleContext(ConfigurableApplicationContext context, HttpStub httpStub, Path dataDirectory) {
+        this.context = context;
+        this.httpStub = httpStub;
+        this.dataDirectory = dataDirectory;
+    }
+
+    /**
+     * @param module     nombre del módulo (bench-config/{module}/application.yml)
+     * @param sources    clase @SpringBootApplication del módulo y configuraciones adicionales (stubs)
+     * @param properties propiedades extra con el formato clave=valor; {data} se reemplaza por el
+     *                   directorio temporal y {stub} por la URL del HttpStub
+     */
+    static ModuleContext start(String module, Class<?>[] sources, String... properties) throws IOException {
+        Path dataDirectory = Files.createTempDirectory("bench-" + module + "-");
+        HttpStub httpStub = HttpStub.start();
+
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--spring.config.location=classpath:bench-config/" + module + "/application.yml",
+                "--spring.main.banner-mode=off",
+                "--spring.kafka.bootstrap-servers=127.0.0.1:1",
+                "--spring.kafka.producer.properties.max.block.ms=100",
+                "--spring.elasticsearch.rest.uris=" + httpStub.url(),
+                "--logging.level.root=ERROR",
+                "--logging.level.com.claro.ecuador.events=OFF",
+                "--logging.level.com.claro.ecuador.errors=OFF",
+                "--logging.level.com.claro.ecuador.logstash=OFF",
+                "--logging.level.org.apache.kafka=OFF",
+                "--logging.level.org.springframework.kafka=OFF"));
+        for (String property : properties) {
+            args.add("--" + property.replace("{data}", dataDirectory.toString()).replace("{stub}", httpStub.url()));
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(sources)
+                .sources(KafkaListenersDisabledConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+        context.getBean(KafkaListenerEndpointRegistry.class).stop();
+        return new ModuleContext(context, httpStub, dataDirectory);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    HttpStub httpStub() {
+        return httpStub;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Collection<ThreadPoolTaskScheduler> schedulers = context.getBeansOfType(ThreadPoolTaskScheduler.class).values();
+        try {
+            context.close();
+        } finally {
+            shutdown(schedulers);
+            httpStub.close();
+            deleteRecursively(dataDirectory);
+        }
+    }
+
+    /**
+     * El contexto ya los cierra; aquí se garantiza aunque context.close() falle y se espera a que
+     * terminen las tareas en curso
+     */
+    private static void shutdown(Collection<ThreadPoolTaskScheduler> schedulers) {
+        for (ThreadPoolTaskScheduler scheduler : schedulers) {
+            ExecutorService executor = scheduler.getScheduledExecutor();
+            executor.shutdownNow();
+            try {
+                if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    System.err.println("⚠️ Hilos de " + scheduler.getThreadNamePrefix() + " siguen activos tras el cierre");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.claro.ecuador.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Payloads de los benchmarks: los eventos de ejemplos-salesforce/ (copiados a fixtures/) tal cual,
+ * o con eventData inflado con líneas de detalle hasta el tamaño pedido
+ * Los eventos generados conservan el sobre original, por lo que siguen cumpliendo el esquema del topic.
+ *
+ * @author Global HITSS
+ */
+final class Payloads {
+
+    static final String FIXTURE_SIZE = "fixture";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Payloads() {
+    }
+
+    /**
+     * @param fixture customer, order o contract
+     * @param size    fixture (sin cambios) o un tamaño aproximado por evento: 4kb, 64kb...
+     */
+    static List<byte[]> events(String fixture, String size) throws IOException {
+        int targetBytes = FIXTURE_SIZE.equals(size) ? 0 : parseSize(size);
+        // Semilla fija: el mismo commit genera siempre los mismos payloads
+        Random random = new Random(42);
+        List<byte[]> events = new ArrayList<>();
+        for (JsonNode event : load(fixture)) {
+            ObjectNode copy = ((ObjectNode) event).deepCopy();
+            if (targetBytes > 0) {
+                inflate(copy, targetBytes, random);
+            }
+            events.add(MAPPER.writeValueAsBytes(copy));
+        }
+        return events;
+    }
+
+    /**
+     * Topic del que llegaría el fixture a back-logstash-connect
+     */
+    static String topic(String fixture) {
+        switch (fixture) {
+            case "customer":
+                return "salesforce.customer";
+            case "order":
+                return "salesforce.orders";
+            default:
+                return "Events";
+        }
+    }
+
+    private static JsonNode load(String fixture) throws IOException {
+        String resource = "fixtures/" + fixture + "-events.json";
+        try (InputStream in = Payloads.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Fixture no encontrado: " + resource);
+            }
+            return MAPPER.readTree(in);
+        }
+    }
+
+    private static void inflate(ObjectNode event, int targetBytes, Random random) throws IOException {
+        ObjectNode eventData = (ObjectNode) MAPPER.readTree(event.path("eventData").asText("{}"));
+        ArrayNode lineItems = eventData.putArray("lineItems");
+        int size = MAPPER.writeValueAsBytes(event).length;
+        int item = 0;
+        while (size < targetBytes) {
+            ObjectNode line = lineItems.addObject();
+            line.put("sku", String.format(Locale.ROOT, "SKU-%06d", random.nextInt(1000000)));
+            line.put("description", "Línea generada " + (++item) + " para " + event.path("eventId").asText());
+            line.put("quantity", 1 + random.nextInt(10));
+            line.put("price", Math.round(random.nextDouble() * 50000) / 100.0);
+            line.put("activationDate", String.format(Locale.ROOT, "2025-09-%02dT%02d:%02d:00Z",
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60)));
+            // Aproximación incremental (eventData va escapado dentro del evento)
+            size += MAPPER.writeValueAsBytes(line).length + 16;
+        }
+        event.put("eventData", MAPPER.writeValueAsString(eventData));
+    }
+
+    private static int parseSize(String size) {
+        String normalized = size.trim().toLowerCase(Locale.ROOT);
+        if (normalized.endsWith("kb")) {
+            return Integer.parseInt(normalized.substring(0, normalized.length() - 2)) * 1024;
+        }
+        if (normalized.endsWith("b")) {
+            return Integer.parseInt(normalized.substring(0, normalized.length() - 1));
+        }
+        return Integer.parseInt(normalized);
+    }
+}
@@ -0,0 +1,16 @@
+package com.claro.ecuador.errors.consumer;
+
+/**
+ * Ruta de consumo de ErrorEventsConsumer para los benchmarks (mismo paquete que el consumer)
+ *
+ * @author Global HITSS
+ */
+public final class ErrorEventsConsumerHotPath {
+
+    private ErrorEventsConsumerHotPath() {
+    }
+
+    public static void processErrorEvent(ErrorEventsConsumer consumer, String message) throws Exception {
+        consumer.processErrorEvent(message);
+    }
+}
@@ -0,0 +1,34 @@
+package com.claro.ecuador.errors.rules;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+
+/**
+ * ErrorRuleEngine para los benchmarks sin contexto de Spring (mismo paquete que el motor)
+ * Enlaza a mano las propiedades que en el módulo llegan por @Value.
+ *
+ * @author Global HITSS
+ */
+public final class ErrorRuleEngineHotPath {
+
+    private ErrorRuleEngineHotPath() {
+    }
+
+    /**
+     * @param rulesFile archivo de reglas; vacío = error-rules.yml del classpath
+     */
+    public static ErrorRuleEngine start(String rulesFile, int maxScanChars) {
+        ErrorRuleEngine engine = new ErrorRuleEngine();
+        set(engine, "rulesFile", rulesFile);
+        set(engine, "maxScanChars", maxScanChars);
+        engine.init();
+        return engine;
+    }
+
+    private static void set(ErrorRuleEngine engine, String name, Object value) {
+        Field field = ReflectionUtils.findField(ErrorRuleEngine.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, engine, value);
+    }
+}
@@ -0,0 +1,21 @@
+package com.claro.ecuador.events.consumer;
+
+import com.claro.ecuador.events.handler.EventHandlerRegistry.AsyncFailureHandler;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ruta de consumo de GeneralEventsConsumer para los benchmarks (mismo paquete que el consumer)
+ *
+ * @author Global HITSS
+ */
+public final class GeneralEventsConsumerHotPath {
+
+    private GeneralEventsConsumerHotPath() {
+    }
+
+    public static CompletableFuture<Void> processGeneralEvent(GeneralEventsConsumer consumer, byte[] message,
+                                                              AsyncFailureHandler asyncFailureHandler) throws Exception {
+        return consumer.processGeneralEvent(message, asyncFailureHandler);
+    }
+}
@@ -0,0 +1,23 @@
+package com.claro.ecuador.logstash.consumer;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Ruta de consumo de LogstashConnectConsumer para los benchmarks (mismo paquete que el consumer)
+ *
+ * @author Global HITSS
+ */
+public final class LogstashConnectConsumerHotPath {
+
+    private LogstashConnectConsumerHotPath() {
+    }
+
+    public static void processLogstashConnectEvent(LogstashConnectConsumer consumer,
+                                                   ConsumerRecord<String, String> record,
+                                                   List<byte[]> documents) throws IOException {
+        consumer.processLogstashConnectEvent(record, documents);
+    }
+}
@@ -0,0 +1,63 @@
+package com.claro.ecuador.errors.alert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Alertas acumuladas de un topic:errorType durante una ventana de digest
+ * Solo la usa el hilo del dispatcher.
+ *
+ * @author Global HITSS
+ */
+final class AlertDigest {
+
+    final String topic;
+    final String errorType;
+    final long dueAtMs;
+    final String firstAt;
+    String lastAt;
+    int criticalCount;
+    int thresholdCount;
+    int maxWindowCount;
+    final List<String> samples = new ArrayList<>();
+
+    AlertDigest(String topic, String errorType, String firstAt, long dueAtMs) {
+        this.topic = topic;
+        this.errorType = errorType;
+        this.firstAt = firstAt;
+        this.lastAt = firstAt;
+        this.dueAtMs = dueAtMs;
+    }
+
+    String subject() {
+        if (criticalCount > 0) {
+            return String.format("🚨 ALERTA CRÍTICA - Transforma Ecuador - %s:%s (%d)",
+                    topic, errorType, criticalCount);
+        }
+        return String.format("⚠️ UMBRAL DE ERRORES SUPERADO - Transforma Ecuador - %s:%s", topic, errorType);
+    }
+
+    String body() {
+        StringBuilder body = new StringBuilder(512);
+        body.append("Resumen de alertas:\n\n")
+            .append("Topic: ").append(topic).append('\n')
+            .append("Tipo: ").append(errorType).append('\n')
+            .append("Desde: ").append(firstAt).append('\n')
+            .append("Hasta: ").append(lastAt).append('\n');
+        if (criticalCount > 0) {
+            body.append("Errores críticos: ").append(criticalCount).append('\n');
+        }
+        if (thresholdCount > 0) {
+            body.append("Umbral superado: ").append(thresholdCount)
+                .append(" veces (máximo ").append(maxWindowCount).append(" errores por ventana)\n");
+        }
+        if (!samples.isEmpty()) {
+            body.append("\nMuestras (").append(samples.size()).append(" de ").append(criticalCount).append("):\n");
+            for (String sample : samples) {
+                body.append("- ").append(sample).append('\n');
+            }
+        }
+        body.append("\nRequiere atención del equipo técnico.");
+        return body.toString();
+    }
+}
@@ -0,0 +1,255 @@
+package com.claro.ecuador.errors.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Despacho asíncrono de alertas por email
+ * - El hilo de consumo solo encola (offer sin bloqueo); con la cola llena la alerta se descarta y se cuenta
+ * - Un hilo propio agrupa las alertas por topic:errorType durante digest-window-ms y envía un único
+ *   email de resumen con conteos y mensajes de muestra, de modo que la latencia SMTP nunca
+ *   se convierte en lag de consumo
+ *
+ * @author Global HITSS
+ */
+@Component
+public class AlertDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertDispatcher.class);
+
+    private static final int MAX_SAMPLE_CHARS = 300;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Value("${error-handler.alert.enabled:true}")
+    private boolean enabled;
+
+    @Value("#{'${error-handler.alert.email-recipients:ops-team@claro-ecuador.com,tech-lead@claro-ecuador.com}'.split(',')}")
+    private List<String> alertRecipients;
+
+    @Value("${error-handler.alert.from:alerts@claro-ecuador.com}")
+    private String from;
+
+    @Value("${error-handler.alert.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${error-handler.alert.digest-window-ms:60000}")
+    private long digestWindowMs;
+
+    @Value("${error-handler.alert.max-samples:5}")
+    private int maxSamples;
+
+    @Value("${error-handler.alert.max-digests:200}")
+    private int maxDigests;
+
+    private BlockingQueue<Alert> queue;
+    private Thread dispatcherThread;
+    private volatile boolean running;
+
+    // Solo accedido por el hilo del dispatcher
+    private final Map<String, AlertDigest> digests = new LinkedHashMap<>();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder digestsSent = new LongAdder();
+    private final LongAdder alertsSent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.running = true;
+        this.dispatcherThread = new Thread(this::run, "alert-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+        logger.info("📧 Dispatcher de alertas: ventana de digest {} ms, cola {}", digestWindowMs, queueCapacity);
+    }
+
+    /**
+     * Alerta por error crítico
+     */
+    public void critical(String topic, String errorType, String error, String timestamp) {
+        submit(new Alert(false, topic, errorType, error, timestamp, 0));
+    }
+
+    /**
+     * Alerta por umbral de errores superado en la ventana de conteo
+     */
+    public void threshold(String topic, String errorType, int windowCount) {
+        submit(new Alert(true, topic, errorType, null, Instant.now().toString(), windowCount));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        dispatcherThread.interrupt();
+        dispatcherThread.join(5000);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("digestWindowMs", digestWindowMs);
+        stats.put("submitted", submitted.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("digestsSent", digestsSent.sum());
+        stats.put("alertsSent", alertsSent.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    private void submit(Alert alert) {
+        if (!enabled) {
+            return;
+        }
+        submitted.increment();
+        if (!queue.offer(alert)) {
+            dropped.increment();
+        }
+    }
+
+    private void run() {
+        List<Alert> batch = new ArrayList<>();
+        while (running) {
+            try {
+                Alert alert = queue.poll(nextWaitMs(), TimeUnit.MILLISECONDS);
+                if (alert != null) {
+                    batch.add(alert);
+                    queue.drainTo(batch);
+                    for (Alert pending : batch) {
+                        aggregate(pending);
+                    }
+                    batch.clear();
+                }
+                sendDue(System.currentTimeMillis());
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                logger.error("❌ Error en el dispatcher de alertas: {}", e.getMessage(), e);
+            }
+        }
+
+        // Al detener: enviar lo acumulado sin esperar la ventana
+        queue.drainTo(batch);
+        for (Alert pending : batch) {
+            aggregate(pending);
+        }
+        sendDue(Long.MAX_VALUE);
+    }
+
+    private long nextWaitMs() {
+        if (digests.isEmpty()) {
+            return digestWindowMs;
+        }
+        long dueAt = digests.values().iterator().next().dueAtMs;
+        return Math.max(1, dueAt - System.currentTimeMillis());
+    }
+
+    private void aggregate(Alert alert) {
+        String key = alert.topic + ":" + alert.errorType;
+        AlertDigest digest = digests.get(key);
+        if (digest == null) {
+            if (digests.size() >= maxDigests) {
+                dropped.increment();
+                return;
+            }
+            digest = new AlertDigest(alert.topic, alert.errorType, alert.timestamp,
+                    System.currentTimeMillis() + digestWindowMs);
+            digests.put(key, digest);
+        }
+        digest.lastAt = alert.timestamp;
+        if (alert.threshold) {
+            digest.thresholdCount++;
+            digest.maxWindowCount = Math.max(digest.maxWindowCount, alert.windowCount);
+        } else {
+            digest.criticalCount++;
+            if (digest.samples.size() < maxSamples) {
+                digest.samples.add(abbreviate(alert.error));
+            }
+        }
+    }
+
+    /**
+     * Envía los digests vencidos; el orden de inserción es el orden de vencimiento
+     */
+    private void sendDue(long nowMs) {
+        Iterator<Map.Entry<String, AlertDigest>> iterator = digests.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, AlertDigest> entry = iterator.next();
+            AlertDigest digest = entry.getValue();
+            if (digest.dueAtMs > nowMs) {
+                return;
+            }
+            iterator.remove();
+            send(digest);
+        }
+    }
+
+    private void send(AlertDigest digest) {
+        int alerts = digest.criticalCount + digest.thresholdCount;
+        try {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(alertRecipients.toArray(new String[0]));
+            message.setSubject(digest.subject());
+            message.setText(digest.body());
+            message.setFrom(from);
+
+            mailSender.send(message);
+            digestsSent.increment();
+            alertsSent.add(alerts);
+            logger.info("📧 Digest de alertas enviado - {}:{} ({} alertas) a {} destinatarios",
+                    digest.topic, digest.errorType, alerts, alertRecipients.size());
+        } catch (Exception e) {
+            failed.add(alerts);
+            logger.error("Error enviando email de alerta: {}", e.getMessage());
+        }
+    }
+
+    private static String abbreviate(String value) {
+        if (value == null) {
+            return "(sin mensaje)";
+        }
+        return value.length() <= MAX_SAMPLE_CHARS ? value : value.substring(0, MAX_SAMPLE_CHARS) + "…";
+    }
+
+    private static final class Alert {
+
+        private final boolean threshold;
+        private final String topic;
+        private final String errorType;
+        private final String error;
+        private final String timestamp;
+        private final int windowCount;
+
+        private Alert(boolean threshold, String topic, String errorType, String error, String timestamp,
+                      int windowCount) {
+            this.threshold = threshold;
+            this.topic = topic;
+            this.errorType = errorType;
+            this.error = error;
+            this.timestamp = timestamp;
+            this.windowCount = windowCount;
+        }
+    }
+}
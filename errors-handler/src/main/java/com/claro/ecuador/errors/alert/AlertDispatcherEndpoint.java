@@ -0,0 +1,27 @@
+package com.claro.ecuador.errors.alert;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/alerts
+ * Cola, alertas descartadas, digests enviados y fallos de envío
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "alerts")
+public class AlertDispatcherEndpoint {
+
+    @Autowired
+    private AlertDispatcher alertDispatcher;
+
+    @ReadOperation
+    public Map<String, Object> alerts() {
+        return alertDispatcher.stats();
+    }
+}
@@ -0,0 +1,38 @@
+package com.claro.ecuador.errors.config;
+
+import com.claro.ecuador.commons.sink.ElasticsearchBulkSink;
+import com.claro.ecuador.commons.sink.ElasticsearchSinkEndpoint;
+import com.claro.ecuador.commons.sink.ElasticsearchSinkProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sink _bulk compartido (pipeline-commons) con la configuración de error-handler.elasticsearch
+ * Índices transforma-ecuador-errors-YYYY.MM.dd; estado en /actuator/elasticsearchsink
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class ElasticsearchSinkConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "error-handler.elasticsearch")
+    public ElasticsearchSinkProperties elasticsearchSinkProperties() {
+        return new ElasticsearchSinkProperties();
+    }
+
+    @Bean
+    public ElasticsearchBulkSink elasticsearchBulkSink(ElasticsearchSinkProperties elasticsearchSinkProperties,
+                                                       @Value("${spring.elasticsearch.rest.uris:http://elasticsearch:9200}") String elasticsearchUrl,
+                                                       ObjectMapper objectMapper) {
+        return new ElasticsearchBulkSink(elasticsearchSinkProperties, elasticsearchUrl, objectMapper);
+    }
+
+    @Bean
+    public ElasticsearchSinkEndpoint elasticsearchSinkEndpoint(ElasticsearchBulkSink elasticsearchBulkSink) {
+        return new ElasticsearchSinkEndpoint(elasticsearchBulkSink);
+    }
+}
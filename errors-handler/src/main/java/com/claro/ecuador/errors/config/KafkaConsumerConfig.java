@@ -0,0 +1,57 @@
+package com.claro.ecuador.errors.config;
+
+import com.claro.ecuador.errors.consumer.RedeliveryErrorHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.SeekToCurrentErrorHandler;
+
+/**
+ * Manejo de errores del listener de errors.events
+ * ErrorEventsConsumer solo deja escapar las fallas que no deben confirmar el registro (journal de
+ * reintentos sin persistir): el contenedor espera redelivery-backoff-ms, vuelve a posicionarse en ese
+ * offset y lo entrega de nuevo; tras max-delivery-attempts lo publica en dead-letter-topic.
+ * El registro fallido no se confirma antes de la relectura (ackOnError=false; por defecto el
+ * contenedor lo confirma antes de invocar al error handler).
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Value("${error-handler.consumer.max-delivery-attempts:10}")
+    private int maxDeliveryAttempts;
+
+    @Value("${error-handler.consumer.redelivery-backoff-ms:2000}")
+    private long redeliveryBackoffMs;
+
+    @Value("${error-handler.consumer.dead-letter-topic:errors.events.DLT}")
+    private String deadLetterTopic;
+
+    @Value("${error-handler.consumer.dead-letter-timeout-ms:10000}")
+    private long deadLetterTimeoutMs;
+
+    @Bean
+    public SeekToCurrentErrorHandler kafkaListenerErrorHandler(KafkaTemplate<String, String> kafkaTemplate) {
+        return new RedeliveryErrorHandler(kafkaTemplate, deadLetterTopic, deadLetterTimeoutMs,
+                maxDeliveryAttempts, redeliveryBackoffMs);
+    }
+
+    /**
+     * Container factory auto-configurado (aplica el error handler anterior) sin confirmar los registros fallidos
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> kafkaConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, kafkaConsumerFactory);
+        factory.getContainerProperties().setAckOnError(false);
+        return factory;
+    }
+}
@@ -1,5 +1,15 @@
 package com.claro.ecuador.errors.consumer;
 
+import com.claro.ecuador.commons.instrumentation.PipelineMetrics;
+import com.claro.ecuador.commons.sink.ElasticsearchBulkSink;
+import com.claro.ecuador.errors.alert.AlertDispatcher;
+import com.claro.ecuador.errors.metrics.ErrorRateCounter;
+import com.claro.ecuador.errors.patterns.ErrorCluster;
+import com.claro.ecuador.errors.patterns.ErrorTemplateMiner;
+import com.claro.ecuador.errors.retry.RetryScheduler;
+import com.claro.ecuador.errors.rules.ErrorClassification;
+import com.claro.ecuador.errors.rules.ErrorRuleEngine;
+import com.claro.ecuador.errors.store.ErrorStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,17 +17,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.util.List;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Consumer específico para topic: errors.events
@@ -34,17 +41,35 @@ public class ErrorEventsConsumer {
     private ObjectMapper objectMapper;
 
     @Autowired
-    private JavaMailSender mailSender;
+    private AlertDispatcher alertDispatcher;
 
+    @Autowired
+    private ElasticsearchBulkSink elasticsearchBulkSink;
+
+    @Autowired
+    private ErrorRateCounter errorRateCounter;
+
+    @Autowired
+    private RetryScheduler retryScheduler;
+
+    @Autowired
+    private ErrorTemplateMiner errorTemplateMiner;
+
+    @Autowired
+    private ErrorRuleEngine errorRuleEngine;
+
+    @Autowired
+    private ErrorStore errorStore;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    // Errores por topic:errorType dentro de la ventana de error-handler.rates.window-ms
     @Value("${error-handler.alert.critical-threshold:10}")
     private int criticalThreshold;
 
-    @Value("#{'${error-handler.alert.email-recipients:ops-team@claro-ecuador.com,tech-lead@claro-ecuador.com}'.split(',')}")
-    private List<String> alertRecipients;
-
-    // Contadores de errores por tipo
-    private final Map<String, AtomicInteger> errorCounters = new ConcurrentHashMap<>();
-    private final Map<String, LocalDateTime> lastAlertTime = new ConcurrentHashMap<>();
+    @Value("${error-handler.alert.min-interval-ms:3600000}")
+    private long alertMinIntervalMs;
 
     /**
      * Consumer exclusivo para topic errors.events
@@ -65,6 +90,12 @@ public class ErrorEventsConsumer {
 
             logger.info("⚠️ ERROR HANDLER - Evento de error procesado para análisis - Offset: {}", offset);
 
+        } catch (UncheckedIOException e) {
+            // Reintento sin persistir: no se confirma el offset, el contenedor lo vuelve a entregar con
+            // espera entre intentos y, agotados, lo publica en el dead letter (ver KafkaConsumerConfig)
+            logger.error("💥 ERROR HANDLER - Evento no confirmado, se reprocesará - Offset: {}: {}",
+                        offset, e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("💥 ERROR HANDLER - Error crítico procesando evento de error: {}",
                         e.getMessage(), e);
@@ -76,31 +107,51 @@ public class ErrorEventsConsumer {
 
     /**
      * Lógica específica para procesamiento de eventos de error
+     * Visible en el paquete: es el punto de entrada que mide el módulo benchmarks
      */
-    private void processErrorEvent(String message) throws Exception {
+    void processErrorEvent(String message) throws Exception {
+        // Etiquetas de las métricas; quedan null (unknown) si el mensaje no se puede parsear
+        String originalTopic = null;
+        String errorType = null;
         try {
             logger.info("🔧 Analizando evento de error para alertas y métricas");
 
             // Parsear mensaje de error
+            long stageStart = pipelineMetrics.start();
             Map<String, Object> errorData = objectMapper.readValue(message, Map.class);
 
             // Extraer información crítica del error
-            String originalTopic = (String) errorData.get("topic");
-            String errorType = (String) errorData.get("errorType");
+            originalTopic = (String) errorData.get("topic");
+            errorType = (String) errorData.get("errorType");
             String errorMessage = (String) errorData.get("error");
             String timestamp = (String) errorData.get("timestamp");
             String originalMessage = (String) errorData.get("originalMessage");
+            pipelineMetrics.recordStage(PipelineMetrics.STAGE_PARSE, originalTopic, errorType, stageStart);
+            pipelineMetrics.recordLag(originalTopic, errorType, timestamp);
 
             logger.warn("📋 Análisis de Error - Topic: {}, Tipo: {}, Timestamp: {}",
                        originalTopic, errorType, timestamp);
 
-            // Clasificar severidad del error
-            String severity = classifyErrorSeverity(errorType, errorMessage);
+            // Clasificar severidad y recuperabilidad según las reglas configuradas
+            stageStart = pipelineMetrics.start();
+            ErrorClassification classification = errorRuleEngine.classify(originalTopic, errorType, errorMessage);
+            String severity = classification.getSeverity();
+
+            // Persistir el reintento antes de contar o alertar: si el journal falla el registro se vuelve
+            // a entregar y, como todavía no tuvo efectos, no se cuenta ni se alerta dos veces
+            if (classification.isRecoverable()) {
+                scheduleErrorRetry(errorData);
+            }
+
+            // Agrupar el mensaje por plantilla (se ejecuta para todo registro)
+            analyzeErrorPatterns(errorData);
 
             // Incrementar contadores por tipo de error
-            updateErrorMetrics(errorType, originalTopic);
+            int windowCount = updateErrorMetrics(errorType, originalTopic);
+            pipelineMetrics.recordStage(PipelineMetrics.STAGE_CLASSIFY, originalTopic, errorType, stageStart);
 
             // Procesar según severidad
+            stageStart = pipelineMetrics.start();
             switch (severity) {
                 case "CRITICAL":
                     processCriticalError(errorData);
@@ -115,57 +166,34 @@ public class ErrorEventsConsumer {
                     processLowPriorityError(errorData);
                     break;
             }
-
-            // Determinar si es recuperable
-            if (isRecoverableError(errorType)) {
-                scheduleErrorRetry(errorData);
-            }
+            pipelineMetrics.recordStage(PipelineMetrics.STAGE_HANDLER, originalTopic, errorType, stageStart);
 
             // Almacenar para análisis posterior
+            stageStart = pipelineMetrics.start();
             storeErrorAnalysis(errorData, severity);
+            pipelineMetrics.recordStage(PipelineMetrics.STAGE_STORE, originalTopic, errorType, stageStart);
 
             // Verificar umbrales de alerta
-            checkAlertThresholds(errorType, originalTopic);
+            stageStart = pipelineMetrics.start();
+            checkAlertThresholds(errorType, originalTopic, windowCount);
+            pipelineMetrics.recordStage(PipelineMetrics.STAGE_ALERT, originalTopic, errorType, stageStart);
+
+            pipelineMetrics.recordOutcome(originalTopic, errorType, PipelineMetrics.OUTCOME_PROCESSED);
 
         } catch (Exception e) {
             logger.error("Error analizando evento de error: {}", e.getMessage());
+            pipelineMetrics.recordOutcome(originalTopic, errorType, PipelineMetrics.OUTCOME_FAILED);
             throw e;
         }
     }
 
-    /**
-     * Clasificar severidad del error
-     */
-    private String classifyErrorSeverity(String errorType, String errorMessage) {
-        if (errorType == null) return "LOW";
-
-        switch (errorType.toUpperCase()) {
-            case "NULLPOINTEREXCEPTION":
-            case "OUTOFMEMORYERROR":
-            case "DATABASECONNECTIONEXCEPTION":
-            case "SECURITYEXCEPTION":
-                return "CRITICAL";
-
-            case "CONNECTIONTIMEOUTEXCEPTION":
-            case "SQLEXCEPTION":
-            case "AUTHENTICATIONEXCEPTION":
-                return "HIGH";
-
-            case "JSONPROCESSINGEXCEPTION":
-            case "VALIDATIONEXCEPTION":
-            case "ILLEGALARGUMENTEXCEPTION":
-                return "MEDIUM";
-
-            default:
-                return "LOW";
-        }
-    }
-
     /**
      * Procesar errores críticos
      */
     private void processCriticalError(Map<String, Object> errorData) {
-        logger.error("🚨 PROCESANDO ERROR CRÍTICO: {}", errorData);
+        // Solo los campos de ruteo: el mapa completo incluye originalMessage
+        logger.error("🚨 PROCESANDO ERROR CRÍTICO - Topic: {}, Tipo: {}, Patrón: {}",
+                    errorData.get("topic"), errorData.get("errorType"), errorData.get("errorFingerprint"));
 
         // Alerta inmediata
         sendCriticalAlert(errorData);
@@ -198,9 +226,6 @@ public class ErrorEventsConsumer {
 
         // Agregar a métricas diarias
         addToDailyMetrics(errorData);
-
-        // Análisis de patrones
-        analyzeErrorPatterns(errorData);
     }
 
     /**
@@ -213,142 +238,66 @@ public class ErrorEventsConsumer {
         recordBasicMetrics(errorData);
     }
 
-    /**
-     * Determinar si un error es recuperable
-     */
-    private boolean isRecoverableError(String errorType) {
-        if (errorType == null) return false;
-
-        switch (errorType.toUpperCase()) {
-            case "CONNECTIONTIMEOUTEXCEPTION":
-            case "TEMPORARYSERVICEUNAVAILABLEEXCEPTION":
-            case "RATELIMITEXCEPTION":
-                return true;
-
-            case "JSONPROCESSINGEXCEPTION":
-            case "ILLEGALARGUMENTEXCEPTION":
-            case "VALIDATIONEXCEPTION":
-                return false;
-
-            default:
-                return false;
-        }
-    }
-
     /**
      * Programar reintento de error
      */
     private void scheduleErrorRetry(Map<String, Object> errorData) {
         logger.info("🔄 Programando reintento para error recuperable");
 
-        // Implementar lógica de backoff exponencial
         String originalTopic = (String) errorData.get("topic");
         String originalMessage = (String) errorData.get("originalMessage");
+        if (originalTopic == null || originalMessage == null) {
+            logger.warn("⚠️ Evento de error sin topic u originalMessage, no se puede reintentar");
+            return;
+        }
 
-        // Aquí iría la lógica de reenvío al topic original
-        logger.info("📤 Error programado para reintento en topic: {}", originalTopic);
+        // Backoff exponencial con jitter; el mensaje se republica en el topic original al vencer
+        Object retryAttempt = errorData.get("retryAttempt");
+        int attempt = retryAttempt instanceof Number ? ((Number) retryAttempt).intValue() : 0;
+        if (retryScheduler.schedule(originalTopic, originalMessage, attempt)) {
+            logger.info("📤 Error programado para reintento {} en topic: {}", attempt + 1, originalTopic);
+        }
     }
 
     /**
      * Actualizar métricas de error
+     *
+     * @return errores del topic y tipo dentro de la ventana deslizante
      */
-    private void updateErrorMetrics(String errorType, String originalTopic) {
-        String metricKey = originalTopic + ":" + errorType;
-        errorCounters.computeIfAbsent(metricKey, k -> new AtomicInteger(0)).incrementAndGet();
+    private int updateErrorMetrics(String errorType, String originalTopic) {
+        int windowCount = errorRateCounter.record(originalTopic, errorType);
 
-        logger.debug("📊 Métrica actualizada - {}: {}", metricKey,
-                    errorCounters.get(metricKey).get());
+        logger.debug("📊 Métrica actualizada - {}:{}: {} en la ventana", originalTopic, errorType, windowCount);
+        return windowCount;
     }
 
     /**
-     * Verificar umbrales de alerta
+     * Verificar umbrales de alerta (errores por ventana)
      */
-    private void checkAlertThresholds(String errorType, String originalTopic) {
-        String metricKey = originalTopic + ":" + errorType;
-        int currentCount = errorCounters.getOrDefault(metricKey, new AtomicInteger(0)).get();
-
-        if (currentCount >= criticalThreshold) {
-            LocalDateTime lastAlert = lastAlertTime.get(metricKey);
-            LocalDateTime now = LocalDateTime.now();
-
-            // Evitar spam de alertas (máximo 1 por hora)
-            if (lastAlert == null || lastAlert.isBefore(now.minusHours(1))) {
-                sendThresholdAlert(errorType, originalTopic, currentCount);
-                lastAlertTime.put(metricKey, now);
-            }
+    private void checkAlertThresholds(String errorType, String originalTopic, int windowCount) {
+        // Evitar spam de alertas (máximo 1 por min-interval-ms y clave)
+        if (windowCount >= criticalThreshold
+                && errorRateCounter.claimAlert(originalTopic, errorType, alertMinIntervalMs)) {
+            sendThresholdAlert(errorType, originalTopic, windowCount);
         }
     }
 
     /**
-     * Enviar alerta crítica
+     * Enviar alerta crítica (asíncrona: se agrupa en un digest por topic:errorType)
      */
     private void sendCriticalAlert(Map<String, Object> errorData) {
-        try {
-            String subject = "🚨 ALERTA CRÍTICA - Transforma Ecuador";
-            String body = String.format(
-                "Error crítico detectado:\n\n" +
-                "Topic: %s\n" +
-                "Tipo: %s\n" +
-                "Error: %s\n" +
-                "Timestamp: %s\n\n" +
-                "Requiere atención inmediata del equipo técnico.",
-                errorData.get("topic"),
-                errorData.get("errorType"),
-                errorData.get("error"),
-                errorData.get("timestamp")
-            );
-
-            sendEmailAlert(subject, body);
-            logger.error("🚨 ALERTA CRÍTICA ENVIADA POR EMAIL");
-
-        } catch (Exception e) {
-            logger.error("Error enviando alerta crítica: {}", e.getMessage());
-        }
+        alertDispatcher.critical(String.valueOf(errorData.get("topic")), String.valueOf(errorData.get("errorType")),
+                (String) errorData.get("error"), String.valueOf(errorData.get("timestamp")));
+        logger.error("🚨 ALERTA CRÍTICA ENCOLADA PARA EMAIL");
     }
 
     /**
-     * Enviar alerta por umbral
+     * Enviar alerta por umbral (asíncrona: se agrupa en un digest por topic:errorType)
      */
     private void sendThresholdAlert(String errorType, String topic, int count) {
-        try {
-            String subject = "⚠️ UMBRAL DE ERRORES SUPERADO - Transforma Ecuador";
-            String body = String.format(
-                "Se ha superado el umbral de errores:\n\n" +
-                "Topic: %s\n" +
-                "Tipo de Error: %s\n" +
-                "Cantidad: %d errores\n" +
-                "Umbral: %d\n" +
-                "Timestamp: %s\n\n" +
-                "Revisar logs para más detalles.",
-                topic, errorType, count, criticalThreshold, LocalDateTime.now()
-            );
-
-            sendEmailAlert(subject, body);
-            logger.warn("⚠️ ALERTA POR UMBRAL ENVIADA - {} errores de tipo {} en {}",
-                       count, errorType, topic);
-
-        } catch (Exception e) {
-            logger.error("Error enviando alerta por umbral: {}", e.getMessage());
-        }
-    }
-
-    /**
-     * Enviar email de alerta
-     */
-    private void sendEmailAlert(String subject, String body) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(alertRecipients.toArray(new String[0]));
-            message.setSubject(subject);
-            message.setText(body);
-            message.setFrom("alerts@claro-ecuador.com");
-
-            mailSender.send(message);
-            logger.info("📧 Email de alerta enviado a {} destinatarios", alertRecipients.size());
-
-        } catch (Exception e) {
-            logger.error("Error enviando email de alerta: {}", e.getMessage());
-        }
+        alertDispatcher.threshold(topic, errorType, count);
+        logger.warn("⚠️ ALERTA POR UMBRAL ENCOLADA - {} errores de tipo {} en {}",
+                   count, errorType, topic);
     }
 
     // Métodos auxiliares para análisis específicos
@@ -377,9 +326,17 @@ public class ErrorEventsConsumer {
         // Acumulación para reportes diarios
     }
 
+    /**
+     * Asigna el mensaje de error a un grupo por plantilla; el fingerprint viaja en el
+     * documento de Elasticsearch para agrupar más fino que por errorType
+     */
     private void analyzeErrorPatterns(Map<String, Object> errorData) {
-        logger.info("🔄 Analizando patrones de error");
-        // Machine learning para detección de patrones
+        Object error = errorData.get("error");
+        ErrorCluster cluster = errorTemplateMiner.ingest(error == null ? null : error.toString());
+        errorData.put("errorFingerprint", cluster.getFingerprint());
+        errorData.put("errorTemplate", cluster.getTemplate());
+        logger.info("🔄 Patrón de error {} ({} ocurrencias): {}",
+                   cluster.getFingerprint(), cluster.getCount(), cluster.getTemplate());
     }
 
     private void recordBasicMetrics(Map<String, Object> errorData) {
@@ -387,9 +344,21 @@ public class ErrorEventsConsumer {
         // Métricas simples para errores comunes
     }
 
-    private void storeErrorAnalysis(Map<String, Object> errorData, String severity) {
+    private void storeErrorAnalysis(Map<String, Object> errorData, String severity) throws Exception {
         logger.info("💾 Almacenando análisis de error con severidad: {}", severity);
+        // Almacén local para consultas rápidas por /api/errors
+        errorStore.append(severity, (String) errorData.get("topic"), (String) errorData.get("errorType"),
+                (String) errorData.get("errorFingerprint"));
+
         // Guardar en Elasticsearch con índice específico para errores
+        if (elasticsearchBulkSink.isEnabled()) {
+            Map<String, Object> document = new LinkedHashMap<>(errorData);
+            document.put("severity", severity);
+            // El día del índice es el del @timestamp (hora de análisis), la convención de Logstash
+            long analyzedAt = System.currentTimeMillis();
+            document.put("@timestamp", Instant.ofEpochMilli(analyzedAt).toString());
+            elasticsearchBulkSink.index("errors", objectMapper.writeValueAsBytes(document), analyzedAt);
+        }
     }
 
     /**
@@ -0,0 +1,78 @@
+package com.claro.ecuador.errors.consumer;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.listener.SeekToCurrentErrorHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Reentrega de registros de errors.events que no se pudieron confirmar (journal de reintentos sin persistir)
+ * Antes de volver a posicionar el consumidor espera backoff-ms, así una falla persistente (disco lleno,
+ * permisos) no se convierte en un loop sobre la partición. Tras max-attempts entregas el registro se
+ * publica en el dead letter de forma síncrona; si esa publicación también falla se sigue reentregando.
+ *
+ * @author Global HITSS
+ */
+public class RedeliveryErrorHandler extends SeekToCurrentErrorHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedeliveryErrorHandler.class);
+
+    static final String EXCEPTION_HEADER = "error-handler-exception";
+
+    private final long backoffMs;
+
+    /**
+     * @param maxAttempts entregas del registro antes de enviarlo a deadLetterTopic
+     * @param backoffMs   espera antes de cada reentrega (muy por debajo de max.poll.interval.ms)
+     */
+    public RedeliveryErrorHandler(KafkaTemplate<String, String> kafkaTemplate, String deadLetterTopic,
+                                  long sendTimeoutMs, int maxAttempts, long backoffMs) {
+        super(deadLetter(kafkaTemplate, deadLetterTopic, sendTimeoutMs), maxAttempts);
+        this.backoffMs = backoffMs;
+    }
+
+    @Override
+    public void handle(Exception thrownException, List<ConsumerRecord<?, ?>> records, Consumer<?, ?> consumer,
+                       MessageListenerContainer container) {
+        if (backoffMs > 0) {
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        super.handle(thrownException, records, consumer, container);
+    }
+
+    private static BiConsumer<ConsumerRecord<?, ?>, Exception> deadLetter(KafkaTemplate<String, String> kafkaTemplate,
+                                                                         String deadLetterTopic, long sendTimeoutMs) {
+        return (record, exception) -> {
+            ProducerRecord<String, String> deadLetter = new ProducerRecord<>(deadLetterTopic, null,
+                    (String) record.key(), (String) record.value(), record.headers());
+            String reason = String.valueOf(exception.getCause() != null ? exception.getCause().getMessage()
+                    : exception.getMessage());
+            deadLetter.headers().add(EXCEPTION_HEADER, reason.getBytes(StandardCharsets.UTF_8));
+            try {
+                kafkaTemplate.send(deadLetter).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KafkaException("Publicación en " + deadLetterTopic + " interrumpida", e);
+            } catch (Exception e) {
+                // Sin confirmar: el registro no se saltea y se vuelve a entregar
+                throw new KafkaException("No se pudo publicar en " + deadLetterTopic, e);
+            }
+            logger.error("☠️ Evento de error {}-{}@{} enviado a {} tras agotar las reentregas: {}",
+                        record.topic(), record.partition(), record.offset(), deadLetterTopic, reason);
+        };
+    }
+}
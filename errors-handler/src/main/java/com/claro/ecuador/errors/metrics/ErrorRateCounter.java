@@ -0,0 +1,278 @@
+package com.claro.ecuador.errors.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Conteo de errores por (topic, errorType) en una ventana deslizante
+ * - Cada clave tiene un anillo de buckets de window-ms / buckets: el conteo decae a medida
+ *   que los buckets salen de la ventana, en lugar de crecer durante toda la vida del proceso
+ * - Tabla con stripes (un lock por stripe) y encadenamiento propio: la búsqueda compara
+ *   topic y errorType directamente, sin concatenar strings ni crear objetos por registro
+ * - Límite duro de claves (max-keys); las claves sin errores durante idle-evict-ms se liberan
+ *
+ * @author Global HITSS
+ */
+@Component
+public class ErrorRateCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ErrorRateCounter.class);
+
+    @Value("${error-handler.rates.window-ms:300000}")
+    private long windowMs;
+
+    @Value("${error-handler.rates.buckets:30}")
+    private int buckets;
+
+    @Value("${error-handler.rates.stripes:16}")
+    private int stripeCount;
+
+    @Value("${error-handler.rates.max-keys:10000}")
+    private int maxKeys;
+
+    @Value("${error-handler.rates.idle-evict-ms:900000}")
+    private long idleEvictMs;
+
+    private long bucketMs;
+    private Stripe[] stripes;
+    private int stripeMask;
+
+    private final AtomicInteger trackedKeys = new AtomicInteger();
+    private final LongAdder untracked = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        if (buckets <= 0 || windowMs % buckets != 0) {
+            throw new IllegalStateException("error-handler.rates.window-ms debe ser múltiplo de buckets");
+        }
+        this.bucketMs = windowMs / buckets;
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripeMask = count - 1;
+        int slotsPerStripe = Integer.highestOneBit(Math.max(2, maxKeys / count * 2 - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(slotsPerStripe);
+        }
+        logger.info("📊 Conteo de errores por ventana de {} ms ({} buckets), máximo {} claves",
+                windowMs, buckets, maxKeys);
+    }
+
+    /**
+     * Registrar un error
+     *
+     * @return errores de la clave en la ventana, incluido este; 0 si la clave no se puede
+     * seguir por haberse alcanzado max-keys
+     */
+    public int record(String topic, String errorType) {
+        long now = System.currentTimeMillis();
+        int hash = hash(topic, errorType);
+        Stripe stripe = stripes[hash & stripeMask];
+        synchronized (stripe) {
+            Entry entry = stripe.find(hash, topic, errorType);
+            if (entry == null) {
+                if (trackedKeys.incrementAndGet() > maxKeys) {
+                    trackedKeys.decrementAndGet();
+                    untracked.increment();
+                    return 0;
+                }
+                entry = stripe.insert(hash, topic, errorType, buckets, now / bucketMs);
+            }
+            return entry.increment(now / bucketMs, now);
+        }
+    }
+
+    /**
+     * Reserva el envío de una alerta para la clave si no hubo otra en los últimos minIntervalMs
+     */
+    public boolean claimAlert(String topic, String errorType, long minIntervalMs) {
+        long now = System.currentTimeMillis();
+        int hash = hash(topic, errorType);
+        Stripe stripe = stripes[hash & stripeMask];
+        synchronized (stripe) {
+            Entry entry = stripe.find(hash, topic, errorType);
+            if (entry == null || entry.lastAlertAtMs != 0 && now - entry.lastAlertAtMs < minIntervalMs) {
+                return false;
+            }
+            entry.lastAlertAtMs = now;
+            return true;
+        }
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    /**
+     * Libera las claves sin errores durante idle-evict-ms
+     */
+    @Scheduled(fixedDelayString = "${error-handler.rates.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleEvictMs;
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                removed += stripe.evictOlderThan(cutoff);
+            }
+        }
+        if (removed > 0) {
+            trackedKeys.addAndGet(-removed);
+            evicted.add(removed);
+            logger.debug("🧹 Claves de conteo de errores liberadas: {}", removed);
+        }
+    }
+
+    /**
+     * Claves seguidas, descartadas por límite, liberadas y las de mayor conteo en la ventana
+     */
+    public Map<String, Object> stats(int top) {
+        long nowBucket = System.currentTimeMillis() / bucketMs;
+        List<Object[]> counts = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Entry head : stripe.table) {
+                    for (Entry entry = head; entry != null; entry = entry.next) {
+                        entry.advance(nowBucket);
+                        if (entry.total > 0) {
+                            counts.add(new Object[]{entry.topic + ":" + entry.errorType, entry.total});
+                        }
+                    }
+                }
+            }
+        }
+        counts.sort((a, b) -> Integer.compare((Integer) b[1], (Integer) a[1]));
+
+        Map<String, Object> topKeys = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(top, counts.size()); i++) {
+            topKeys.put((String) counts.get(i)[0], counts.get(i)[1]);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("windowMs", windowMs);
+        stats.put("buckets", buckets);
+        stats.put("trackedKeys", trackedKeys.get());
+        stats.put("maxKeys", maxKeys);
+        stats.put("untracked", untracked.sum());
+        stats.put("evicted", evicted.sum());
+        stats.put("top", topKeys);
+        return stats;
+    }
+
+    private static int hash(String topic, String errorType) {
+        int hash = (topic == null ? 0 : topic.hashCode()) * 31 + (errorType == null ? 0 : errorType.hashCode());
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Stripe {
+
+        private final Entry[] table;
+        private final int mask;
+
+        private Stripe(int slots) {
+            this.table = new Entry[slots];
+            this.mask = slots - 1;
+        }
+
+        private Entry find(int hash, String topic, String errorType) {
+            for (Entry entry = table[(hash >>> 4) & mask]; entry != null; entry = entry.next) {
+                if (entry.hash == hash && equal(entry.topic, topic) && equal(entry.errorType, errorType)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        private Entry insert(int hash, String topic, String errorType, int buckets, long nowBucket) {
+            int slot = (hash >>> 4) & mask;
+            Entry entry = new Entry(hash, topic, errorType, buckets, nowBucket);
+            entry.next = table[slot];
+            table[slot] = entry;
+            return entry;
+        }
+
+        private int evictOlderThan(long cutoffMs) {
+            int removed = 0;
+            for (int slot = 0; slot < table.length; slot++) {
+                Entry previous = null;
+                for (Entry entry = table[slot]; entry != null; entry = entry.next) {
+                    if (entry.lastSeenMs < cutoffMs) {
+                        if (previous == null) {
+                            table[slot] = entry.next;
+                        } else {
+                            previous.next = entry.next;
+                        }
+                        removed++;
+                    } else {
+                        previous = entry;
+                    }
+                }
+            }
+            return removed;
+        }
+
+        private static boolean equal(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    private static final class Entry {
+
+        private final int hash;
+        private final String topic;
+        private final String errorType;
+        private final int[] counts;
+        private long currentBucket;
+        private int total;
+        private long lastSeenMs;
+        private long lastAlertAtMs;
+        private Entry next;
+
+        private Entry(int hash, String topic, String errorType, int buckets, long nowBucket) {
+            this.hash = hash;
+            this.topic = topic;
+            this.errorType = errorType;
+            this.counts = new int[buckets];
+            this.currentBucket = nowBucket;
+        }
+
+        private int increment(long nowBucket, long nowMs) {
+            advance(nowBucket);
+            counts[(int) (nowBucket % counts.length)]++;
+            total++;
+            lastSeenMs = nowMs;
+            return total;
+        }
+
+        /**
+         * Vacía los buckets que salieron de la ventana desde el último acceso
+         */
+        private void advance(long nowBucket) {
+            long elapsed = nowBucket - currentBucket;
+            if (elapsed <= 0) {
+                return;
+            }
+            if (elapsed >= counts.length) {
+                Arrays.fill(counts, 0);
+                total = 0;
+            } else {
+                for (long bucket = currentBucket + 1; bucket <= nowBucket; bucket++) {
+                    int index = (int) (bucket % counts.length);
+                    total -= counts[index];
+                    counts[index] = 0;
+                }
+            }
+            currentBucket = nowBucket;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.claro.ecuador.errors.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/errorrates
+ * Claves seguidas, descartadas por límite, liberadas y las 20 con más errores en la ventana
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "errorrates")
+public class ErrorRateEndpoint {
+
+    @Autowired
+    private ErrorRateCounter errorRateCounter;
+
+    @ReadOperation
+    public Map<String, Object> errorRates() {
+        return errorRateCounter.stats(20);
+    }
+}
@@ -0,0 +1,63 @@
+package com.claro.ecuador.errors.patterns;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Grupo de mensajes de error con la misma plantilla (partes variables como <*>)
+ *
+ * @author Global HITSS
+ */
+public final class ErrorCluster {
+
+    private final String fingerprint;
+    final String[] template;
+    final ErrorTemplateMiner.Node leaf;
+    private long count;
+    private final long firstSeenMs;
+    private long lastSeenMs;
+
+    ErrorCluster(String fingerprint, String[] template, ErrorTemplateMiner.Node leaf, long nowMs) {
+        this.fingerprint = fingerprint;
+        this.template = template;
+        this.leaf = leaf;
+        this.firstSeenMs = nowMs;
+        this.lastSeenMs = nowMs;
+    }
+
+    void seen(long nowMs) {
+        count++;
+        lastSeenMs = nowMs;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getTemplate() {
+        return String.join(" ", template);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getFirstSeenMs() {
+        return firstSeenMs;
+    }
+
+    public long getLastSeenMs() {
+        return lastSeenMs;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("fingerprint", fingerprint);
+        map.put("template", getTemplate());
+        map.put("count", count);
+        map.put("firstSeen", Instant.ofEpochMilli(firstSeenMs).toString());
+        map.put("lastSeen", Instant.ofEpochMilli(lastSeenMs).toString());
+        return map;
+    }
+}
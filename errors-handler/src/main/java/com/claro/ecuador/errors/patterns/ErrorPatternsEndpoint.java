@@ -0,0 +1,27 @@
+package com.claro.ecuador.errors.patterns;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/errorpatterns
+ * Grupos de mensajes de error y las 20 plantillas más frecuentes con conteo y primera/última vez vistas
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "errorpatterns")
+public class ErrorPatternsEndpoint {
+
+    @Autowired
+    private ErrorTemplateMiner errorTemplateMiner;
+
+    @ReadOperation
+    public Map<String, Object> patterns() {
+        return errorTemplateMiner.stats(20);
+    }
+}
@@ -0,0 +1,288 @@
+package com.claro.ecuador.errors.patterns;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Minado en línea de plantillas de mensajes de error (árbol de parseo al estilo Drain)
+ * 1. Tokeniza el mensaje por espacios (hasta max-tokens) y enmascara las partes variables:
+ *    tokens con dígitos (IDs, números, timestamps, IPs, UUIDs) o muy largos pasan a <*>
+ * 2. Desciende por un árbol de profundidad fija: cantidad de tokens y luego los primeros
+ *    depth tokens (cada nodo con a lo sumo max-children hijos; el resto va por <*>)
+ * 3. En la hoja elige el grupo más similar (proporción de tokens iguales); si supera
+ *    similarity-threshold se une a él y los tokens distintos de la plantilla pasan a <*>,
+ *    si no se crea un grupo nuevo
+ * El costo por mensaje es constante (tokens, profundidad y grupos por hoja acotados) y la
+ * tabla de grupos tiene un tope (max-clusters): al superarlo se descarta el usado hace más tiempo.
+ * El fingerprint identifica a un solo grupo vivo: si un grupo nuevo coincide con uno existente
+ * (la misma plantilla inicial llegó por otra hoja del árbol), el mensaje se une al existente.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class ErrorTemplateMiner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ErrorTemplateMiner.class);
+
+    static final String WILDCARD = "<*>";
+
+    @Value("${error-handler.patterns.depth:2}")
+    private int depth;
+
+    @Value("${error-handler.patterns.similarity-threshold:0.5}")
+    private double similarityThreshold;
+
+    @Value("${error-handler.patterns.max-tokens:48}")
+    private int maxTokens;
+
+    @Value("${error-handler.patterns.max-token-length:40}")
+    private int maxTokenLength;
+
+    @Value("${error-handler.patterns.max-children:64}")
+    private int maxChildren;
+
+    @Value("${error-handler.patterns.max-clusters-per-leaf:32}")
+    private int maxClustersPerLeaf;
+
+    @Value("${error-handler.patterns.max-clusters:2000}")
+    private int maxClusters;
+
+    private final Node root = new Node(null, null);
+
+    // Orden de acceso: el primero es el grupo usado hace más tiempo
+    private final LinkedHashMap<String, ErrorCluster> clusters = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final LongAdder ingested = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * Asigna el mensaje a un grupo (creándolo si hace falta)
+     *
+     * @return grupo del mensaje
+     */
+    public synchronized ErrorCluster ingest(String message) {
+        long now = System.currentTimeMillis();
+        ingested.increment();
+        String[] tokens = tokenize(message == null ? "" : message);
+
+        Node leaf = descend(tokens);
+        ErrorCluster best = null;
+        double bestSimilarity = -1;
+        int bestWildcards = -1;
+        for (ErrorCluster cluster : leaf.clusters) {
+            int equal = 0;
+            int wildcards = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                String token = cluster.template[i];
+                if (token.equals(WILDCARD)) {
+                    wildcards++;
+                } else if (token.equals(tokens[i])) {
+                    equal++;
+                }
+            }
+            double similarity = tokens.length == 0 ? 1 : (double) equal / tokens.length;
+            if (similarity > bestSimilarity || similarity == bestSimilarity && wildcards > bestWildcards) {
+                best = cluster;
+                bestSimilarity = similarity;
+                bestWildcards = wildcards;
+            }
+        }
+
+        if (best != null && bestSimilarity >= similarityThreshold) {
+            merge(best, tokens);
+        } else {
+            best = createCluster(tokens, leaf, now);
+        }
+        best.seen(now);
+        return best;
+    }
+
+    /**
+     * Grupos con más mensajes
+     */
+    public synchronized List<Map<String, Object>> top(int limit) {
+        List<ErrorCluster> sorted = new ArrayList<>(clusters.values());
+        sorted.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        List<Map<String, Object>> top = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, sorted.size()); i++) {
+            top.add(sorted.get(i).toMap());
+        }
+        return top;
+    }
+
+    public synchronized Map<String, Object> stats(int limit) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("clusters", clusters.size());
+        stats.put("maxClusters", maxClusters);
+        stats.put("ingested", ingested.sum());
+        stats.put("evicted", evicted.sum());
+        stats.put("top", top(limit));
+        return stats;
+    }
+
+    /**
+     * Une el mensaje al grupo: los tokens distintos de la plantilla pasan a <*>
+     */
+    private void merge(ErrorCluster cluster, String[] tokens) {
+        for (int i = 0; i < tokens.length; i++) {
+            if (!cluster.template[i].equals(tokens[i])) {
+                cluster.template[i] = WILDCARD;
+            }
+        }
+        // Acceso en el LinkedHashMap: lo aleja de la expulsión
+        clusters.get(cluster.getFingerprint());
+    }
+
+    private ErrorCluster createCluster(String[] tokens, Node leaf, long now) {
+        String fingerprint = fingerprint(tokens);
+        ErrorCluster existing = clusters.get(fingerprint);
+        if (existing != null) {
+            if (existing.template.length == tokens.length) {
+                // La plantilla inicial de un grupo vivo que quedó en otra hoja (p. ej. bajo <*> cuando
+                // el nodo estaba lleno): se une a él en lugar de duplicarlo
+                merge(existing, tokens);
+                prune(leaf);
+                return existing;
+            }
+            // Colisión del hash con otra plantilla: fingerprint distinto para no pisar el grupo vivo
+            int suffix = 1;
+            while (clusters.containsKey(fingerprint + "-" + suffix)) {
+                suffix++;
+            }
+            fingerprint = fingerprint + "-" + suffix;
+        }
+
+        if (leaf.clusters.size() >= maxClustersPerLeaf) {
+            // Hoja llena: se reemplaza su grupo usado hace más tiempo
+            ErrorCluster oldest = null;
+            for (ErrorCluster cluster : leaf.clusters) {
+                if (oldest == null || cluster.getLastSeenMs() < oldest.getLastSeenMs()) {
+                    oldest = cluster;
+                }
+            }
+            remove(oldest, leaf);
+        }
+        if (clusters.size() >= maxClusters) {
+            ErrorCluster victim = clusters.values().iterator().next();
+            remove(victim, leaf);
+        }
+
+        ErrorCluster cluster = new ErrorCluster(fingerprint, tokens.clone(), leaf, now);
+        clusters.put(fingerprint, cluster);
+        leaf.clusters.add(cluster);
+        if (logger.isDebugEnabled()) {
+            logger.debug("🧬 Nuevo patrón de error {}: {}", fingerprint, cluster.getTemplate());
+        }
+        return cluster;
+    }
+
+    private void remove(ErrorCluster cluster, Node keep) {
+        clusters.remove(cluster.getFingerprint());
+        cluster.leaf.clusters.remove(cluster);
+        evicted.increment();
+        if (cluster.leaf != keep) {
+            prune(cluster.leaf);
+        }
+    }
+
+    /**
+     * Poda los nodos que quedaron vacíos desde node hacia la raíz
+     */
+    private void prune(Node node) {
+        while (node.parent != null && node.clusters.isEmpty() && node.children.isEmpty()) {
+            node.parent.children.remove(node.key);
+            node = node.parent;
+        }
+    }
+
+    private Node descend(String[] tokens) {
+        Node node = child(root, Integer.toString(tokens.length));
+        int levels = Math.min(depth, tokens.length);
+        for (int i = 0; i < levels; i++) {
+            node = child(node, tokens[i]);
+        }
+        return node;
+    }
+
+    private Node child(Node node, String key) {
+        Node child = node.children.get(key);
+        if (child != null) {
+            return child;
+        }
+        if (node.children.size() >= maxChildren && !key.equals(WILDCARD)) {
+            key = WILDCARD;
+            child = node.children.get(key);
+            if (child != null) {
+                return child;
+            }
+        }
+        child = new Node(node, key);
+        node.children.put(key, child);
+        return child;
+    }
+
+    /**
+     * Tokens por espacios, con las partes variables enmascaradas
+     */
+    private String[] tokenize(String message) {
+        List<String> tokens = new ArrayList<>();
+        int length = message.length();
+        int i = 0;
+        while (i < length && tokens.size() < maxTokens) {
+            while (i < length && Character.isWhitespace(message.charAt(i))) {
+                i++;
+            }
+            if (i >= length) {
+                break;
+            }
+            int start = i;
+            boolean hasDigit = false;
+            while (i < length && !Character.isWhitespace(message.charAt(i))) {
+                if (Character.isDigit(message.charAt(i))) {
+                    hasDigit = true;
+                }
+                i++;
+            }
+            tokens.add(hasDigit || i - start > maxTokenLength ? WILDCARD : message.substring(start, i));
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre la plantilla inicial
+     */
+    private static String fingerprint(String[] tokens) {
+        long hash = 0xcbf29ce484222325L;
+        for (String token : tokens) {
+            for (int i = 0; i < token.length(); i++) {
+                hash ^= token.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= ' ';
+            hash *= 0x100000001b3L;
+        }
+        return String.format("%016x", hash);
+    }
+
+    static final class Node {
+
+        final Node parent;
+        final String key;
+        final Map<String, Node> children = new HashMap<>();
+        final List<ErrorCluster> clusters = new ArrayList<>(2);
+
+        Node(Node parent, String key) {
+            this.parent = parent;
+            this.key = key;
+        }
+    }
+}
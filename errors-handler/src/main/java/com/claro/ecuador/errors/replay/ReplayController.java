@@ -0,0 +1,101 @@
+package com.claro.ecuador.errors.replay;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Replay del DLQ (errors.events) hacia los topics originales
+ * POST   /api/replays                {"fromOffset":100,"toOffset":5000,"errorType":"SQLException","topic":"Events"}
+ * GET    /api/replays                replays recientes y límites globales
+ * GET    /api/replays/{id}           progreso
+ * POST   /api/replays/{id}/pause     POST /api/replays/{id}/resume
+ * DELETE /api/replays/{id}           cancelación
+ *
+ * @author Global HITSS
+ */
+@RestController
+@RequestMapping("/api/replays")
+public class ReplayController {
+
+    @Autowired
+    private ReplayService replayService;
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> start(@RequestBody ReplayRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(replayService.start(request).toMap());
+    }
+
+    @GetMapping
+    public Map<String, Object> list() {
+        List<Map<String, Object>> jobs = new ArrayList<>();
+        for (ReplayJob job : replayService.jobs()) {
+            jobs.add(job.toMap());
+        }
+        Map<String, Object> response = new LinkedHashMap<>(replayService.stats());
+        response.put("jobs", jobs);
+        return response;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> get(@PathVariable String id) {
+        return apply(id, job -> true);
+    }
+
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<Map<String, Object>> pause(@PathVariable String id) {
+        return apply(id, ReplayJob::pause);
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<Map<String, Object>> resume(@PathVariable String id) {
+        return apply(id, ReplayJob::resume);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> cancel(@PathVariable String id) {
+        return apply(id, ReplayJob::cancel);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, Object> badRequest(IllegalArgumentException e) {
+        return Collections.singletonMap("error", e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, Object> conflict(IllegalStateException e) {
+        return Collections.singletonMap("error", e.getMessage());
+    }
+
+    /**
+     * Aplica la acción al replay; 404 si no existe y 409 si ya terminó
+     */
+    private ResponseEntity<Map<String, Object>> apply(String id, Predicate<ReplayJob> action) {
+        ReplayJob job = replayService.job(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!action.test(job)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job.toMap());
+        }
+        return ResponseEntity.ok(job.toMap());
+    }
+}
@@ -0,0 +1,159 @@
+package com.claro.ecuador.errors.replay;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado y progreso de un replay del DLQ
+ *
+ * @author Global HITSS
+ */
+public final class ReplayJob {
+
+    public enum State { QUEUED, RUNNING, PAUSED, COMPLETED, CANCELLED, FAILED }
+
+    final String id;
+    final ReplayRequest request;
+    private final long createdAt = System.currentTimeMillis();
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile State state = State.QUEUED;
+    private volatile boolean pauseRequested;
+    private volatile boolean cancelRequested;
+    private volatile String error;
+
+    final AtomicLong scanned = new AtomicLong();
+    final AtomicLong matched = new AtomicLong();
+    final AtomicLong republished = new AtomicLong();
+    final AtomicLong duplicates = new AtomicLong();
+    final AtomicLong invalid = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    final AtomicInteger inFlight = new AtomicInteger();
+
+    // Por partición: offset inicial, próximo offset a leer y offset final (exclusivo)
+    private final Map<TopicPartition, long[]> progress = new ConcurrentHashMap<>();
+
+    ReplayJob(String id, ReplayRequest request) {
+        this.id = id;
+        this.request = request;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.CANCELLED || state == State.FAILED;
+    }
+
+    synchronized boolean pause() {
+        if (isFinished()) {
+            return false;
+        }
+        pauseRequested = true;
+        return true;
+    }
+
+    synchronized boolean resume() {
+        if (isFinished()) {
+            return false;
+        }
+        pauseRequested = false;
+        if (state == State.PAUSED) {
+            state = State.RUNNING;
+        }
+        return true;
+    }
+
+    synchronized boolean cancel() {
+        if (isFinished()) {
+            return false;
+        }
+        cancelRequested = true;
+        return true;
+    }
+
+    boolean isPauseRequested() {
+        return pauseRequested;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    synchronized void started() {
+        startedAt = System.currentTimeMillis();
+        state = pauseRequested ? State.PAUSED : State.RUNNING;
+    }
+
+    synchronized void paused(boolean paused) {
+        if (!isFinished()) {
+            state = paused ? State.PAUSED : State.RUNNING;
+        }
+    }
+
+    synchronized void finished(State finalState, String error) {
+        this.state = finalState;
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+    }
+
+    void range(TopicPartition partition, long start, long end) {
+        progress.put(partition, new long[]{start, start, end});
+    }
+
+    void position(TopicPartition partition, long next) {
+        long[] range = progress.get(partition);
+        if (range != null) {
+            range[1] = next;
+        }
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", id);
+        map.put("state", state.name());
+        map.put("request", request.toMap());
+        map.put("createdAt", Instant.ofEpochMilli(createdAt).toString());
+        map.put("startedAt", startedAt > 0 ? Instant.ofEpochMilli(startedAt).toString() : null);
+        map.put("finishedAt", finishedAt > 0 ? Instant.ofEpochMilli(finishedAt).toString() : null);
+        map.put("scanned", scanned.get());
+        map.put("matched", matched.get());
+        map.put("republished", republished.get());
+        map.put("duplicates", duplicates.get());
+        map.put("invalid", invalid.get());
+        map.put("failed", failed.get());
+        map.put("inFlight", inFlight.get());
+
+        long total = 0;
+        long done = 0;
+        List<Map<String, Object>> partitions = new ArrayList<>();
+        for (Map.Entry<TopicPartition, long[]> entry : progress.entrySet()) {
+            long[] range = entry.getValue();
+            total += range[2] - range[0];
+            done += Math.min(range[1], range[2]) - range[0];
+            Map<String, Object> partition = new LinkedHashMap<>();
+            partition.put("partition", entry.getKey().partition());
+            partition.put("fromOffset", range[0]);
+            partition.put("position", range[1]);
+            partition.put("endOffset", range[2]);
+            partitions.add(partition);
+        }
+        map.put("progressPercent", total > 0 ? Math.round(done * 1000.0 / total) / 10.0 : (isFinished() ? 100.0 : 0.0));
+        map.put("partitions", partitions);
+        map.put("error", error);
+        return map;
+    }
+}
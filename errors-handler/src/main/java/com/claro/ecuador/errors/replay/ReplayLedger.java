@@ -0,0 +1,236 @@
+package com.claro.ecuador.errors.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registro de los offsets de errors.events ya republicados, para que repetir un replay no duplique registros
+ * En disco: registros de 12 bytes (partición int, offset long) agregados al confirmar cada envío.
+ * En memoria: un bitmap por partición relativo al primer offset visto.
+ * claim() reserva el offset antes de enviarlo (dos replays solapados no lo envían dos veces),
+ * confirm() lo persiste tras el ack y release() lo libera si el envío falló.
+ * trim() descarta los offsets que la retención ya borró del topic (debajo del log start offset,
+ * la marca de agua baja): nunca se vuelven a leer, así el bitmap y el archivo no crecen sin límite.
+ *
+ * @author Global HITSS
+ */
+final class ReplayLedger {
+
+    private final Path file;
+    private final Map<Integer, OffsetBitmap> partitions = new HashMap<>();
+    // Offsets reservados con el envío en curso: no se persisten al compactar
+    private final Map<Integer, Set<Long>> claimed = new HashMap<>();
+    private DataOutputStream out;
+    private long confirmed;
+
+    ReplayLedger(Path file) {
+        this.file = file;
+    }
+
+    synchronized void open() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file);
+                 DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+                while (true) {
+                    int partition;
+                    long offset;
+                    try {
+                        partition = data.readInt();
+                        offset = data.readLong();
+                    } catch (EOFException e) {
+                        // Fin del archivo (o registro incompleto de un cierre abrupto)
+                        break;
+                    }
+                    bitmap(partition).set(offset);
+                    confirmed++;
+                }
+            }
+        }
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    /**
+     * @return false si el offset ya fue republicado o lo está enviando otro replay
+     */
+    synchronized boolean claim(int partition, long offset) {
+        OffsetBitmap bitmap = bitmap(partition);
+        if (bitmap.get(offset)) {
+            return false;
+        }
+        bitmap.set(offset);
+        claimed.computeIfAbsent(partition, p -> new HashSet<>()).add(offset);
+        return true;
+    }
+
+    synchronized void confirm(int partition, long offset) throws IOException {
+        unclaim(partition, offset);
+        out.writeInt(partition);
+        out.writeLong(offset);
+        confirmed++;
+    }
+
+    synchronized void release(int partition, long offset) {
+        unclaim(partition, offset);
+        bitmap(partition).clear(offset);
+    }
+
+    /**
+     * Descarta los offsets menores a la marca de agua baja de cada partición y, si descartó alguno,
+     * reescribe el archivo con los confirmados restantes
+     *
+     * @return offsets descartados
+     */
+    synchronized long trim(Map<Integer, Long> lowWaterMarks) throws IOException {
+        long trimmed = 0;
+        for (Map.Entry<Integer, Long> entry : lowWaterMarks.entrySet()) {
+            OffsetBitmap bitmap = partitions.get(entry.getKey());
+            if (bitmap != null) {
+                trimmed += bitmap.trim(entry.getValue());
+            }
+        }
+        if (trimmed > 0) {
+            rewrite();
+        }
+        return trimmed;
+    }
+
+    synchronized void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    synchronized long confirmed() {
+        return confirmed;
+    }
+
+    private OffsetBitmap bitmap(int partition) {
+        return partitions.computeIfAbsent(partition, p -> new OffsetBitmap());
+    }
+
+    private void unclaim(int partition, long offset) {
+        Set<Long> offsets = claimed.get(partition);
+        if (offsets != null) {
+            offsets.remove(offset);
+        }
+    }
+
+    /**
+     * Reemplaza el archivo por uno con los offsets confirmados vigentes (escritura a temporal y rename)
+     */
+    private void rewrite() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long written = 0;
+        try (DataOutputStream compacted = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            for (Map.Entry<Integer, OffsetBitmap> entry : partitions.entrySet()) {
+                int partition = entry.getKey();
+                Set<Long> inFlight = claimed.get(partition);
+                OffsetBitmap bitmap = entry.getValue();
+                for (long offset = bitmap.next(0); offset >= 0; offset = bitmap.next(offset + 1)) {
+                    if (inFlight == null || !inFlight.contains(offset)) {
+                        compacted.writeInt(partition);
+                        compacted.writeLong(offset);
+                        written++;
+                    }
+                }
+            }
+        }
+        if (out != null) {
+            out.close();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        confirmed = written;
+    }
+
+    /**
+     * Bitmap de offsets relativo al primer offset registrado; se desplaza si llega uno menor
+     */
+    private static final class OffsetBitmap {
+
+        private long base = -1;
+        private BitSet bits = new BitSet();
+
+        boolean get(long offset) {
+            return base >= 0 && offset >= base && bits.get(index(offset));
+        }
+
+        void set(long offset) {
+            if (base < 0) {
+                base = offset;
+            } else if (offset < base) {
+                BitSet shifted = new BitSet();
+                int shift = (int) (base - offset);
+                for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                    shifted.set(i + shift);
+                }
+                bits = shifted;
+                base = offset;
+            }
+            bits.set(index(offset));
+        }
+
+        void clear(long offset) {
+            if (base >= 0 && offset >= base) {
+                bits.clear(index(offset));
+            }
+        }
+
+        /**
+         * @return primer offset registrado >= from, o -1
+         */
+        long next(long from) {
+            if (base < 0) {
+                return -1;
+            }
+            int index = bits.nextSetBit(from > base ? index(from) : 0);
+            return index < 0 ? -1 : base + index;
+        }
+
+        /**
+         * Descarta los offsets menores a lowWaterMark y mueve la base hasta ahí
+         *
+         * @return offsets descartados
+         */
+        long trim(long lowWaterMark) {
+            if (base < 0 || lowWaterMark <= base) {
+                return 0;
+            }
+            long before = bits.cardinality();
+            long shift = lowWaterMark - base;
+            bits = shift >= bits.length() ? new BitSet() : bits.get((int) shift, bits.length());
+            base = lowWaterMark;
+            return before - bits.cardinality();
+        }
+
+        private int index(long offset) {
+            return (int) (offset - base);
+        }
+    }
+}
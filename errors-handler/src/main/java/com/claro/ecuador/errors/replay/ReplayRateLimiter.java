@@ -0,0 +1,33 @@
+package com.claro.ecuador.errors.replay;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Límite global de registros republicados por segundo, compartido por todos los replays
+ * Cada acquire() reserva el siguiente turno libre y espera hasta él.
+ *
+ * @author Global HITSS
+ */
+final class ReplayRateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeNanos = System.nanoTime();
+
+    ReplayRateLimiter(double ratePerSecond) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+    }
+
+    void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            // Sin ráfagas acumuladas: un turno no usado no se recupera
+            long turn = Math.max(nextFreeNanos, now);
+            nextFreeNanos = turn + intervalNanos;
+            waitNanos = turn - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
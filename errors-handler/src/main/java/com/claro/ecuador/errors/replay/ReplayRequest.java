@@ -0,0 +1,93 @@
+package com.claro.ecuador.errors.replay;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Selección de registros de errors.events a republicar (todos los criterios son opcionales y se combinan)
+ * - partition: solo esa partición del DLQ
+ * - fromOffset / toOffset: rango de offsets (inclusivo) en cada partición
+ * - from / to: rango por timestamp del registro en el DLQ
+ * - errorType / topic: errorType y topic original del error
+ *
+ * @author Global HITSS
+ */
+public class ReplayRequest {
+
+    private Integer partition;
+    private Long fromOffset;
+    private Long toOffset;
+    private Instant from;
+    private Instant to;
+    private String errorType;
+    private String topic;
+
+    public Integer getPartition() {
+        return partition;
+    }
+
+    public void setPartition(Integer partition) {
+        this.partition = partition;
+    }
+
+    public Long getFromOffset() {
+        return fromOffset;
+    }
+
+    public void setFromOffset(Long fromOffset) {
+        this.fromOffset = fromOffset;
+    }
+
+    public Long getToOffset() {
+        return toOffset;
+    }
+
+    public void setToOffset(Long toOffset) {
+        this.toOffset = toOffset;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public void setFrom(Instant from) {
+        this.from = from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public void setTo(Instant to) {
+        this.to = to;
+    }
+
+    public String getErrorType() {
+        return errorType;
+    }
+
+    public void setErrorType(String errorType) {
+        this.errorType = errorType;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("partition", partition);
+        map.put("fromOffset", fromOffset);
+        map.put("toOffset", toOffset);
+        map.put("from", from != null ? from.toString() : null);
+        map.put("to", to != null ? to.toString() : null);
+        map.put("errorType", errorType);
+        map.put("topic", topic);
+        return map;
+    }
+}
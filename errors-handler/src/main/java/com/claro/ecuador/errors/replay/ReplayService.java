@@ -0,0 +1,412 @@
+package com.claro.ecuador.errors.replay;
+
+import com.claro.ecuador.errors.retry.RetryScheduler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replay de errors.events: republica el originalMessage de los registros seleccionados en su topic original
+ * 1. Cada replay lee el DLQ con un consumer propio (assign, sin grupo ni commits) desde el offset
+ *    inicial de la selección hasta el final vigente al iniciar, así que siempre termina
+ * 2. Los envíos son asíncronos con hasta max-in-flight pendientes y un límite global de
+ *    rate-per-second compartido por todos los replays en curso
+ * 3. Cada offset del DLQ se republica una sola vez (ReplayLedger): repetir un replay solo envía
+ *    lo que no se confirmó antes
+ * Los mensajes llevan x-dlq-retry-attempt = retryAttempt + 1, igual que un reintento programado:
+ * events-processor no los descarta por deduplicación y si vuelven a fallar cuentan como intento.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class ReplayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayService.class);
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private KafkaProperties kafkaProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${error-handler.replay.topic:errors.events}")
+    private String topic;
+
+    @Value("${error-handler.replay.rate-per-second:200}")
+    private double ratePerSecond;
+
+    @Value("${error-handler.replay.max-in-flight:100}")
+    private int maxInFlight;
+
+    @Value("${error-handler.replay.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${error-handler.replay.poll-timeout-ms:500}")
+    private long pollTimeoutMs;
+
+    @Value("${error-handler.replay.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${error-handler.replay.ledger-file:./data/replay/replayed-offsets.ledger}")
+    private String ledgerFile;
+
+    @Value("${error-handler.replay.retained-jobs:50}")
+    private int retainedJobs;
+
+    private ReplayLedger ledger;
+    private ReplayRateLimiter rateLimiter;
+    private Semaphore inFlight;
+    private ThreadPoolExecutor executor;
+
+    // Replays en orden de creación; los terminados más antiguos se descartan pasado retained-jobs
+    private final Map<String, ReplayJob> jobs = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        ledger = new ReplayLedger(Paths.get(ledgerFile));
+        ledger.open();
+        rateLimiter = new ReplayRateLimiter(ratePerSecond);
+        inFlight = new Semaphore(maxInFlight);
+
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "dlq-replay-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        logger.info("⏪ Replay del DLQ listo: {} registros/s, {} replays simultáneos, {} offsets ya republicados",
+                ratePerSecond, maxConcurrentJobs, ledger.confirmed());
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        synchronized (jobs) {
+            for (ReplayJob job : jobs.values()) {
+                job.cancel();
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        ledger.close();
+    }
+
+    /**
+     * Inicia un replay
+     *
+     * @throws IllegalArgumentException si la selección es inválida
+     * @throws IllegalStateException    si ya hay max-concurrent-jobs replays en curso
+     */
+    public ReplayJob start(ReplayRequest request) {
+        if (request.getFromOffset() != null && request.getToOffset() != null
+                && request.getFromOffset() > request.getToOffset()) {
+            throw new IllegalArgumentException("fromOffset mayor que toOffset");
+        }
+        if (request.getFrom() != null && request.getTo() != null && request.getFrom().isAfter(request.getTo())) {
+            throw new IllegalArgumentException("from posterior a to");
+        }
+
+        ReplayJob job = new ReplayJob(UUID.randomUUID().toString(), request);
+        synchronized (jobs) {
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                throw new IllegalStateException("Ya hay " + maxConcurrentJobs + " replays en curso");
+            }
+            jobs.put(job.id, job);
+            Iterator<ReplayJob> oldest = jobs.values().iterator();
+            while (jobs.size() > retainedJobs && oldest.hasNext()) {
+                if (oldest.next().isFinished()) {
+                    oldest.remove();
+                }
+            }
+        }
+        logger.info("⏪ Replay {} iniciado: {}", job.id, request.toMap());
+        return job;
+    }
+
+    public ReplayJob job(String id) {
+        synchronized (jobs) {
+            return jobs.get(id);
+        }
+    }
+
+    public List<ReplayJob> jobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("topic", topic);
+        stats.put("ratePerSecond", ratePerSecond);
+        stats.put("maxInFlight", maxInFlight);
+        stats.put("inFlight", maxInFlight - inFlight.availablePermits());
+        stats.put("activeJobs", executor.getActiveCount());
+        stats.put("maxConcurrentJobs", maxConcurrentJobs);
+        stats.put("ledgerConfirmed", ledger.confirmed());
+        return stats;
+    }
+
+    private void run(ReplayJob job) {
+        job.started();
+        ReplayRequest request = job.request;
+        long fromMs = request.getFrom() != null ? request.getFrom().toEpochMilli() : Long.MIN_VALUE;
+        long toMs = request.getTo() != null ? request.getTo().toEpochMilli() : Long.MAX_VALUE;
+
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(consumerProperties())) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : consumer.partitionsFor(topic)) {
+                if (request.getPartition() == null || request.getPartition() == info.partition()) {
+                    partitions.add(new TopicPartition(topic, info.partition()));
+                }
+            }
+            consumer.assign(partitions);
+
+            Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            trimLedger(beginning);
+            Map<TopicPartition, OffsetAndTimestamp> byTime = Collections.emptyMap();
+            if (request.getFrom() != null) {
+                Map<TopicPartition, Long> timestamps = new HashMap<>();
+                for (TopicPartition partition : partitions) {
+                    timestamps.put(partition, fromMs);
+                }
+                byTime = consumer.offsetsForTimes(timestamps);
+            }
+
+            // Rango [inicio, fin) por partición
+            Map<TopicPartition, Long> stop = new HashMap<>();
+            Set<TopicPartition> active = new HashSet<>();
+            for (TopicPartition partition : partitions) {
+                long start = beginning.get(partition);
+                long last = end.get(partition);
+                if (request.getFromOffset() != null) {
+                    start = Math.max(start, request.getFromOffset());
+                }
+                if (request.getFrom() != null) {
+                    OffsetAndTimestamp first = byTime.get(partition);
+                    start = Math.max(start, first != null ? first.offset() : last);
+                }
+                if (request.getToOffset() != null) {
+                    last = Math.min(last, request.getToOffset() + 1);
+                }
+                if (start < last) {
+                    consumer.seek(partition, start);
+                    job.range(partition, start, last);
+                    stop.put(partition, last);
+                    active.add(partition);
+                }
+            }
+            Set<TopicPartition> idle = new HashSet<>(partitions);
+            idle.removeAll(active);
+            consumer.pause(idle);
+
+            while (!active.isEmpty() && !job.isCancelRequested()) {
+                if (waitWhilePaused(job)) {
+                    break;
+                }
+                ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(pollTimeoutMs));
+                for (TopicPartition partition : records.partitions()) {
+                    if (!active.contains(partition)) {
+                        continue;
+                    }
+                    long last = stop.get(partition);
+                    for (ConsumerRecord<String, String> record : records.records(partition)) {
+                        if (job.isCancelRequested() || waitWhilePaused(job)) {
+                            break;
+                        }
+                        if (record.offset() >= last) {
+                            job.position(partition, last);
+                            active.remove(partition);
+                            consumer.pause(Collections.singleton(partition));
+                            break;
+                        }
+                        job.scanned.incrementAndGet();
+                        job.position(partition, record.offset() + 1);
+                        // Los timestamps no son monótonos (CreateTime del productor): fuera de rango se
+                        // salta el registro y la partición termina recién en su offset final
+                        if (record.timestamp() >= fromMs && record.timestamp() <= toMs) {
+                            replay(job, record);
+                        }
+                    }
+                }
+                // Partición completa aunque no haya llegado un registro posterior (fin o huecos)
+                for (Iterator<TopicPartition> it = active.iterator(); it.hasNext(); ) {
+                    TopicPartition partition = it.next();
+                    if (consumer.position(partition) >= stop.get(partition)) {
+                        job.position(partition, stop.get(partition));
+                        consumer.pause(Collections.singleton(partition));
+                        it.remove();
+                    }
+                }
+                ledger.flush();
+            }
+
+            while (job.inFlight.get() > 0) {
+                Thread.sleep(20);
+            }
+            ledger.flush();
+            job.finished(job.isCancelRequested() ? ReplayJob.State.CANCELLED : ReplayJob.State.COMPLETED, null);
+            logger.info("⏪ Replay {} {}: {} republicados, {} ya republicados antes, {} fallidos",
+                    job.id, job.getState(), job.republished.get(), job.duplicates.get(), job.failed.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finished(ReplayJob.State.CANCELLED, "Interrumpido");
+        } catch (Exception e) {
+            logger.error("❌ Replay {} falló: {}", job.id, e.getMessage());
+            job.finished(ReplayJob.State.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Los offsets debajo del log start offset ya no existen en el DLQ: se descartan del ledger
+     */
+    private void trimLedger(Map<TopicPartition, Long> beginning) throws IOException {
+        Map<Integer, Long> lowWaterMarks = new HashMap<>();
+        for (Map.Entry<TopicPartition, Long> entry : beginning.entrySet()) {
+            lowWaterMarks.put(entry.getKey().partition(), entry.getValue());
+        }
+        long trimmed = ledger.trim(lowWaterMarks);
+        if (trimmed > 0) {
+            logger.info("⏪ {} offsets borrados por retención de {} descartados del ledger de replay", trimmed, topic);
+        }
+    }
+
+    /**
+     * Republica un registro del DLQ si cumple los filtros y no se republicó antes
+     */
+    private void replay(ReplayJob job, ConsumerRecord<String, String> record) throws InterruptedException {
+        Map<String, Object> error;
+        try {
+            error = objectMapper.readValue(record.value(), Map.class);
+        } catch (IOException e) {
+            job.invalid.incrementAndGet();
+            return;
+        }
+        String originalTopic = (String) error.get("topic");
+        String errorType = (String) error.get("errorType");
+        String originalMessage = (String) error.get("originalMessage");
+        ReplayRequest request = job.request;
+        if (request.getErrorType() != null && !request.getErrorType().equals(errorType)
+                || request.getTopic() != null && !request.getTopic().equals(originalTopic)) {
+            return;
+        }
+        job.matched.incrementAndGet();
+        if (originalTopic == null || originalMessage == null) {
+            job.invalid.incrementAndGet();
+            return;
+        }
+
+        int partition = record.partition();
+        long offset = record.offset();
+        if (!ledger.claim(partition, offset)) {
+            job.duplicates.incrementAndGet();
+            return;
+        }
+
+        rateLimiter.acquire();
+        inFlight.acquire();
+        job.inFlight.incrementAndGet();
+
+        Object retryAttempt = error.get("retryAttempt");
+        int attempt = (retryAttempt instanceof Number ? ((Number) retryAttempt).intValue() : 0) + 1;
+        ProducerRecord<String, String> message = new ProducerRecord<>(originalTopic, originalMessage);
+        message.headers().add(RetryScheduler.ATTEMPT_HEADER, Integer.toString(attempt).getBytes(StandardCharsets.US_ASCII));
+        try {
+            kafkaTemplate.send(message).addCallback(
+                    result -> {
+                        try {
+                            ledger.confirm(partition, offset);
+                        } catch (IOException e) {
+                            logger.error("❌ No se pudo registrar el offset {}-{} como republicado: {}",
+                                    partition, offset, e.getMessage());
+                        }
+                        job.republished.incrementAndGet();
+                        sent(job);
+                    },
+                    failure -> {
+                        ledger.release(partition, offset);
+                        job.failed.incrementAndGet();
+                        sent(job);
+                    });
+        } catch (RuntimeException e) {
+            ledger.release(partition, offset);
+            job.failed.incrementAndGet();
+            sent(job);
+        }
+    }
+
+    private void sent(ReplayJob job) {
+        job.inFlight.decrementAndGet();
+        inFlight.release();
+    }
+
+    /**
+     * Espera mientras el replay esté pausado
+     *
+     * @return true si se canceló
+     */
+    private boolean waitWhilePaused(ReplayJob job) throws InterruptedException, IOException {
+        if (job.isPauseRequested()) {
+            job.paused(true);
+            ledger.flush();
+            while (job.isPauseRequested() && !job.isCancelRequested()) {
+                Thread.sleep(100);
+            }
+            job.paused(false);
+        }
+        return job.isCancelRequested();
+    }
+
+    private Map<String, Object> consumerProperties() {
+        Map<String, Object> properties = kafkaProperties.buildConsumerProperties();
+        // Lectura por assign: sin grupo ni commits, no afecta a errors-handler-group
+        properties.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        properties.put(ConsumerConfig.CLIENT_ID_CONFIG, "errors-handler-replay");
+        return properties;
+    }
+}
@@ -0,0 +1,107 @@
+package com.claro.ecuador.errors.retry;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: un solo hilo avanza una rueda de wheel-size buckets de tick-ms
+ * En lugar de un timer por registro, cada reintento se encola en el bucket de su vencimiento
+ * (con el número de vueltas restantes si cae más allá de una vuelta). Programar es O(1) y cada
+ * tick solo recorre su bucket, de modo que la rueda admite muchos reintentos pendientes.
+ *
+ * @author Global HITSS
+ */
+final class HashedTimingWheel {
+
+    private final long tickMs;
+    private final PendingRetry[] buckets;
+    private final int mask;
+    private final Queue<PendingRetry> incoming = new ConcurrentLinkedQueue<>();
+    private final Consumer<PendingRetry> onExpired;
+    private final Thread worker;
+
+    private volatile boolean running = true;
+    private long startMs;
+    private long tick;
+
+    HashedTimingWheel(long tickMs, int wheelSize, Consumer<PendingRetry> onExpired) {
+        this.tickMs = tickMs;
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.buckets = new PendingRetry[size];
+        this.mask = size - 1;
+        this.onExpired = onExpired;
+        this.worker = new Thread(this::run, "retry-timing-wheel");
+        worker.setDaemon(true);
+    }
+
+    void start() {
+        this.startMs = System.currentTimeMillis();
+        worker.start();
+    }
+
+    /**
+     * Programar un reintento; seguro desde cualquier hilo (lo toma el hilo de la rueda en el siguiente tick)
+     */
+    void schedule(PendingRetry retry) {
+        incoming.add(retry);
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startMs + (tick + 1) * tickMs;
+            long sleepMs = deadline - System.currentTimeMillis();
+            if (sleepMs > 0) {
+                try {
+                    Thread.sleep(sleepMs);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                }
+            }
+            transferIncoming();
+            expireBucket((int) (tick & mask));
+            tick++;
+        }
+    }
+
+    private void transferIncoming() {
+        PendingRetry retry;
+        while ((retry = incoming.poll()) != null) {
+            long dueTick = Math.max(tick, (retry.dueAtMs - startMs + tickMs - 1) / tickMs);
+            retry.remainingRounds = (dueTick - tick) / buckets.length;
+            int index = (int) (dueTick & mask);
+            retry.next = buckets[index];
+            buckets[index] = retry;
+        }
+    }
+
+    private void expireBucket(int index) {
+        PendingRetry previous = null;
+        PendingRetry retry = buckets[index];
+        while (retry != null) {
+            PendingRetry next = retry.next;
+            if (retry.remainingRounds <= 0) {
+                if (previous == null) {
+                    buckets[index] = next;
+                } else {
+                    previous.next = next;
+                }
+                retry.next = null;
+                onExpired.accept(retry);
+            } else {
+                retry.remainingRounds--;
+                previous = retry;
+            }
+            retry = next;
+        }
+    }
+}
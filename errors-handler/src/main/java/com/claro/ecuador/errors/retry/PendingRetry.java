@@ -0,0 +1,27 @@
+package com.claro.ecuador.errors.retry;
+
+/**
+ * Reintento pendiente: mensaje original a republicar en su topic cuando vence
+ *
+ * @author Global HITSS
+ */
+final class PendingRetry {
+
+    final long id;
+    final String topic;
+    final String message;
+    final int attempt;
+    final long dueAtMs;
+
+    // Estado del timing wheel (solo lo usa el hilo del wheel)
+    long remainingRounds;
+    PendingRetry next;
+
+    PendingRetry(long id, String topic, String message, int attempt, long dueAtMs) {
+        this.id = id;
+        this.topic = topic;
+        this.message = message;
+        this.attempt = attempt;
+        this.dueAtMs = dueAtMs;
+    }
+}
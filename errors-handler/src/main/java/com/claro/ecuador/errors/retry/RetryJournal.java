@@ -0,0 +1,118 @@
+package com.claro.ecuador.errors.retry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Journal append-only de reintentos pendientes
+ * Registros: 'A' (alta con id, vencimiento, intento, topic y mensaje) y 'D' (id republicado o descartado).
+ * Al arrancar se reproduce para reconstruir los pendientes; se compacta reescribiendo solo
+ * los vigentes cuando las bajas superan a los pendientes.
+ *
+ * @author Global HITSS
+ */
+final class RetryJournal {
+
+    private static final byte ADD = 'A';
+    private static final byte DONE = 'D';
+
+    private final File file;
+    private DataOutputStream out;
+    private long doneSinceCompaction;
+
+    RetryJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Reproduce el journal y devuelve los reintentos aún pendientes, en orden de alta
+     * Un registro final incompleto (corte durante la escritura) se ignora.
+     */
+    synchronized Map<Long, PendingRetry> replay() throws IOException {
+        Map<Long, PendingRetry> pending = new LinkedHashMap<>();
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                while (true) {
+                    byte type = in.readByte();
+                    if (type == ADD) {
+                        long id = in.readLong();
+                        long dueAt = in.readLong();
+                        int attempt = in.readInt();
+                        String topic = in.readUTF();
+                        byte[] message = new byte[in.readInt()];
+                        in.readFully(message);
+                        pending.put(id, new PendingRetry(id, topic, new String(message, StandardCharsets.UTF_8),
+                                attempt, dueAt));
+                    } else if (type == DONE) {
+                        pending.remove(in.readLong());
+                    } else {
+                        break;
+                    }
+                }
+            } catch (EOFException e) {
+                // Fin del journal (o registro final incompleto)
+            }
+        }
+        return pending;
+    }
+
+    synchronized void append(PendingRetry retry) throws IOException {
+        byte[] message = retry.message.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(ADD);
+        out.writeLong(retry.id);
+        out.writeLong(retry.dueAtMs);
+        out.writeInt(retry.attempt);
+        out.writeUTF(retry.topic);
+        out.writeInt(message.length);
+        out.write(message);
+        out.flush();
+    }
+
+    synchronized void done(long id) throws IOException {
+        out.writeByte(DONE);
+        out.writeLong(id);
+        out.flush();
+        doneSinceCompaction++;
+    }
+
+    synchronized boolean needsCompaction(int pending, long minDone) {
+        return doneSinceCompaction >= minDone && doneSinceCompaction > pending;
+    }
+
+    /**
+     * Reescribe el journal solo con los pendientes vigentes (archivo temporal + rename)
+     */
+    synchronized void compact(Collection<PendingRetry> pending) throws IOException {
+        if (out != null) {
+            out.close();
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+        for (PendingRetry retry : pending) {
+            append(retry);
+        }
+        out.close();
+        if (!tmp.renameTo(file)) {
+            throw new IOException("No se pudo reemplazar el journal de reintentos " + file);
+        }
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        doneSinceCompaction = 0;
+    }
+
+    synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+    }
+}
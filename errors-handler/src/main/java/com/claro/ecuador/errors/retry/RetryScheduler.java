@@ -0,0 +1,295 @@
+package com.claro.ecuador.errors.retry;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reintentos de errores recuperables con backoff exponencial
+ * - Demora: backoff-delay * 2^intento, con jitter de ±jitter y tope max-backoff-ms
+ * - Vencimientos sobre un hashed timing wheel (un hilo, sin timer por registro)
+ * - Al vencer, originalMessage se republica en su topic original con el header x-dlq-retry-attempt;
+ *   si vuelve a fallar, events-processor lo devuelve a errors.events con ese número de intento
+ * - Los pendientes se persisten en un journal local y se recuperan al reiniciar; si el alta no se
+ *   puede persistir, schedule() falla y el evento de error no se confirma en Kafka
+ *
+ * @author Global HITSS
+ */
+@Component
+public class RetryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryScheduler.class);
+
+    /**
+     * Header con el número de reintento desde errors-handler (mismo nombre que en events-processor)
+     */
+    public static final String ATTEMPT_HEADER = "x-dlq-retry-attempt";
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Value("${error-handler.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${error-handler.retry.backoff-delay:5000}")
+    private long backoffDelayMs;
+
+    @Value("${error-handler.retry.max-backoff-ms:600000}")
+    private long maxBackoffMs;
+
+    @Value("${error-handler.retry.jitter:0.2}")
+    private double jitter;
+
+    @Value("${error-handler.retry.max-pending:100000}")
+    private int maxPending;
+
+    @Value("${error-handler.retry.tick-ms:100}")
+    private long tickMs;
+
+    @Value("${error-handler.retry.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${error-handler.retry.journal-file:./data/retries/pending-retries.log}")
+    private String journalFile;
+
+    @Value("${error-handler.retry.compact-min-done:10000}")
+    private long compactMinDone;
+
+    @Value("${error-handler.retry.journal-append-attempts:3}")
+    private int journalAppendAttempts;
+
+    private HashedTimingWheel wheel;
+    private RetryJournal journal;
+
+    private final Map<Long, PendingRetry> pending = new ConcurrentHashMap<>();
+    // Alta/baja en journal y pending, y la foto de pending al compactar, son atómicas entre sí
+    private final Object journalLock = new Object();
+    private final AtomicLong ids = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder republished = new LongAdder();
+    private final LongAdder publishFailures = new LongAdder();
+    private final LongAdder latencyTotalMs = new LongAdder();
+    private final LongAccumulator latencyMaxMs = new LongAccumulator(Math::max, 0);
+
+    // Vencimientos por segundo en los últimos 60 s (índice = segundo % 60)
+    private final AtomicLongArray dueSeconds = new AtomicLongArray(60);
+    private final AtomicLongArray dueCounts = new AtomicLongArray(60);
+
+    @PostConstruct
+    public void start() throws IOException {
+        File file = new File(journalFile);
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio de reintentos " + directory);
+        }
+        this.journal = new RetryJournal(file);
+        Map<Long, PendingRetry> recovered = journal.replay();
+        journal.compact(recovered.values());
+
+        this.wheel = new HashedTimingWheel(tickMs, wheelSize, this::onDue);
+        wheel.start();
+        for (PendingRetry retry : recovered.values()) {
+            pending.put(retry.id, retry);
+            wheel.schedule(retry);
+        }
+        logger.info("🔄 Programador de reintentos: {} intentos, backoff {} ms, {} pendientes recuperados de {}",
+                maxAttempts, backoffDelayMs, recovered.size(), file.getAbsolutePath());
+    }
+
+    /**
+     * Programar el reintento de un mensaje
+     *
+     * @param attempt reintentos ya realizados desde errors-handler (0 = primer error)
+     * @return false si se agotaron los intentos o se alcanzó max-pending
+     * @throws UncheckedIOException si el alta no se pudo persistir tras journal-append-attempts intentos
+     *                              (el reintento no queda programado)
+     */
+    public boolean schedule(String topic, String originalMessage, int attempt) {
+        if (attempt >= maxAttempts) {
+            exhausted.increment();
+            logger.warn("⛔ Reintentos agotados ({}) para mensaje de {}", attempt, topic);
+            return false;
+        }
+        if (pending.size() >= maxPending) {
+            rejected.increment();
+            logger.warn("⚠️ Reintento descartado: {} pendientes (máximo {})", pending.size(), maxPending);
+            return false;
+        }
+
+        long dueAt = System.currentTimeMillis() + backoff(attempt);
+        PendingRetry retry = new PendingRetry(ids.incrementAndGet(), topic, originalMessage, attempt + 1, dueAt);
+        synchronized (journalLock) {
+            append(retry);
+            pending.put(retry.id, retry);
+        }
+        wheel.schedule(retry);
+        scheduled.increment();
+        return true;
+    }
+
+    /**
+     * Persiste el alta reintentando con espera creciente (100 ms por intento)
+     */
+    private void append(PendingRetry retry) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                journal.append(retry);
+                return;
+            } catch (IOException e) {
+                if (attempt >= journalAppendAttempts) {
+                    logger.error("❌ No se pudo persistir el reintento tras {} intentos: {}", attempt, e.getMessage());
+                    throw new UncheckedIOException("Journal de reintentos sin persistir", e);
+                }
+                logger.warn("⚠️ No se pudo persistir el reintento (intento {}): {}", attempt, e.getMessage());
+                try {
+                    Thread.sleep(100L * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new UncheckedIOException("Journal de reintentos sin persistir", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compacta el journal cuando las bajas superan a los pendientes
+     */
+    @Scheduled(fixedDelayString = "${error-handler.retry.compact-interval-ms:60000}")
+    public void compactJournal() {
+        if (!journal.needsCompaction(pending.size(), compactMinDone)) {
+            return;
+        }
+        synchronized (journalLock) {
+            try {
+                journal.compact(new ArrayList<>(pending.values()));
+                logger.info("🧹 Journal de reintentos compactado: {} pendientes", pending.size());
+            } catch (IOException e) {
+                logger.error("❌ Error compactando el journal de reintentos: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        wheel.stop();
+        journal.close();
+        logger.info("🔄 Programador de reintentos detenido con {} pendientes persistidos", pending.size());
+    }
+
+    public Map<String, Object> stats() {
+        long now = System.currentTimeMillis() / 1000;
+        long dueLastMinute = 0;
+        for (int i = 0; i < 60; i++) {
+            if (now - dueSeconds.get(i) < 60) {
+                dueLastMinute += dueCounts.get(i);
+            }
+        }
+        long published = republished.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("maxPending", maxPending);
+        stats.put("maxAttempts", maxAttempts);
+        stats.put("backoffDelayMs", backoffDelayMs);
+        stats.put("scheduled", scheduled.sum());
+        stats.put("exhausted", exhausted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("republished", published);
+        stats.put("publishFailures", publishFailures.sum());
+        stats.put("duePerSecond", dueLastMinute / 60.0);
+        stats.put("republishLatencyAvgMs", published == 0 ? 0 : latencyTotalMs.sum() / published);
+        stats.put("republishLatencyMaxMs", latencyMaxMs.get());
+        return stats;
+    }
+
+    /**
+     * backoff-delay * 2^intento con jitter ±jitter, acotado por max-backoff-ms
+     */
+    private long backoff(int attempt) {
+        long base = backoffDelayMs << Math.min(attempt, 30);
+        if (base <= 0 || base > maxBackoffMs) {
+            base = maxBackoffMs;
+        }
+        double factor = 1 + jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+        return Math.max(0, (long) (base * factor));
+    }
+
+    /**
+     * Vencimiento (hilo del timing wheel): republicar sin bloquear la rueda
+     */
+    private void onDue(PendingRetry retry) {
+        countDue();
+        try {
+            ProducerRecord<String, String> record = new ProducerRecord<>(retry.topic, retry.message);
+            record.headers().add(ATTEMPT_HEADER,
+                    Integer.toString(retry.attempt).getBytes(StandardCharsets.US_ASCII));
+            kafkaTemplate.send(record).addCallback(
+                    result -> completed(retry),
+                    failure -> republishFailed(retry, failure));
+        } catch (RuntimeException e) {
+            republishFailed(retry, e);
+        }
+    }
+
+    private void completed(PendingRetry retry) {
+        long latency = Math.max(0, System.currentTimeMillis() - retry.dueAtMs);
+        latencyTotalMs.add(latency);
+        latencyMaxMs.accumulate(latency);
+        republished.increment();
+        synchronized (journalLock) {
+            pending.remove(retry.id);
+            try {
+                journal.done(retry.id);
+            } catch (IOException e) {
+                logger.error("❌ No se pudo registrar el reintento republicado: {}", e.getMessage());
+            }
+        }
+        logger.info("📤 Reintento {} republicado en topic: {}", retry.attempt, retry.topic);
+    }
+
+    /**
+     * Falla al republicar: se vuelve a programar tras backoff-delay, sin consumir un intento
+     */
+    private void republishFailed(PendingRetry retry, Throwable failure) {
+        publishFailures.increment();
+        logger.error("❌ No se pudo republicar en {}: {}", retry.topic, failure.getMessage());
+        PendingRetry again = new PendingRetry(retry.id, retry.topic, retry.message, retry.attempt,
+                System.currentTimeMillis() + backoffDelayMs);
+        pending.put(again.id, again);
+        wheel.schedule(again);
+    }
+
+    private void countDue() {
+        long second = System.currentTimeMillis() / 1000;
+        int index = (int) (second % 60);
+        if (dueSeconds.get(index) != second) {
+            dueSeconds.set(index, second);
+            dueCounts.set(index, 0);
+        }
+        dueCounts.incrementAndGet(index);
+    }
+}
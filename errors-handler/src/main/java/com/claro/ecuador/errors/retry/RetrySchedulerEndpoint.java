@@ -0,0 +1,27 @@
+package com.claro.ecuador.errors.retry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/retryscheduler
+ * Pendientes, vencimientos por segundo, republicados y latencia de republicación
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "retryscheduler")
+public class RetrySchedulerEndpoint {
+
+    @Autowired
+    private RetryScheduler retryScheduler;
+
+    @ReadOperation
+    public Map<String, Object> retries() {
+        return retryScheduler.stats();
+    }
+}
@@ -0,0 +1,258 @@
+package com.claro.ecuador.errors.rules;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+
+/**
+ * Conjunto de reglas compilado al cargar, inmutable salvo por los contadores de coincidencias
+ * Cada regla es un bit (máximo 64) y la clasificación combina máscaras:
+ * 1. errorType y topic se resuelven en tablas hash exactas (errorType sin distinguir mayúsculas,
+ *    sin crear Strings por registro)
+ * 2. Las subcadenas de todas las reglas se buscan en una sola pasada con Aho-Corasick
+ * 3. Las regex solo se evalúan para las reglas candidatas que aún pueden decidir algo
+ * Las reglas se aplican en orden: la primera que fija severidad y la primera que fija
+ * recuperable deciden cada valor; si ninguna lo hace se usan los valores por defecto.
+ *
+ * @author Global HITSS
+ */
+final class CompiledRules {
+
+    static final int MAX_RULES = 64;
+
+    private final ErrorRule[] rules;
+    private final String defaultSeverity;
+    private final boolean defaultRecoverable;
+    private final String source;
+    private final long loadedAt;
+
+    private final long allRules;
+    private final long typedRules;
+    private final long topicRules;
+    private final long containsRules;
+    private final CaseInsensitiveIndex typeIndex;
+    private final Map<String, Long> topicIndex;
+    private final SubstringAutomaton automaton;
+    private final int maxScanChars;
+
+    private final AtomicLongArray matches;
+
+    private CompiledRules(List<ErrorRule> rules, String defaultSeverity, boolean defaultRecoverable,
+                          String source, int maxScanChars) {
+        this.rules = rules.toArray(new ErrorRule[0]);
+        this.defaultSeverity = defaultSeverity;
+        this.defaultRecoverable = defaultRecoverable;
+        this.source = source;
+        this.maxScanChars = maxScanChars;
+        this.loadedAt = System.currentTimeMillis();
+        this.matches = new AtomicLongArray(this.rules.length);
+
+        long all = 0;
+        long typed = 0;
+        long topical = 0;
+        long contains = 0;
+        Map<String, Long> types = new LinkedHashMap<>();
+        Map<String, Long> topics = new LinkedHashMap<>();
+        Map<String, Long> substrings = new LinkedHashMap<>();
+        for (int i = 0; i < this.rules.length; i++) {
+            ErrorRule rule = this.rules[i];
+            long bit = 1L << i;
+            all |= bit;
+            for (String type : rule.errorTypes) {
+                types.merge(type.toLowerCase(Locale.ROOT), bit, (a, b) -> a | b);
+                typed |= bit;
+            }
+            for (String topic : rule.topics) {
+                topics.merge(topic, bit, (a, b) -> a | b);
+                topical |= bit;
+            }
+            for (String substring : rule.messageContains) {
+                substrings.merge(substring.toLowerCase(Locale.ROOT), bit, (a, b) -> a | b);
+                contains |= bit;
+            }
+        }
+        this.allRules = all;
+        this.typedRules = typed;
+        this.topicRules = topical;
+        this.containsRules = contains;
+        this.typeIndex = new CaseInsensitiveIndex(types);
+        this.topicIndex = new HashMap<>(topics);
+        this.automaton = SubstringAutomaton.build(substrings);
+    }
+
+    /**
+     * Compila las reglas leídas del YAML (raíz con defaults y rules)
+     *
+     * @throws IllegalArgumentException si el archivo es inválido
+     */
+    static CompiledRules compile(Object yaml, String source, int maxScanChars) {
+        if (!(yaml instanceof Map)) {
+            throw new IllegalArgumentException("El archivo de reglas debe ser un mapa con defaults y rules");
+        }
+        Map<?, ?> root = (Map<?, ?>) yaml;
+
+        String defaultSeverity = "LOW";
+        boolean defaultRecoverable = false;
+        Object defaults = root.get("defaults");
+        if (defaults instanceof Map) {
+            Object severity = ((Map<?, ?>) defaults).get("severity");
+            if (severity != null) {
+                defaultSeverity = severity.toString().trim().toUpperCase(Locale.ROOT);
+                if (!ErrorRule.SEVERITIES.contains(defaultSeverity)) {
+                    throw new IllegalArgumentException("Severidad por defecto desconocida " + severity);
+                }
+            }
+            Object recoverable = ((Map<?, ?>) defaults).get("recoverable");
+            if (recoverable != null) {
+                defaultRecoverable = Boolean.TRUE.equals(recoverable);
+            }
+        }
+
+        List<ErrorRule> rules = new ArrayList<>();
+        Object rawRules = root.get("rules");
+        if (rawRules != null) {
+            if (!(rawRules instanceof List)) {
+                throw new IllegalArgumentException("rules debe ser una lista");
+            }
+            for (Object rawRule : (List<?>) rawRules) {
+                if (!(rawRule instanceof Map)) {
+                    throw new IllegalArgumentException("Regla " + (rules.size() + 1) + ": debe ser un mapa");
+                }
+                rules.add(ErrorRule.fromMap((Map<?, ?>) rawRule, rules.size() + 1));
+            }
+        }
+        if (rules.size() > MAX_RULES) {
+            throw new IllegalArgumentException("Máximo " + MAX_RULES + " reglas, se definieron " + rules.size());
+        }
+        return new CompiledRules(rules, defaultSeverity, defaultRecoverable, source, maxScanChars);
+    }
+
+    ErrorClassification classify(String topic, String errorType, String message) {
+        long candidates = allRules;
+        if (typedRules != 0) {
+            candidates &= ~typedRules | typeIndex.get(errorType);
+        }
+        if (topicRules != 0) {
+            Long topicMask = topic != null ? topicIndex.get(topic) : null;
+            candidates &= ~topicRules | (topicMask != null ? topicMask : 0L);
+        }
+        if ((candidates & containsRules) != 0) {
+            long found = message != null ? automaton.match(message, maxScanChars) : 0L;
+            candidates &= ~containsRules | found;
+        }
+
+        ErrorRule severityRule = null;
+        ErrorRule recoverableRule = null;
+        while (candidates != 0) {
+            int i = Long.numberOfTrailingZeros(candidates);
+            candidates &= candidates - 1;
+            ErrorRule rule = rules[i];
+            boolean decidesSeverity = severityRule == null && rule.severity != null;
+            boolean decidesRecoverable = recoverableRule == null && rule.recoverable != null;
+            if (!decidesSeverity && !decidesRecoverable) {
+                continue;
+            }
+            Pattern regex = rule.messageRegex;
+            if (regex != null && (message == null || !regex.matcher(message).find())) {
+                continue;
+            }
+            matches.incrementAndGet(i);
+            if (decidesSeverity) {
+                severityRule = rule;
+            }
+            if (decidesRecoverable) {
+                recoverableRule = rule;
+            }
+            if (severityRule != null && recoverableRule != null) {
+                break;
+            }
+        }
+
+        return new ErrorClassification(
+                severityRule != null ? severityRule.severity : defaultSeverity,
+                recoverableRule != null ? recoverableRule.recoverable : defaultRecoverable,
+                severityRule != null ? severityRule.name : null,
+                recoverableRule != null ? recoverableRule.name : null);
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("source", source);
+        stats.put("loadedAt", Instant.ofEpochMilli(loadedAt).toString());
+        stats.put("defaultSeverity", defaultSeverity);
+        stats.put("defaultRecoverable", defaultRecoverable);
+        stats.put("automatonStates", automaton.states());
+        List<Map<String, Object>> ruleStats = new ArrayList<>();
+        for (int i = 0; i < rules.length; i++) {
+            Map<String, Object> rule = new LinkedHashMap<>();
+            rule.put("name", rules[i].name);
+            rule.put("severity", rules[i].severity);
+            rule.put("recoverable", rules[i].recoverable);
+            rule.put("matches", matches.get(i));
+            ruleStats.add(rule);
+        }
+        stats.put("rules", ruleStats);
+        return stats;
+    }
+
+    int size() {
+        return rules.length;
+    }
+
+    /**
+     * Tabla hash de direccionamiento abierto con claves comparadas sin distinguir mayúsculas
+     */
+    static final class CaseInsensitiveIndex {
+
+        private final String[] keys;
+        private final long[] masks;
+        private final int mask;
+
+        CaseInsensitiveIndex(Map<String, Long> entries) {
+            int capacity = 16;
+            while (capacity < entries.size() * 2) {
+                capacity <<= 1;
+            }
+            keys = new String[capacity];
+            masks = new long[capacity];
+            mask = capacity - 1;
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                int slot = hash(entry.getKey()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = entry.getKey();
+                masks[slot] = entry.getValue();
+            }
+        }
+
+        long get(String key) {
+            if (key == null) {
+                return 0L;
+            }
+            int slot = hash(key) & mask;
+            String candidate;
+            while ((candidate = keys[slot]) != null) {
+                if (candidate.length() == key.length() && candidate.equalsIgnoreCase(key)) {
+                    return masks[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return 0L;
+        }
+
+        private static int hash(String key) {
+            int h = 0;
+            for (int i = 0; i < key.length(); i++) {
+                h = 31 * h + Character.toLowerCase(key.charAt(i));
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
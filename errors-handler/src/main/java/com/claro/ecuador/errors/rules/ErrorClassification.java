@@ -0,0 +1,43 @@
+package com.claro.ecuador.errors.rules;
+
+/**
+ * Resultado de clasificar un evento de error: severidad, si es recuperable y las reglas que lo decidieron
+ *
+ * @author Global HITSS
+ */
+public final class ErrorClassification {
+
+    private final String severity;
+    private final boolean recoverable;
+    private final String severityRule;
+    private final String recoverableRule;
+
+    ErrorClassification(String severity, boolean recoverable, String severityRule, String recoverableRule) {
+        this.severity = severity;
+        this.recoverable = recoverable;
+        this.severityRule = severityRule;
+        this.recoverableRule = recoverableRule;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public boolean isRecoverable() {
+        return recoverable;
+    }
+
+    /**
+     * Regla que fijó la severidad (null si se usó el valor por defecto)
+     */
+    public String getSeverityRule() {
+        return severityRule;
+    }
+
+    /**
+     * Regla que fijó si es recuperable (null si se usó el valor por defecto)
+     */
+    public String getRecoverableRule() {
+        return recoverableRule;
+    }
+}
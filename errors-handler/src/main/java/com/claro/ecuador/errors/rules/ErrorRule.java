@@ -0,0 +1,110 @@
+package com.claro.ecuador.errors.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Regla de clasificación tal como se define en el archivo de reglas
+ * Coincide si se cumplen todas las condiciones presentes (dentro de cada una basta cualquier valor):
+ * error-types (exacto, sin distinguir mayúsculas), topics (exacto), message-contains
+ * (subcadena sin distinguir mayúsculas) y message-regex
+ *
+ * @author Global HITSS
+ */
+final class ErrorRule {
+
+    static final List<String> SEVERITIES = Arrays.asList("CRITICAL", "HIGH", "MEDIUM", "LOW");
+
+    final String name;
+    final List<String> errorTypes;
+    final List<String> topics;
+    final List<String> messageContains;
+    final Pattern messageRegex;
+    final String severity;
+    final Boolean recoverable;
+
+    private ErrorRule(String name, List<String> errorTypes, List<String> topics, List<String> messageContains,
+                      Pattern messageRegex, String severity, Boolean recoverable) {
+        this.name = name;
+        this.errorTypes = errorTypes;
+        this.topics = topics;
+        this.messageContains = messageContains;
+        this.messageRegex = messageRegex;
+        this.severity = severity;
+        this.recoverable = recoverable;
+    }
+
+    /**
+     * Construye la regla desde el mapa leído del YAML
+     *
+     * @throws IllegalArgumentException si la regla es inválida
+     */
+    static ErrorRule fromMap(Map<?, ?> map, int index) {
+        Object rawName = map.get("name");
+        String name = rawName != null ? rawName.toString() : "rule-" + index;
+
+        List<String> errorTypes = strings(map.get("error-types"), name, "error-types");
+        List<String> topics = strings(map.get("topics"), name, "topics");
+        List<String> messageContains = strings(map.get("message-contains"), name, "message-contains");
+
+        Pattern messageRegex = null;
+        Object regex = map.get("message-regex");
+        if (regex != null) {
+            try {
+                messageRegex = Pattern.compile(regex.toString());
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Regla " + name + ": message-regex inválida: " + e.getDescription());
+            }
+        }
+        if (errorTypes.isEmpty() && topics.isEmpty() && messageContains.isEmpty() && messageRegex == null) {
+            throw new IllegalArgumentException("Regla " + name + ": requiere al menos una condición");
+        }
+
+        String severity = null;
+        Object rawSeverity = map.get("severity");
+        if (rawSeverity != null) {
+            severity = rawSeverity.toString().trim().toUpperCase(Locale.ROOT);
+            if (!SEVERITIES.contains(severity)) {
+                throw new IllegalArgumentException("Regla " + name + ": severidad desconocida " + rawSeverity);
+            }
+        }
+        Boolean recoverable = null;
+        Object rawRecoverable = map.get("recoverable");
+        if (rawRecoverable != null) {
+            if (!(rawRecoverable instanceof Boolean)) {
+                throw new IllegalArgumentException("Regla " + name + ": recoverable debe ser true o false");
+            }
+            recoverable = (Boolean) rawRecoverable;
+        }
+        if (severity == null && recoverable == null) {
+            throw new IllegalArgumentException("Regla " + name + ": requiere severity o recoverable");
+        }
+        return new ErrorRule(name, errorTypes, topics, messageContains, messageRegex, severity, recoverable);
+    }
+
+    private static List<String> strings(Object value, String rule, String field) {
+        List<String> values = new ArrayList<>();
+        if (value == null) {
+            return values;
+        }
+        if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                if (item != null && !item.toString().isEmpty()) {
+                    values.add(item.toString());
+                }
+            }
+        } else if (!value.toString().isEmpty()) {
+            values.add(value.toString());
+        }
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Regla " + rule + ": " + field + " vacío");
+        }
+        return values;
+    }
+}
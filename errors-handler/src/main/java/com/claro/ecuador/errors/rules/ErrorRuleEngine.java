@@ -0,0 +1,118 @@
+package com.claro.ecuador.errors.rules;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.Yaml;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clasificación de eventos de error (severidad y si es recuperable) según reglas configurables
+ * Las reglas se leen de error-handler.rules.file (o de error-rules.yml del classpath si no se indica)
+ * y se compilan al cargar; el archivo externo se revisa cada reload-interval-ms y, si cambió,
+ * se recompila y reemplaza sin detener el consumer. Un archivo inválido se ignora y se conservan
+ * las reglas anteriores.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class ErrorRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ErrorRuleEngine.class);
+
+    private static final String CLASSPATH_RULES = "error-rules.yml";
+
+    @Value("${error-handler.rules.file:}")
+    private String rulesFile;
+
+    @Value("${error-handler.rules.max-scan-chars:4096}")
+    private int maxScanChars;
+
+    private volatile CompiledRules rules;
+
+    private long lastModified;
+    private long lastLength;
+    private volatile String lastError;
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong failedReloads = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        try {
+            rules = load();
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudieron cargar las reglas de errores: " + e.getMessage(), e);
+        }
+        logger.info("📐 Reglas de clasificación de errores cargadas: {} desde {}", rules.size(), source());
+    }
+
+    /**
+     * Clasifica un evento de error con las reglas vigentes
+     */
+    public ErrorClassification classify(String topic, String errorType, String errorMessage) {
+        return rules.classify(topic, errorType, errorMessage);
+    }
+
+    /**
+     * Recarga el archivo de reglas externo si cambió desde la última lectura
+     */
+    @Scheduled(fixedDelayString = "${error-handler.rules.reload-interval-ms:5000}")
+    public void reloadIfChanged() {
+        if (rulesFile.isEmpty()) {
+            return;
+        }
+        File file = new File(rulesFile);
+        if (file.lastModified() == lastModified && file.length() == lastLength) {
+            return;
+        }
+        try {
+            rules = load();
+            lastError = null;
+            reloads.incrementAndGet();
+            logger.info("📐 Reglas de clasificación de errores recargadas: {} desde {}", rules.size(), rulesFile);
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            failedReloads.incrementAndGet();
+            logger.error("❌ Reglas de errores inválidas en {}, se conservan las anteriores: {}", rulesFile, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(rules.stats());
+        stats.put("reloads", reloads.get());
+        stats.put("failedReloads", failedReloads.get());
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    private CompiledRules load() throws Exception {
+        if (rulesFile.isEmpty()) {
+            try (InputStream in = getClass().getClassLoader().getResourceAsStream(CLASSPATH_RULES)) {
+                if (in == null) {
+                    throw new IllegalStateException("No existe " + CLASSPATH_RULES + " en el classpath");
+                }
+                return CompiledRules.compile(new Yaml().load(in), source(), maxScanChars);
+            }
+        }
+        File file = new File(rulesFile);
+        // Se registra antes de leer para no reintentar en cada ciclo un archivo inválido
+        lastModified = file.lastModified();
+        lastLength = file.length();
+        try (InputStream in = new FileInputStream(file)) {
+            return CompiledRules.compile(new Yaml().load(in), source(), maxScanChars);
+        }
+    }
+
+    private String source() {
+        return rulesFile.isEmpty() ? "classpath:" + CLASSPATH_RULES : rulesFile;
+    }
+}
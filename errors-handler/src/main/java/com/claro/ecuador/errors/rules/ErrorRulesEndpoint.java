@@ -0,0 +1,27 @@
+package com.claro.ecuador.errors.rules;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/errorrules
+ * Origen y fecha de carga de las reglas, coincidencias por regla y resultado de las recargas
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "errorrules")
+public class ErrorRulesEndpoint {
+
+    @Autowired
+    private ErrorRuleEngine errorRuleEngine;
+
+    @ReadOperation
+    public Map<String, Object> rules() {
+        return errorRuleEngine.stats();
+    }
+}
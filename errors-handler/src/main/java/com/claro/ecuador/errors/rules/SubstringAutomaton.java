@@ -0,0 +1,127 @@
+package com.claro.ecuador.errors.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Autómata Aho-Corasick sobre las subcadenas de todas las reglas (sin distinguir mayúsculas)
+ * Se compila a un DFA completo: cada carácter del mensaje es una lectura de tabla, sin seguir
+ * enlaces de fallo, y una sola pasada devuelve la máscara de reglas con alguna subcadena presente
+ * sin importar cuántas subcadenas haya configuradas. Los caracteres que no aparecen en ninguna
+ * subcadena comparten la clase 0 para mantener la tabla pequeña.
+ *
+ * @author Global HITSS
+ */
+final class SubstringAutomaton {
+
+    // Clase de cada carácter (ya en minúsculas); 0 = no aparece en ninguna subcadena
+    private final short[] charClass;
+    private final int classes;
+    // Transición: delta[estado * classes + clase]
+    private final int[] delta;
+    // Reglas cuyo patrón termina en el estado (incluye las heredadas por enlaces de fallo)
+    private final long[] output;
+
+    private SubstringAutomaton(short[] charClass, int classes, int[] delta, long[] output) {
+        this.charClass = charClass;
+        this.classes = classes;
+        this.delta = delta;
+        this.output = output;
+    }
+
+    /**
+     * @param patterns subcadena -> máscara de reglas que la usan
+     */
+    static SubstringAutomaton build(Map<String, Long> patterns) {
+        short[] charClass = new short[Character.MAX_VALUE + 1];
+        int classes = 1;
+        for (String pattern : patterns.keySet()) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = lower(pattern.charAt(i));
+                if (charClass[c] == 0) {
+                    charClass[c] = (short) classes++;
+                }
+            }
+        }
+
+        // Trie
+        List<TreeMap<Integer, Integer>> trie = new ArrayList<>();
+        List<Long> outputs = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        outputs.add(0L);
+        for (Map.Entry<String, Long> pattern : patterns.entrySet()) {
+            String text = pattern.getKey();
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                int c = charClass[lower(text.charAt(i))];
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    outputs.add(0L);
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            outputs.set(state, outputs.get(state) | pattern.getValue());
+        }
+
+        // DFA por recorrido en anchura: el enlace de fallo de un estado siempre se resolvió antes
+        int size = trie.size();
+        int[] delta = new int[size * classes];
+        int[] fail = new int[size];
+        long[] output = new long[size];
+        output[0] = outputs.get(0);
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        for (Map.Entry<Integer, Integer> t : trie.get(0).entrySet()) {
+            delta[t.getKey()] = t.getValue();
+            queue[tail++] = t.getValue();
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            output[state] = outputs.get(state) | output[fail[state]];
+            TreeMap<Integer, Integer> children = trie.get(state);
+            for (int c = 0; c < classes; c++) {
+                Integer child = children.get(c);
+                int viaFail = delta[fail[state] * classes + c];
+                if (child != null && c != 0) {
+                    delta[state * classes + c] = child;
+                    fail[child] = viaFail;
+                    queue[tail++] = child;
+                } else {
+                    delta[state * classes + c] = viaFail;
+                }
+            }
+        }
+        return new SubstringAutomaton(charClass, classes, delta, output);
+    }
+
+    /**
+     * Máscara de reglas con alguna subcadena presente en los primeros maxChars caracteres del texto
+     */
+    long match(String text, int maxChars) {
+        long matched = 0;
+        int state = 0;
+        int length = Math.min(text.length(), maxChars);
+        for (int i = 0; i < length; i++) {
+            state = delta[state * classes + charClass[lower(text.charAt(i))]];
+            matched |= output[state];
+        }
+        return matched;
+    }
+
+    int states() {
+        return output.length;
+    }
+
+    private static char lower(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+}
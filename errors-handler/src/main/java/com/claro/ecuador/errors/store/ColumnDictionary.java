@@ -0,0 +1,106 @@
+package com.claro.ecuador.errors.store;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diccionario de una columna de texto dentro de una partición: cada valor distinto recibe un id
+ * de 2 bytes en orden de aparición y se guarda como una línea del archivo .dict
+ * Pasado el tope de valores distintos, el resto comparte el id OVERFLOW ("<otros>").
+ *
+ * @author Global HITSS
+ */
+final class ColumnDictionary {
+
+    static final char OVERFLOW = Character.MAX_VALUE;
+    static final String OVERFLOW_VALUE = "<otros>";
+
+    private final Path file;
+    private final Map<String, Character> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private int flushed;
+
+    private ColumnDictionary(Path file) {
+        this.file = file;
+    }
+
+    static ColumnDictionary open(Path file) throws IOException {
+        ColumnDictionary dictionary = new ColumnDictionary(file);
+        if (Files.exists(file)) {
+            for (String value : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (dictionary.values.size() >= OVERFLOW) {
+                    break;
+                }
+                dictionary.ids.put(value, (char) dictionary.values.size());
+                dictionary.values.add(value);
+            }
+        }
+        dictionary.flushed = dictionary.values.size();
+        return dictionary;
+    }
+
+    /**
+     * Id del valor, agregándolo si es nuevo
+     */
+    char idOf(String value) {
+        String key = normalize(value);
+        Character id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (values.size() >= OVERFLOW) {
+            return OVERFLOW;
+        }
+        char newId = (char) values.size();
+        ids.put(key, newId);
+        values.add(key);
+        return newId;
+    }
+
+    /**
+     * Id del valor sin agregarlo, -1 si no aparece en la partición
+     */
+    int lookup(String value) {
+        if (OVERFLOW_VALUE.equals(value)) {
+            return OVERFLOW;
+        }
+        Character id = ids.get(normalize(value));
+        return id != null ? id : -1;
+    }
+
+    String valueOf(char id) {
+        return id == OVERFLOW ? OVERFLOW_VALUE : values.get(id);
+    }
+
+    /**
+     * Escribe los valores nuevos; se llama antes de escribir las columnas que los referencian
+     */
+    void flush() throws IOException {
+        if (flushed == values.size()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        for (int i = flushed; i < values.size(); i++) {
+            lines.append(values.get(i)).append('\n');
+        }
+        Files.write(file, lines.toString().getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        flushed = values.size();
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0
+                ? value.replace('\n', ' ').replace('\r', ' ')
+                : value;
+    }
+}
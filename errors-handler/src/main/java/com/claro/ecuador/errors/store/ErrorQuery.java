@@ -0,0 +1,23 @@
+package com.claro.ecuador.errors.store;
+
+/**
+ * Consulta sobre el almacén: rango [fromMs, toMs), filtros por igualdad y dimensión de agrupación
+ *
+ * @author Global HITSS
+ */
+final class ErrorQuery {
+
+    final long fromMs;
+    final long toMs;
+    // Por índice de HourPartition.DIMENSIONS, null = sin filtro
+    final String[] filters;
+    // Índice de la dimensión a agrupar, -1 = solo contar
+    final int groupBy;
+
+    ErrorQuery(long fromMs, long toMs, String[] filters, int groupBy) {
+        this.fromMs = fromMs;
+        this.toMs = toMs;
+        this.filters = filters;
+        this.groupBy = groupBy;
+    }
+}
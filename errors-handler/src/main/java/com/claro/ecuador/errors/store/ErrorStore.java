@@ -0,0 +1,305 @@
+package com.claro.ecuador.errors.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Almacén local de errores analizados, particionado por hora y en columnas (ver HourPartition)
+ * Permite responder "qué se rompió en los últimos 15 minutos" (conteos y top-N por severidad, topic,
+ * errorType o fingerprint) sin consultar Elasticsearch. Los registros se fechan al recibirlos, las
+ * consultas solo abren las particiones que se solapan con el rango y las particiones más antiguas
+ * que retention-hours se borran.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class ErrorStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ErrorStore.class);
+
+    private static final DateTimeFormatter PARTITION_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMddHH").withZone(ZoneOffset.UTC);
+
+    @Value("${error-handler.store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${error-handler.store.directory:./data/error-store}")
+    private String directory;
+
+    @Value("${error-handler.store.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${error-handler.store.retention-hours:72}")
+    private int retentionHours;
+
+    private Path root;
+    private HourPartition active;
+
+    // Las consultas leen en paralelo; el borrado por retención espera a que terminen
+    private final ReentrantReadWriteLock partitionsLock = new ReentrantReadWriteLock();
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+    private final AtomicLong deletedPartitions = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            logger.info("⚠️ Almacén local de errores deshabilitado");
+            return;
+        }
+        root = Paths.get(directory);
+        Files.createDirectories(root);
+        logger.info("🗄️ Almacén local de errores en {} (retención {} h)", root.toAbsolutePath(), retentionHours);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registra un error analizado con la hora actual
+     */
+    public synchronized void append(String severity, String topic, String errorType, String fingerprint) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long hourStart = now - Math.floorMod(now, HourPartition.HOUR_MS);
+        try {
+            if (active == null || active.hourStart != hourStart) {
+                if (active != null) {
+                    active.flush();
+                }
+                active = HourPartition.open(root.resolve(PARTITION_FORMAT.format(Instant.ofEpochMilli(hourStart))),
+                        hourStart, maxPending);
+            }
+            if (active.append(now, severity, topic, errorType, fingerprint)) {
+                active.flush();
+            }
+            appended.incrementAndGet();
+        } catch (IOException e) {
+            writeErrors.incrementAndGet();
+            logger.error("❌ Error escribiendo en el almacén local de errores: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${error-handler.store.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (active == null) {
+            return;
+        }
+        try {
+            active.flush();
+        } catch (IOException e) {
+            writeErrors.incrementAndGet();
+            logger.error("❌ Error escribiendo en el almacén local de errores: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Borra las particiones que terminaron antes de retention-hours
+     */
+    @Scheduled(fixedDelayString = "${error-handler.store.retention-check-interval-ms:300000}")
+    public void enforceRetention() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - retentionHours * HourPartition.HOUR_MS;
+        partitionsLock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Path> partition : partitions().entrySet()) {
+                if (partition.getKey() + HourPartition.HOUR_MS <= cutoff) {
+                    deleteRecursively(partition.getValue());
+                    deletedPartitions.incrementAndGet();
+                    logger.info("🧹 Partición de errores {} eliminada por retención", partition.getValue().getFileName());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("❌ Error aplicando retención del almacén de errores: {}", e.getMessage());
+        } finally {
+            partitionsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cantidad de errores en [fromMs, toMs) que cumplen los filtros
+     *
+     * @param filters dimensión -> valor (severity, topic, errorType, fingerprint)
+     */
+    public Map<String, Object> count(long fromMs, long toMs, Map<String, String> filters) throws IOException {
+        return query(fromMs, toMs, filters, null, 0);
+    }
+
+    /**
+     * Valores de la dimensión con más errores en [fromMs, toMs) que cumplen los filtros
+     */
+    public Map<String, Object> top(String dimension, long fromMs, long toMs, Map<String, String> filters, int limit)
+            throws IOException {
+        return query(fromMs, toMs, filters, dimension, limit);
+    }
+
+    public Map<String, Object> stats() throws IOException {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        if (!enabled) {
+            return stats;
+        }
+        flush();
+        long bytes = 0;
+        long records = 0;
+        Map<Long, Path> partitions;
+        partitionsLock.readLock().lock();
+        try {
+            partitions = partitions();
+            for (Path dir : partitions.values()) {
+                records += HourPartition.recordCount(dir);
+                try (Stream<Path> files = Files.list(dir)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        bytes += Files.size(file);
+                    }
+                }
+            }
+        } finally {
+            partitionsLock.readLock().unlock();
+        }
+        stats.put("directory", root.toAbsolutePath().toString());
+        stats.put("partitions", partitions.size());
+        stats.put("oldestPartition", partitions.isEmpty() ? null
+                : PARTITION_FORMAT.format(Instant.ofEpochMilli(partitions.keySet().iterator().next())));
+        stats.put("records", records);
+        stats.put("bytes", bytes);
+        stats.put("retentionHours", retentionHours);
+        stats.put("appended", appended.get());
+        stats.put("writeErrors", writeErrors.get());
+        stats.put("deletedPartitions", deletedPartitions.get());
+        return stats;
+    }
+
+    private Map<String, Object> query(long fromMs, long toMs, Map<String, String> filters, String dimension, int limit)
+            throws IOException {
+        String[] values = new String[HourPartition.DIMENSIONS.size()];
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            int d = dimensionIndex(filter.getKey());
+            values[d] = d == 0 ? filter.getValue().toUpperCase(Locale.ROOT) : filter.getValue();
+        }
+        ErrorQuery query = new ErrorQuery(fromMs, toMs, values, dimension != null ? dimensionIndex(dimension) : -1);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("from", Instant.ofEpochMilli(fromMs).toString());
+        response.put("to", Instant.ofEpochMilli(toMs).toString());
+        response.put("filters", filters);
+        if (!enabled) {
+            response.put("enabled", false);
+            return response;
+        }
+
+        // Los registros aún en memoria de la partición activa también cuentan
+        flush();
+
+        long[] total = new long[1];
+        Map<String, Long> groups = new HashMap<>();
+        int scanned = 0;
+        int skipped = 0;
+        partitionsLock.readLock().lock();
+        try {
+            for (Map.Entry<Long, Path> partition : partitions().entrySet()) {
+                long hourStart = partition.getKey();
+                if (hourStart + HourPartition.HOUR_MS <= fromMs || hourStart >= toMs
+                        || !HourPartition.scan(partition.getValue(), hourStart, query, groups, total)) {
+                    skipped++;
+                } else {
+                    scanned++;
+                }
+            }
+        } finally {
+            partitionsLock.readLock().unlock();
+        }
+
+        response.put("count", total[0]);
+        response.put("partitionsScanned", scanned);
+        response.put("partitionsSkipped", skipped);
+        if (dimension != null) {
+            List<Map.Entry<String, Long>> sorted = new ArrayList<>(groups.entrySet());
+            sorted.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+            List<Map<String, Object>> top = new ArrayList<>();
+            for (int i = 0; i < Math.min(limit, sorted.size()); i++) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put(dimension, sorted.get(i).getKey());
+                entry.put("count", sorted.get(i).getValue());
+                top.add(entry);
+            }
+            response.put("dimension", dimension);
+            response.put("distinct", groups.size());
+            response.put("top", top);
+        }
+        return response;
+    }
+
+    /**
+     * Particiones existentes por inicio de hora, de la más antigua a la más reciente
+     */
+    private Map<Long, Path> partitions() throws IOException {
+        Map<Long, Path> partitions = new TreeMap<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                try {
+                    long hourStart = Instant.from(PARTITION_FORMAT.parse(dir.getFileName().toString())).toEpochMilli();
+                    partitions.put(hourStart, dir);
+                } catch (DateTimeParseException e) {
+                    // No es una partición
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private static int dimensionIndex(String dimension) {
+        int index = HourPartition.DIMENSIONS.indexOf(dimension);
+        if (index < 0) {
+            throw new IllegalArgumentException("Dimensión desconocida " + dimension
+                    + ", válidas: " + HourPartition.DIMENSIONS);
+        }
+        return index;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,89 @@
+package com.claro.ecuador.errors.store;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Consultas sobre el almacén local de errores (por defecto los últimos 15 minutos)
+ * GET /api/errors/count?from=2024-01-01T10:00:00Z&to=2024-01-01T11:00:00Z&severity=CRITICAL&topic=Events
+ * GET /api/errors/top/{dimension}?limit=10&errorType=SQLException
+ * Dimensiones y filtros: severity, topic, errorType, fingerprint
+ *
+ * @author Global HITSS
+ */
+@RestController
+@RequestMapping("/api/errors")
+public class ErrorStoreController {
+
+    private static final long DEFAULT_RANGE_MS = 15L * 60 * 1000;
+
+    @Autowired
+    private ErrorStore errorStore;
+
+    @GetMapping("/count")
+    public Map<String, Object> count(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String severity,
+            @RequestParam(required = false) String topic,
+            @RequestParam(required = false) String errorType,
+            @RequestParam(required = false) String fingerprint) throws IOException {
+
+        long toMs = to != null ? to.toEpochMilli() : System.currentTimeMillis();
+        long fromMs = from != null ? from.toEpochMilli() : toMs - DEFAULT_RANGE_MS;
+        return errorStore.count(fromMs, toMs, filters(severity, topic, errorType, fingerprint));
+    }
+
+    @GetMapping("/top/{dimension}")
+    public Map<String, Object> top(
+            @PathVariable String dimension,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String severity,
+            @RequestParam(required = false) String topic,
+            @RequestParam(required = false) String errorType,
+            @RequestParam(required = false) String fingerprint,
+            @RequestParam(defaultValue = "10") int limit) throws IOException {
+
+        long toMs = to != null ? to.toEpochMilli() : System.currentTimeMillis();
+        long fromMs = from != null ? from.toEpochMilli() : toMs - DEFAULT_RANGE_MS;
+        return errorStore.top(dimension, fromMs, toMs, filters(severity, topic, errorType, fingerprint), limit);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, Object> badRequest(IllegalArgumentException e) {
+        return Collections.singletonMap("error", e.getMessage());
+    }
+
+    private static Map<String, String> filters(String severity, String topic, String errorType, String fingerprint) {
+        Map<String, String> filters = new LinkedHashMap<>();
+        if (severity != null) {
+            filters.put("severity", severity);
+        }
+        if (topic != null) {
+            filters.put("topic", topic);
+        }
+        if (errorType != null) {
+            filters.put("errorType", errorType);
+        }
+        if (fingerprint != null) {
+            filters.put("fingerprint", fingerprint);
+        }
+        return filters;
+    }
+}
@@ -0,0 +1,28 @@
+package com.claro.ecuador.errors.store;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/errorstore
+ * Particiones, registros y bytes en disco del almacén local de errores, errores de escritura y borrados por retención
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "errorstore")
+public class ErrorStoreEndpoint {
+
+    @Autowired
+    private ErrorStore errorStore;
+
+    @ReadOperation
+    public Map<String, Object> errorStore() throws IOException {
+        return errorStore.stats();
+    }
+}
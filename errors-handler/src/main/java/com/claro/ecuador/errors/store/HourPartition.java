@@ -0,0 +1,260 @@
+package com.claro.ecuador.errors.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partición de una hora del almacén de errores: un directorio yyyyMMddHH (UTC) con una columna por dimensión
+ * - ts.col          int: milisegundos desde el inicio de la hora (no decreciente, permite búsqueda binaria)
+ * - severity.col    byte: índice en SEVERITIES
+ * - topic.col, errorType.col, fingerprint.col  char: id en el .dict de la columna
+ * Los registros se acumulan en memoria y flush() los agrega a los archivos: primero los diccionarios
+ * y luego las columnas, así que el mínimo de registros entre columnas siempre es un prefijo consistente.
+ *
+ * @author Global HITSS
+ */
+final class HourPartition {
+
+    static final long HOUR_MS = 60L * 60 * 1000;
+
+    static final List<String> DIMENSIONS = Arrays.asList("severity", "topic", "errorType", "fingerprint");
+    static final List<String> SEVERITIES = Arrays.asList("CRITICAL", "HIGH", "MEDIUM", "LOW");
+
+    private static final String TS = "ts.col";
+    private static final String SEVERITY = "severity.col";
+
+    final long hourStart;
+    final Path dir;
+
+    private final ColumnDictionary[] dictionaries = new ColumnDictionary[3];
+    private final int maxPending;
+    private int flushedCount;
+    private int lastOffset;
+
+    private final int[] pendingOffsets;
+    private final byte[] pendingSeverities;
+    private final char[][] pendingIds;
+    private int pending;
+
+    private HourPartition(Path dir, long hourStart, int maxPending) {
+        this.dir = dir;
+        this.hourStart = hourStart;
+        this.maxPending = maxPending;
+        this.pendingOffsets = new int[maxPending];
+        this.pendingSeverities = new byte[maxPending];
+        this.pendingIds = new char[3][maxPending];
+    }
+
+    /**
+     * Abre (o crea) la partición para escribir, descartando registros incompletos de un cierre abrupto
+     */
+    static HourPartition open(Path dir, long hourStart, int maxPending) throws IOException {
+        Files.createDirectories(dir);
+        HourPartition partition = new HourPartition(dir, hourStart, maxPending);
+        int count = recordCount(dir);
+        truncate(dir.resolve(TS), count * 4L);
+        truncate(dir.resolve(SEVERITY), count);
+        for (int d = 1; d < DIMENSIONS.size(); d++) {
+            truncate(dir.resolve(DIMENSIONS.get(d) + ".col"), count * 2L);
+            partition.dictionaries[d - 1] = ColumnDictionary.open(dir.resolve(DIMENSIONS.get(d) + ".dict"));
+        }
+        partition.flushedCount = count;
+        if (count > 0) {
+            try (FileChannel channel = FileChannel.open(dir.resolve(TS), StandardOpenOption.READ)) {
+                ByteBuffer last = ByteBuffer.allocate(4);
+                channel.read(last, (count - 1) * 4L);
+                partition.lastOffset = last.getInt(0);
+            }
+        }
+        return partition;
+    }
+
+    /**
+     * Agrega un registro en memoria
+     *
+     * @return true si se llegó a max-pending y hay que hacer flush
+     */
+    boolean append(long timestampMs, String severity, String topic, String errorType, String fingerprint) {
+        long offset = Math.min(Math.max(timestampMs - hourStart, 0), HOUR_MS - 1);
+        lastOffset = Math.max(lastOffset, (int) offset);
+        int severityCode = SEVERITIES.indexOf(severity);
+        pendingOffsets[pending] = lastOffset;
+        pendingSeverities[pending] = (byte) (severityCode >= 0 ? severityCode : SEVERITIES.size() - 1);
+        pendingIds[0][pending] = dictionaries[0].idOf(topic);
+        pendingIds[1][pending] = dictionaries[1].idOf(errorType);
+        pendingIds[2][pending] = dictionaries[2].idOf(fingerprint);
+        pending++;
+        return pending >= maxPending;
+    }
+
+    void flush() throws IOException {
+        if (pending == 0) {
+            return;
+        }
+        for (ColumnDictionary dictionary : dictionaries) {
+            dictionary.flush();
+        }
+        ByteBuffer offsets = ByteBuffer.allocate(pending * 4);
+        for (int i = 0; i < pending; i++) {
+            offsets.putInt(pendingOffsets[i]);
+        }
+        offsets.flip();
+        appendColumn(TS, offsets);
+        appendColumn(SEVERITY, ByteBuffer.wrap(pendingSeverities, 0, pending));
+        for (int d = 0; d < 3; d++) {
+            ByteBuffer ids = ByteBuffer.allocate(pending * 2);
+            for (int i = 0; i < pending; i++) {
+                ids.putChar(pendingIds[d][i]);
+            }
+            ids.flip();
+            appendColumn(DIMENSIONS.get(d + 1) + ".col", ids);
+        }
+        flushedCount += pending;
+        pending = 0;
+    }
+
+    int count() {
+        return flushedCount + pending;
+    }
+
+    private void appendColumn(String name, ByteBuffer data) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir.resolve(name),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+    }
+
+    /**
+     * Recorre los registros de una partición en [fromMs, toMs) que cumplen los filtros
+     * Solo lee las columnas que necesita la consulta; si un filtro no aparece en los diccionarios
+     * de la partición no se lee ninguna columna.
+     *
+     * @return false si la partición se descartó sin leer columnas
+     */
+    static boolean scan(Path dir, long hourStart, ErrorQuery query, Map<String, Long> groups, long[] total)
+            throws IOException {
+        int count = recordCount(dir);
+        if (count == 0) {
+            return false;
+        }
+
+        ColumnDictionary[] dictionaries = new ColumnDictionary[3];
+        int[] filterIds = new int[DIMENSIONS.size()];
+        for (int d = 0; d < DIMENSIONS.size(); d++) {
+            String filter = query.filters[d];
+            if (d > 0 && (filter != null || query.groupBy == d)) {
+                dictionaries[d - 1] = ColumnDictionary.open(dir.resolve(DIMENSIONS.get(d) + ".dict"));
+            }
+            if (filter == null) {
+                filterIds[d] = -1;
+            } else {
+                filterIds[d] = d == 0 ? SEVERITIES.indexOf(filter) : dictionaries[d - 1].lookup(filter);
+                if (filterIds[d] < 0) {
+                    return false;
+                }
+            }
+        }
+
+        IntBuffer offsets = map(dir.resolve(TS), count * 4L).asIntBuffer();
+        int from = lowerBound(offsets, count, Math.max(query.fromMs - hourStart, 0));
+        int to = lowerBound(offsets, count, Math.min(query.toMs - hourStart, HOUR_MS));
+        if (from >= to) {
+            return true;
+        }
+
+        ByteBuffer severities = filterIds[0] >= 0 || query.groupBy == 0 ? map(dir.resolve(SEVERITY), count) : null;
+        ByteBuffer[] ids = new ByteBuffer[3];
+        for (int d = 1; d < DIMENSIONS.size(); d++) {
+            if (filterIds[d] >= 0 || query.groupBy == d) {
+                ids[d - 1] = map(dir.resolve(DIMENSIONS.get(d) + ".col"), count * 2L);
+            }
+        }
+
+        long matched = 0;
+        long[] groupCounts = query.groupBy < 0 ? null : new long[query.groupBy == 0 ? SEVERITIES.size() : 65536];
+        for (int i = from; i < to; i++) {
+            if (filterIds[0] >= 0 && severities.get(i) != filterIds[0]) {
+                continue;
+            }
+            boolean accepted = true;
+            for (int d = 1; d < DIMENSIONS.size() && accepted; d++) {
+                accepted = filterIds[d] < 0 || ids[d - 1].getChar(i * 2) == filterIds[d];
+            }
+            if (!accepted) {
+                continue;
+            }
+            matched++;
+            if (groupCounts != null) {
+                int id = query.groupBy == 0 ? severities.get(i) : ids[query.groupBy - 1].getChar(i * 2);
+                groupCounts[id]++;
+            }
+        }
+
+        total[0] += matched;
+        if (groupCounts != null) {
+            for (int id = 0; id < groupCounts.length; id++) {
+                if (groupCounts[id] > 0) {
+                    String value = query.groupBy == 0
+                            ? SEVERITIES.get(id)
+                            : dictionaries[query.groupBy - 1].valueOf((char) id);
+                    groups.merge(value, groupCounts[id], Long::sum);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registros completos: el mínimo entre columnas
+     */
+    static int recordCount(Path dir) throws IOException {
+        long count = size(dir.resolve(TS)) / 4;
+        count = Math.min(count, size(dir.resolve(SEVERITY)));
+        for (int d = 1; d < DIMENSIONS.size(); d++) {
+            count = Math.min(count, size(dir.resolve(DIMENSIONS.get(d) + ".col")) / 2);
+        }
+        return (int) count;
+    }
+
+    private static long size(Path file) throws IOException {
+        return Files.exists(file) ? Files.size(file) : 0;
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        if (Files.exists(file) && Files.size(file) > size) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(size);
+            }
+        }
+    }
+
+    private static ByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private static int lowerBound(IntBuffer offsets, int count, long target) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (offsets.get(mid) < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,64 @@
+package com.claro.ecuador.errors.alert;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Asunto y cuerpo del email de resumen según el tipo de alertas acumuladas
+ *
+ * @author Global HITSS
+ */
+public class AlertDigestTest {
+
+    @Test
+    public void criticalDigestListsCountsAndSamples() {
+        AlertDigest digest = new AlertDigest("Events", "TIMEOUT", "2024-03-05T10:00:00Z", 0);
+        digest.lastAt = "2024-03-05T10:00:59Z";
+        digest.criticalCount = 3;
+        digest.samples.add("timeout 1");
+        digest.samples.add("timeout 2");
+
+        assertEquals("🚨 ALERTA CRÍTICA - Transforma Ecuador - Events:TIMEOUT (3)", digest.subject());
+        assertEquals("Resumen de alertas:\n\n"
+                + "Topic: Events\n"
+                + "Tipo: TIMEOUT\n"
+                + "Desde: 2024-03-05T10:00:00Z\n"
+                + "Hasta: 2024-03-05T10:00:59Z\n"
+                + "Errores críticos: 3\n"
+                + "\nMuestras (2 de 3):\n"
+                + "- timeout 1\n"
+                + "- timeout 2\n"
+                + "\nRequiere atención del equipo técnico.", digest.body());
+    }
+
+    @Test
+    public void thresholdOnlyDigestReportsPeakWindowCount() {
+        AlertDigest digest = new AlertDigest("salesforce.orders", "PARSE", "2024-03-05T10:00:00Z", 0);
+        digest.thresholdCount = 2;
+        digest.maxWindowCount = 40;
+
+        assertEquals("⚠️ UMBRAL DE ERRORES SUPERADO - Transforma Ecuador - salesforce.orders:PARSE",
+                digest.subject());
+        String body = digest.body();
+        assertEquals("Resumen de alertas:\n\n"
+                + "Topic: salesforce.orders\n"
+                + "Tipo: PARSE\n"
+                + "Desde: 2024-03-05T10:00:00Z\n"
+                + "Hasta: 2024-03-05T10:00:00Z\n"
+                + "Umbral superado: 2 veces (máximo 40 errores por ventana)\n"
+                + "\nRequiere atención del equipo técnico.", body);
+        assertFalse(body.contains("Muestras"));
+    }
+
+    @Test
+    public void mixedDigestIsReportedAsCritical() {
+        AlertDigest digest = new AlertDigest("Events", "TIMEOUT", "2024-03-05T10:00:00Z", 0);
+        digest.criticalCount = 1;
+        digest.thresholdCount = 1;
+        digest.maxWindowCount = 12;
+
+        assertEquals("🚨 ALERTA CRÍTICA - Transforma Ecuador - Events:TIMEOUT (1)", digest.subject());
+    }
+}
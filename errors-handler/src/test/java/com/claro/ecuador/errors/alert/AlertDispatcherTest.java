@@ -0,0 +1,181 @@
+package com.claro.ecuador.errors.alert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Despacho de alertas: agrupación por topic:errorType en un email por ventana, descarte con la cola
+ * o el tope de digests llenos y envío de lo acumulado al detener
+ *
+ * @author Global HITSS
+ */
+public class AlertDispatcherTest {
+
+    private static final long WINDOW_MS = 200;
+
+    private JavaMailSender mailSender;
+    private AlertDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        mailSender = mock(JavaMailSender.class);
+        dispatcher = dispatcher(true, WINDOW_MS, 10);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (ReflectionTestUtils.getField(dispatcher, "dispatcherThread") != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    public void groupsAlertsOfSameKeyIntoOneDigest() {
+        dispatcher.start();
+        dispatcher.critical("Events", "TIMEOUT", "timeout 1", "2024-03-05T10:00:00Z");
+        dispatcher.critical("Events", "TIMEOUT", "timeout 2", "2024-03-05T10:00:01Z");
+        dispatcher.threshold("Events", "TIMEOUT", 12);
+        dispatcher.threshold("Events", "TIMEOUT", 30);
+
+        SimpleMailMessage message = sent(1).get(0);
+        assertEquals("🚨 ALERTA CRÍTICA - Transforma Ecuador - Events:TIMEOUT (2)", message.getSubject());
+        assertArrayEquals(new String[]{"ops@example.com", "lead@example.com"}, message.getTo());
+        assertEquals("alerts@example.com", message.getFrom());
+        assertTrue(message.getText().contains("Errores críticos: 2\n"));
+        assertTrue(message.getText().contains("Umbral superado: 2 veces (máximo 30 errores por ventana)\n"));
+        assertTrue(message.getText().contains("- timeout 1\n- timeout 2\n"));
+
+        assertEquals(4L, dispatcher.stats().get("alertsSent"));
+        assertEquals(1L, dispatcher.stats().get("digestsSent"));
+    }
+
+    @Test
+    public void sendsOneDigestPerTopicAndErrorType() {
+        dispatcher.start();
+        dispatcher.critical("Events", "TIMEOUT", "timeout", "2024-03-05T10:00:00Z");
+        dispatcher.critical("Events", "PARSE", "parse", "2024-03-05T10:00:00Z");
+        dispatcher.critical("salesforce.orders", "TIMEOUT", "timeout", "2024-03-05T10:00:00Z");
+
+        List<SimpleMailMessage> messages = sent(3);
+        assertEquals("🚨 ALERTA CRÍTICA - Transforma Ecuador - Events:TIMEOUT (1)", messages.get(0).getSubject());
+        assertEquals("🚨 ALERTA CRÍTICA - Transforma Ecuador - Events:PARSE (1)", messages.get(1).getSubject());
+        assertEquals("🚨 ALERTA CRÍTICA - Transforma Ecuador - salesforce.orders:TIMEOUT (1)",
+                messages.get(2).getSubject());
+    }
+
+    @Test
+    public void keepsAtMostMaxSamplesAndAbbreviatesLongMessages() {
+        dispatcher.start();
+        char[] longError = new char[400];
+        Arrays.fill(longError, 'x');
+        for (int i = 0; i < 4; i++) {
+            dispatcher.critical("Events", "TIMEOUT", new String(longError), "2024-03-05T10:00:00Z");
+        }
+
+        String body = sent(1).get(0).getText();
+        assertTrue(body.contains("Muestras (3 de 4):\n"));
+        assertTrue(body.contains("- " + new String(longError, 0, 300) + "…\n"));
+    }
+
+    @Test
+    public void stopSendsPendingDigestsWithoutWaitingForTheWindow() throws InterruptedException {
+        dispatcher = dispatcher(true, 60_000, 10);
+        dispatcher.start();
+        dispatcher.threshold("Events", "TIMEOUT", 15);
+        verify(mailSender, after(300).never()).send(any(SimpleMailMessage.class));
+
+        dispatcher.stop();
+
+        SimpleMailMessage message = sent(1).get(0);
+        assertEquals("⚠️ UMBRAL DE ERRORES SUPERADO - Transforma Ecuador - Events:TIMEOUT", message.getSubject());
+    }
+
+    @Test
+    public void dropsAlertsWhenQueueIsFull() {
+        // Sin hilo del dispatcher: nada consume la cola
+        ReflectionTestUtils.setField(dispatcher, "queue", new ArrayBlockingQueue<>(1));
+
+        dispatcher.critical("Events", "TIMEOUT", "uno", "2024-03-05T10:00:00Z");
+        dispatcher.critical("Events", "TIMEOUT", "dos", "2024-03-05T10:00:00Z");
+
+        assertEquals(2L, dispatcher.stats().get("submitted"));
+        assertEquals(1L, dispatcher.stats().get("dropped"));
+        assertEquals(1, dispatcher.stats().get("queueDepth"));
+    }
+
+    @Test
+    public void dropsNewKeysBeyondMaxDigests() {
+        dispatcher = dispatcher(true, WINDOW_MS, 1);
+        dispatcher.start();
+        dispatcher.critical("Events", "TIMEOUT", "timeout", "2024-03-05T10:00:00Z");
+        dispatcher.critical("Events", "PARSE", "parse", "2024-03-05T10:00:00Z");
+
+        verify(mailSender, after(WINDOW_MS * 3).times(1)).send(any(SimpleMailMessage.class));
+        assertEquals(1L, dispatcher.stats().get("dropped"));
+    }
+
+    @Test
+    public void countsAlertsOfFailedDigest() {
+        doThrow(new MailSendException("smtp caído")).when(mailSender).send(any(SimpleMailMessage.class));
+        dispatcher.start();
+        dispatcher.critical("Events", "TIMEOUT", "uno", "2024-03-05T10:00:00Z");
+        dispatcher.critical("Events", "TIMEOUT", "dos", "2024-03-05T10:00:00Z");
+
+        verify(mailSender, timeout(2000)).send(any(SimpleMailMessage.class));
+        verify(mailSender, after(WINDOW_MS).times(1)).send(any(SimpleMailMessage.class));
+        assertEquals(2L, dispatcher.stats().get("failed"));
+        assertEquals(0L, dispatcher.stats().get("digestsSent"));
+    }
+
+    @Test
+    public void disabledDispatcherSendsNothing() {
+        dispatcher = dispatcher(false, WINDOW_MS, 10);
+        dispatcher.start();
+        dispatcher.critical("Events", "TIMEOUT", "timeout", "2024-03-05T10:00:00Z");
+
+        verify(mailSender, after(WINDOW_MS * 2).never()).send(any(SimpleMailMessage.class));
+        assertEquals(0L, dispatcher.stats().get("submitted"));
+    }
+
+    private List<SimpleMailMessage> sent(int digests) {
+        ArgumentCaptor<SimpleMailMessage> captor = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        verify(mailSender, timeout(2000).times(digests)).send(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private AlertDispatcher dispatcher(boolean enabled, long digestWindowMs, int maxDigests) {
+        AlertDispatcher alertDispatcher = new AlertDispatcher();
+        ReflectionTestUtils.setField(alertDispatcher, "mailSender", mailSender);
+        ReflectionTestUtils.setField(alertDispatcher, "enabled", enabled);
+        ReflectionTestUtils.setField(alertDispatcher, "alertRecipients",
+                Arrays.asList("ops@example.com", "lead@example.com"));
+        ReflectionTestUtils.setField(alertDispatcher, "from", "alerts@example.com");
+        ReflectionTestUtils.setField(alertDispatcher, "queueCapacity", 100);
+        ReflectionTestUtils.setField(alertDispatcher, "digestWindowMs", digestWindowMs);
+        ReflectionTestUtils.setField(alertDispatcher, "maxSamples", 3);
+        ReflectionTestUtils.setField(alertDispatcher, "maxDigests", maxDigests);
+        return alertDispatcher;
+    }
+}
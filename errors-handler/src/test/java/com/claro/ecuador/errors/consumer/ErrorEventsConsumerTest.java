@@ -0,0 +1,99 @@
+package com.claro.ecuador.errors.consumer;
+
+import com.claro.ecuador.commons.instrumentation.PipelineMetrics;
+import com.claro.ecuador.commons.sink.ElasticsearchBulkSink;
+import com.claro.ecuador.errors.alert.AlertDispatcher;
+import com.claro.ecuador.errors.metrics.ErrorRateCounter;
+import com.claro.ecuador.errors.patterns.ErrorTemplateMiner;
+import com.claro.ecuador.errors.retry.RetryScheduler;
+import com.claro.ecuador.errors.rules.ErrorRuleEngine;
+import com.claro.ecuador.errors.store.ErrorStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Un evento cuyo reintento no se pudo persistir no deja efectos antes de volver a entregarse
+ *
+ * @author Global HITSS
+ */
+public class ErrorEventsConsumerTest {
+
+    private static final String CRITICAL_RECOVERABLE =
+            "{\"topic\":\"Events\",\"errorType\":\"DatabaseConnectionException\",\"error\":\"pool agotado\","
+                    + "\"timestamp\":\"2024-03-05T10:00:00Z\",\"originalMessage\":\"{}\"}";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private ErrorEventsConsumer consumer;
+    private AlertDispatcher alertDispatcher;
+    private ErrorRateCounter errorRateCounter;
+    private ErrorTemplateMiner errorTemplateMiner;
+    private ErrorStore errorStore;
+    private RetryScheduler retryScheduler;
+
+    @Before
+    public void setUp() throws IOException {
+        File rules = folder.newFile("error-rules.yml");
+        Files.write(rules.toPath(), ("rules:\n"
+                + "  - name: db\n"
+                + "    error-types: [DatabaseConnectionException]\n"
+                + "    severity: CRITICAL\n"
+                + "    recoverable: true\n").getBytes(StandardCharsets.UTF_8));
+        ErrorRuleEngine errorRuleEngine = new ErrorRuleEngine();
+        ReflectionTestUtils.setField(errorRuleEngine, "rulesFile", rules.getAbsolutePath());
+        ReflectionTestUtils.setField(errorRuleEngine, "maxScanChars", 4096);
+        errorRuleEngine.init();
+
+        alertDispatcher = mock(AlertDispatcher.class);
+        errorRateCounter = mock(ErrorRateCounter.class);
+        errorTemplateMiner = mock(ErrorTemplateMiner.class);
+        errorStore = mock(ErrorStore.class);
+        retryScheduler = mock(RetryScheduler.class);
+
+        consumer = new ErrorEventsConsumer();
+        ReflectionTestUtils.setField(consumer, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(consumer, "alertDispatcher", alertDispatcher);
+        ReflectionTestUtils.setField(consumer, "elasticsearchBulkSink", mock(ElasticsearchBulkSink.class));
+        ReflectionTestUtils.setField(consumer, "errorRateCounter", errorRateCounter);
+        ReflectionTestUtils.setField(consumer, "retryScheduler", retryScheduler);
+        ReflectionTestUtils.setField(consumer, "errorTemplateMiner", errorTemplateMiner);
+        ReflectionTestUtils.setField(consumer, "errorRuleEngine", errorRuleEngine);
+        ReflectionTestUtils.setField(consumer, "errorStore", errorStore);
+        ReflectionTestUtils.setField(consumer, "pipelineMetrics", mock(PipelineMetrics.class));
+        ReflectionTestUtils.setField(consumer, "criticalThreshold", 1);
+        ReflectionTestUtils.setField(consumer, "alertMinIntervalMs", 0L);
+    }
+
+    @Test
+    public void journalFailureHappensBeforeCountingOrAlerting() {
+        when(retryScheduler.schedule(anyString(), anyString(), anyInt()))
+                .thenThrow(new UncheckedIOException("Journal de reintentos sin persistir", new IOException("disco lleno")));
+
+        try {
+            consumer.consumeErrorEvents(CRITICAL_RECOVERABLE, "errors.events", 0, 7L);
+            fail("El registro no se debe confirmar");
+        } catch (UncheckedIOException expected) {
+            // El contenedor lo vuelve a entregar
+        }
+
+        verifyZeroInteractions(errorTemplateMiner, errorRateCounter, alertDispatcher, errorStore);
+    }
+}
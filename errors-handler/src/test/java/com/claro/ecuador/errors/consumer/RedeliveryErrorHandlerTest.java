@@ -0,0 +1,122 @@
+package com.claro.ecuador.errors.consumer;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reentrega con espera y dead letter tras agotar las entregas
+ *
+ * @author Global HITSS
+ */
+public class RedeliveryErrorHandlerTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("errors.events", 0);
+
+    private KafkaTemplate<String, String> kafkaTemplate;
+    private Consumer<?, ?> consumer;
+    private MessageListenerContainer container;
+    private List<ConsumerRecord<?, ?>> records;
+    private final Exception failure = new RuntimeException(
+            new UncheckedIOException("Journal de reintentos sin persistir", new IOException("disco lleno")));
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        consumer = mock(Consumer.class);
+        container = mock(MessageListenerContainer.class);
+        records = Collections.singletonList(new ConsumerRecord<>("errors.events", 0, 42L, "k", "{\"error\":\"x\"}"));
+    }
+
+    @Test
+    public void waitsBackoffBeforeEachRedelivery() {
+        RedeliveryErrorHandler handler = new RedeliveryErrorHandler(kafkaTemplate, "errors.events.DLT", 1000, 3, 50);
+
+        long start = System.nanoTime();
+        redeliver(handler);
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue("esperó " + waitedMs + " ms", waitedMs >= 45);
+        verify(consumer).seek(PARTITION, 42L);
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void deadLettersAfterMaxAttempts() {
+        SettableListenableFuture<SendResult<String, String>> sent = new SettableListenableFuture<>();
+        sent.set(null);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(sent);
+        RedeliveryErrorHandler handler = new RedeliveryErrorHandler(kafkaTemplate, "errors.events.DLT", 1000, 3, 0);
+
+        redeliver(handler);
+        redeliver(handler);
+        verify(consumer, times(2)).seek(PARTITION, 42L);
+
+        // Tercera entrega: se publica en el dead letter y el registro se saltea
+        handler.handle(failure, records, consumer, container);
+        verify(consumer, times(2)).seek(PARTITION, 42L);
+
+        ArgumentCaptor<ProducerRecord<String, String>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        ProducerRecord<String, String> deadLetter = captor.getValue();
+        assertEquals("errors.events.DLT", deadLetter.topic());
+        assertEquals("k", deadLetter.key());
+        assertEquals("{\"error\":\"x\"}", deadLetter.value());
+        assertEquals("Journal de reintentos sin persistir", new String(
+                deadLetter.headers().lastHeader(RedeliveryErrorHandler.EXCEPTION_HEADER).value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void keepsRedeliveringWhenDeadLetterFails() {
+        SettableListenableFuture<SendResult<String, String>> failed = new SettableListenableFuture<>();
+        failed.setException(new IllegalStateException("broker caído"));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(failed);
+        RedeliveryErrorHandler handler = new RedeliveryErrorHandler(kafkaTemplate, "errors.events.DLT", 1000, 1, 0);
+
+        redeliver(handler);
+        redeliver(handler);
+
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+        verify(consumer, times(2)).seek(PARTITION, 42L);
+    }
+
+    /**
+     * El handler avisa al contenedor que reposicionó el consumidor con una KafkaException
+     */
+    private void redeliver(RedeliveryErrorHandler handler) {
+        try {
+            handler.handle(failure, records, consumer, container);
+            fail("Se esperaba la reentrega del registro");
+        } catch (KafkaException expected) {
+            // Seek to current
+        }
+    }
+}
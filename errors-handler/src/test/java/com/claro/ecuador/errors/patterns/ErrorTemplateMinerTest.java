@@ -0,0 +1,135 @@
+package com.claro.ecuador.errors.patterns;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Minado de plantillas: unión de mensajes parecidos, expulsión por tope y colisión de fingerprint
+ *
+ * @author Global HITSS
+ */
+public class ErrorTemplateMinerTest {
+
+    private ErrorTemplateMiner miner;
+
+    @Before
+    public void setUp() {
+        miner = miner(2, 64, 32, 2000);
+    }
+
+    @Test
+    public void mergesSimilarMessagesIntoOneTemplate() {
+        ErrorCluster first = miner.ingest("Connection refused by host alpha");
+        ErrorCluster second = miner.ingest("Connection refused by host beta");
+
+        assertSame(first, second);
+        assertEquals("Connection refused by host <*>", first.getTemplate());
+        assertEquals(2, first.getCount());
+        assertEquals(1, miner.stats(10).get("clusters"));
+    }
+
+    @Test
+    public void masksTokensWithDigits() {
+        ErrorCluster first = miner.ingest("Timeout after 3000 ms calling order 8a7f-11");
+        ErrorCluster second = miner.ingest("Timeout after 120 ms calling order 9c01-42");
+
+        assertSame(first, second);
+        assertEquals("Timeout after <*> ms calling order <*>", first.getTemplate());
+    }
+
+    @Test
+    public void keepsDissimilarMessagesApart() {
+        ErrorCluster first = miner.ingest("Connection refused by host alpha");
+        ErrorCluster second = miner.ingest("Connection reset during TLS handshake");
+
+        assertNotSame(first, second);
+        assertNotEquals(first.getFingerprint(), second.getFingerprint());
+        assertEquals(2, miner.stats(10).get("clusters"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedClusterAtMaxClusters() {
+        miner = miner(2, 64, 32, 2);
+        ErrorCluster alpha = miner.ingest("alpha one");
+        miner.ingest("beta two three");
+        // alpha pasa a ser el usado más recientemente
+        miner.ingest("alpha one");
+        miner.ingest("gamma four five six");
+
+        Map<String, Object> stats = miner.stats(10);
+        assertEquals(2, stats.get("clusters"));
+        assertEquals(1L, stats.get("evicted"));
+        assertSame(alpha, miner.ingest("alpha one"));
+        assertEquals(3, alpha.getCount());
+    }
+
+    @Test
+    public void replacesOldestClusterOfFullLeaf() {
+        miner = miner(1, 64, 2, 2000);
+        ErrorCluster oldest = miner.ingest("fail alpha beta gamma");
+        sleep();
+        miner.ingest("fail delta epsilon zeta");
+        sleep();
+        miner.ingest("fail eta theta iota");
+
+        assertEquals(2, miner.stats(10).get("clusters"));
+        assertEquals(1L, miner.stats(10).get("evicted"));
+        assertNotSame(oldest, miner.ingest("fail alpha beta gamma"));
+    }
+
+    @Test
+    public void foldsFingerprintCollisionIntoLiveCluster() {
+        miner = miner(1, 2, 32, 3);
+        miner.ingest("alpha one");
+        miner.ingest("delta four");
+        // Nodo de longitud 2 lleno (alpha, delta): beta queda en la hoja <*>
+        ErrorCluster beta = miner.ingest("beta two");
+        miner.ingest("gamma three gamma");
+        miner.ingest("beta two");
+        miner.ingest("w x y z");
+        // alpha y delta expulsados: beta ahora tendría su propia hoja, con la misma plantilla inicial
+        ErrorCluster again = miner.ingest("beta two");
+
+        assertSame(beta, again);
+        assertEquals(3, beta.getCount());
+        Map<String, Object> stats = miner.stats(10);
+        assertEquals(3, stats.get("clusters"));
+        assertEquals(2L, stats.get("evicted"));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> top = (List<Map<String, Object>>) stats.get("top");
+        assertEquals(beta.getFingerprint(), top.get(0).get("fingerprint"));
+        assertEquals(3L, top.get(0).get("count"));
+    }
+
+    private static ErrorTemplateMiner miner(int depth, int maxChildren, int maxClustersPerLeaf, int maxClusters) {
+        ErrorTemplateMiner miner = new ErrorTemplateMiner();
+        ReflectionTestUtils.setField(miner, "depth", depth);
+        ReflectionTestUtils.setField(miner, "similarityThreshold", 0.5);
+        ReflectionTestUtils.setField(miner, "maxTokens", 48);
+        ReflectionTestUtils.setField(miner, "maxTokenLength", 40);
+        ReflectionTestUtils.setField(miner, "maxChildren", maxChildren);
+        ReflectionTestUtils.setField(miner, "maxClustersPerLeaf", maxClustersPerLeaf);
+        ReflectionTestUtils.setField(miner, "maxClusters", maxClusters);
+        return miner;
+    }
+
+    /**
+     * lastSeen tiene resolución de milisegundos
+     */
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
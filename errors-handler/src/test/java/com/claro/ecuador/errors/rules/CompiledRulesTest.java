@@ -0,0 +1,83 @@
+package com.claro.ecuador.errors.rules;
+
+import org.junit.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Clasificación con las reglas compiladas: lookup de errorType sin distinguir mayúsculas,
+ * la primera regla que fija cada valor decide y condiciones combinadas (topic, subcadena, regex)
+ *
+ * @author Global HITSS
+ */
+public class CompiledRulesTest {
+
+    private static final String RULES = String.join("\n",
+            "defaults:",
+            "  severity: LOW",
+            "  recoverable: false",
+            "rules:",
+            "  - name: critical-types",
+            "    error-types: [NullPointerException, DatabaseConnectionException]",
+            "    severity: CRITICAL",
+            "  - name: timeout-message",
+            "    message-contains: [timed out, Timeout]",
+            "    severity: HIGH",
+            "    recoverable: true",
+            "  - name: orders-timeout",
+            "    topics: [salesforce.orders]",
+            "    message-contains: [timed out]",
+            "    severity: MEDIUM",
+            "  - name: ora-regex",
+            "    error-types: [SQLException]",
+            "    message-regex: 'ORA-0000[0-9]'",
+            "    severity: HIGH",
+            "  - name: recoverable-types",
+            "    error-types: [DatabaseConnectionException]",
+            "    recoverable: true");
+
+    private final CompiledRules rules = CompiledRules.compile(new Yaml().load(RULES), "test", 4096);
+
+    @Test
+    public void looksUpErrorTypeIgnoringCase() {
+        ErrorClassification classification = rules.classify("Events", "databaseconnectionEXCEPTION", "sin conexión");
+
+        assertEquals("CRITICAL", classification.getSeverity());
+        assertEquals("critical-types", classification.getSeverityRule());
+        assertTrue(classification.isRecoverable());
+        assertEquals("recoverable-types", classification.getRecoverableRule());
+    }
+
+    @Test
+    public void firstRuleThatDecidesWins() {
+        // timeout-message y orders-timeout coinciden: decide la primera en el archivo
+        ErrorClassification classification = rules.classify("salesforce.orders", "IOException",
+                "Read TIMED OUT después de 3000 ms");
+
+        assertEquals("HIGH", classification.getSeverity());
+        assertEquals("timeout-message", classification.getSeverityRule());
+        assertTrue(classification.isRecoverable());
+        assertEquals("timeout-message", classification.getRecoverableRule());
+    }
+
+    @Test
+    public void appliesRegexOnlyWhenOtherConditionsMatch() {
+        assertEquals("ora-regex", rules.classify("Events", "SQLException", "ORA-00001: restricción única").getSeverityRule());
+        assertNull(rules.classify("Events", "SQLException", "ORA-01400: valor nulo").getSeverityRule());
+        assertNull(rules.classify("Events", "IOException", "ORA-00001: restricción única").getSeverityRule());
+    }
+
+    @Test
+    public void fallsBackToDefaults() {
+        ErrorClassification classification = rules.classify(null, null, null);
+
+        assertEquals("LOW", classification.getSeverity());
+        assertFalse(classification.isRecoverable());
+        assertNull(classification.getSeverityRule());
+        assertNull(classification.getRecoverableRule());
+    }
+}
@@ -0,0 +1,80 @@
+package com.claro.ecuador.errors.rules;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Recarga del archivo de reglas externo: un archivo válido reemplaza las reglas y uno inválido
+ * se ignora conservando las anteriores
+ *
+ * @author Global HITSS
+ */
+public class ErrorRuleEngineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File rulesFile;
+    private ErrorRuleEngine engine;
+
+    @Before
+    public void setUp() throws IOException {
+        rulesFile = folder.newFile("error-rules.yml");
+        write("rules:\n  - name: npe\n    error-types: [NullPointerException]\n    severity: CRITICAL\n");
+
+        engine = new ErrorRuleEngine();
+        ReflectionTestUtils.setField(engine, "rulesFile", rulesFile.getPath());
+        ReflectionTestUtils.setField(engine, "maxScanChars", 4096);
+        engine.init();
+    }
+
+    @Test
+    public void reloadsChangedFile() throws IOException {
+        write("rules:\n  - name: npe-high\n    error-types: [NullPointerException]\n    severity: HIGH\n");
+        engine.reloadIfChanged();
+
+        assertEquals("HIGH", engine.classify("Events", "NullPointerException", null).getSeverity());
+        assertEquals(1L, engine.stats().get("reloads"));
+    }
+
+    @Test
+    public void keepsPreviousRulesWhenReloadIsInvalid() throws IOException {
+        write("rules:\n  - name: sin-resultado\n    error-types: [NullPointerException]\n");
+        engine.reloadIfChanged();
+
+        assertEquals("CRITICAL", engine.classify("Events", "NullPointerException", null).getSeverity());
+        assertEquals(1L, engine.stats().get("failedReloads"));
+        assertNotNull(engine.stats().get("lastError"));
+
+        // Sin cambios en el archivo no se reintenta la carga
+        engine.reloadIfChanged();
+        assertEquals(1L, engine.stats().get("failedReloads"));
+
+        write("rules:\n  - name: npe-medium\n    error-types: [NullPointerException]\n    severity: MEDIUM\n");
+        engine.reloadIfChanged();
+        assertEquals("MEDIUM", engine.classify("Events", "NullPointerException", null).getSeverity());
+        assertNull(engine.stats().get("lastError"));
+    }
+
+    /**
+     * Escribe el archivo con otra fecha de modificación, para que la recarga lo detecte aunque el
+     * tamaño coincida y el sistema de archivos tenga resolución de segundos
+     */
+    private void write(String content) throws IOException {
+        long previous = rulesFile.lastModified();
+        Files.write(rulesFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        rulesFile.setLastModified(previous + 2000);
+    }
+}
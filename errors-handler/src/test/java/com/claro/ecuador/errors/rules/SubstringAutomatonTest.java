@@ -0,0 +1,57 @@
+package com.claro.ecuador.errors.rules;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Aho-Corasick: coincidencias sin distinguir mayúsculas, subcadenas solapadas y límite de escaneo
+ *
+ * @author Global HITSS
+ */
+public class SubstringAutomatonTest {
+
+    private final SubstringAutomaton automaton = SubstringAutomaton.build(patterns());
+
+    @Test
+    public void matchesIgnoringCase() {
+        assertEquals(0b001, automaton.match("Read TIMED OUT hacia elasticsearch", 4096));
+        assertEquals(0b010, automaton.match("ora-00001: restricción única violada", 4096));
+        assertEquals(0b100, automaton.match("CONEXIÓN rechazada", 4096));
+        assertEquals(0L, automaton.match("Estado desconocido", 4096));
+    }
+
+    @Test
+    public void reportsEveryOverlappingPattern() {
+        // "he" termina dentro de "she" (enlace de fallo) y "hers" comparte prefijo con "he"
+        Map<String, Long> patterns = new LinkedHashMap<>();
+        patterns.put("he", 0b001L);
+        patterns.put("she", 0b010L);
+        patterns.put("hers", 0b100L);
+        SubstringAutomaton overlapping = SubstringAutomaton.build(patterns);
+
+        assertEquals(0b011, overlapping.match("uSHE", 4096));
+        assertEquals(0b111, overlapping.match("ushers", 4096));
+        assertEquals(0L, overlapping.match("hrs", 4096));
+    }
+
+    @Test
+    public void stopsAtMaxChars() {
+        String message = "Error de negocio sin causa conocida: timed out";
+
+        assertEquals(0L, automaton.match(message, message.indexOf("timed out") + 4));
+        assertEquals(0b001, automaton.match(message, message.length()));
+    }
+
+    private static Map<String, Long> patterns() {
+        // Claves en minúsculas, como las registra CompiledRules
+        Map<String, Long> patterns = new LinkedHashMap<>();
+        patterns.put("timed out", 0b001L);
+        patterns.put("ora-00001", 0b010L);
+        patterns.put("conexión", 0b100L);
+        return patterns;
+    }
+}
@@ -0,0 +1,61 @@
+package com.claro.ecuador.events.audit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consulta de la auditoría de acciones de un usuario
+ * GET /api/audit/users/{userId}?from=2024-01-01T00:00:00Z&to=2024-01-02T00:00:00Z&limit=1000
+ * La lectura se detiene al llegar a limit; truncated indica que hay más acciones en el rango.
+ *
+ * @author Global HITSS
+ */
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+
+    private static final long DEFAULT_RANGE_MS = 24L * 60 * 60 * 1000;
+
+    @Autowired
+    private AuditJournal auditJournal;
+
+    @GetMapping("/users/{userId}")
+    public Map<String, Object> userActions(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "1000") int limit) {
+
+        long toMs = to != null ? to.toEpochMilli() : System.currentTimeMillis();
+        long fromMs = from != null ? from.toEpochMilli() : toMs - DEFAULT_RANGE_MS;
+
+        List<Map<String, Object>> actions = new ArrayList<>();
+        int wanted = Math.max(0, Math.min(limit, Integer.MAX_VALUE - 1));
+        // Un registro más que el límite alcanza para saber si el resultado quedó truncado
+        int read = auditJournal.read(userId, fromMs, toMs, wanted + 1, record -> {
+            if (actions.size() < wanted) {
+                actions.add(record.toMap());
+            }
+        });
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("userId", userId);
+        response.put("from", Instant.ofEpochMilli(fromMs).toString());
+        response.put("to", Instant.ofEpochMilli(toMs).toString());
+        response.put("count", actions.size());
+        response.put("truncated", read > wanted);
+        response.put("actions", actions);
+        return response;
+    }
+}
@@ -0,0 +1,337 @@
+package com.claro.ecuador.events.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Journal local de auditoría de acciones de usuario, append-only sobre segmentos mapeados en memoria
+ * - Un registro binario compacto por acción, sin ida y vuelta de red ni objetos por escritura
+ * - Rotación de segmento por tamaño (segment-bytes) o antigüedad (roll-interval-ms)
+ * - Retención por antigüedad (retention-ms) y por espacio total (retention-bytes): se borran los
+ *   segmentos sellados más viejos
+ * - Índice disperso por segmento (timestamp → posición y mapa de bits de userId) para
+ *   consultar las acciones de un usuario sin recorrer todo el journal
+ * - Política de fsync: none (lo decide el sistema operativo), group (force periódico)
+ *   o always (force por registro)
+ * - Campos de más de AuditSegment.MAX_FIELD_BYTES bytes UTF-8 se rechazan: truncarlos dejaría
+ *   el registro sin poder consultarse por su valor real
+ * - Las consultas recorren una copia de la lista de segmentos y fijan cada segmento mientras lo
+ *   leen, sin bloquear la escritura ni la rotación; la retención difiere el borrado de un segmento
+ *   fijado hasta que la consulta lo suelta
+ *
+ * @author Global HITSS
+ */
+@Component
+public class AuditJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditJournal.class);
+
+    @Value("${events-processor.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${events-processor.audit.directory:./data/audit}")
+    private String directory;
+
+    @Value("${events-processor.audit.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${events-processor.audit.roll-interval-ms:3600000}")
+    private long rollIntervalMs;
+
+    @Value("${events-processor.audit.index-interval-bytes:4096}")
+    private int indexIntervalBytes;
+
+    @Value("${events-processor.audit.fsync:group}")
+    private String fsyncPolicy;
+
+    @Value("${events-processor.audit.retention-ms:604800000}")
+    private long retentionMs;
+
+    @Value("${events-processor.audit.retention-bytes:1073741824}")
+    private long retentionBytes;
+
+    private final List<AuditSegment> segments = new CopyOnWriteArrayList<>();
+    private final Object writeLock = new Object();
+
+    private File baseDirectory;
+    private AuditSegment active;
+    private long lastTimestamp;
+    private boolean fsyncAlways;
+    private boolean fsyncGroup;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder oversized = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder rolled = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            logger.info("📝 Journal de auditoría deshabilitado");
+            return;
+        }
+        this.fsyncAlways = "always".equalsIgnoreCase(fsyncPolicy);
+        this.fsyncGroup = "group".equalsIgnoreCase(fsyncPolicy);
+        if (!fsyncAlways && !fsyncGroup && !"none".equalsIgnoreCase(fsyncPolicy)) {
+            throw new IllegalStateException("events-processor.audit.fsync debe ser none, group o always");
+        }
+
+        this.baseDirectory = new File(directory);
+        if (!baseDirectory.isDirectory() && !baseDirectory.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio de auditoría " + baseDirectory.getAbsolutePath());
+        }
+
+        File[] files = baseDirectory.listFiles((dir, name) -> name.startsWith("audit-") && name.endsWith(".seg"));
+        long[] numbers = new long[files == null ? 0 : files.length];
+        for (int i = 0; i < numbers.length; i++) {
+            String name = files[i].getName();
+            numbers[i] = Long.parseLong(name.substring("audit-".length(), name.length() - ".seg".length()));
+        }
+        Arrays.sort(numbers);
+        for (long number : numbers) {
+            segments.add(AuditSegment.open(baseDirectory, number, segmentBytes, indexIntervalBytes));
+        }
+        if (!segments.isEmpty()) {
+            AuditSegment last = segments.get(segments.size() - 1);
+            lastTimestamp = last.getMaxTimestamp();
+            // El último segmento sin sellar sigue siendo el activo; su índice se reconstruyó recorriéndolo
+            if (!last.isSealed()) {
+                active = last;
+            }
+        }
+
+        logger.info("📝 Journal de auditoría en {} ({} segmentos, fsync={})",
+                baseDirectory.getAbsolutePath(), segments.size(), fsyncPolicy);
+    }
+
+    /**
+     * Registrar una acción de usuario. No crea objetos salvo al rotar de segmento
+     *
+     * @param eventTimestamp tiempo del evento (epoch millis), o <= 0 para usar la hora actual
+     * @throws IllegalArgumentException si un campo supera AuditSegment.MAX_FIELD_BYTES (el evento sigue
+     *                                  el camino de error del handler hacia errors.events)
+     * @throws IOException              si no se pudo escribir (mismo camino de error: reintento del evento)
+     */
+    public void append(long eventTimestamp, String userId, String action, String eventId) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        checkFieldLength("userId", userId);
+        checkFieldLength("action", action);
+        checkFieldLength("eventId", eventId);
+        int userHash = userId.hashCode();
+        synchronized (writeLock) {
+            try {
+                // Timestamp de registro monótono: el índice disperso depende de ello
+                long now = Math.max(System.currentTimeMillis(), lastTimestamp);
+                lastTimestamp = now;
+                long eventTime = eventTimestamp > 0 ? eventTimestamp : now;
+
+                if (active == null || now - active.createdAt >= rollIntervalMs && !active.isEmpty()) {
+                    roll();
+                }
+                if (!active.append(now, eventTime, userHash, userId, action, eventId)) {
+                    roll();
+                    if (!active.append(now, eventTime, userHash, userId, action, eventId)) {
+                        throw new IOException("Registro de auditoría mayor que un segmento vacío ("
+                                + segmentBytes + " bytes)");
+                    }
+                }
+                appended.increment();
+                if (fsyncAlways) {
+                    active.force();
+                    fsyncs.increment();
+                }
+            } catch (IOException e) {
+                failed.increment();
+                logger.error("❌ Error escribiendo auditoría de {}: {}", userId, e.getMessage());
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Recorrer, en orden de registro, las acciones de un usuario en [fromMs, toMs]
+     * (timestamp de registro del journal), deteniéndose al entregar maxRecords
+     *
+     * @return registros entregados
+     */
+    public int read(String userId, long fromMs, long toMs, int maxRecords, Consumer<AuditRecord> consumer) {
+        int userHash = userId.hashCode();
+        int delivered = 0;
+        // El iterador de la CopyOnWriteArrayList es una copia: rotar o borrar no la altera
+        for (AuditSegment segment : segments) {
+            if (delivered >= maxRecords) {
+                break;
+            }
+            if (!segment.mayContain(userHash, fromMs, toMs) || !segment.pin()) {
+                continue;
+            }
+            try {
+                delivered += segment.scan(userHash, userId, fromMs, toMs, maxRecords - delivered, consumer);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error leyendo el journal de auditoría", e);
+            } finally {
+                unpin(segment);
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Group commit: fuerza a disco lo escrito desde el último ciclo
+     */
+    @Scheduled(fixedDelayString = "${events-processor.audit.group-commit-interval-ms:200}")
+    public void groupCommit() {
+        if (!enabled || !fsyncGroup) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (active != null && active.force()) {
+                fsyncs.increment();
+            }
+        }
+    }
+
+    /**
+     * Borra los segmentos sellados más viejos que retention-ms o que exceden retention-bytes
+     * El segmento activo nunca se borra.
+     */
+    @Scheduled(fixedDelayString = "${events-processor.audit.retention-check-interval-ms:60000}")
+    public void enforceRetention() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        synchronized (writeLock) {
+            long totalBytes = 0;
+            for (AuditSegment segment : segments) {
+                totalBytes += segment.diskBytes();
+            }
+            List<AuditSegment> expiredSegments = new ArrayList<>();
+            for (AuditSegment segment : segments) {
+                if (segment == active || !segment.isSealed()) {
+                    break;
+                }
+                boolean tooOld = retentionMs > 0 && segment.getMaxTimestamp() < cutoff;
+                boolean overLimit = retentionBytes > 0 && totalBytes > retentionBytes;
+                if (!tooOld && !overLimit) {
+                    break;
+                }
+                expiredSegments.add(segment);
+                totalBytes -= segment.diskBytes();
+            }
+            if (expiredSegments.isEmpty()) {
+                return;
+            }
+            segments.removeAll(expiredSegments);
+            for (AuditSegment segment : expiredSegments) {
+                try {
+                    segment.delete();
+                    expired.increment();
+                    logger.info("🗑️ Segmento de auditoría {} borrado por retención", segment.number);
+                } catch (IOException e) {
+                    logger.warn("⚠️ Error borrando segmento de auditoría {}: {}", segment.number, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (writeLock) {
+            for (AuditSegment segment : segments) {
+                try {
+                    segment.close();
+                } catch (IOException e) {
+                    logger.warn("⚠️ Error cerrando segmento de auditoría {}: {}", segment.number, e.getMessage());
+                }
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("directory", baseDirectory != null ? baseDirectory.getAbsolutePath() : directory);
+        stats.put("fsync", fsyncPolicy);
+        stats.put("retentionMs", retentionMs);
+        stats.put("retentionBytes", retentionBytes);
+        stats.put("segments", segments.size());
+        long diskBytes = 0;
+        for (AuditSegment segment : segments) {
+            diskBytes += segment.diskBytes();
+        }
+        stats.put("diskBytes", diskBytes);
+        List<Long> segmentNumbers = new ArrayList<>();
+        for (AuditSegment segment : segments) {
+            segmentNumbers.add(segment.number);
+        }
+        stats.put("segmentNumbers", segmentNumbers);
+        AuditSegment current = active;
+        if (current != null) {
+            stats.put("activeSegmentBytes", current.getWritePosition());
+            stats.put("activeSegmentRecords", current.getRecords());
+        }
+        stats.put("appended", appended.sum());
+        stats.put("failed", failed.sum());
+        stats.put("oversized", oversized.sum());
+        stats.put("expiredSegments", expired.sum());
+        stats.put("rolled", rolled.sum());
+        stats.put("fsyncs", fsyncs.sum());
+        return stats;
+    }
+
+    private void checkFieldLength(String field, String value) {
+        int length = AuditSegment.utf8Length(value);
+        if (length > AuditSegment.MAX_FIELD_BYTES) {
+            oversized.increment();
+            throw new IllegalArgumentException("Campo " + field + " de auditoría con " + length
+                    + " bytes UTF-8, máximo " + AuditSegment.MAX_FIELD_BYTES);
+        }
+    }
+
+    private void unpin(AuditSegment segment) {
+        try {
+            segment.unpin();
+        } catch (IOException e) {
+            logger.warn("⚠️ Error liberando segmento de auditoría {}: {}", segment.number, e.getMessage());
+        }
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            // Con consultas en curso sobre el segmento, el mapeo se libera cuando la última lo suelta
+            active.seal();
+            active = null;
+            rolled.increment();
+        }
+        long number = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).number + 1;
+        active = AuditSegment.create(baseDirectory, number, segmentBytes, indexIntervalBytes);
+        segments.add(active);
+        logger.info("📝 Nuevo segmento de auditoría {}", number);
+    }
+}
@@ -0,0 +1,27 @@
+package com.claro.ecuador.events.audit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/auditjournal
+ * Segmentos, registros escritos, rotaciones, fsyncs y fallos del journal de auditoría
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "auditjournal")
+public class AuditJournalEndpoint {
+
+    @Autowired
+    private AuditJournal auditJournal;
+
+    @ReadOperation
+    public Map<String, Object> journal() {
+        return auditJournal.stats();
+    }
+}
@@ -0,0 +1,63 @@
+package com.claro.ecuador.events.audit;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registro de auditoría leído del journal
+ *
+ * @author Global HITSS
+ */
+public final class AuditRecord {
+
+    private final long timestamp;
+    private final long eventTimestamp;
+    private final String userId;
+    private final String action;
+    private final String eventId;
+
+    AuditRecord(long timestamp, long eventTimestamp, String userId, String action, String eventId) {
+        this.timestamp = timestamp;
+        this.eventTimestamp = eventTimestamp;
+        this.userId = userId;
+        this.action = action;
+        this.eventId = eventId;
+    }
+
+    /**
+     * Momento en que se registró la auditoría (epoch millis)
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Tiempo del evento original (epoch millis; igual a timestamp si el evento no lo traía)
+     */
+    public long getEventTimestamp() {
+        return eventTimestamp;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("timestamp", Instant.ofEpochMilli(timestamp).toString());
+        map.put("eventTimestamp", Instant.ofEpochMilli(eventTimestamp).toString());
+        map.put("userId", userId);
+        map.put("action", action);
+        map.put("eventId", eventId);
+        return map;
+    }
+}
@@ -0,0 +1,550 @@
+package com.claro.ecuador.events.audit;
+
+import com.claro.ecuador.commons.io.MappedBuffers;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Segmento del journal de auditoría sobre un archivo mapeado en memoria
+ *
+ * Formato de registro (big-endian):
+ * <pre>
+ * int   longitud total (0 = fin de datos)
+ * long  timestamp de registro (monótono)
+ * long  timestamp del evento
+ * int   hash de userId
+ * short + bytes UTF-8  userId
+ * short + bytes UTF-8  action
+ * short + bytes UTF-8  eventId
+ * </pre>
+ *
+ * Índice disperso en memoria (persistido en .idx al sellar el segmento):
+ * - Una entrada (timestamp, posición) cada index-interval-bytes, para saltar al inicio del rango
+ * - Un mapa de bits de hashes de userId, para descartar segmentos sin el usuario
+ *
+ * Solo el segmento activo queda mapeado: al sellarlo se libera el mapeo, el archivo se recorta a los
+ * datos escritos y cada consulta lo mapea en solo lectura mientras lo recorre.
+ *
+ * Una consulta fija el segmento (pin/unpin) mientras lo recorre: sellarlo, cerrarlo o borrarlo con
+ * consultas en curso solo lo marca, y la última consulta en soltarlo libera el mapeo y los archivos.
+ *
+ * @author Global HITSS
+ */
+final class AuditSegment {
+
+    static final int HEADER_BYTES = 4 + 8 + 8 + 4;
+    static final int MAX_FIELD_BYTES = 1024;
+
+    private static final int USER_BITS = 8192;
+    private static final int INDEX_MAGIC = 0x41554458;
+
+    final long number;
+    final long createdAt;
+
+    private final File file;
+    private final File indexFile;
+    private final int capacity;
+    private final int indexIntervalBytes;
+
+    // null una vez sellado
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    private volatile boolean sealed;
+    private volatile int writePosition;
+    private volatile long minTimestamp = Long.MAX_VALUE;
+    private volatile long maxTimestamp = Long.MIN_VALUE;
+    private int records;
+    private boolean dirty;
+
+    // Consultas en curso y liberación diferida hasta que terminen (bajo el monitor del segmento)
+    private int pins;
+    private boolean closed;
+    private boolean releasePending;
+    private int pendingTruncateTo = -1;
+    private boolean deletePending;
+
+    private long[] indexTimestamps = new long[64];
+    private int[] indexPositions = new int[64];
+    private int indexCount;
+    private int lastIndexedPosition = -1;
+    private final long[] userBits = new long[USER_BITS / 64];
+
+    private AuditSegment(File directory, long number, long createdAt, int capacity, int indexIntervalBytes) {
+        this.number = number;
+        this.createdAt = createdAt;
+        this.capacity = capacity;
+        this.indexIntervalBytes = indexIntervalBytes;
+        this.file = new File(directory, String.format("audit-%020d.seg", number));
+        this.indexFile = new File(directory, String.format("audit-%020d.idx", number));
+    }
+
+    private void map() throws IOException {
+        raf = new RandomAccessFile(file, "rw");
+        if (raf.length() < capacity) {
+            raf.setLength(capacity);
+        }
+        channel = raf.getChannel();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    static AuditSegment create(File directory, long number, int capacity, int indexIntervalBytes)
+            throws IOException {
+        AuditSegment segment = new AuditSegment(directory, number, System.currentTimeMillis(), capacity,
+                indexIntervalBytes);
+        segment.map();
+        return segment;
+    }
+
+    /**
+     * Abre un segmento existente: con índice persistido queda sellado (sin mapear); si no, se mapea y
+     * el índice se reconstruye recorriendo los registros
+     */
+    static AuditSegment open(File directory, long number, int capacity, int indexIntervalBytes)
+            throws IOException {
+        File segmentFile = new File(directory, String.format("audit-%020d.seg", number));
+        AuditSegment segment = new AuditSegment(directory, number, segmentFile.lastModified(),
+                (int) Math.max(capacity, segmentFile.length()), indexIntervalBytes);
+        if (segment.loadIndex()) {
+            segment.sealed = true;
+        } else {
+            segment.map();
+            segment.rebuildIndex();
+        }
+        return segment;
+    }
+
+    /**
+     * Agrega un registro sin crear objetos
+     *
+     * @return false si el registro no cabe en el segmento
+     */
+    boolean append(long timestamp, long eventTimestamp, int userHash, String userId, String action, String eventId) {
+        int userLen = utf8Length(userId);
+        int actionLen = utf8Length(action);
+        int eventIdLen = utf8Length(eventId);
+        int length = HEADER_BYTES + 6 + userLen + actionLen + eventIdLen;
+        int position = writePosition;
+        // Se reservan 4 bytes para el marcador de fin
+        if (position + length + 4 > capacity) {
+            return false;
+        }
+
+        buffer.putLong(position + 4, timestamp);
+        buffer.putLong(position + 12, eventTimestamp);
+        buffer.putInt(position + 20, userHash);
+        int cursor = position + HEADER_BYTES;
+        cursor = putString(cursor, userId, userLen);
+        cursor = putString(cursor, action, actionLen);
+        putString(cursor, eventId, eventIdLen);
+        buffer.putInt(position + length, 0);
+        // La longitud se escribe al final: un lector nunca ve un registro a medias
+        buffer.putInt(position, length);
+
+        index(position, timestamp, userHash);
+        writePosition = position + length;
+        dirty = true;
+        return true;
+    }
+
+    boolean mayContain(int userHash, long fromMs, long toMs) {
+        return records > 0 && maxTimestamp >= fromMs && minTimestamp <= toMs && userBit(userHash);
+    }
+
+    /**
+     * Fija el segmento para una consulta
+     *
+     * @return false si ya fue cerrado o borrado (la consulta lo omite)
+     */
+    synchronized boolean pin() {
+        if (closed) {
+            return false;
+        }
+        pins++;
+        return true;
+    }
+
+    /**
+     * Suelta el segmento; la última consulta ejecuta la liberación que quedó pendiente
+     */
+    void unpin() throws IOException {
+        synchronized (this) {
+            if (--pins > 0 || !releasePending) {
+                return;
+            }
+            releasePending = false;
+        }
+        releaseNow(pendingTruncateTo, deletePending);
+    }
+
+    /**
+     * Recorre los registros del usuario en [fromMs, toMs] desde la entrada de índice más cercana,
+     * hasta entregar maxRecords
+     * Un segmento sellado se mapea en solo lectura durante el recorrido. El llamador debe tenerlo fijado.
+     *
+     * @return registros entregados
+     */
+    int scan(int userHash, String userId, long fromMs, long toMs, int maxRecords, Consumer<AuditRecord> consumer)
+            throws IOException {
+        MappedByteBuffer active = buffer;
+        if (active != null && !sealed) {
+            return scan(active.duplicate(), writePosition, userHash, userId, fromMs, toMs, maxRecords, consumer);
+        }
+        int limit = writePosition;
+        if (limit == 0) {
+            return 0;
+        }
+        MappedByteBuffer view;
+        try (FileChannel readChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            view = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, limit);
+        }
+        try {
+            return scan(view, limit, userHash, userId, fromMs, toMs, maxRecords, consumer);
+        } finally {
+            MappedBuffers.unmap(view);
+        }
+    }
+
+    private int scan(ByteBuffer view, int limit, int userHash, String userId, long fromMs, long toMs,
+                     int maxRecords, Consumer<AuditRecord> consumer) {
+        int position = startPosition(fromMs);
+        int delivered = 0;
+
+        while (position < limit && delivered < maxRecords) {
+            int length = view.getInt(position);
+            if (length <= 0) {
+                break;
+            }
+            long timestamp = view.getLong(position + 4);
+            if (timestamp > toMs) {
+                break;
+            }
+            if (timestamp >= fromMs && view.getInt(position + 20) == userHash) {
+                int cursor = position + HEADER_BYTES;
+                String recordUser = getString(view, cursor);
+                cursor += 2 + view.getShort(cursor);
+                if (recordUser.equals(userId)) {
+                    String action = getString(view, cursor);
+                    cursor += 2 + view.getShort(cursor);
+                    String eventId = getString(view, cursor);
+                    consumer.accept(new AuditRecord(timestamp, view.getLong(position + 12), recordUser,
+                            action, eventId));
+                    delivered++;
+                }
+            }
+            position += length;
+        }
+        return delivered;
+    }
+
+    /**
+     * @return true si había escrituras pendientes de forzar a disco
+     */
+    boolean force() {
+        if (!dirty || buffer == null) {
+            return false;
+        }
+        dirty = false;
+        buffer.force();
+        return true;
+    }
+
+    /**
+     * Sella el segmento: fuerza los datos a disco, persiste el índice disperso, libera el mapeo y
+     * recorta el archivo a los datos escritos
+     */
+    void seal() throws IOException {
+        if (sealed) {
+            return;
+        }
+        force();
+        File tmp = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(writePosition);
+            out.writeInt(records);
+            out.writeLong(minTimestamp);
+            out.writeLong(maxTimestamp);
+            out.writeInt(indexCount);
+            for (int i = 0; i < indexCount; i++) {
+                out.writeLong(indexTimestamps[i]);
+                out.writeInt(indexPositions[i]);
+            }
+            for (long bits : userBits) {
+                out.writeLong(bits);
+            }
+        }
+        if (!tmp.renameTo(indexFile)) {
+            throw new IOException("No se pudo publicar el índice " + indexFile);
+        }
+        sealed = true;
+        release(writePosition, false);
+    }
+
+    void close() throws IOException {
+        force();
+        synchronized (this) {
+            closed = true;
+        }
+        release(-1, false);
+    }
+
+    /**
+     * Cierra el segmento y borra sus archivos (al terminar las consultas en curso, si las hay)
+     */
+    void delete() throws IOException {
+        force();
+        synchronized (this) {
+            closed = true;
+        }
+        release(-1, true);
+    }
+
+    /**
+     * Libera ahora o, con consultas en curso, al soltarlo la última
+     */
+    private void release(int truncateTo, boolean delete) throws IOException {
+        synchronized (this) {
+            if (pins > 0) {
+                releasePending = true;
+                // Un cierre posterior al sellado no anula el recorte pendiente
+                pendingTruncateTo = Math.max(pendingTruncateTo, truncateTo);
+                deletePending |= delete;
+                return;
+            }
+        }
+        releaseNow(truncateTo, delete);
+    }
+
+    private void releaseNow(int truncateTo, boolean delete) throws IOException {
+        unmap(truncateTo);
+        if (!delete) {
+            return;
+        }
+        if (!file.delete() && file.exists()) {
+            throw new IOException("No se pudo borrar el segmento " + file);
+        }
+        if (!indexFile.delete() && indexFile.exists()) {
+            throw new IOException("No se pudo borrar el índice " + indexFile);
+        }
+    }
+
+    /**
+     * Libera el mapeo y cierra el archivo
+     *
+     * @param truncateTo longitud final del archivo, o -1 para dejarlo como está
+     */
+    private synchronized void unmap(int truncateTo) throws IOException {
+        if (raf == null) {
+            return;
+        }
+        MappedByteBuffer mapped = buffer;
+        buffer = null;
+        try {
+            // El mapeo se libera antes de recortar: acceder a páginas fuera del archivo termina la JVM
+            MappedBuffers.unmap(mapped);
+            if (truncateTo >= 0) {
+                raf.setLength(truncateTo);
+            }
+        } finally {
+            channel.close();
+            raf.close();
+            channel = null;
+            raf = null;
+        }
+    }
+
+    boolean isEmpty() {
+        return records == 0;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * Espacio en disco: el segmento activo ocupa su capacidad completa
+     */
+    long diskBytes() {
+        return sealed ? writePosition : capacity;
+    }
+
+    int getWritePosition() {
+        return writePosition;
+    }
+
+    int getRecords() {
+        return records;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    private synchronized void index(int position, long timestamp, int userHash) {
+        records++;
+        if (timestamp < minTimestamp) {
+            minTimestamp = timestamp;
+        }
+        if (timestamp > maxTimestamp) {
+            maxTimestamp = timestamp;
+        }
+        setUserBit(userHash);
+        if (lastIndexedPosition < 0 || position - lastIndexedPosition >= indexIntervalBytes) {
+            if (indexCount == indexTimestamps.length) {
+                indexTimestamps = Arrays.copyOf(indexTimestamps, indexCount * 2);
+                indexPositions = Arrays.copyOf(indexPositions, indexCount * 2);
+            }
+            indexTimestamps[indexCount] = timestamp;
+            indexPositions[indexCount] = position;
+            indexCount++;
+            lastIndexedPosition = position;
+        }
+    }
+
+    /**
+     * Última entrada de índice con timestamp menor a fromMs (los timestamps de registro son monótonos)
+     */
+    private synchronized int startPosition(long fromMs) {
+        int low = 0;
+        int high = indexCount - 1;
+        int found = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (indexTimestamps[mid] < fromMs) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return indexCount == 0 ? 0 : indexPositions[found];
+    }
+
+    private boolean loadIndex() throws IOException {
+        if (!indexFile.exists()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                return false;
+            }
+            writePosition = in.readInt();
+            records = in.readInt();
+            minTimestamp = in.readLong();
+            maxTimestamp = in.readLong();
+            indexCount = in.readInt();
+            indexTimestamps = new long[Math.max(64, indexCount)];
+            indexPositions = new int[Math.max(64, indexCount)];
+            for (int i = 0; i < indexCount; i++) {
+                indexTimestamps[i] = in.readLong();
+                indexPositions[i] = in.readInt();
+            }
+            for (int i = 0; i < userBits.length; i++) {
+                userBits[i] = in.readLong();
+            }
+            lastIndexedPosition = indexCount > 0 ? indexPositions[indexCount - 1] : -1;
+            return true;
+        }
+    }
+
+    private void rebuildIndex() {
+        int position = 0;
+        while (position + 4 <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + length > capacity) {
+                break;
+            }
+            index(position, buffer.getLong(position + 4), buffer.getInt(position + 20));
+            position += length;
+        }
+        writePosition = position;
+    }
+
+    private void setUserBit(int userHash) {
+        int first = (userHash & Integer.MAX_VALUE) % USER_BITS;
+        int second = ((userHash >>> 13) * 0x9E3779B1 & Integer.MAX_VALUE) % USER_BITS;
+        userBits[first >>> 6] |= 1L << first;
+        userBits[second >>> 6] |= 1L << second;
+    }
+
+    private boolean userBit(int userHash) {
+        int first = (userHash & Integer.MAX_VALUE) % USER_BITS;
+        int second = ((userHash >>> 13) * 0x9E3779B1 & Integer.MAX_VALUE) % USER_BITS;
+        return (userBits[first >>> 6] & (1L << first)) != 0 && (userBits[second >>> 6] & (1L << second)) != 0;
+    }
+
+    private int putString(int position, String value, int encodedLength) {
+        buffer.putShort(position, (short) encodedLength);
+        int cursor = position + 2;
+        int end = cursor + encodedLength;
+        for (int i = 0; i < value.length() && cursor < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put(cursor++, (byte) c);
+            } else if (c < 0x800) {
+                buffer.put(cursor++, (byte) (0xC0 | (c >> 6)));
+                buffer.put(cursor++, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put(cursor++, (byte) (0xF0 | (codePoint >> 18)));
+                buffer.put(cursor++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put(cursor++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put(cursor++, (byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                buffer.put(cursor++, (byte) (0xE0 | (c >> 12)));
+                buffer.put(cursor++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put(cursor++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Bytes UTF-8 del valor (AuditJournal rechaza los que superan MAX_FIELD_BYTES)
+     */
+    static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            int size;
+            if (c < 0x80) {
+                size = 1;
+            } else if (c < 0x800) {
+                size = 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()) {
+                size = 4;
+                i++;
+            } else {
+                size = 3;
+            }
+            length += size;
+        }
+        return length;
+    }
+
+    private static String getString(ByteBuffer view, int position) {
+        int length = view.getShort(position);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = view.get(position + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
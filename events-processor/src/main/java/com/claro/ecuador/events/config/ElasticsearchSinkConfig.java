@@ -0,0 +1,59 @@
+package com.claro.ecuador.events.config;
+
+import com.claro.ecuador.commons.sink.ElasticsearchBulkSink;
+import com.claro.ecuador.commons.sink.ElasticsearchSinkEndpoint;
+import com.claro.ecuador.commons.sink.ElasticsearchSinkProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Sinks _bulk compartidos (pipeline-commons) de events-processor
+ * - General (primario): events-processor.elasticsearch, índices transforma-ecuador-general-YYYY.MM.dd;
+ *   estado en /actuator/elasticsearchsink
+ * - Rollups de métricas: events-processor.metrics.elasticsearch, índices transforma-ecuador-metrics-YYYY.MM.dd;
+ *   se habilita por separado porque Events ya se indexa vía Logstash pero los rollups solo salen de aquí.
+ *   Estado en /actuator/metricrollups
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class ElasticsearchSinkConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties(prefix = "events-processor.elasticsearch")
+    public ElasticsearchSinkProperties elasticsearchSinkProperties() {
+        return new ElasticsearchSinkProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "events-processor.metrics.elasticsearch")
+    public ElasticsearchSinkProperties metricsSinkProperties() {
+        return new ElasticsearchSinkProperties();
+    }
+
+    @Bean
+    @Primary
+    public ElasticsearchBulkSink elasticsearchBulkSink(@Qualifier("elasticsearchSinkProperties") ElasticsearchSinkProperties elasticsearchSinkProperties,
+                                                       @Value("${spring.elasticsearch.rest.uris:http://elasticsearch:9200}") String elasticsearchUrl,
+                                                       ObjectMapper objectMapper) {
+        return new ElasticsearchBulkSink(elasticsearchSinkProperties, elasticsearchUrl, objectMapper);
+    }
+
+    @Bean
+    public ElasticsearchBulkSink metricsBulkSink(@Qualifier("metricsSinkProperties") ElasticsearchSinkProperties metricsSinkProperties,
+                                                 @Value("${spring.elasticsearch.rest.uris:http://elasticsearch:9200}") String elasticsearchUrl,
+                                                 ObjectMapper objectMapper) {
+        return new ElasticsearchBulkSink(metricsSinkProperties, elasticsearchUrl, objectMapper);
+    }
+
+    @Bean
+    public ElasticsearchSinkEndpoint elasticsearchSinkEndpoint(ElasticsearchBulkSink elasticsearchBulkSink) {
+        return new ElasticsearchSinkEndpoint(elasticsearchBulkSink);
+    }
+}
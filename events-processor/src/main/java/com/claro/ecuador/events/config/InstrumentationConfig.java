@@ -0,0 +1,29 @@
+package com.claro.ecuador.events.config;
+
+import com.claro.ecuador.commons.instrumentation.InstrumentationProperties;
+import com.claro.ecuador.commons.instrumentation.PipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas del pipeline compartidas (pipeline-commons) con la configuración de events-processor.instrumentation
+ * Etapas parse, dispatch, handler y store por tipo de evento; series en /actuator/prometheus
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class InstrumentationConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "events-processor.instrumentation")
+    public InstrumentationProperties instrumentationProperties() {
+        return new InstrumentationProperties();
+    }
+
+    @Bean
+    public PipelineMetrics pipelineMetrics(InstrumentationProperties instrumentationProperties, MeterRegistry meterRegistry) {
+        return new PipelineMetrics(instrumentationProperties, meterRegistry);
+    }
+}
@@ -0,0 +1,108 @@
+package com.claro.ecuador.events.config;
+
+import com.claro.ecuador.events.ordering.OffsetWatermarkTracker;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.SeekToCurrentBatchErrorHandler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configuración del modo batch para el topic Events
+ * Un poll entrega una lista de registros y el commit de offsets se hace una vez por lote
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class KafkaBatchConfig {
+
+    @Value("${events-processor.batch.concurrency:3}")
+    private int concurrency;
+
+    @Value("${events-processor.batch.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${events-processor.batch.max-latency-ms:200}")
+    private int maxLatencyMs;
+
+    @Value("${events-processor.batch.fetch-min-bytes:16384}")
+    private int fetchMinBytes;
+
+    @Value("${events-processor.batch.workers:6}")
+    private int workers;
+
+    @Value("${events-processor.batch.ordering:partition}")
+    private String ordering;
+
+    @Value("${events-processor.batch.key-ordered.commit-interval-ms:1000}")
+    private long keyOrderedCommitIntervalMs;
+
+    /**
+     * Consumer factory dedicado al modo batch (no se expone como bean para no
+     * reemplazar el consumer factory auto-configurado del listener por registro)
+     * Desactiva el auto-commit para que el contenedor haga commit por lote
+     */
+    private ConsumerFactory<Object, Object> batchConsumerFactory(KafkaProperties kafkaProperties) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties();
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        // Latencia máxima de armado del lote en el broker
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, maxLatencyMs);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    /**
+     * Container factory para listeners batch (List<ConsumerRecord>)
+     * Un hilo de consumo por cada unidad de concurrencia.
+     * - ordering=partition: commit del contenedor una vez por lote; un lote que falla (un reintento
+     *   sin confirmar) no se confirma y se vuelve a leer desde el primer registro de cada partición
+     * - ordering=key: el contenedor no hace commit; el listener confirma las marcas de agua
+     *   de completitud contigua (también en cada evento idle y antes de un rebalanceo)
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            KafkaProperties kafkaProperties, OffsetWatermarkTracker offsetWatermarkTracker) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory(kafkaProperties));
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setPollTimeout(maxLatencyMs);
+        if ("key".equalsIgnoreCase(ordering)) {
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setConsumerRebalanceListener(offsetWatermarkTracker);
+            factory.getContainerProperties().setIdleEventInterval(keyOrderedCommitIntervalMs);
+        } else {
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+            factory.getContainerProperties().setAckOnError(false);
+            factory.setBatchErrorHandler(new SeekToCurrentBatchErrorHandler());
+        }
+        return factory;
+    }
+
+    /**
+     * Workers que procesan en paralelo las porciones de cada partición dentro de un lote
+     */
+    @Bean
+    public ThreadPoolTaskExecutor eventsBatchWorkers() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * concurrency);
+        executor.setThreadNamePrefix("events-batch-");
+        // Si todos los workers están ocupados, el hilo de consumo procesa la porción
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,32 @@
+package com.claro.ecuador.events.config;
+
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.SeekToCurrentErrorHandler;
+
+/**
+ * Configuración del listener por registro del topic Events
+ * Mantiene la configuración de Spring Boot y agrega el manejo de errores: un registro cuyo
+ * reintento no se confirmó no se confirma (ackOnError=false) y se vuelve a leer desde ese offset
+ * sin límite de intentos.
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> kafkaConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, kafkaConsumerFactory);
+        factory.getContainerProperties().setAckOnError(false);
+        factory.setErrorHandler(new SeekToCurrentErrorHandler(-1));
+        return factory;
+    }
+}
@@ -0,0 +1,44 @@
+package com.claro.ecuador.events.config;
+
+import com.claro.ecuador.events.retry.RetryProperties;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.Map;
+
+/**
+ * Configuración del listener de los topics de reintento
+ * - Commit inmediato por registro (MANUAL_IMMEDIATE): un registro que aún no vence no se confirma
+ * - Lotes de poll pequeños, porque una partición en espera se pausa y se vuelve a leer al vencer
+ * - Evento idle periódico para reanudar las particiones pausadas aunque no lleguen registros
+ *
+ * @author Global HITSS
+ */
+@Configuration
+public class KafkaRetryConfig {
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> retryKafkaListenerContainerFactory(
+            KafkaProperties kafkaProperties, RetryProperties retryProperties) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties();
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, retryProperties.getMaxPollRecords());
+        // Los reintentos pendientes ya publicados deben procesarse aunque el grupo sea nuevo
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setConcurrency(retryProperties.getConcurrency());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        // Con todas las particiones en espera el poll dura pollTimeout: no debe superar el intervalo idle
+        factory.getContainerProperties().setPollTimeout(retryProperties.getIdleCheckMs());
+        factory.getContainerProperties().setIdleEventInterval(retryProperties.getIdleCheckMs());
+        return factory;
+    }
+}
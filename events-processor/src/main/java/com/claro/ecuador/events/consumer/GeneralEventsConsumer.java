@@ -1,16 +1,47 @@
 package com.claro.ecuador.events.consumer;
 
+import com.claro.ecuador.commons.instrumentation.PipelineMetrics;
+import com.claro.ecuador.commons.sink.ElasticsearchBulkSink;
+import com.claro.ecuador.events.dedup.EventDeduplicator;
+import com.claro.ecuador.events.handler.EventHandlerRegistry.AsyncFailureHandler;
+import com.claro.ecuador.events.handler.EventHandlerRegistry;
+import com.claro.ecuador.events.handler.SystemMetricEventHandler;
+import com.claro.ecuador.events.metrics.MetricRollupEngine;
+import com.claro.ecuador.events.ordering.KeyOrderedDispatcher;
+import com.claro.ecuador.events.ordering.OffsetTicket;
+import com.claro.ecuador.events.ordering.OffsetWatermarkTracker;
+import com.claro.ecuador.events.parsing.EventHeader;
+import com.claro.ecuador.events.parsing.EventHeaderExtractor;
+import com.claro.ecuador.events.parsing.LazyEventPayload;
+import com.claro.ecuador.events.retry.RetryHeaders;
+import com.claro.ecuador.events.retry.RetryPublisher;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Consumer específico para topic: Events
@@ -26,211 +57,383 @@ public class GeneralEventsConsumer {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EventHeaderExtractor eventHeaderExtractor;
+
+    @Autowired
+    private EventDeduplicator eventDeduplicator;
+
+    @Autowired
+    private EventHandlerRegistry eventHandlerRegistry;
+
+    @Autowired
+    private ElasticsearchBulkSink elasticsearchBulkSink;
+
+    @Autowired
+    private ThreadPoolTaskExecutor eventsBatchWorkers;
+
+    @Autowired
+    private KeyOrderedDispatcher keyOrderedDispatcher;
+
+    @Autowired
+    private OffsetWatermarkTracker offsetWatermarkTracker;
+
+    @Autowired
+    private RetryPublisher retryPublisher;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Autowired
+    private MetricRollupEngine metricRollupEngine;
+
+    @Value("#{'${events-processor.batch.key-ordered.key-fields:customerId,orderId}'.split(',')}")
+    private String[] keyFields;
+
     /**
      * Consumer exclusivo para topic Events
      * Propósito: Procesar eventos generales del sistema (JSON genérico)
+     * Activo solo cuando el modo batch está deshabilitado
+     * Un evento fallido se confirma recién cuando su reintento quedó publicado, y uno de tipo aislado
+     * cuando su handler terminó; si no se confirma a tiempo el listener falla y el error handler del
+     * contenedor lo vuelve a leer
      */
-    @KafkaListener(topics = "Events", groupId = "events-processor-group")
-    public void consumeGeneralEvents(@Payload String message,
+    @KafkaListener(topics = "Events", groupId = "events-processor-group",
+                   autoStartup = "#{!${events-processor.batch.enabled:false}}")
+    public void consumeGeneralEvents(@Payload byte[] message,
                                    @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
                                    @Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                                   @Header(KafkaHeaders.OFFSET) long offset) {
-        try {
-            logger.info("📊 EVENTS PROCESSOR - Recibido evento general en topic: {}, partition: {}, offset: {}",
-                       topic, partition, offset);
-            logger.debug("Mensaje: {}", message);
+                                   @Header(KafkaHeaders.OFFSET) long offset,
+                                   @Header(name = RetryHeaders.DLQ_ATTEMPT, required = false) byte[] dlqAttempt) {
+        awaitSettled(processRecord(message, topic, partition, offset, (int) RetryHeaders.parse(dlqAttempt, 0L)),
+                message, partition, offset);
+    }
 
-            // Procesamiento específico para eventos generales
-            processGeneralEvent(message);
+    /**
+     * Consumer batch para topic Events (opt-in con events-processor.batch.enabled)
+     * Cada partición del lote se procesa en su propio worker, preservando el orden
+     * dentro de la partición. El commit de offsets se hace una vez por lote.
+     */
+    @KafkaListener(id = "generalEventsBatch", topics = "Events", groupId = "events-processor-group",
+                   containerFactory = "batchKafkaListenerContainerFactory",
+                   autoStartup = "${events-processor.batch.enabled:false}")
+    public void consumeGeneralEventsBatch(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        if (keyOrderedDispatcher.isEnabled()) {
+            dispatchKeyOrdered(records, consumer);
+            return;
+        }
 
-            logger.info("✅ EVENTS PROCESSOR - Evento general procesado exitosamente - Offset: {}", offset);
+        Map<Integer, List<ConsumerRecord<String, byte[]>>> slices = new LinkedHashMap<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            slices.computeIfAbsent(record.partition(), p -> new ArrayList<>()).add(record);
+        }
 
-        } catch (Exception e) {
-            logger.error("❌ EVENTS PROCESSOR - Error procesando evento general en topic {}: {}",
-                        topic, e.getMessage(), e);
+        logger.info("📦 EVENTS PROCESSOR - Lote recibido: {} registros en {} particiones",
+                   records.size(), slices.size());
 
-            // Manejo de errores específico para eventos generales
-            handleGeneralEventError(message, topic, e);
+        if (slices.size() == 1) {
+            processSlice(records);
+        } else {
+            List<Future<?>> pending = new ArrayList<>(slices.size());
+            for (List<ConsumerRecord<String, byte[]>> slice : slices.values()) {
+                pending.add(eventsBatchWorkers.submit(() -> processSlice(slice)));
+            }
+            awaitSlices(pending);
         }
+
+        logger.info("✅ EVENTS PROCESSOR - Lote procesado: {} registros", records.size());
     }
 
     /**
-     * Lógica específica para eventos generales
+     * Modo key-ordered: reparte los registros por clave de negocio entre los lanes,
+     * sin esperar a que terminen, y confirma las marcas de agua que ya avanzaron
+     * Una partición que sigue en el máximo pendiente, o cuyo lane sigue lleno, se pausa desde su
+     * primer registro sin despachar y el resto del lote continúa.
      */
-    private void processGeneralEvent(String message) throws Exception {
-        try {
-            logger.info("🔧 Procesando evento general del sistema");
-
-            // Parsear como JSON genérico
-            Map<String, Object> eventData = objectMapper.readValue(message, Map.class);
-
-            // Extraer campos comunes de eventos generales
-            String eventId = extractEventId(eventData);
-            String eventType = extractEventType(eventData);
-            String source = extractSource(eventData);
-
-            logger.info("📋 Evento general - ID: {}, Tipo: {}, Fuente: {}", eventId, eventType, source);
-
-            // Procesamiento específico según tipo de evento general
-            switch (eventType.toUpperCase()) {
-                case "SYSTEM_ALERT":
-                    processSystemAlert(eventData);
-                    break;
-                case "USER_ACTION":
-                    processUserAction(eventData);
-                    break;
-                case "SYSTEM_METRIC":
-                    processSystemMetric(eventData);
-                    break;
-                case "NOTIFICATION":
-                    processNotification(eventData);
-                    break;
-                default:
-                    processUnknownEvent(eventData);
+    private void dispatchKeyOrdered(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        Map<TopicPartition, Long> firstUndispatched = new HashMap<>();
+        TopicPartition partition = null;
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (partition == null || partition.partition() != record.partition()
+                    || !partition.topic().equals(record.topic())) {
+                partition = new TopicPartition(record.topic(), record.partition());
             }
+            if (firstUndispatched.containsKey(partition)) {
+                // Se vuelve a leer al reanudar la partición
+                continue;
+            }
+            TopicPartition recordPartition = partition;
+            OffsetTicket ticket;
+            try {
+                ticket = offsetWatermarkTracker.track(recordPartition, record.offset());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Despacho key-ordered interrumpido", e);
+            }
+            if (ticket == null) {
+                firstUndispatched.put(recordPartition, record.offset());
+                continue;
+            }
+            // El ticket se completa cuando el evento quedó procesado o su reintento publicado; si la
+            // publicación se abandona al detener, la marca de agua no lo supera y se vuelve a leer
+            boolean dispatched = keyOrderedDispatcher.dispatch(businessKey(record), () ->
+                    processRecord(record.value(), record.topic(), record.partition(), record.offset(), dlqAttempt(record))
+                            .thenRun(ticket::complete));
+            if (!dispatched) {
+                // Lane lleno: mismo tratamiento que una partición en el máximo pendiente
+                offsetWatermarkTracker.cancel(ticket);
+                firstUndispatched.put(recordPartition, record.offset());
+            }
+        }
 
-            // Enviar a almacenamiento genérico
-            storeGeneralEvent(eventData);
-
-        } catch (Exception e) {
-            logger.error("Error en procesamiento de evento general: {}", e.getMessage());
-            throw e;
+        logger.info("🔀 EVENTS PROCESSOR - Lote despachado por clave: {} registros", records.size());
+        if (!firstUndispatched.isEmpty()) {
+            offsetWatermarkTracker.pause(consumer, firstUndispatched);
         }
+        offsetWatermarkTracker.commit(consumer);
+        offsetWatermarkTracker.resumeDrained(consumer);
     }
 
     /**
-     * Procesar alertas del sistema
+     * Commit de marcas de agua cuando el consumidor no recibe registros (modo key-ordered)
      */
-    private void processSystemAlert(Map<String, Object> eventData) {
-        logger.info("🚨 Procesando alerta del sistema");
-
-        String severity = (String) eventData.getOrDefault("severity", "INFO");
-        String message = (String) eventData.getOrDefault("message", "Sin mensaje");
+    @EventListener(condition = "event.listenerId.startsWith('generalEventsBatch')")
+    public void onBatchContainerIdle(ListenerContainerIdleEvent event) {
+        if (keyOrderedDispatcher.isEnabled()) {
+            offsetWatermarkTracker.commit(event.getConsumer());
+            offsetWatermarkTracker.resumeDrained(event.getConsumer());
+        }
+    }
 
-        logger.info("Alerta - Severidad: {}, Mensaje: {}", severity, message);
+    /**
+     * Clave de negocio para el orden: primer campo configurado presente en el evento,
+     * luego la key del registro y, en último caso, la partición (orden por partición)
+     */
+    private String businessKey(ConsumerRecord<String, byte[]> record) {
+        try {
+            String key = eventHeaderExtractor.extractFirstField(record.value(), keyFields);
+            if (key != null) {
+                return key;
+            }
+        } catch (IOException e) {
+            // JSON inválido: el error se reporta al procesar el registro
+        }
+        return record.key() != null ? record.key() : Integer.toString(record.partition());
+    }
 
-        if ("CRITICAL".equals(severity) || "ERROR".equals(severity)) {
-            triggerCriticalAlert(eventData);
+    /**
+     * Procesa en orden los registros de una misma partición
+     * Un reintento sin confirmar corta la porción: el lote falla y se vuelve a leer
+     */
+    private void processSlice(List<ConsumerRecord<String, byte[]>> slice) {
+        for (ConsumerRecord<String, byte[]> record : slice) {
+            awaitSettled(processRecord(record.value(), record.topic(), record.partition(), record.offset(),
+                    dlqAttempt(record)), record.value(), record.partition(), record.offset());
         }
     }
 
     /**
-     * Procesar acciones de usuario
+     * Espera a que terminen todas las porciones del lote antes de permitir el commit
+     * Aunque una falle se espera al resto, para no releer porciones que siguen en curso
      */
-    private void processUserAction(Map<String, Object> eventData) {
-        logger.info("👤 Procesando acción de usuario");
+    private void awaitSlices(List<Future<?>> pending) {
+        RuntimeException failure = null;
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Procesamiento de lote interrumpido", e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = new IllegalStateException("Falla en worker de lote", e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
 
-        String userId = (String) eventData.getOrDefault("userId", "unknown");
-        String action = (String) eventData.getOrDefault("action", "unknown");
+    /**
+     * Espera acotada a que el registro quede resuelto (procesado o con su reintento publicado)
+     * Si no se confirma, la clave se olvida en el deduplicador para que la relectura no se descarte
+     */
+    private void awaitSettled(CompletableFuture<Void> settled, byte[] message, int partition, long offset) {
+        if (retryPublisher.await(settled)) {
+            return;
+        }
+        try {
+            eventDeduplicator.forget(eventHeaderExtractor.extractDedupKey(message));
+        } catch (IOException e) {
+            // JSON inválido: nunca se registró en el deduplicador
+        }
+        throw new IllegalStateException("Reintento sin confirmar - Partition: " + partition + ", Offset: " + offset);
+    }
 
-        logger.info("Acción - Usuario: {}, Acción: {}", userId, action);
+    /**
+     * Reprocesar un evento recibido desde un topic de reintento
+     *
+     * @param attempt número de reintento (1 = primero)
+     * @return false si el siguiente reintento no se confirmó a tiempo (el registro no se debe confirmar)
+     */
+    boolean processRetry(byte[] message, String topic, int partition, long offset, String originalTopic, int attempt,
+                         int dlqAttempt) {
+        logger.debug("🔁 EVENTS PROCESSOR - Reintento {} de evento de {}", attempt, originalTopic);
+        return retryPublisher.await(processRecord(message, topic, partition, offset, originalTopic, attempt, dlqAttempt));
+    }
 
-        // Auditoría de acciones de usuario
-        auditUserAction(eventData);
+    /**
+     * Procesamiento de un registro individual, común a los modos por registro y batch
+     */
+    private CompletableFuture<Void> processRecord(byte[] message, String topic, int partition, long offset,
+                                                  int dlqAttempt) {
+        return processRecord(message, topic, partition, offset, topic, 0, dlqAttempt);
     }
 
     /**
-     * Procesar métricas del sistema
+     * @param attempt    reintento dentro de events-processor (0 = consumo original)
+     * @param dlqAttempt reintento programado por errors-handler (0 = evento nuevo)
+     * @return futuro completado cuando el evento quedó procesado o su reintento publicado
      */
-    private void processSystemMetric(Map<String, Object> eventData) {
-        logger.info("📊 Procesando métrica del sistema");
+    private CompletableFuture<Void> processRecord(byte[] message, String topic, int partition, long offset,
+                                                  String originalTopic, int attempt, int dlqAttempt) {
+        try {
+            logger.debug("📊 EVENTS PROCESSOR - Recibido evento general en topic: {}, partition: {}, offset: {}",
+                       topic, partition, offset);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Mensaje: {}", new String(message, StandardCharsets.UTF_8));
+            }
+
+            // Descartar redeliveries antes de parsear algo más que ID, tipo y fuente
+            // (un reintento ya fue registrado por el deduplicador en su primer intento)
+            if (attempt == 0 && dlqAttempt == 0 && eventDeduplicator.isDuplicate(eventHeaderExtractor.extractDedupKey(message))) {
+                logger.debug("♻️ EVENTS PROCESSOR - Evento duplicado descartado - Offset: {}", offset);
+                pipelineMetrics.recordOutcome(originalTopic, null, PipelineMetrics.OUTCOME_DUPLICATE);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            // Procesamiento específico para eventos generales; las fallas de handlers aislados y del
+            // trabajo diferido de un handler también pasan al pipeline de reintentos
+            CompletableFuture<Void> handled = processGeneralEvent(message,
+                    error -> handleGeneralEventError(message, originalTopic, attempt, dlqAttempt, error));
 
-        String metricName = (String) eventData.getOrDefault("metricName", "unknown");
-        Object value = eventData.getOrDefault("value", 0);
+            logger.debug("✅ EVENTS PROCESSOR - Evento general procesado exitosamente - Offset: {}", offset);
+            // Un handler aislado resuelve el registro cuando termina (o cuando su reintento quedó publicado)
+            return handled.handle((ignored, error) -> error == null
+                    ? CompletableFuture.<Void>completedFuture(null)
+                    : handleIsolatedFailure(message, originalTopic, attempt, dlqAttempt, error))
+                    .thenCompose(settled -> settled);
 
-        logger.info("Métrica - Nombre: {}, Valor: {}", metricName, value);
+        } catch (Exception e) {
+            logger.error("❌ EVENTS PROCESSOR - Error procesando evento general en topic {}: {}",
+                        topic, e.getMessage(), e);
+            pipelineMetrics.recordOutcome(originalTopic, null, PipelineMetrics.OUTCOME_FAILED);
 
-        // Almacenar métrica para análisis
-        storeMetric(eventData);
+            // Manejo de errores específico para eventos generales
+            return handleGeneralEventError(message, originalTopic, attempt, dlqAttempt, e);
+        }
     }
 
     /**
-     * Procesar notificaciones
+     * Lógica específica para eventos generales
+     * Visible en el paquete: es el punto de entrada que mide el módulo benchmarks
+     *
+     * @return futuro completado cuando terminó el handler del tipo (inmediato salvo en executors aislados)
      */
-    private void processNotification(Map<String, Object> eventData) {
-        logger.info("📢 Procesando notificación");
-
-        String recipient = (String) eventData.getOrDefault("recipient", "unknown");
-        String channel = (String) eventData.getOrDefault("channel", "email");
+    CompletableFuture<Void> processGeneralEvent(byte[] message, AsyncFailureHandler asyncFailureHandler)
+            throws Exception {
+        try {
+            logger.debug("🔧 Procesando evento general del sistema");
+
+            // Extraer solo los campos de ruteo por streaming; el resto (incluido el JSON
+            // anidado en eventData) se decodifica bajo demanda desde los bytes originales
+            long stageStart = pipelineMetrics.start();
+            EventHeader header = eventHeaderExtractor.extract(message);
+            LazyEventPayload eventData = new LazyEventPayload(message, header, objectMapper);
+
+            String eventId = header.getEventId();
+            String eventType = header.getEventType();
+            String source = header.getSource();
+            pipelineMetrics.recordStage(PipelineMetrics.STAGE_PARSE, PipelineMetrics.EVENTS_TOPIC, eventType, stageStart);
+            pipelineMetrics.recordLag(PipelineMetrics.EVENTS_TOPIC, eventType, header.getTimestamp());
+
+            logger.debug("📋 Evento general - ID: {}, Tipo: {}, Fuente: {}", eventId, eventType, source);
+
+            // Procesamiento específico según tipo de evento general (handler registrado por tipo)
+            stageStart = pipelineMetrics.start();
+            CompletableFuture<Void> handled = eventHandlerRegistry.dispatch(eventType, eventData, asyncFailureHandler);
+            if (handled == null) {
+                processUnknownEvent(eventData);
+                handled = CompletableFuture.completedFuture(null);
+            }
+            pipelineMetrics.recordStage(PipelineMetrics.STAGE_DISPATCH, PipelineMetrics.EVENTS_TOPIC, eventType, stageStart);
 
-        logger.info("Notificación - Destinatario: {}, Canal: {}", recipient, channel);
+            // Enviar a almacenamiento genérico (solo usa header y bytes originales,
+            // seguro aunque el handler se ejecute en su propio executor)
+            stageStart = pipelineMetrics.start();
+            storeGeneralEvent(eventData);
+            pipelineMetrics.recordStage(PipelineMetrics.STAGE_STORE, PipelineMetrics.EVENTS_TOPIC, eventType, stageStart);
+            pipelineMetrics.recordOutcome(PipelineMetrics.EVENTS_TOPIC, eventType, PipelineMetrics.OUTCOME_PROCESSED);
+            return handled;
 
-        // Enviar notificación
-        sendNotification(eventData);
+        } catch (Exception e) {
+            logger.error("Error en procesamiento de evento general: {}", e.getMessage());
+            throw e;
+        }
     }
 
     /**
      * Procesar eventos desconocidos
      */
-    private void processUnknownEvent(Map<String, Object> eventData) {
+    private void processUnknownEvent(LazyEventPayload eventData) {
         logger.warn("❓ Tipo de evento general no reconocido, aplicando procesamiento genérico");
 
         // Procesamiento genérico para eventos no clasificados
         applyGenericProcessing(eventData);
     }
 
-    // Métodos auxiliares para extracción de campos
-    private String extractEventId(Map<String, Object> eventData) {
-        Object id = eventData.get("eventId");
-        if (id == null) id = eventData.get("id");
-        if (id == null) id = eventData.get("Id");
-        return id != null ? id.toString() : "unknown-" + System.currentTimeMillis();
-    }
-
-    private String extractEventType(Map<String, Object> eventData) {
-        Object type = eventData.get("eventType");
-        if (type == null) type = eventData.get("type");
-        if (type == null) type = eventData.get("Type");
-        return type != null ? type.toString() : "UNKNOWN_EVENT";
-    }
-
-    private String extractSource(Map<String, Object> eventData) {
-        Object source = eventData.get("source");
-        if (source == null) source = eventData.get("origin");
-        return source != null ? source.toString() : "UNKNOWN_SOURCE";
-    }
-
     // Métodos de procesamiento específico
-    private void triggerCriticalAlert(Map<String, Object> eventData) {
-        logger.error("🚨 ALERTA CRÍTICA ACTIVADA: {}", eventData);
-        // Integración con sistema de alertas
-    }
-
-    private void auditUserAction(Map<String, Object> eventData) {
-        logger.info("📝 Registrando auditoría de acción de usuario");
-        // Guardar en auditoría
-    }
-
-    private void storeMetric(Map<String, Object> eventData) {
-        logger.info("💾 Almacenando métrica del sistema");
-        // Enviar a sistema de métricas
-    }
-
-    private void sendNotification(Map<String, Object> eventData) {
-        logger.info("📧 Enviando notificación");
-        // Integración con sistema de notificaciones
-    }
-
-    private void applyGenericProcessing(Map<String, Object> eventData) {
-        logger.info("🔄 Aplicando procesamiento genérico");
+    private void applyGenericProcessing(LazyEventPayload eventData) {
+        logger.debug("🔄 Aplicando procesamiento genérico");
         // Transformaciones genéricas
     }
 
-    private void storeGeneralEvent(Map<String, Object> eventData) {
-        logger.info("💾 Almacenando evento general");
-        // Guardar en Elasticsearch con índice específico para eventos generales
+    private void storeGeneralEvent(LazyEventPayload eventData) {
+        if (metricRollupEngine.isEnabled()
+                && SystemMetricEventHandler.EVENT_TYPE.equalsIgnoreCase(eventData.getHeader().getEventType())) {
+            // Con rollups habilitados la métrica solo se almacena agregada (índice metrics)
+            return;
+        }
+        logger.debug("💾 Almacenando evento general");
+        // Guardar en Elasticsearch con índice específico para eventos generales; como en el camino de
+        // Logstash el día del índice es el de ingesta (el evento no trae @timestamp)
+        elasticsearchBulkSink.index("general", eventData.getRaw());
     }
 
     /**
      * Manejo de errores específico para eventos generales
+     * El evento pasa al siguiente topic de reintento (Events.retry.*) y, agotados los niveles,
+     * a errors.events; la partición de origen avanza cuando el broker confirma la publicación.
      */
-    private void handleGeneralEventError(String message, String topic, Exception error) {
+    private CompletableFuture<Void> handleGeneralEventError(byte[] message, String originalTopic, int attempt,
+                                                            int dlqAttempt, Exception error) {
         logger.error("🚨 Error específico en EVENTS PROCESSOR: {}", error.getMessage());
 
-        // Lógica de error específica para eventos generales:
-        // 1. Clasificar tipo de error
-        // 2. Aplicar reintentos específicos
-        // 3. Enviar a DLQ si es necesario
-        // 4. Generar métricas de error para eventos generales
+        return retryPublisher.publishFailure(message, originalTopic, attempt, dlqAttempt, error);
+    }
+
+    /**
+     * Falla de un handler en su executor aislado: mismo camino de reintentos que una falla síncrona
+     */
+    private CompletableFuture<Void> handleIsolatedFailure(byte[] message, String originalTopic, int attempt,
+                                                          int dlqAttempt, Throwable error) {
+        pipelineMetrics.recordOutcome(originalTopic, null, PipelineMetrics.OUTCOME_FAILED);
+        Exception cause = error instanceof Exception ? (Exception) error : new IllegalStateException(error);
+        return handleGeneralEventError(message, originalTopic, attempt, dlqAttempt, cause);
+    }
+
+    private static int dlqAttempt(ConsumerRecord<String, byte[]> record) {
+        return (int) RetryHeaders.longValue(record.headers(), RetryHeaders.DLQ_ATTEMPT, 0L);
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.claro.ecuador.events.consumer;
+
+import com.claro.ecuador.events.retry.RetryHeaders;
+import com.claro.ecuador.events.retry.RetryProperties;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Consumer de los topics de reintento (Events.retry.*)
+ * Un registro que aún no vence no se procesa ni se confirma: su partición se pausa y se
+ * reposiciona en ese offset, sin bloquear el hilo de consumo. La partición se reanuda cuando
+ * vence (al recibir otro registro o en el evento idle del contenedor). Los registros de un
+ * mismo topic vencen en orden de publicación, por lo que basta esperar al primero.
+ * Un reintento que vuelve a fallar se confirma recién cuando el siguiente nivel quedó publicado;
+ * si no se confirma a tiempo la partición se pausa en ese offset y se relee tras publish-backoff-ms.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class RetryEventsConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryEventsConsumer.class);
+
+    @Autowired
+    private GeneralEventsConsumer generalEventsConsumer;
+
+    @Autowired
+    private RetryProperties retryProperties;
+
+    /**
+     * Particiones en espera: offset desde el que se releen y momento en que vencen
+     */
+    private final Map<TopicPartition, long[]> parked = new ConcurrentHashMap<>();
+
+    @KafkaListener(id = "eventsRetry", topics = "#{retryPolicy.topics()}", groupId = "events-processor-retry-group",
+                   containerFactory = "retryKafkaListenerContainerFactory",
+                   autoStartup = "${events-processor.retry.enabled:true}")
+    public void consumeRetry(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment,
+                             Consumer<?, ?> consumer) {
+        resumeDue(consumer);
+
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        long[] waiting = parked.get(partition);
+        if (waiting != null) {
+            // Registro posterior del mismo poll (o relectura antes de vencer): volver al offset en espera
+            consumer.seek(partition, waiting[0]);
+            consumer.pause(Collections.singleton(partition));
+            return;
+        }
+
+        long dueAt = RetryHeaders.longValue(record.headers(), RetryHeaders.DUE_AT, 0L);
+        if (dueAt > System.currentTimeMillis()) {
+            parked.put(partition, new long[]{record.offset(), dueAt});
+            consumer.seek(partition, record.offset());
+            consumer.pause(Collections.singleton(partition));
+            logger.debug("⏳ Reintento en {} vence en {} ms", partition, dueAt - System.currentTimeMillis());
+            return;
+        }
+
+        int attempt = (int) RetryHeaders.longValue(record.headers(), RetryHeaders.ATTEMPT, 1L);
+        int dlqAttempt = (int) RetryHeaders.longValue(record.headers(), RetryHeaders.DLQ_ATTEMPT, 0L);
+        String originalTopic = stringHeader(record, RetryHeaders.ORIGINAL_TOPIC, "Events");
+        if (!generalEventsConsumer.processRetry(record.value(), record.topic(), record.partition(), record.offset(),
+                originalTopic, attempt, dlqAttempt)) {
+            long retryAt = System.currentTimeMillis() + retryProperties.getPublishBackoffMs();
+            parked.put(partition, new long[]{record.offset(), retryAt});
+            consumer.seek(partition, record.offset());
+            consumer.pause(Collections.singleton(partition));
+            logger.warn("⚠️ Reintento de {} sin confirmar en {}: se relee el offset {}", originalTopic, partition,
+                    record.offset());
+            return;
+        }
+        acknowledgment.acknowledge();
+    }
+
+    /**
+     * Reanudar particiones vencidas aunque no lleguen registros
+     */
+    @EventListener(condition = "event.listenerId.startsWith('eventsRetry')")
+    public void onRetryContainerIdle(ListenerContainerIdleEvent event) {
+        resumeDue(event.getConsumer());
+    }
+
+    private void resumeDue(Consumer<?, ?> consumer) {
+        if (parked.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Set<TopicPartition> assignment = consumer.assignment();
+        Iterator<Map.Entry<TopicPartition, long[]>> iterator = parked.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TopicPartition, long[]> entry = iterator.next();
+            if (entry.getValue()[1] <= now && assignment.contains(entry.getKey())) {
+                consumer.resume(Collections.singleton(entry.getKey()));
+                iterator.remove();
+                logger.debug("▶️ Reintentos de {} reanudados", entry.getKey());
+            }
+        }
+    }
+
+    private static String stringHeader(ConsumerRecord<String, byte[]> record, String name, String defaultValue) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? defaultValue : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
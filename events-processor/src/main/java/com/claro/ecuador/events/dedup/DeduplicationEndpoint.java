@@ -0,0 +1,27 @@
+package com.claro.ecuador.events.dedup;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/deduplication
+ * Aciertos exactos y probables, fallos, rotaciones y uso de memoria de la deduplicación
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "deduplication")
+public class DeduplicationEndpoint {
+
+    @Autowired
+    private EventDeduplicator eventDeduplicator;
+
+    @ReadOperation
+    public Map<String, Object> deduplication() {
+        return eventDeduplicator.stats();
+    }
+}
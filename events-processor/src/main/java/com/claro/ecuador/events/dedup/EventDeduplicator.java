@@ -0,0 +1,227 @@
+package com.claro.ecuador.events.dedup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Supresión de duplicados por eventId para el topic Events
+ * Combina dos estructuras con memoria acotada:
+ * - LRU exacto de los IDs más recientes (capacidad fija y antigüedad máxima)
+ * - Filtro de Bloom rotativo que recuerda IDs por más tiempo con poca memoria
+ *
+ * Un acierto en el LRU es un duplicado seguro y se descarta. Un acierto solo en el
+ * Bloom es un duplicado probable (puede ser falso positivo): se cuenta y se descarta
+ * únicamente si trust-bloom está activo.
+ *
+ * La clave es el ID acotado por fuente y tipo (EventHeaderExtractor#extractDedupKey): el fallback
+ * id/Id de Salesforce es el Id del registro, compartido por eventos distintos de otras formas.
+ * Las claves se reparten por hash en stripes independientes (LRU, Bloom y rotación propios, cada
+ * uno con su parte de la capacidad y la memoria), para que los hilos de consumo no compitan por
+ * un único lock.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class EventDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventDeduplicator.class);
+
+    @Value("${events-processor.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${events-processor.dedup.retention-ms:600000}")
+    private long retentionMs;
+
+    @Value("${events-processor.dedup.exact-capacity:100000}")
+    private int exactCapacity;
+
+    @Value("${events-processor.dedup.bloom-memory-bytes:4194304}")
+    private long bloomMemoryBytes;
+
+    @Value("${events-processor.dedup.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${events-processor.dedup.trust-bloom:false}")
+    private boolean trustBloom;
+
+    @Value("${events-processor.dedup.stripes:16}")
+    private int stripeCount;
+
+    private Stripe[] stripes;
+    private int stripeMask;
+
+    private final LongAdder exactHits = new LongAdder();
+    private final LongAdder probableHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        // Potencia de dos para elegir el stripe con una máscara
+        int count = 1;
+        while (count < stripeCount) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        this.stripeMask = count - 1;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(new RotatingBloomFilter(bloomMemoryBytes / count, falsePositiveRate),
+                    Math.max(1, exactCapacity / count), now);
+        }
+
+        logger.info("🧹 Deduplicación {} - LRU: {} IDs, Bloom: {} bytes, k={}, capacidad/generación: {}, stripes: {}, retención: {} ms",
+                   enabled ? "activa" : "deshabilitada", exactCapacity, bloomMemoryBytes(),
+                   stripes[0].bloom.getHashFunctions(), capacityPerGeneration(), count, retentionMs);
+    }
+
+    /**
+     * Registra la clave y determina si el evento debe descartarse como duplicado
+     *
+     * @param key clave de deduplicación; null (evento sin ID) nunca se considera duplicado
+     */
+    public boolean isDuplicate(String key) {
+        if (!enabled || key == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        long hash = hash64(key);
+        Stripe stripe = stripe(hash);
+
+        synchronized (stripe) {
+            if (now - stripe.lastRotation >= retentionMs) {
+                rotate(stripe, now);
+            }
+
+            Long seenAt = stripe.recent.get(key);
+            if (seenAt != null && now - seenAt < retentionMs) {
+                exactHits.increment();
+                return true;
+            }
+
+            boolean probable = stripe.bloom.mightContain(hash);
+            stripe.recent.put(key, now);
+            if (probable) {
+                probableHits.increment();
+                if (trustBloom) {
+                    return true;
+                }
+            } else {
+                misses.increment();
+            }
+            // Generación llena: rotar antes de superar la tasa de falsos positivos objetivo
+            if (stripe.bloom.add(hash)) {
+                rotate(stripe, now);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Olvida una clave registrada cuyo registro no se va a confirmar, para que su relectura no se
+     * descarte como duplicado (el Bloom la sigue recordando: solo cuenta si trust-bloom está activo)
+     */
+    public void forget(String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        Stripe stripe = stripe(hash64(key));
+        synchronized (stripe) {
+            stripe.recent.remove(key);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        int exactSize = 0;
+        int currentInsertions = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                exactSize += stripe.recent.size();
+                currentInsertions += stripe.bloom.getCurrentInsertions();
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("exactHits", exactHits.sum());
+        stats.put("probableHits", probableHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("dropped", exactHits.sum() + (trustBloom ? probableHits.sum() : 0));
+        stats.put("rotations", rotations.sum());
+        stats.put("stripes", stripes.length);
+        stats.put("exactSize", exactSize);
+        stats.put("exactCapacity", exactCapacity);
+        stats.put("bloomMemoryBytes", bloomMemoryBytes());
+        stats.put("bloomHashFunctions", stripes[0].bloom.getHashFunctions());
+        stats.put("bloomCapacityPerGeneration", capacityPerGeneration());
+        stats.put("bloomCurrentInsertions", currentInsertions);
+        stats.put("falsePositiveRate", falsePositiveRate);
+        stats.put("retentionSeconds", TimeUnit.MILLISECONDS.toSeconds(retentionMs));
+        stats.put("trustBloom", trustBloom);
+        return stats;
+    }
+
+    private Stripe stripe(long hash) {
+        // Mezcla aparte: los bits del hash ya eligen las posiciones dentro del Bloom del stripe
+        return stripes[(int) ((hash * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask];
+    }
+
+    private void rotate(Stripe stripe, long now) {
+        stripe.bloom.rotate();
+        stripe.lastRotation = now;
+        rotations.increment();
+    }
+
+    private long bloomMemoryBytes() {
+        return stripes[0].bloom.getMemoryBytes() * stripes.length;
+    }
+
+    private long capacityPerGeneration() {
+        return (long) stripes[0].bloom.getCapacityPerGeneration() * stripes.length;
+    }
+
+    /**
+     * Hash de 64 bits sobre los caracteres del ID, sin crear objetos (FNV-1a + mezcla final)
+     */
+    private static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Porción de las claves protegida por su propio monitor
+     */
+    private static final class Stripe {
+
+        private final RotatingBloomFilter bloom;
+        private final LinkedHashMap<String, Long> recent;
+        private long lastRotation;
+
+        private Stripe(RotatingBloomFilter bloom, int capacity, long now) {
+            this.bloom = bloom;
+            this.recent = new LinkedHashMap<String, Long>(Math.min(capacity, 1 << 16), 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > capacity;
+                }
+            };
+            this.lastRotation = now;
+        }
+    }
+}
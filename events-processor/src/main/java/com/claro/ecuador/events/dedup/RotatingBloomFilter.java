@@ -0,0 +1,94 @@
+package com.claro.ecuador.events.dedup;
+
+import java.util.Arrays;
+
+/**
+ * Filtro de Bloom con dos generaciones (actual y anterior) sobre long[]
+ * Al rotar, la generación anterior se descarta y la actual pasa a ser la anterior,
+ * de modo que un ID se recuerda entre una y dos rotaciones. El número de funciones
+ * hash y la capacidad por generación se derivan de la memoria y la tasa de falsos
+ * positivos objetivo. No es thread-safe: el llamador debe sincronizar.
+ *
+ * @author Global HITSS
+ */
+final class RotatingBloomFilter {
+
+    private final int bitsPerGeneration;
+    private final int hashFunctions;
+    private final int capacityPerGeneration;
+
+    private long[] current;
+    private long[] previous;
+    private int currentInsertions;
+
+    /**
+     * @param memoryBytes       memoria total para ambas generaciones
+     * @param falsePositiveRate tasa de falsos positivos objetivo por generación
+     */
+    RotatingBloomFilter(long memoryBytes, double falsePositiveRate) {
+        long bits = Math.max(64, (memoryBytes * 8) / 2);
+        this.bitsPerGeneration = (int) Math.min(bits, Integer.MAX_VALUE - 63) & ~63;
+        // n = -m (ln 2)^2 / ln p ; k = (m / n) ln 2
+        double ln2 = Math.log(2);
+        this.capacityPerGeneration = (int) Math.max(1,
+                -bitsPerGeneration * ln2 * ln2 / Math.log(falsePositiveRate));
+        this.hashFunctions = (int) Math.max(1, Math.round((double) bitsPerGeneration / capacityPerGeneration * ln2));
+        this.current = new long[bitsPerGeneration >>> 6];
+        this.previous = new long[bitsPerGeneration >>> 6];
+    }
+
+    /**
+     * Agrega el ID a la generación actual
+     *
+     * @return true si la generación actual alcanzó su capacidad y conviene rotar
+     */
+    boolean add(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitsPerGeneration;
+            current[bit >>> 6] |= 1L << bit;
+        }
+        return ++currentInsertions >= capacityPerGeneration;
+    }
+
+    boolean mightContain(long hash) {
+        return contains(current, hash) || contains(previous, hash);
+    }
+
+    void rotate() {
+        long[] recycled = previous;
+        Arrays.fill(recycled, 0L);
+        previous = current;
+        current = recycled;
+        currentInsertions = 0;
+    }
+
+    int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    int getCapacityPerGeneration() {
+        return capacityPerGeneration;
+    }
+
+    int getCurrentInsertions() {
+        return currentInsertions;
+    }
+
+    long getMemoryBytes() {
+        return 2L * (bitsPerGeneration >>> 3);
+    }
+
+    private boolean contains(long[] bits, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitsPerGeneration;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
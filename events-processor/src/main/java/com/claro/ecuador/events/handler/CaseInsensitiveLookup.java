@@ -0,0 +1,68 @@
+package com.claro.ecuador.events.handler;
+
+import java.util.Map;
+
+/**
+ * Tabla hash de solo lectura con claves String comparadas sin distinción de mayúsculas
+ * Se construye una vez (direccionamiento abierto, capacidad potencia de 2) y la búsqueda
+ * no crea objetos: el hash se calcula sobre los caracteres normalizados y la comparación
+ * usa equalsIgnoreCase, evitando el toUpperCase por registro.
+ *
+ * @author Global HITSS
+ */
+final class CaseInsensitiveLookup<V> {
+
+    private final String[] keys;
+    private final Object[] values;
+    private final int mask;
+
+    CaseInsensitiveLookup(Map<String, V> entries) {
+        int capacity = Integer.highestOneBit(Math.max(2, entries.size() * 4) - 1) << 1;
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+
+        for (Map.Entry<String, V> entry : entries.entrySet()) {
+            int slot = hash(entry.getKey()) & mask;
+            while (keys[slot] != null) {
+                if (keys[slot].equalsIgnoreCase(entry.getKey())) {
+                    throw new IllegalArgumentException("Clave duplicada: " + entry.getKey());
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = entry.getKey();
+            values[slot] = entry.getValue();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(String key) {
+        if (key == null) {
+            return null;
+        }
+        int slot = hash(key) & mask;
+        String candidate;
+        while ((candidate = keys[slot]) != null) {
+            if (candidate.equalsIgnoreCase(key)) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int hash(String key) {
+        int h = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                c -= 'a' - 'A';
+            } else if (c > 127) {
+                c = Character.toUpperCase(c);
+            }
+            h = 31 * h + c;
+        }
+        // Mezcla de bits altos para tablas pequeñas
+        return h ^ (h >>> 16);
+    }
+}
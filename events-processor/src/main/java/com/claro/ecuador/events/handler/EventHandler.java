@@ -0,0 +1,34 @@
+package com.claro.ecuador.events.handler;
+
+import com.claro.ecuador.events.parsing.LazyEventPayload;
+
+/**
+ * SPI para handlers de eventos generales
+ * Cada implementación registrada como bean se asocia a un tipo de evento
+ * (comparación sin distinción de mayúsculas) en el EventHandlerRegistry.
+ *
+ * @author Global HITSS
+ */
+public interface EventHandler {
+
+    /**
+     * Tipo de evento que atiende este handler (ej. SYSTEM_ALERT)
+     */
+    String eventType();
+
+    /**
+     * Procesa el evento. Si el tipo tiene executor propio se invoca desde ese executor
+     * y el payload pasa a ser propiedad de ese hilo.
+     */
+    void handle(LazyEventPayload payload) throws Exception;
+
+    /**
+     * Variante para handlers con trabajo diferido que termina después de retornar (p. ej. la entrega
+     * de una notificación): sus fallas se notifican a onFailure (puede ser null) para que el evento siga
+     * el camino de reintentos. Por defecto delega en handle(payload).
+     */
+    default void handle(LazyEventPayload payload, EventHandlerRegistry.AsyncFailureHandler onFailure)
+            throws Exception {
+        handle(payload);
+    }
+}
@@ -0,0 +1,164 @@
+package com.claro.ecuador.events.handler;
+
+import com.claro.ecuador.commons.instrumentation.PipelineMetrics;
+import com.claro.ecuador.events.parsing.LazyEventPayload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Registro de handlers de eventos generales por tipo de evento
+ * El lookup se precalcula al arrancar y no crea objetos por registro. Los tipos con
+ * executor configurado se despachan a su propio pool acotado; el resto se ejecuta
+ * en el hilo que invoca dispatch.
+ * dispatch devuelve un futuro que se completa cuando el handler terminó (en el executor del tipo
+ * si es aislado): el registro se confirma recién entonces, de modo que un evento aceptado por
+ * un executor aislado no se pierde si la instancia se detiene antes de procesarlo.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class EventHandlerRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventHandlerRegistry.class);
+
+    private final CaseInsensitiveLookup<Registration> lookup;
+    private final Map<String, Registration> registrations = new LinkedHashMap<>();
+
+    @Autowired
+    public EventHandlerRegistry(List<EventHandler> handlers, HandlerExecutorProperties properties,
+                                PipelineMetrics pipelineMetrics) {
+        Map<String, HandlerExecutorProperties.Executor> executorConfig = new LinkedHashMap<>();
+        properties.getExecutors().forEach((type, config) -> executorConfig.put(type.toUpperCase(Locale.ROOT), config));
+
+        for (EventHandler handler : handlers) {
+            String eventType = handler.eventType();
+            HandlerExecutorProperties.Executor config = executorConfig.get(eventType.toUpperCase(Locale.ROOT));
+            IsolatedHandlerExecutor executor = config == null ? null
+                    : new IsolatedHandlerExecutor(eventType, config.getThreads(), config.getQueueCapacity());
+
+            if (registrations.put(eventType.toUpperCase(Locale.ROOT), new Registration(handler, executor, pipelineMetrics)) != null) {
+                throw new IllegalStateException("Más de un handler registrado para el tipo " + eventType);
+            }
+            logger.info("🧩 Handler registrado - Tipo: {}, Executor: {}", eventType,
+                       config == null ? "hilo de consumo"
+                               : config.getThreads() + " hilos / cola " + config.getQueueCapacity());
+        }
+        this.lookup = new CaseInsensitiveLookup<>(registrations);
+    }
+
+    /**
+     * Despacha el evento a su handler
+     *
+     * @return false si no hay handler registrado para el tipo
+     * @throws java.util.concurrent.RejectedExecutionException si la cola del tipo está llena
+     */
+    public boolean dispatch(String eventType, LazyEventPayload payload) throws Exception {
+        return dispatch(eventType, payload, null) != null;
+    }
+
+    /**
+     * Despacha el evento a su handler
+     * Las fallas de un handler en el hilo de consumo se propagan como excepción; las de un handler
+     * aislado completan el futuro con error. asyncFailureHandler recibe las del trabajo diferido del
+     * handler (EventHandler#handle(LazyEventPayload, AsyncFailureHandler))
+     *
+     * @return futuro completado cuando el handler terminó, o null si no hay handler registrado para el tipo
+     * @throws java.util.concurrent.RejectedExecutionException si la cola del tipo está llena
+     */
+    public CompletableFuture<Void> dispatch(String eventType, LazyEventPayload payload,
+                                            AsyncFailureHandler asyncFailureHandler) throws Exception {
+        Registration registration = lookup.get(eventType);
+        if (registration == null) {
+            return null;
+        }
+        return registration.dispatch(payload, asyncFailureHandler);
+    }
+
+    /**
+     * Profundidad de cola, rechazos y fallos por tipo de evento
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Map.Entry<String, Registration> entry : registrations.entrySet()) {
+            IsolatedHandlerExecutor executor = entry.getValue().executor;
+            Map<String, Object> typeStats = executor != null ? executor.stats() : new LinkedHashMap<>();
+            typeStats.put("isolated", executor != null);
+            stats.put(entry.getKey(), typeStats);
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Registration registration : registrations.values()) {
+            if (registration.executor != null) {
+                registration.executor.shutdown(5000);
+            }
+        }
+    }
+
+    /**
+     * Receptor de las fallas del trabajo diferido de un handler, que termina después de que el
+     * registro se confirmó (EventHandler#handle(LazyEventPayload, AsyncFailureHandler))
+     */
+    public interface AsyncFailureHandler {
+
+        void onFailure(Exception error);
+    }
+
+    private static final class Registration {
+
+        private final EventHandler handler;
+        private final IsolatedHandlerExecutor executor;
+        private final PipelineMetrics pipelineMetrics;
+
+        private Registration(EventHandler handler, IsolatedHandlerExecutor executor, PipelineMetrics pipelineMetrics) {
+            this.handler = handler;
+            this.executor = executor;
+            this.pipelineMetrics = pipelineMetrics;
+        }
+
+        private CompletableFuture<Void> dispatch(LazyEventPayload payload, AsyncFailureHandler asyncFailureHandler)
+                throws Exception {
+            if (executor == null) {
+                handle(payload, asyncFailureHandler);
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> handled = new CompletableFuture<>();
+            executor.execute(() -> {
+                try {
+                    handle(payload, asyncFailureHandler);
+                    handled.complete(null);
+                } catch (Exception e) {
+                    executor.recordFailure();
+                    logger.error("❌ Error en handler {} para evento {}: {}", handler.eventType(),
+                                payload.getHeader().getEventId(), e.getMessage(), e);
+                    handled.completeExceptionally(e);
+                }
+            });
+            return handled;
+        }
+
+        /**
+         * Ejecución del handler, medida en el hilo donde corre (consumo o executor del tipo)
+         */
+        private void handle(LazyEventPayload payload, AsyncFailureHandler asyncFailureHandler) throws Exception {
+            long start = pipelineMetrics.start();
+            try {
+                handler.handle(payload, asyncFailureHandler);
+            } finally {
+                pipelineMetrics.recordStage(PipelineMetrics.STAGE_HANDLER, PipelineMetrics.EVENTS_TOPIC,
+                        handler.eventType(), start);
+            }
+        }
+    }
+}
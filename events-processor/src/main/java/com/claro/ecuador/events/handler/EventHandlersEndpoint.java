@@ -0,0 +1,27 @@
+package com.claro.ecuador.events.handler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/eventhandlers
+ * Expone profundidad de cola y rechazos por tipo de evento para dimensionar los executors
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "eventhandlers")
+public class EventHandlersEndpoint {
+
+    @Autowired
+    private EventHandlerRegistry eventHandlerRegistry;
+
+    @ReadOperation
+    public Map<String, Object> handlers() {
+        return eventHandlerRegistry.stats();
+    }
+}
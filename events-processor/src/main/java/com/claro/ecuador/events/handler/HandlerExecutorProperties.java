@@ -0,0 +1,50 @@
+package com.claro.ecuador.events.handler;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Executors aislados por tipo de evento (events-processor.handlers.executors)
+ * Los tipos sin entrada se procesan en el hilo de consumo.
+ *
+ * @author Global HITSS
+ */
+@Component
+@ConfigurationProperties(prefix = "events-processor.handlers")
+public class HandlerExecutorProperties {
+
+    private Map<String, Executor> executors = new LinkedHashMap<>();
+
+    public Map<String, Executor> getExecutors() {
+        return executors;
+    }
+
+    public void setExecutors(Map<String, Executor> executors) {
+        this.executors = executors;
+    }
+
+    public static class Executor {
+
+        private int threads = 1;
+        private int queueCapacity = 500;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
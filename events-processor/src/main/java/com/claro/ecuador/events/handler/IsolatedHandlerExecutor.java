@@ -0,0 +1,76 @@
+package com.claro.ecuador.events.handler;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor acotado de un tipo de evento
+ * Cola de capacidad fija: cuando se llena, la tarea se rechaza (y se cuenta) en lugar
+ * de bloquear el hilo de consumo, de modo que un tipo lento no frena a los demás.
+ *
+ * @author Global HITSS
+ */
+final class IsolatedHandlerExecutor {
+
+    private final String eventType;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor pool;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    IsolatedHandlerExecutor(String eventType, int threads, int queueCapacity) {
+        this.eventType = eventType;
+        this.queueCapacity = queueCapacity;
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("handler-" + eventType.toLowerCase(Locale.ROOT) + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    void execute(Runnable task) {
+        try {
+            pool.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new RejectedExecutionException("Cola del handler " + eventType + " llena ("
+                    + queueCapacity + ")", e);
+        }
+    }
+
+    void recordFailure() {
+        failed.increment();
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", pool.getMaximumPoolSize());
+        stats.put("active", pool.getActiveCount());
+        stats.put("queueDepth", pool.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", pool.getCompletedTaskCount());
+        stats.put("rejected", rejected.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    void shutdown(long timeoutMs) throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
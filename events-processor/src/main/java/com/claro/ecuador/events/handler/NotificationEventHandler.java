@@ -0,0 +1,60 @@
+package com.claro.ecuador.events.handler;
+
+import com.claro.ecuador.events.handler.EventHandlerRegistry.AsyncFailureHandler;
+import com.claro.ecuador.events.notification.NotificationDispatcher;
+import com.claro.ecuador.events.parsing.LazyEventPayload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Handler para notificaciones (NOTIFICATION)
+ *
+ * @author Global HITSS
+ */
+@Component
+public class NotificationEventHandler implements EventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationEventHandler.class);
+
+    @Override
+    public String eventType() {
+        return "NOTIFICATION";
+    }
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Override
+    public void handle(LazyEventPayload eventData) {
+        handle(eventData, null);
+    }
+
+    /**
+     * Procesar notificaciones
+     * Una entrega que falla después de confirmado el registro se notifica a onFailure (reintento del evento)
+     */
+    @Override
+    public void handle(LazyEventPayload eventData, AsyncFailureHandler onFailure) {
+        logger.debug("📢 Procesando notificación");
+
+        String recipient = (String) eventData.getOrDefault("recipient", "unknown");
+        String channel = (String) eventData.getOrDefault("channel", "email");
+
+        logger.debug("Notificación - Destinatario: {}, Canal: {}", recipient, channel);
+
+        // Enviar notificación
+        sendNotification(eventData, recipient, channel, onFailure);
+    }
+
+    /**
+     * Encola la notificación; la entrega es asíncrona, agrupada por destinatario y limitada por canal
+     */
+    private void sendNotification(LazyEventPayload eventData, String recipient, String channel,
+                                  AsyncFailureHandler onFailure) {
+        Object message = eventData.getOrDefault("message", "");
+        notificationDispatcher.submit(channel, recipient, String.valueOf(message),
+                onFailure != null ? onFailure::onFailure : null);
+    }
+}
@@ -0,0 +1,44 @@
+package com.claro.ecuador.events.handler;
+
+import com.claro.ecuador.events.parsing.LazyEventPayload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Handler para alertas del sistema (SYSTEM_ALERT)
+ *
+ * @author Global HITSS
+ */
+@Component
+public class SystemAlertEventHandler implements EventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SystemAlertEventHandler.class);
+
+    @Override
+    public String eventType() {
+        return "SYSTEM_ALERT";
+    }
+
+    /**
+     * Procesar alertas del sistema
+     */
+    @Override
+    public void handle(LazyEventPayload eventData) {
+        logger.debug("🚨 Procesando alerta del sistema");
+
+        String severity = (String) eventData.getOrDefault("severity", "INFO");
+        String message = (String) eventData.getOrDefault("message", "Sin mensaje");
+
+        logger.debug("Alerta - Severidad: {}, Mensaje: {}", severity, message);
+
+        if ("CRITICAL".equals(severity) || "ERROR".equals(severity)) {
+            triggerCriticalAlert(eventData);
+        }
+    }
+
+    private void triggerCriticalAlert(LazyEventPayload eventData) {
+        logger.error("🚨 ALERTA CRÍTICA ACTIVADA: {}", eventData);
+        // Integración con sistema de alertas
+    }
+}
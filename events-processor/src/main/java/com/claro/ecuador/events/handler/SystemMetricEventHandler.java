@@ -0,0 +1,86 @@
+package com.claro.ecuador.events.handler;
+
+import com.claro.ecuador.commons.time.EventTimestamps;
+import com.claro.ecuador.events.metrics.MetricRollupEngine;
+import com.claro.ecuador.events.parsing.LazyEventPayload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Handler para métricas del sistema (SYSTEM_METRIC)
+ * metricName y value se leen de eventData sin materializar el evento; el tiempo de evento sale
+ * del timestamp de la cabecera
+ *
+ * @author Global HITSS
+ */
+@Component
+public class SystemMetricEventHandler implements EventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SystemMetricEventHandler.class);
+
+    public static final String EVENT_TYPE = "SYSTEM_METRIC";
+
+    @Autowired
+    private MetricRollupEngine metricRollupEngine;
+
+    @Override
+    public String eventType() {
+        return EVENT_TYPE;
+    }
+
+    /**
+     * Procesar métricas del sistema
+     */
+    @Override
+    public void handle(LazyEventPayload eventData) {
+        logger.debug("📊 Procesando métrica del sistema");
+
+        String metricName = (String) eventData.getNestedOrDefault("metricName", "unknown");
+        Object value = eventData.getNestedOrDefault("value", 0);
+
+        logger.debug("Métrica - Nombre: {}, Valor: {}", metricName, value);
+
+        // Almacenar métrica para análisis
+        storeMetric(metricName, value, eventData);
+    }
+
+    /**
+     * Acumula el punto de dato en el rollup por ventana; a almacenamiento solo va
+     * un documento por ventana y métrica
+     */
+    private void storeMetric(String metricName, Object value, LazyEventPayload eventData) {
+        if (!metricRollupEngine.isEnabled()) {
+            // Sin rollups el evento completo se indexa como general
+            return;
+        }
+        Double numericValue = toDouble(value);
+        if (numericValue == null) {
+            logger.warn("Métrica {} con valor no numérico descartada: {}", metricName, value);
+            return;
+        }
+        // Sin timestamp (o con otro formato) se usa la hora de proceso
+        long eventTime = EventTimestamps.parseEpochMillis(eventData.getHeader().getTimestamp());
+        if (eventTime == EventTimestamps.UNPARSEABLE) {
+            eventTime = System.currentTimeMillis();
+        }
+        if (!metricRollupEngine.record(metricName, numericValue, eventTime)) {
+            logger.debug("Métrica {} descartada por valor no finito, tardía o por límite de métricas", metricName);
+        }
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.claro.ecuador.events.handler;
+
+import com.claro.ecuador.commons.time.EventTimestamps;
+import com.claro.ecuador.events.audit.AuditJournal;
+import com.claro.ecuador.events.parsing.LazyEventPayload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Handler para acciones de usuario (USER_ACTION)
+ * userId y action se leen de eventData sin materializar el evento; el tiempo de evento sale
+ * del timestamp de la cabecera
+ *
+ * @author Global HITSS
+ */
+@Component
+public class UserActionEventHandler implements EventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserActionEventHandler.class);
+
+    @Override
+    public String eventType() {
+        return "USER_ACTION";
+    }
+
+    @Autowired
+    private AuditJournal auditJournal;
+
+    /**
+     * Procesar acciones de usuario
+     */
+    @Override
+    public void handle(LazyEventPayload eventData) throws IOException {
+        logger.debug("👤 Procesando acción de usuario");
+
+        String userId = (String) eventData.getNestedOrDefault("userId", "unknown");
+        String action = (String) eventData.getNestedOrDefault("action", "unknown");
+
+        logger.debug("Acción - Usuario: {}, Acción: {}", userId, action);
+
+        // Auditoría de acciones de usuario
+        auditUserAction(eventData, userId, action);
+    }
+
+    private void auditUserAction(LazyEventPayload eventData, String userId, String action) throws IOException {
+        logger.debug("📝 Registrando auditoría de acción de usuario");
+        // Sin timestamp (o con otro formato) el journal usa la hora de registro (0)
+        long eventTime = EventTimestamps.parseEpochMillis(eventData.getHeader().getTimestamp());
+        auditJournal.append(eventTime == EventTimestamps.UNPARSEABLE ? 0L : eventTime, userId, action,
+                eventData.getHeader().getEventId());
+    }
+}
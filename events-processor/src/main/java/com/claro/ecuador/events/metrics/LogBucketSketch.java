@@ -0,0 +1,83 @@
+package com.claro.ecuador.events.metrics;
+
+/**
+ * Sketch de cuantiles con buckets logarítmicos de error relativo acotado
+ * Los conteos viven en un int[] plano (uno por bucket), por lo que dos sketches con la
+ * misma configuración se combinan sumando arreglos. El valor devuelto para un cuantil
+ * tiene un error relativo de a lo sumo la precisión configurada cuando |valor| está dentro del
+ * rango [minValue, maxValue]; las magnitudes mayores se acumulan en los buckets extremos.
+ * Disposición del arreglo, en orden creciente de valor:
+ * - [0, positive): negativos, del más negativo (bucket 0) al más cercano a cero
+ * - positive: cero, para |valor| <= minValue (incluye -0.0 y valores subnormales)
+ * - (positive, 2 * positive]: positivos, espejo de los negativos
+ *
+ * @author Global HITSS
+ */
+final class LogBucketSketch {
+
+    private final double minValue;
+    private final double logGamma;
+    private final double gamma;
+    // Buckets por signo; el bucket de cero está en este índice
+    private final int positive;
+
+    /**
+     * @param relativeAccuracy error relativo objetivo (ej. 0.02 = 2%)
+     */
+    LogBucketSketch(double relativeAccuracy, double minValue, double maxValue) {
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.minValue = minValue;
+        this.positive = 1 + (int) Math.ceil(Math.log(maxValue / minValue) / logGamma);
+    }
+
+    int bucketCount() {
+        return 2 * positive + 1;
+    }
+
+    /**
+     * @param value valor finito (NaN e infinitos se descartan antes, ver MetricRollupEngine)
+     */
+    int bucketOf(double value) {
+        double magnitude = Math.abs(value);
+        if (!(magnitude > minValue)) {
+            return positive;
+        }
+        int k = Math.max(1, (int) Math.ceil(Math.log(magnitude / minValue) / logGamma));
+        if (k > positive) {
+            k = positive;
+        }
+        return value > 0 ? positive + k : positive - k;
+    }
+
+    /**
+     * Valor representativo del bucket (punto medio relativo; 0 para el bucket de cero)
+     */
+    double valueOf(int bucket) {
+        if (bucket == positive) {
+            return 0;
+        }
+        int k = Math.abs(bucket - positive);
+        double upper = minValue * Math.pow(gamma, k);
+        double value = 2 * upper / (1 + gamma);
+        return bucket > positive ? value : -value;
+    }
+
+    /**
+     * Cuantil q (0..1) sobre los conteos dados, acotado a [min, max] observados
+     */
+    double quantile(int[] counts, long total, double q, double min, double max) {
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(max, valueOf(i)));
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,73 @@
+package com.claro.ecuador.events.metrics;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resumen de una métrica en una ventana: conteo, suma, mínimo, máximo y cuantiles aproximados
+ *
+ * @author Global HITSS
+ */
+public final class MetricRollup {
+
+    private final String metricName;
+    private final long windowStart;
+    private final long windowEnd;
+    private final long count;
+    private final double sum;
+    private final double min;
+    private final double max;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+
+    MetricRollup(String metricName, long windowStart, long windowEnd, long count, double sum,
+                 double min, double max, double p50, double p90, double p99) {
+        this.metricName = metricName;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Documento listo para indexar
+     */
+    public Map<String, Object> toDocument() {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("metricName", metricName);
+        document.put("windowStart", Instant.ofEpochMilli(windowStart).toString());
+        document.put("windowEnd", Instant.ofEpochMilli(windowEnd).toString());
+        document.put("count", count);
+        document.put("sum", sum);
+        document.put("min", min);
+        document.put("max", max);
+        document.put("avg", sum / count);
+        document.put("p50", p50);
+        document.put("p90", p90);
+        document.put("p99", p99);
+        document.put("@timestamp", Instant.ofEpochMilli(windowEnd).toString());
+        return document;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s, %s) count=%d avg=%.3f min=%.3f max=%.3f p50=%.3f p90=%.3f p99=%.3f",
+                metricName, Instant.ofEpochMilli(windowStart), Instant.ofEpochMilli(windowEnd),
+                count, sum / count, min, max, p50, p90, p99);
+    }
+}
@@ -0,0 +1,27 @@
+package com.claro.ecuador.events.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/metricrollups
+ * Métricas en seguimiento, datos aceptados, tardíos, descartados por límite y rollups emitidos
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "metricrollups")
+public class MetricRollupEndpoint {
+
+    @Autowired
+    private MetricRollupEngine metricRollupEngine;
+
+    @ReadOperation
+    public Map<String, Object> rollups() {
+        return metricRollupEngine.stats();
+    }
+}
@@ -0,0 +1,206 @@
+package com.claro.ecuador.events.metrics;
+
+import com.claro.ecuador.commons.sink.ElasticsearchBulkSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agregación en memoria de métricas SYSTEM_METRIC por ventanas de tiempo de evento
+ * Por cada metricName mantiene conteo, suma, mínimo, máximo y un sketch de cuantiles en
+ * panes de tamaño slide. Se emite un rollup por ventana y métrica cuando la ventana cierra
+ * (hora actual - allowed-lateness), en lugar de un documento por punto de dato.
+ * - Ventanas tumbling: slide-ms = window-size-ms (por defecto)
+ * - Ventanas sliding: slide-ms divisor de window-size-ms
+ * Con events-processor.metrics.enabled los SYSTEM_METRIC solo llegan a almacenamiento como rollup
+ * (GeneralEventsConsumer deja de indexarlos en 'general' y back-logstash-connect los descarta del topic
+ * Events con drop-event-types); deshabilitado, se indexa cada punto.
+ * Los rollups se envían por su propio sink (events-processor.metrics.elasticsearch), habilitado aunque
+ * el sink general esté apagado.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class MetricRollupEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricRollupEngine.class);
+
+    @Autowired
+    @Qualifier("metricsBulkSink")
+    private ElasticsearchBulkSink elasticsearchBulkSink;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${events-processor.metrics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${events-processor.metrics.window-size-ms:60000}")
+    private long windowSizeMs;
+
+    @Value("${events-processor.metrics.slide-ms:0}")
+    private long slideMs;
+
+    @Value("${events-processor.metrics.allowed-lateness-ms:10000}")
+    private long allowedLatenessMs;
+
+    @Value("${events-processor.metrics.max-metrics:1000}")
+    private int maxMetrics;
+
+    @Value("${events-processor.metrics.idle-evict-windows:10}")
+    private int idleEvictWindows;
+
+    @Value("${events-processor.metrics.sketch-relative-accuracy:0.02}")
+    private double sketchRelativeAccuracy;
+
+    private final Map<String, MetricSeries> series = new ConcurrentHashMap<>();
+
+    private LogBucketSketch sketch;
+    private int panesPerWindow;
+    private int ring;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder late = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+    private final LongAdder rollupsEmitted = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        if (slideMs <= 0) {
+            slideMs = windowSizeMs;
+        }
+        if (windowSizeMs % slideMs != 0) {
+            throw new IllegalStateException("events-processor.metrics.window-size-ms debe ser múltiplo de slide-ms");
+        }
+        this.panesPerWindow = (int) (windowSizeMs / slideMs);
+        // Panes de la ventana abierta + tolerancia de tardíos + pane en curso
+        this.ring = panesPerWindow + (int) ((allowedLatenessMs + slideMs - 1) / slideMs) + 1;
+        this.sketch = new LogBucketSketch(sketchRelativeAccuracy, 1e-3, 1e9);
+
+        if (!enabled) {
+            logger.info("📈 Rollups de métricas deshabilitados: cada SYSTEM_METRIC se indexa como evento general");
+            return;
+        }
+        logger.info("📈 Rollups de métricas - Ventana: {} ms, slide: {} ms, tolerancia: {} ms, máx. métricas: {}",
+                   windowSizeMs, slideMs, allowedLatenessMs, maxMetrics);
+        if (!elasticsearchBulkSink.isEnabled()) {
+            logger.warn("⚠️ Sink de rollups deshabilitado (events-processor.metrics.elasticsearch.enabled): "
+                    + "las métricas SYSTEM_METRIC no se almacenan");
+        }
+    }
+
+    /**
+     * Acumula un punto de dato en la ventana correspondiente a su tiempo de evento
+     *
+     * @return false si el dato se descartó (rollups deshabilitados, valor NaN o infinito, tardío o
+     * límite de métricas alcanzado)
+     */
+    public boolean record(String metricName, double value, long eventTimeMs) {
+        if (!enabled) {
+            return false;
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            // Romperían suma, mínimo y máximo de toda la ventana
+            invalid.increment();
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        // Relojes adelantados: no aceptar datos futuros más allá del pane actual
+        long eventTime = Math.min(eventTimeMs, now);
+        long paneStart = eventTime - Math.floorMod(eventTime, slideMs);
+
+        MetricSeries metric = series.get(metricName);
+        if (metric == null) {
+            if (series.size() >= maxMetrics) {
+                overflow.increment();
+                return false;
+            }
+            metric = series.computeIfAbsent(metricName, name -> new MetricSeries(name, slideMs, ring, sketch));
+        }
+
+        boolean added;
+        synchronized (metric) {
+            added = eventTime >= now - allowedLatenessMs - windowSizeMs && metric.add(paneStart, value, now);
+        }
+        if (added) {
+            accepted.increment();
+        } else {
+            late.increment();
+        }
+        return added;
+    }
+
+    /**
+     * Emite las ventanas cerradas y libera las métricas inactivas
+     */
+    @Scheduled(fixedDelayString = "${events-processor.metrics.emit-interval-ms:1000}")
+    public void emitClosedWindows() {
+        long now = System.currentTimeMillis();
+        long watermark = now - allowedLatenessMs;
+
+        Iterator<MetricSeries> iterator = series.values().iterator();
+        while (iterator.hasNext()) {
+            MetricSeries metric = iterator.next();
+            synchronized (metric) {
+                while (metric.nextWindowStart != Long.MIN_VALUE
+                        && metric.nextWindowStart + windowSizeMs <= watermark) {
+                    MetricRollup rollup = metric.merge(metric.nextWindowStart, panesPerWindow, windowSizeMs);
+                    if (rollup != null) {
+                        emit(rollup);
+                    }
+                    metric.nextWindowStart += slideMs;
+                }
+                if (now - metric.lastUpdateMs > idleEvictWindows * windowSizeMs) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true si los SYSTEM_METRIC se almacenan solo como rollups
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("windowSizeMs", windowSizeMs);
+        stats.put("slideMs", slideMs);
+        stats.put("allowedLatenessMs", allowedLatenessMs);
+        stats.put("trackedMetrics", series.size());
+        stats.put("maxMetrics", maxMetrics);
+        stats.put("accepted", accepted.sum());
+        stats.put("late", late.sum());
+        stats.put("invalid", invalid.sum());
+        stats.put("overflow", overflow.sum());
+        stats.put("rollupsEmitted", rollupsEmitted.sum());
+        stats.put("sink", elasticsearchBulkSink.stats());
+        return stats;
+    }
+
+    private void emit(MetricRollup rollup) {
+        rollupsEmitted.increment();
+        logger.info("📈 Rollup de métrica: {}", rollup);
+        try {
+            elasticsearchBulkSink.index("metrics", objectMapper.writeValueAsBytes(rollup.toDocument()));
+        } catch (Exception e) {
+            logger.error("Error almacenando rollup de {}: {}", rollup.getMetricName(), e.getMessage());
+        }
+    }
+}
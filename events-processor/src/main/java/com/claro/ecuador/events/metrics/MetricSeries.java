@@ -0,0 +1,140 @@
+package com.claro.ecuador.events.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Panes de una métrica en un anillo de arreglos primitivos
+ * Cada pane cubre un intervalo de tamaño slide; una ventana es la unión de
+ * panesPerWindow panes consecutivos (ventana tumbling cuando slide = tamaño).
+ * Los panes ya emitidos se reciclan sin crear objetos nuevos.
+ *
+ * No es thread-safe: MetricRollupEngine sincroniza sobre la instancia.
+ *
+ * @author Global HITSS
+ */
+final class MetricSeries {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    final String metricName;
+
+    private final long slideMs;
+    private final int ring;
+    private final LogBucketSketch sketch;
+
+    private final long[] paneStart;
+    private final long[] count;
+    private final double[] sum;
+    private final double[] min;
+    private final double[] max;
+    private final int[][] buckets;
+
+    // Inicio de la próxima ventana a emitir y último registro aceptado
+    long nextWindowStart = EMPTY;
+    long lastUpdateMs;
+
+    // Buffer reutilizable para combinar los sketches de una ventana
+    private final int[] scratch;
+
+    MetricSeries(String metricName, long slideMs, int ring, LogBucketSketch sketch) {
+        this.metricName = metricName;
+        this.slideMs = slideMs;
+        this.ring = ring;
+        this.sketch = sketch;
+        this.paneStart = new long[ring];
+        this.count = new long[ring];
+        this.sum = new double[ring];
+        this.min = new double[ring];
+        this.max = new double[ring];
+        this.buckets = new int[ring][];
+        this.scratch = new int[sketch.bucketCount()];
+        Arrays.fill(paneStart, EMPTY);
+    }
+
+    /**
+     * Acumula un valor en el pane de su tiempo de evento
+     *
+     * @return false si el pane ya fue emitido o no cabe en el anillo (dato tardío)
+     */
+    boolean add(long paneStartMs, double value, long nowMs) {
+        if (nextWindowStart != EMPTY && paneStartMs < nextWindowStart) {
+            return false;
+        }
+        int slot = (int) Math.floorMod(paneStartMs / slideMs, (long) ring);
+        if (paneStart[slot] != paneStartMs) {
+            if (paneStart[slot] != EMPTY && paneStart[slot] > paneStartMs) {
+                return false;
+            }
+            if (paneStart[slot] != EMPTY && nextWindowStart != EMPTY && paneStart[slot] >= nextWindowStart) {
+                // El slot aún contiene un pane pendiente de emitir: el dato es demasiado nuevo
+                return false;
+            }
+            resetPane(slot, paneStartMs);
+        }
+        if (nextWindowStart == EMPTY) {
+            nextWindowStart = paneStartMs;
+        }
+        count[slot]++;
+        sum[slot] += value;
+        if (value < min[slot]) {
+            min[slot] = value;
+        }
+        if (value > max[slot]) {
+            max[slot] = value;
+        }
+        if (buckets[slot] == null) {
+            buckets[slot] = new int[sketch.bucketCount()];
+        }
+        buckets[slot][sketch.bucketOf(value)]++;
+        lastUpdateMs = nowMs;
+        return true;
+    }
+
+    /**
+     * Combina los panes de la ventana [windowStart, windowStart + panes * slide)
+     *
+     * @return el rollup o null si la ventana no tiene datos
+     */
+    MetricRollup merge(long windowStart, int panesPerWindow, long windowSizeMs) {
+        long total = 0;
+        double windowSum = 0;
+        double windowMin = Double.POSITIVE_INFINITY;
+        double windowMax = Double.NEGATIVE_INFINITY;
+        Arrays.fill(scratch, 0);
+
+        for (int p = 0; p < panesPerWindow; p++) {
+            long start = windowStart + p * slideMs;
+            int slot = (int) Math.floorMod(start / slideMs, (long) ring);
+            if (paneStart[slot] != start || count[slot] == 0) {
+                continue;
+            }
+            total += count[slot];
+            windowSum += sum[slot];
+            windowMin = Math.min(windowMin, min[slot]);
+            windowMax = Math.max(windowMax, max[slot]);
+            int[] paneBuckets = buckets[slot];
+            for (int b = 0; b < scratch.length; b++) {
+                scratch[b] += paneBuckets[b];
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+        return new MetricRollup(metricName, windowStart, windowStart + windowSizeMs, total, windowSum,
+                windowMin, windowMax,
+                sketch.quantile(scratch, total, 0.50, windowMin, windowMax),
+                sketch.quantile(scratch, total, 0.90, windowMin, windowMax),
+                sketch.quantile(scratch, total, 0.99, windowMin, windowMax));
+    }
+
+    private void resetPane(int slot, long start) {
+        paneStart[slot] = start;
+        count[slot] = 0;
+        sum[slot] = 0;
+        min[slot] = Double.POSITIVE_INFINITY;
+        max[slot] = Double.NEGATIVE_INFINITY;
+        if (buckets[slot] != null) {
+            Arrays.fill(buckets[slot], 0);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.claro.ecuador.events.notification;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Notificaciones pendientes de un canal, agrupadas por destinatario
+ * El orden de inserción es el de llegada de la primera notificación de cada grupo,
+ * de modo que los grupos cuya ventana vence primero están al inicio.
+ *
+ * @author Global HITSS
+ */
+final class ChannelQueue {
+
+    static final class Batch {
+
+        final String recipient;
+        final List<String> messages = new ArrayList<>(2);
+        // Receptor de falla de cada mensaje (null si no tiene), en el mismo orden que messages
+        final List<Consumer<Exception>> failureHandlers = new ArrayList<>(2);
+        final long firstAtMs;
+
+        Batch(String recipient, long firstAtMs) {
+            this.recipient = recipient;
+            this.firstAtMs = firstAtMs;
+        }
+    }
+
+    final String channel;
+    final TokenBucket bucket;
+    final int maxInFlight;
+    final AtomicInteger inFlight = new AtomicInteger();
+
+    final LongAdder coalesced = new LongAdder();
+    final LongAdder deliveries = new LongAdder();
+    final LongAdder delivered = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final LongAdder throttled = new LongAdder();
+
+    private final LinkedHashMap<String, Batch> batches = new LinkedHashMap<>();
+
+    ChannelQueue(String channel, NotificationProperties.Channel config) {
+        this.channel = channel;
+        this.bucket = new TokenBucket(config.getRatePerSecond(), config.getBurst());
+        this.maxInFlight = config.getMaxInFlight();
+    }
+
+    synchronized void offer(String recipient, String message, Consumer<Exception> onFailure, long nowMs) {
+        Batch batch = batches.get(recipient);
+        if (batch == null) {
+            batch = new Batch(recipient, nowMs);
+            batches.put(recipient, batch);
+        } else {
+            coalesced.increment();
+        }
+        batch.messages.add(message);
+        batch.failureHandlers.add(onFailure);
+    }
+
+    /**
+     * Extrae los grupos listos (ventana vencida o maxBatch alcanzado) mientras haya
+     * tokens y capacidad de entregas en vuelo
+     */
+    synchronized void drainReady(long nowMs, long nowNanos, long windowMs, int maxBatch, List<Batch> ready) {
+        Iterator<Batch> iterator = batches.values().iterator();
+        while (iterator.hasNext()) {
+            Batch batch = iterator.next();
+            if (nowMs - batch.firstAtMs < windowMs && batch.messages.size() < maxBatch) {
+                continue;
+            }
+            if (inFlight.get() >= maxInFlight) {
+                return;
+            }
+            if (!bucket.tryAcquire(nowNanos)) {
+                throttled.increment();
+                return;
+            }
+            iterator.remove();
+            inFlight.incrementAndGet();
+            ready.add(batch);
+        }
+    }
+
+    synchronized int waitingRecipients() {
+        return batches.size();
+    }
+
+    synchronized double availableTokens() {
+        return bucket.available();
+    }
+}
@@ -0,0 +1,287 @@
+package com.claro.ecuador.events.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Despacho asíncrono de notificaciones
+ * - submit() solo encola: la entrega (I/O externo) ocurre en hilos propios, nunca en el de consumo
+ * - Las notificaciones a un mismo destinatario y canal dentro de coalesce-window-ms se entregan juntas
+ * - Token bucket por canal (rate-per-second / burst) y tope de entregas en vuelo por canal
+ * - Pendientes acotados: al llegar a high-water-mark submit() espera (hasta backpressure-wait-ms) a que
+ *   los pendientes bajen de low-water-mark y, si no bajan, rechaza; por encima de max-pending rechaza.
+ *   La espera ocurre en el hilo que ejecuta el handler NOTIFICATION (su executor aislado), así solo se
+ *   frena ese camino y no se tocan las particiones ni los containers de Kafka
+ * - Una entrega fallida se notifica al receptor de falla de cada mensaje, que reintenta el evento
+ *
+ * @author Global HITSS
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String DEFAULT_CHANNEL = "default";
+
+    @Autowired
+    private NotificationProperties properties;
+
+    @Autowired(required = false)
+    private List<NotificationSender> notificationSenders = Collections.emptyList();
+
+    private final Map<String, ChannelQueue> channels = new ConcurrentHashMap<>();
+    private final Map<String, NotificationSender> senders = new LinkedHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final Object drained = new Object();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder pauses = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+
+    private ScheduledExecutorService dispatcher;
+    private ExecutorService deliveryExecutor;
+
+    @PostConstruct
+    public void start() {
+        if (properties.getLowWaterMark() >= properties.getHighWaterMark()
+                || properties.getHighWaterMark() > properties.getMaxPending()) {
+            throw new IllegalStateException(
+                    "events-processor.notifications: se requiere low-water-mark < high-water-mark <= max-pending");
+        }
+        for (NotificationSender sender : notificationSenders) {
+            senders.put(sender.channel().toLowerCase(Locale.ROOT), sender);
+        }
+        this.deliveryExecutor = Executors.newFixedThreadPool(properties.getDeliveryThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "notification-delivery-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatchSafely, properties.getTickMs(), properties.getTickMs(),
+                TimeUnit.MILLISECONDS);
+
+        logger.info("📢 Dispatcher de notificaciones: ventana {} ms, máximo {} pendientes (pausa en {}, reanuda en {})",
+                properties.getCoalesceWindowMs(), properties.getMaxPending(),
+                properties.getHighWaterMark(), properties.getLowWaterMark());
+    }
+
+    /**
+     * Encolar una notificación; solo espera si los pendientes superaron high-water-mark
+     *
+     * @param onFailure receptor de la falla si la entrega falla (null: solo se cuenta)
+     * @throws RejectedExecutionException si ya hay max-pending notificaciones pendientes o no bajaron
+     *                                    de low-water-mark en backpressure-wait-ms
+     */
+    public void submit(String channel, String recipient, String message, Consumer<Exception> onFailure) {
+        awaitDrained();
+        if (pending.incrementAndGet() > properties.getMaxPending()) {
+            pending.decrementAndGet();
+            rejected.increment();
+            pauseSubmissions();
+            throw new RejectedExecutionException("Cola de notificaciones llena (" + properties.getMaxPending() + ")");
+        }
+        submitted.increment();
+        channelQueue(channel).offer(recipient, message, onFailure, System.currentTimeMillis());
+
+        if (pending.get() >= properties.getHighWaterMark()) {
+            pauseSubmissions();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(properties.getTickMs() * 2, TimeUnit.MILLISECONDS);
+
+        // Entregar lo pendiente sin esperar la ventana de agrupación, respetando los límites por canal
+        long deadline = System.currentTimeMillis() + properties.getShutdownTimeoutMs();
+        while (pending.get() > 0 && System.currentTimeMillis() < deadline) {
+            dispatch(true);
+            Thread.sleep(properties.getTickMs());
+        }
+        deliveryExecutor.shutdown();
+        deliveryExecutor.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        if (pending.get() > 0) {
+            logger.warn("⚠️ {} notificaciones pendientes descartadas al detener el servicio", pending.get());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.get());
+        stats.put("maxPending", properties.getMaxPending());
+        stats.put("highWaterMark", properties.getHighWaterMark());
+        stats.put("lowWaterMark", properties.getLowWaterMark());
+        stats.put("submissionsPaused", paused.get());
+        stats.put("pauses", pauses.sum());
+        stats.put("waits", waits.sum());
+        stats.put("submitted", submitted.sum());
+        stats.put("rejected", rejected.sum());
+
+        Map<String, Object> byChannel = new LinkedHashMap<>();
+        for (ChannelQueue queue : channels.values()) {
+            Map<String, Object> channelStats = new LinkedHashMap<>();
+            channelStats.put("waitingRecipients", queue.waitingRecipients());
+            channelStats.put("inFlight", queue.inFlight.get());
+            channelStats.put("availableTokens", Math.floor(queue.availableTokens()));
+            channelStats.put("deliveries", queue.deliveries.sum());
+            channelStats.put("delivered", queue.delivered.sum());
+            channelStats.put("coalesced", queue.coalesced.sum());
+            channelStats.put("throttled", queue.throttled.sum());
+            channelStats.put("failed", queue.failed.sum());
+            channelStats.put("sender", senders.containsKey(queue.channel) ? "integrado" : "log");
+            byChannel.put(queue.channel, channelStats);
+        }
+        stats.put("channels", byChannel);
+        return stats;
+    }
+
+    private ChannelQueue channelQueue(String channel) {
+        String key = channel.toLowerCase(Locale.ROOT);
+        ChannelQueue queue = channels.get(key);
+        if (queue != null) {
+            return queue;
+        }
+        return channels.computeIfAbsent(key, name -> {
+            NotificationProperties.Channel config = properties.getChannels().get(name);
+            if (config == null) {
+                config = properties.getChannels().getOrDefault(DEFAULT_CHANNEL, new NotificationProperties.Channel());
+            }
+            return new ChannelQueue(name, config);
+        });
+    }
+
+    private void dispatchSafely() {
+        try {
+            dispatch(false);
+        } catch (RuntimeException e) {
+            logger.error("❌ Error en el dispatcher de notificaciones: {}", e.getMessage(), e);
+        }
+    }
+
+    private void dispatch(boolean flushAll) {
+        long nowMs = System.currentTimeMillis();
+        long nowNanos = System.nanoTime();
+        long windowMs = flushAll ? 0 : properties.getCoalesceWindowMs();
+        List<ChannelQueue.Batch> ready = new ArrayList<>();
+
+        for (ChannelQueue queue : channels.values()) {
+            queue.drainReady(nowMs, nowNanos, windowMs, properties.getMaxBatch(), ready);
+            for (ChannelQueue.Batch batch : ready) {
+                deliveryExecutor.execute(() -> deliver(queue, batch));
+            }
+            ready.clear();
+        }
+        resumeSubmissionsIfDrained();
+    }
+
+    private void deliver(ChannelQueue queue, ChannelQueue.Batch batch) {
+        int size = batch.messages.size();
+        try {
+            NotificationSender sender = senders.get(queue.channel);
+            if (sender != null) {
+                sender.send(batch.recipient, batch.messages);
+            } else {
+                logger.info("📧 Enviando notificación - Canal: {}, Destinatario: {}, Mensajes: {}",
+                        queue.channel, batch.recipient, size);
+            }
+            queue.deliveries.increment();
+            queue.delivered.add(size);
+        } catch (Exception e) {
+            queue.failed.add(size);
+            logger.error("❌ Error enviando {} notificaciones por {} a {}: {}",
+                    size, queue.channel, batch.recipient, e.getMessage());
+            // El registro de origen ya se confirmó: cada evento pasa al camino de reintentos
+            for (Consumer<Exception> onFailure : batch.failureHandlers) {
+                notifyFailure(onFailure, e);
+            }
+        } finally {
+            queue.inFlight.decrementAndGet();
+            pending.addAndGet(-size);
+            resumeSubmissionsIfDrained();
+        }
+    }
+
+    private void notifyFailure(Consumer<Exception> onFailure, Exception error) {
+        if (onFailure == null) {
+            return;
+        }
+        try {
+            onFailure.accept(error);
+        } catch (RuntimeException e) {
+            logger.error("❌ Error reintentando una notificación fallida: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Espera acotada mientras los envíos están pausados por atraso
+     */
+    private void awaitDrained() {
+        if (!paused.get()) {
+            return;
+        }
+        waits.increment();
+        long deadline = System.currentTimeMillis() + properties.getBackpressureWaitMs();
+        synchronized (drained) {
+            while (paused.get()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Notificaciones atrasadas (" + pending.get() + " pendientes)");
+                }
+                try {
+                    drained.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Espera de notificaciones interrumpida");
+                }
+            }
+        }
+    }
+
+    private void pauseSubmissions() {
+        if (!paused.compareAndSet(false, true)) {
+            return;
+        }
+        pauses.increment();
+        logger.warn("⏸️ Notificaciones atrasadas ({} pendientes): nuevos envíos en espera", pending.get());
+    }
+
+    private void resumeSubmissionsIfDrained() {
+        if (!paused.get() || pending.get() > properties.getLowWaterMark() || !paused.compareAndSet(true, false)) {
+            return;
+        }
+        synchronized (drained) {
+            drained.notifyAll();
+        }
+        logger.info("▶️ Notificaciones al día ({} pendientes): envíos reanudados", pending.get());
+    }
+}
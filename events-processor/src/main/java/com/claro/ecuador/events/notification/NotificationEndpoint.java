@@ -0,0 +1,27 @@
+package com.claro.ecuador.events.notification;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/notifications
+ * Pendientes, estado de pausa del consumo y, por canal, entregas, agrupadas, limitadas y fallidas
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "notifications")
+public class NotificationEndpoint {
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @ReadOperation
+    public Map<String, Object> notifications() {
+        return notificationDispatcher.stats();
+    }
+}
@@ -0,0 +1,140 @@
+package com.claro.ecuador.events.notification;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Despacho asíncrono de notificaciones (events-processor.notifications)
+ * Los canales sin entrada usan los valores de la entrada "default".
+ *
+ * @author Global HITSS
+ */
+@Component
+@ConfigurationProperties(prefix = "events-processor.notifications")
+public class NotificationProperties {
+
+    private int maxPending = 10000;
+    private int highWaterMark = 8000;
+    private int lowWaterMark = 2000;
+    private long coalesceWindowMs = 2000;
+    private int maxBatch = 20;
+    private long tickMs = 50;
+    private int deliveryThreads = 4;
+    private long shutdownTimeoutMs = 5000;
+    private long backpressureWaitMs = 5000;
+    private Map<String, Channel> channels = new LinkedHashMap<>();
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public void setHighWaterMark(int highWaterMark) {
+        this.highWaterMark = highWaterMark;
+    }
+
+    public int getLowWaterMark() {
+        return lowWaterMark;
+    }
+
+    public void setLowWaterMark(int lowWaterMark) {
+        this.lowWaterMark = lowWaterMark;
+    }
+
+    public long getCoalesceWindowMs() {
+        return coalesceWindowMs;
+    }
+
+    public void setCoalesceWindowMs(long coalesceWindowMs) {
+        this.coalesceWindowMs = coalesceWindowMs;
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    public void setMaxBatch(int maxBatch) {
+        this.maxBatch = maxBatch;
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    public void setTickMs(long tickMs) {
+        this.tickMs = tickMs;
+    }
+
+    public int getDeliveryThreads() {
+        return deliveryThreads;
+    }
+
+    public void setDeliveryThreads(int deliveryThreads) {
+        this.deliveryThreads = deliveryThreads;
+    }
+
+    public long getShutdownTimeoutMs() {
+        return shutdownTimeoutMs;
+    }
+
+    public void setShutdownTimeoutMs(long shutdownTimeoutMs) {
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    public long getBackpressureWaitMs() {
+        return backpressureWaitMs;
+    }
+
+    public void setBackpressureWaitMs(long backpressureWaitMs) {
+        this.backpressureWaitMs = backpressureWaitMs;
+    }
+
+    public Map<String, Channel> getChannels() {
+        return channels;
+    }
+
+    public void setChannels(Map<String, Channel> channels) {
+        this.channels = channels;
+    }
+
+    public static class Channel {
+
+        private double ratePerSecond = 10;
+        private int burst = 20;
+        private int maxInFlight = 4;
+
+        public double getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public void setRatePerSecond(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+}
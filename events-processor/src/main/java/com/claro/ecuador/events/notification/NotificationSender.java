@@ -0,0 +1,19 @@
+package com.claro.ecuador.events.notification;
+
+import java.util.List;
+
+/**
+ * Integración con un canal de notificaciones (email, sms, push...)
+ * Recibe en una sola entrega todas las notificaciones agrupadas para un destinatario.
+ *
+ * @author Global HITSS
+ */
+public interface NotificationSender {
+
+    /**
+     * Canal atendido, en minúsculas
+     */
+    String channel();
+
+    void send(String recipient, List<String> messages) throws Exception;
+}
@@ -0,0 +1,36 @@
+package com.claro.ecuador.events.notification;
+
+/**
+ * Token bucket de un canal: ratePerSecond tokens por segundo hasta un máximo de burst
+ * Solo lo usa el hilo del dispatcher.
+ *
+ * @author Global HITSS
+ */
+final class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(double ratePerSecond, int burst) {
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = nowNanos;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    double available() {
+        return tokens;
+    }
+}
@@ -0,0 +1,129 @@
+package com.claro.ecuador.events.ordering;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reparte los registros de una partición entre N lanes según el hash de la clave de negocio
+ * Cada lane es un único hilo con cola acotada: los registros de una misma clave se procesan
+ * en orden y claves distintas avanzan en paralelo. Si la cola de un lane está llena, el hilo
+ * de consumo espera a lo sumo capacity-wait-ms (backpressure) y, si no se liberó lugar, dispatch
+ * devuelve false para que la partición se pause igual que al llegar al máximo pendiente.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class KeyOrderedDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+
+    @Value("${events-processor.batch.ordering:partition}")
+    private String ordering;
+
+    @Value("${events-processor.batch.key-ordered.lanes:8}")
+    private int laneCount;
+
+    @Value("${events-processor.batch.key-ordered.lane-queue-capacity:1000}")
+    private int laneQueueCapacity;
+
+    @Value("${events-processor.batch.key-ordered.capacity-wait-ms:1000}")
+    private long capacityWaitMs;
+
+    private final List<ThreadPoolExecutor> lanes = new ArrayList<>();
+
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        for (int i = 0; i < laneCount; i++) {
+            String name = "events-lane-" + i;
+            lanes.add(new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(laneQueueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (task, executor) -> {
+                        // Cola llena: esperar lugar un tiempo acotado, nunca con el lane detenido
+                        if (executor.isShutdown()) {
+                            throw new RejectedExecutionException("Lane detenido");
+                        }
+                        try {
+                            if (!executor.getQueue().offer(task, capacityWaitMs, TimeUnit.MILLISECONDS)) {
+                                throw new RejectedExecutionException("Lane lleno tras " + capacityWaitMs + " ms");
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException("Despacho interrumpido", e);
+                        }
+                    }));
+        }
+        logger.info("🔀 Procesamiento key-ordered activo - Lanes: {}, cola por lane: {}", laneCount, laneQueueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return "key".equalsIgnoreCase(ordering);
+    }
+
+    /**
+     * Encola la tarea en el lane asignado a la clave
+     *
+     * @return false si el lane siguió lleno durante capacity-wait-ms o está detenido (la tarea no se
+     * encoló: anular su ticket y pausar la partición)
+     */
+    public boolean dispatch(String key, Runnable task) {
+        int lane = (spread(key.hashCode()) & Integer.MAX_VALUE) % lanes.size();
+        try {
+            lanes.get(lane).execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("⚠️ Lane {} sin lugar: {}", lane, e.getMessage());
+            return false;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (int i = 0; i < lanes.size(); i++) {
+            Map<String, Object> laneStats = new LinkedHashMap<>();
+            laneStats.put("queueDepth", lanes.get(i).getQueue().size());
+            laneStats.put("completed", lanes.get(i).getCompletedTaskCount());
+            stats.put("lane-" + i, laneStats);
+        }
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
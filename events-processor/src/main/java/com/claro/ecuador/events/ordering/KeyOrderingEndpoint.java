@@ -0,0 +1,35 @@
+package com.claro.ecuador.events.ordering;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/keyordering
+ * Profundidad de cola por lane y marcas de agua / commits por partición
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "keyordering")
+public class KeyOrderingEndpoint {
+
+    @Autowired
+    private KeyOrderedDispatcher keyOrderedDispatcher;
+
+    @Autowired
+    private OffsetWatermarkTracker offsetWatermarkTracker;
+
+    @ReadOperation
+    public Map<String, Object> keyOrdering() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", keyOrderedDispatcher.isEnabled());
+        stats.put("lanes", keyOrderedDispatcher.stats());
+        stats.put("partitions", offsetWatermarkTracker.stats());
+        return stats;
+    }
+}
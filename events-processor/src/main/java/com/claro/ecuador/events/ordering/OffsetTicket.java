@@ -0,0 +1,57 @@
+package com.claro.ecuador.events.ordering;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registro despachado en modo key-ordered, ligado a la instancia de PartitionProgress que lo emitió
+ * Si la partición se revoca y se vuelve a asignar, la numeración de tickets empieza de nuevo: los
+ * tickets de la asignación anterior se ignoran en lugar de marcar secuencias de la nueva. complete()
+ * se puede llamar desde cualquier hilo y una sola vez tiene efecto.
+ *
+ * @author Global HITSS
+ */
+public final class OffsetTicket {
+
+    private final OffsetWatermarkTracker tracker;
+    private final TopicPartition partition;
+    private final PartitionProgress progress;
+    private final long sequence;
+    private final long offset;
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    OffsetTicket(OffsetWatermarkTracker tracker, TopicPartition partition, PartitionProgress progress,
+                 long sequence, long offset) {
+        this.tracker = tracker;
+        this.partition = partition;
+        this.progress = progress;
+        this.sequence = sequence;
+        this.offset = offset;
+    }
+
+    /**
+     * Marca el registro como completado (procesado o entregado al pipeline de reintentos)
+     */
+    public void complete() {
+        if (completed.compareAndSet(false, true)) {
+            tracker.complete(this);
+        }
+    }
+
+    public TopicPartition getPartition() {
+        return partition;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    PartitionProgress getProgress() {
+        return progress;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,195 @@
+package com.claro.ecuador.events.ordering;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Marcas de agua de completitud contigua por partición para el modo key-ordered
+ * El commit de cada partición avanza solo hasta el registro incompleto más antiguo.
+ * Como listener de rebalanceo espera a que terminen los registros en vuelo de las
+ * particiones revocadas y confirma su marca de agua antes de soltarlas.
+ * Una partición que sigue en el máximo pendiente tras capacity-wait-ms no bloquea el hilo de
+ * consumo: se pausa en el consumidor y se reposiciona en su primer registro sin despachar, y se
+ * reanuda cuando sus pendientes bajan a la mitad (así el poll no supera max.poll.interval.ms).
+ * Cada ticket queda ligado a la instancia de progreso que lo emitió: al revocar una partición con
+ * registros todavía en vuelo, sus completados tardíos no tocan la marca de agua de una nueva asignación.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class OffsetWatermarkTracker implements ConsumerAwareRebalanceListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffsetWatermarkTracker.class);
+
+    @Value("${events-processor.batch.key-ordered.max-pending-per-partition:10000}")
+    private int maxPendingPerPartition;
+
+    @Value("${events-processor.batch.key-ordered.revoke-timeout-ms:10000}")
+    private long revokeTimeoutMs;
+
+    @Value("${events-processor.batch.key-ordered.capacity-wait-ms:1000}")
+    private long capacityWaitMs;
+
+    private final Map<TopicPartition, PartitionProgress> partitions = new ConcurrentHashMap<>();
+
+    // Particiones pausadas por estar en el máximo pendiente (de todos los hilos de consumo)
+    private final Set<TopicPartition> paused = ConcurrentHashMap.newKeySet();
+
+    // Completados de tickets emitidos por una asignación ya revocada
+    private final LongAdder staleCompletions = new LongAdder();
+
+    /**
+     * Registra un registro despachado (llamar en orden de offset desde el hilo de consumo)
+     *
+     * @return ticket del registro, o null si la partición siguió en el máximo pendiente durante
+     * capacity-wait-ms (el registro no se despachó: pausar con pause)
+     */
+    public OffsetTicket track(TopicPartition partition, long offset) throws InterruptedException {
+        PartitionProgress progress = progress(partition);
+        long sequence = progress.track(offset, capacityWaitMs);
+        return sequence < 0 ? null : new OffsetTicket(this, partition, progress, sequence, offset);
+    }
+
+    /**
+     * Anula el último ticket de la partición cuando su registro no se pudo despachar (desde el
+     * hilo de consumo, antes de emitir otro ticket para la misma partición)
+     */
+    public void cancel(OffsetTicket ticket) {
+        ticket.getProgress().cancel(ticket.getSequence());
+    }
+
+    /**
+     * Pausa las particiones saturadas y las reposiciona en su primer registro sin despachar
+     * (desde el hilo de consumo)
+     */
+    public void pause(Consumer<?, ?> consumer, Map<TopicPartition, Long> firstUndispatched) {
+        for (Map.Entry<TopicPartition, Long> entry : firstUndispatched.entrySet()) {
+            consumer.seek(entry.getKey(), entry.getValue());
+            paused.add(entry.getKey());
+        }
+        consumer.pause(firstUndispatched.keySet());
+        logger.warn("⏸️ Particiones en el máximo pendiente, pausadas hasta drenar a la mitad: {}",
+                   firstUndispatched.keySet());
+    }
+
+    /**
+     * Reanuda las particiones pausadas del consumidor cuyos pendientes bajaron a la mitad
+     * (desde el hilo de consumo)
+     */
+    public void resumeDrained(Consumer<?, ?> consumer) {
+        if (paused.isEmpty()) {
+            return;
+        }
+        List<TopicPartition> drained = new ArrayList<>();
+        for (TopicPartition partition : consumer.assignment()) {
+            PartitionProgress progress = partitions.get(partition);
+            if (paused.contains(partition) && (progress == null || progress.drainedToHalf())) {
+                drained.add(partition);
+            }
+        }
+        if (!drained.isEmpty()) {
+            consumer.resume(drained);
+            paused.removeAll(drained);
+            logger.info("▶️ Particiones reanudadas: {}", drained);
+        }
+    }
+
+    /**
+     * Usar OffsetTicket.complete(); los tickets de una asignación revocada se ignoran
+     */
+    void complete(OffsetTicket ticket) {
+        if (partitions.get(ticket.getPartition()) != ticket.getProgress()) {
+            staleCompletions.increment();
+            return;
+        }
+        ticket.getProgress().complete(ticket.getSequence());
+    }
+
+    /**
+     * Commit asíncrono de las marcas de agua que avanzaron (desde el hilo de consumo)
+     */
+    public void commit(Consumer<?, ?> consumer) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = committable(consumer.assignment());
+        if (!offsets.isEmpty()) {
+            consumer.commitAsync(offsets, (committed, error) -> {
+                if (error != null) {
+                    logger.warn("⚠️ Commit de marcas de agua fallido {}: {}", committed, error.getMessage());
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        for (TopicPartition partition : revoked) {
+            PartitionProgress progress = partitions.get(partition);
+            try {
+                if (progress != null && !progress.awaitDrained(revokeTimeoutMs)) {
+                    logger.warn("⚠️ Partición {} revocada con {} registros en vuelo; se reprocesarán",
+                               partition, progress.pending());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        Map<TopicPartition, OffsetAndMetadata> offsets = committable(revoked);
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+        }
+        for (TopicPartition partition : revoked) {
+            partitions.remove(partition);
+            paused.remove(partition);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Map.Entry<TopicPartition, PartitionProgress> entry : partitions.entrySet()) {
+            Map<String, Object> partitionStats = new LinkedHashMap<>();
+            partitionStats.put("pending", entry.getValue().pending());
+            partitionStats.put("watermark", entry.getValue().watermark());
+            partitionStats.put("committed", entry.getValue().lastCommitted());
+            partitionStats.put("paused", paused.contains(entry.getKey()));
+            stats.put(entry.getKey().toString(), partitionStats);
+        }
+        stats.put("staleCompletions", staleCompletions.sum());
+        return stats;
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> committable(Collection<TopicPartition> assigned) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : assigned) {
+            PartitionProgress progress = partitions.get(partition);
+            long offset = progress != null ? progress.advanceCommit() : -1;
+            if (offset >= 0) {
+                offsets.put(partition, new OffsetAndMetadata(offset));
+            }
+        }
+        return offsets;
+    }
+
+    private PartitionProgress progress(TopicPartition partition) {
+        PartitionProgress progress = partitions.get(partition);
+        if (progress == null) {
+            progress = partitions.computeIfAbsent(partition, p -> new PartitionProgress(maxPendingPerPartition));
+        }
+        return progress;
+    }
+}
@@ -0,0 +1,123 @@
+package com.claro.ecuador.events.ordering;
+
+/**
+ * Progreso de una partición en modo key-ordered
+ * Anillo de offsets despachados en orden de llegada con su marca de completado.
+ * La marca de agua es el offset del registro incompleto más antiguo: todo lo anterior
+ * terminó y se puede hacer commit hasta ahí aunque registros posteriores (de otras
+ * claves) ya hayan terminado.
+ *
+ * @author Global HITSS
+ */
+final class PartitionProgress {
+
+    private final long[] offsets;
+    private final boolean[] done;
+    private final int capacity;
+
+    // Secuencia del registro incompleto más antiguo y siguiente secuencia a asignar
+    private long head;
+    private long tail;
+    private long lastDispatchedOffset = -1;
+    private long lastCommittedOffset = -1;
+
+    PartitionProgress(int capacity) {
+        this.capacity = capacity;
+        this.offsets = new long[capacity];
+        this.done = new boolean[capacity];
+    }
+
+    /**
+     * Registra un offset despachado; si la partición alcanzó el máximo pendiente espera a lo sumo
+     * timeoutMs a que se complete algún registro, revisando la condición en cada despertar
+     *
+     * @return ticket para marcar el registro como completado, o -1 si no se liberó lugar a tiempo
+     */
+    synchronized long track(long offset, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (tail - head >= capacity) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return -1;
+            }
+            wait(remaining);
+        }
+        int slot = (int) (tail % capacity);
+        offsets[slot] = offset;
+        done[slot] = false;
+        lastDispatchedOffset = offset;
+        return tail++;
+    }
+
+    /**
+     * Descarta el último ticket emitido cuando su registro no llegó a despacharse: la marca de
+     * agua vuelve a ese offset, que se leerá de nuevo al reanudar la partición
+     */
+    synchronized void cancel(long ticket) {
+        if (ticket != tail - 1) {
+            throw new IllegalStateException("Solo se puede cancelar el último ticket emitido");
+        }
+        lastDispatchedOffset = offsets[(int) (ticket % capacity)] - 1;
+        tail--;
+    }
+
+    synchronized void complete(long ticket) {
+        done[(int) (ticket % capacity)] = true;
+        long previousHead = head;
+        while (head < tail && done[(int) (head % capacity)]) {
+            head++;
+        }
+        if (head != previousHead) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Siguiente offset a consumir según la completitud contigua
+     */
+    synchronized long watermark() {
+        return head < tail ? offsets[(int) (head % capacity)] : lastDispatchedOffset + 1;
+    }
+
+    /**
+     * Offset a confirmar si la marca de agua avanzó desde el último commit; -1 si no
+     */
+    synchronized long advanceCommit() {
+        if (lastDispatchedOffset < 0) {
+            return -1;
+        }
+        long watermark = watermark();
+        if (watermark <= lastCommittedOffset) {
+            return -1;
+        }
+        lastCommittedOffset = watermark;
+        return watermark;
+    }
+
+    synchronized boolean awaitDrained(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (head < tail) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * true cuando los pendientes bajaron a la mitad del máximo (nivel para reanudar la partición)
+     */
+    synchronized boolean drainedToHalf() {
+        return tail - head <= capacity / 2;
+    }
+
+    synchronized int pending() {
+        return (int) (tail - head);
+    }
+
+    synchronized long lastCommitted() {
+        return lastCommittedOffset;
+    }
+}
@@ -0,0 +1,41 @@
+package com.claro.ecuador.events.parsing;
+
+/**
+ * Campos de ruteo de un evento general: ID, tipo y fuente, más el timestamp del evento
+ * Se obtienen por streaming sin deserializar el evento completo
+ *
+ * @author Global HITSS
+ */
+public final class EventHeader {
+
+    private final String eventId;
+    private final String eventType;
+    private final String source;
+    private final String timestamp;
+
+    public EventHeader(String eventId, String eventType, String source, String timestamp) {
+        this.eventId = eventId;
+        this.eventType = eventType;
+        this.source = source;
+        this.timestamp = timestamp;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Timestamp tal como viene en el evento; null si no tiene
+     */
+    public String getTimestamp() {
+        return timestamp;
+    }
+}
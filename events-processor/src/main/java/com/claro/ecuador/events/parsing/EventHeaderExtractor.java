@@ -0,0 +1,245 @@
+package com.claro.ecuador.events.parsing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Extractor por streaming de los campos de ruteo de eventos generales
+ * Recorre solo el primer nivel del JSON con JsonParser: los valores que no son de
+ * ruteo y los objetos/arreglos anidados se saltan sin materializarse.
+ *
+ * Mantiene los mismos fallbacks que la extracción basada en Map:
+ * eventId/id/Id, eventType/type/Type y source/origin. El timestamp (timestamp/@timestamp)
+ * se toma en la misma pasada para medir el lag del evento.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class EventHeaderExtractor {
+
+    // Prioridad de cada candidato: menor valor = mayor prioridad
+    private static final int NOT_FOUND = Integer.MAX_VALUE;
+    // Separador de los componentes de la clave de deduplicación (no aparece en IDs, tipos ni fuentes)
+    private static final char DEDUP_KEY_SEPARATOR = '\u001F';
+
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public EventHeaderExtractor(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Extrae ID, tipo, fuente y timestamp del evento en una sola pasada
+     */
+    public EventHeader extract(byte[] message) throws IOException {
+        String eventId = null;
+        String eventType = null;
+        String source = null;
+        String timestamp = null;
+        int idRank = NOT_FOUND;
+        int typeRank = NOT_FOUND;
+        int sourceRank = NOT_FOUND;
+        int timestampRank = NOT_FOUND;
+
+        try (JsonParser parser = jsonFactory.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("El evento general debe ser un objeto JSON");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                int rank;
+                if ((rank = idRank(field)) < idRank) {
+                    String text = scalarText(parser, value);
+                    if (text != null) {
+                        eventId = text;
+                        idRank = rank;
+                    }
+                } else if ((rank = typeRank(field)) < typeRank) {
+                    String text = scalarText(parser, value);
+                    if (text != null) {
+                        eventType = text;
+                        typeRank = rank;
+                    }
+                } else if ((rank = sourceRank(field)) < sourceRank) {
+                    String text = scalarText(parser, value);
+                    if (text != null) {
+                        source = text;
+                        sourceRank = rank;
+                    }
+                } else if ((rank = timestampRank(field)) < timestampRank) {
+                    String text = scalarText(parser, value);
+                    if (text != null) {
+                        timestamp = text;
+                        timestampRank = rank;
+                    }
+                } else {
+                    // Campo sin interés para el ruteo: saltar sin materializar
+                    parser.skipChildren();
+                }
+
+                // Los cuatro campos de máxima prioridad ya fueron encontrados
+                if (idRank == 0 && typeRank == 0 && sourceRank == 0 && timestampRank == 0) {
+                    break;
+                }
+            }
+        }
+
+        return new EventHeader(
+                eventId != null ? eventId : "unknown-" + System.currentTimeMillis(),
+                eventType != null ? eventType : "UNKNOWN_EVENT",
+                source != null ? source : "UNKNOWN_SOURCE",
+                timestamp);
+    }
+
+    /**
+     * Clave de deduplicación: el ID (eventId/id/Id) acotado por tipo y fuente del evento, en una pasada
+     * que se detiene al encontrar eventId, eventType y source
+     * El fallback id/Id de Salesforce es el Id del registro: sin el tipo y la fuente, eventos
+     * distintos sobre el mismo registro se tomarían como duplicados.
+     *
+     * @return tipo␟fuente␟ID (vacíos si faltan tipo o fuente), o null si el evento no tiene ID
+     */
+    public String extractDedupKey(byte[] message) throws IOException {
+        String eventId = null;
+        String eventType = null;
+        String source = null;
+        int idRank = NOT_FOUND;
+        int typeRank = NOT_FOUND;
+        int sourceRank = NOT_FOUND;
+
+        try (JsonParser parser = jsonFactory.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("El evento general debe ser un objeto JSON");
+            }
+            while ((idRank != 0 || typeRank != 0 || sourceRank != 0) && parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                int rank;
+                if ((rank = idRank(field)) < idRank) {
+                    String text = scalarText(parser, value);
+                    if (text != null) {
+                        eventId = text;
+                        idRank = rank;
+                    }
+                } else if ((rank = typeRank(field)) < typeRank) {
+                    String text = scalarText(parser, value);
+                    if (text != null) {
+                        eventType = text;
+                        typeRank = rank;
+                    }
+                } else if ((rank = sourceRank(field)) < sourceRank) {
+                    String text = scalarText(parser, value);
+                    if (text != null) {
+                        source = text;
+                        sourceRank = rank;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        if (eventId == null) {
+            return null;
+        }
+        return (eventType != null ? eventType : "") + DEDUP_KEY_SEPARATOR + (source != null ? source : "")
+                + DEDUP_KEY_SEPARATOR + eventId;
+    }
+
+    /**
+     * Extrae el primer campo presente de primer nivel según el orden de prioridad dado
+     *
+     * @return el valor o null si ninguno de los campos existe
+     */
+    public String extractFirstField(byte[] message, String[] fieldsByPriority) throws IOException {
+        String found = null;
+        int foundRank = fieldsByPriority.length;
+
+        try (JsonParser parser = jsonFactory.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("El evento general debe ser un objeto JSON");
+            }
+            while (foundRank != 0 && parser.nextToken() == JsonToken.FIELD_NAME) {
+                int rank = rankOf(parser.getCurrentName(), fieldsByPriority, foundRank);
+                JsonToken value = parser.nextToken();
+                if (rank < foundRank) {
+                    String text = scalarText(parser, value);
+                    if (text != null) {
+                        found = text;
+                        foundRank = rank;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return found;
+    }
+
+    private static int rankOf(String field, String[] fieldsByPriority, int limit) {
+        for (int i = 0; i < limit; i++) {
+            if (fieldsByPriority[i].equals(field)) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Texto de un valor escalar; null para JSON null. Objetos y arreglos se saltan.
+     */
+    private static String scalarText(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value.isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getText();
+    }
+
+    private static int idRank(String field) {
+        switch (field) {
+            case "eventId": return 0;
+            case "id": return 1;
+            case "Id": return 2;
+            default: return NOT_FOUND;
+        }
+    }
+
+    private static int typeRank(String field) {
+        switch (field) {
+            case "eventType": return 0;
+            case "type": return 1;
+            case "Type": return 2;
+            default: return NOT_FOUND;
+        }
+    }
+
+    private static int sourceRank(String field) {
+        switch (field) {
+            case "source": return 0;
+            case "origin": return 1;
+            default: return NOT_FOUND;
+        }
+    }
+
+    private static int timestampRank(String field) {
+        switch (field) {
+            case "timestamp": return 0;
+            case "@timestamp": return 1;
+            default: return NOT_FOUND;
+        }
+    }
+}
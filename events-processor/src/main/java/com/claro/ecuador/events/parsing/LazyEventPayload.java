@@ -0,0 +1,159 @@
+package com.claro.ecuador.events.parsing;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Vista de un evento general para los handlers
+ * Conserva los bytes originales del registro y expone los campos de ruteo ya extraídos.
+ * El resto se decodifica bajo demanda y queda en caché mientras dura el procesamiento:
+ * - Campos de primer nivel: el Map completo se materializa en la primera lectura
+ * - Campos anidados en eventData (JSON escapado dentro de un string, como en los
+ *   eventos de Salesforce): se decodifican solo en la primera lectura de un campo anidado
+ *
+ * No es thread-safe: pertenece al procesamiento de un único registro.
+ *
+ * @author Global HITSS
+ */
+public class LazyEventPayload {
+
+    public static final String EVENT_DATA_FIELD = "eventData";
+
+    private final byte[] raw;
+    private final EventHeader header;
+    private final ObjectMapper objectMapper;
+
+    private Map<String, Object> fields;
+    private Map<String, Object> eventData;
+    private String rawText;
+
+    public LazyEventPayload(byte[] raw, EventHeader header, ObjectMapper objectMapper) {
+        this.raw = raw;
+        this.header = header;
+        this.objectMapper = objectMapper;
+    }
+
+    public EventHeader getHeader() {
+        return header;
+    }
+
+    public byte[] getRaw() {
+        return raw;
+    }
+
+    /**
+     * Evento original como texto (se decodifica una sola vez)
+     */
+    public String getRawText() {
+        if (rawText == null) {
+            rawText = new String(raw, StandardCharsets.UTF_8);
+        }
+        return rawText;
+    }
+
+    public Object get(String field) {
+        return asMap().get(field);
+    }
+
+    public Object getOrDefault(String field, Object defaultValue) {
+        return asMap().getOrDefault(field, defaultValue);
+    }
+
+    /**
+     * Lee un campo del JSON anidado en eventData
+     */
+    public Object getNested(String field) {
+        return eventData().get(field);
+    }
+
+    public Object getNestedOrDefault(String field, Object defaultValue) {
+        return eventData().getOrDefault(field, defaultValue);
+    }
+
+    /**
+     * Indica si el evento ya fue deserializado completo
+     */
+    public boolean isMaterialized() {
+        return fields != null;
+    }
+
+    /**
+     * Indica si el JSON anidado en eventData ya fue decodificado
+     */
+    public boolean isEventDataDecoded() {
+        return eventData != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> asMap() {
+        if (fields == null) {
+            try {
+                fields = objectMapper.readValue(raw, Map.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error materializando evento general", e);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Contenido de eventData como Map. Acepta eventData como string JSON escapado
+     * o como objeto; si no existe se devuelve un Map vacío.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> eventData() {
+        if (eventData == null) {
+            try {
+                Object value = fields != null ? fields.get(EVENT_DATA_FIELD) : readEventDataValue();
+                if (value instanceof String) {
+                    eventData = objectMapper.readValue((String) value, Map.class);
+                } else if (value instanceof Map) {
+                    eventData = (Map<String, Object>) value;
+                } else {
+                    eventData = Collections.emptyMap();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error decodificando eventData", e);
+            }
+        }
+        return eventData;
+    }
+
+    /**
+     * Busca eventData en el primer nivel por streaming, sin materializar el resto del evento
+     */
+    private Object readEventDataValue() throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(raw)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!EVENT_DATA_FIELD.equals(field)) {
+                    parser.skipChildren();
+                } else if (value == JsonToken.VALUE_STRING) {
+                    return parser.getText();
+                } else if (value == JsonToken.START_OBJECT) {
+                    return objectMapper.readValue(parser, Map.class);
+                } else {
+                    parser.skipChildren();
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return getRawText();
+    }
+}
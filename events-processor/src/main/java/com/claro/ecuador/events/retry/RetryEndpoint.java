@@ -0,0 +1,27 @@
+package com.claro.ecuador.events.retry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/retries
+ * Publicados por nivel de reintento, enviados a errors.events y fallos de publicación
+ *
+ * @author Global HITSS
+ */
+@Component
+@Endpoint(id = "retries")
+public class RetryEndpoint {
+
+    @Autowired
+    private RetryPublisher retryPublisher;
+
+    @ReadOperation
+    public Map<String, Object> retries() {
+        return retryPublisher.stats();
+    }
+}
@@ -0,0 +1,58 @@
+package com.claro.ecuador.events.retry;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Headers de los registros publicados en los topics de reintento (valores en texto)
+ *
+ * @author Global HITSS
+ */
+public final class RetryHeaders {
+
+    /**
+     * Número de reintento que representa el registro (1 = primer reintento)
+     */
+    public static final String ATTEMPT = "x-retry-attempt";
+
+    /**
+     * Topic en el que se recibió el evento originalmente
+     */
+    public static final String ORIGINAL_TOPIC = "x-retry-original-topic";
+
+    /**
+     * Epoch millis a partir del cual el registro puede reprocesarse
+     */
+    public static final String DUE_AT = "x-retry-due-at";
+
+    public static final String ERROR_TYPE = "x-retry-error-type";
+
+    public static final String ERROR = "x-retry-error";
+
+    /**
+     * Número de reintento programado por errors-handler al republicar un evento desde errors.events
+     * (se conserva en los topics de reintento y se informa como retryAttempt al volver a errors.events)
+     */
+    public static final String DLQ_ATTEMPT = "x-dlq-retry-attempt";
+
+    private RetryHeaders() {
+    }
+
+    public static long longValue(Headers headers, String name, long defaultValue) {
+        Header header = headers.lastHeader(name);
+        return header == null ? defaultValue : parse(header.value(), defaultValue);
+    }
+
+    public static long parse(byte[] value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(new String(value, StandardCharsets.US_ASCII).trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
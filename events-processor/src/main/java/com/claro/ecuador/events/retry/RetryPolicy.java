@@ -0,0 +1,133 @@
+package com.claro.ecuador.events.retry;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Niveles de reintento configurados (events-processor.retry.tiers)
+ * Cada nivel "5s", "1m", "10m"... tiene su topic (topic-prefix + nivel). Los topics que falten
+ * se crean al arrancar, antes de que inicien los listener containers.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class RetryPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryPolicy.class);
+
+    @Autowired
+    private RetryProperties properties;
+
+    @Autowired
+    private KafkaAdmin kafkaAdmin;
+
+    private List<RetryTier> tiers;
+
+    @PostConstruct
+    public void init() {
+        List<RetryTier> configured = new ArrayList<>();
+        for (String tier : properties.getTiers()) {
+            String name = tier.trim();
+            configured.add(new RetryTier(name, properties.getTopicPrefix() + name, parseDelay(name)));
+        }
+        this.tiers = Collections.unmodifiableList(configured);
+        if (properties.isEnabled()) {
+            createMissingTopics();
+        }
+    }
+
+    /**
+     * Nivel al que va un registro que falló en el intento indicado (0 = consumo original)
+     *
+     * @return null si ya se agotaron los reintentos
+     */
+    public RetryTier tierFor(int attempt) {
+        return attempt < tiers.size() ? tiers.get(attempt) : null;
+    }
+
+    public List<RetryTier> getTiers() {
+        return tiers;
+    }
+
+    /**
+     * Topics de reintento, para la suscripción del listener
+     */
+    public String[] topics() {
+        String[] topics = new String[tiers.size()];
+        for (int i = 0; i < topics.length; i++) {
+            topics[i] = tiers.get(i).getTopic();
+        }
+        return topics;
+    }
+
+    private void createMissingTopics() {
+        try (AdminClient adminClient = AdminClient.create(kafkaAdmin.getConfig())) {
+            Set<String> existing = adminClient.listTopics().names().get(30, TimeUnit.SECONDS);
+            List<NewTopic> missing = new ArrayList<>();
+            for (RetryTier tier : tiers) {
+                if (!existing.contains(tier.getTopic())) {
+                    missing.add(new NewTopic(tier.getTopic(), properties.getPartitions(),
+                            properties.getReplicationFactor()));
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+            adminClient.createTopics(missing).all().get(30, TimeUnit.SECONDS);
+            logger.info("🔁 Topics de reintento creados: {}", missing.size());
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof TopicExistsException)) {
+                logger.warn("⚠️ No se pudieron crear los topics de reintento: {}", e.getCause().getMessage());
+            }
+        } catch (TimeoutException e) {
+            logger.warn("⚠️ Timeout verificando los topics de reintento");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Demora de un nivel: número seguido de ms, s, m o h
+     */
+    static long parseDelay(String tier) {
+        String value = tier.toLowerCase(Locale.ROOT);
+        long multiplier;
+        String digits;
+        if (value.endsWith("ms")) {
+            multiplier = 1L;
+            digits = value.substring(0, value.length() - 2);
+        } else if (value.endsWith("s")) {
+            multiplier = 1000L;
+            digits = value.substring(0, value.length() - 1);
+        } else if (value.endsWith("m")) {
+            multiplier = 60_000L;
+            digits = value.substring(0, value.length() - 1);
+        } else if (value.endsWith("h")) {
+            multiplier = 3_600_000L;
+            digits = value.substring(0, value.length() - 1);
+        } else {
+            throw new IllegalStateException("Nivel de reintento inválido: " + tier + " (ej. 5s, 1m, 10m)");
+        }
+        try {
+            return Long.parseLong(digits) * multiplier;
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Nivel de reintento inválido: " + tier + " (ej. 5s, 1m, 10m)");
+        }
+    }
+}
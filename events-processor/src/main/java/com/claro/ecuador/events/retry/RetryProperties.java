@@ -0,0 +1,127 @@
+package com.claro.ecuador.events.retry;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reintentos no bloqueantes por topics escalonados (events-processor.retry)
+ *
+ * @author Global HITSS
+ */
+@Component
+@ConfigurationProperties(prefix = "events-processor.retry")
+public class RetryProperties {
+
+    private boolean enabled = true;
+    private List<String> tiers = new ArrayList<>(Arrays.asList("5s", "1m", "10m"));
+    private String topicPrefix = "Events.retry.";
+    private String deadLetterTopic = "errors.events";
+    private int partitions = 3;
+    private short replicationFactor = 1;
+    private int concurrency = 1;
+    private int maxPollRecords = 50;
+    private long idleCheckMs = 1000;
+    private long publishBackoffMs = 500;
+    private long publishMaxBackoffMs = 30000;
+    private long publishTimeoutMs = 30000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getTiers() {
+        return tiers;
+    }
+
+    public void setTiers(List<String> tiers) {
+        this.tiers = tiers;
+    }
+
+    public String getTopicPrefix() {
+        return topicPrefix;
+    }
+
+    public void setTopicPrefix(String topicPrefix) {
+        this.topicPrefix = topicPrefix;
+    }
+
+    public String getDeadLetterTopic() {
+        return deadLetterTopic;
+    }
+
+    public void setDeadLetterTopic(String deadLetterTopic) {
+        this.deadLetterTopic = deadLetterTopic;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    public short getReplicationFactor() {
+        return replicationFactor;
+    }
+
+    public void setReplicationFactor(short replicationFactor) {
+        this.replicationFactor = replicationFactor;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getMaxPollRecords() {
+        return maxPollRecords;
+    }
+
+    public void setMaxPollRecords(int maxPollRecords) {
+        this.maxPollRecords = maxPollRecords;
+    }
+
+    public long getIdleCheckMs() {
+        return idleCheckMs;
+    }
+
+    public void setIdleCheckMs(long idleCheckMs) {
+        this.idleCheckMs = idleCheckMs;
+    }
+
+    public long getPublishBackoffMs() {
+        return publishBackoffMs;
+    }
+
+    public void setPublishBackoffMs(long publishBackoffMs) {
+        this.publishBackoffMs = publishBackoffMs;
+    }
+
+    public long getPublishMaxBackoffMs() {
+        return publishMaxBackoffMs;
+    }
+
+    public void setPublishMaxBackoffMs(long publishMaxBackoffMs) {
+        this.publishMaxBackoffMs = publishMaxBackoffMs;
+    }
+
+    public long getPublishTimeoutMs() {
+        return publishTimeoutMs;
+    }
+
+    public void setPublishTimeoutMs(long publishTimeoutMs) {
+        this.publishTimeoutMs = publishTimeoutMs;
+    }
+}
@@ -0,0 +1,251 @@
+package com.claro.ecuador.events.retry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publica los eventos fallidos en el siguiente topic de reintento o, agotados los niveles,
+ * en errors.events con el esquema que espera errors-handler
+ * (topic, errorType, error, timestamp, originalMessage; más retryAttempt si el evento
+ * venía de un reintento de errors-handler).
+ * El futuro de publishFailure se completa recién cuando el broker confirmó el envío: los llamadores
+ * retienen el ack (o el ticket del modo key-ordered) hasta entonces, así un evento fallido no se
+ * confirma sin haber llegado a su topic. Un envío fallido se reintenta con backoff exponencial
+ * (publish-backoff-ms hasta publish-max-backoff-ms) mientras la aplicación esté activa; al detenerla
+ * el futuro se completa con error y el registro se vuelve a leer de Kafka.
+ *
+ * @author Global HITSS
+ */
+@Component
+public class RetryPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryPublisher.class);
+
+    @Autowired
+    private RetryProperties properties;
+
+    @Autowired
+    private RetryPolicy retryPolicy;
+
+    @Autowired
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ScheduledExecutorService retryExecutor;
+    private volatile boolean running;
+
+    /**
+     * Publicaciones esperando su próximo intento, para liberarlas al detener
+     */
+    private final Map<CompletableFuture<Void>, ProducerRecord<String, byte[]>> awaitingRetry = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> retried = new ConcurrentHashMap<>();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder publishRetries = new LongAdder();
+    private final LongAdder publishFailures = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        for (RetryTier tier : retryPolicy.getTiers()) {
+            retried.put(tier.getName(), new LongAdder());
+        }
+        retryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "retry-publish");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+    }
+
+    /**
+     * Enviar un evento fallido a reintento o a errors.events
+     *
+     * @param attempt    intento que falló (0 = consumo original del topic)
+     * @param dlqAttempt reintento programado por errors-handler que traía el evento (0 = ninguno)
+     * @return futuro completado cuando el broker confirmó el envío (con error solo si la aplicación
+     * se detuvo antes de lograrlo)
+     */
+    public CompletableFuture<Void> publishFailure(byte[] message, String originalTopic, int attempt, int dlqAttempt,
+                                                  Exception error) {
+        if (!properties.isEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        RetryTier tier = retryPolicy.tierFor(attempt);
+        if (tier == null) {
+            return deadLetter(message, originalTopic, attempt, dlqAttempt, error);
+        }
+
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(tier.getTopic(), message);
+        Headers headers = record.headers();
+        headers.add(RetryHeaders.ATTEMPT, ascii(Integer.toString(attempt + 1)));
+        headers.add(RetryHeaders.ORIGINAL_TOPIC, ascii(originalTopic));
+        headers.add(RetryHeaders.DUE_AT, ascii(Long.toString(System.currentTimeMillis() + tier.getDelayMs())));
+        headers.add(RetryHeaders.ERROR_TYPE, ascii(error.getClass().getSimpleName()));
+        headers.add(RetryHeaders.ERROR, String.valueOf(error.getMessage()).getBytes(StandardCharsets.UTF_8));
+        if (dlqAttempt > 0) {
+            headers.add(RetryHeaders.DLQ_ATTEMPT, ascii(Integer.toString(dlqAttempt)));
+        }
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        send(record, 0, done, () -> {
+            retried.get(tier.getName()).increment();
+            logger.warn("🔁 Evento enviado a reintento {} ({}) - Topic original: {}, Error: {}",
+                    attempt + 1, tier.getTopic(), originalTopic, error.getMessage());
+        });
+        return done;
+    }
+
+    /**
+     * Espera acotada a que se confirme una publicación
+     *
+     * @return false si no se confirmó en publish-timeout-ms (el registro no se debe confirmar)
+     */
+    public boolean await(CompletableFuture<Void> published) {
+        try {
+            published.get(properties.getPublishTimeoutMs(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        Map<String, Object> tiers = new LinkedHashMap<>();
+        for (RetryTier tier : retryPolicy.getTiers()) {
+            Map<String, Object> tierStats = new LinkedHashMap<>();
+            tierStats.put("topic", tier.getTopic());
+            tierStats.put("delayMs", tier.getDelayMs());
+            tierStats.put("published", retried.get(tier.getName()).sum());
+            tiers.put(tier.getName(), tierStats);
+        }
+        stats.put("tiers", tiers);
+        stats.put("deadLetterTopic", properties.getDeadLetterTopic());
+        stats.put("deadLettered", deadLettered.sum());
+        stats.put("publishRetries", publishRetries.sum());
+        stats.put("publishFailures", publishFailures.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        retryExecutor.shutdownNow();
+        // Quien espera una publicación pendiente no debe quedar bloqueado hasta su timeout
+        for (CompletableFuture<Void> done : awaitingRetry.keySet()) {
+            ProducerRecord<String, byte[]> record = awaitingRetry.remove(done);
+            if (record != null) {
+                abandon(record, done);
+            }
+        }
+    }
+
+    private CompletableFuture<Void> deadLetter(byte[] message, String originalTopic, int attempt, int dlqAttempt,
+                                               Exception error) {
+        Map<String, Object> errorEvent = new LinkedHashMap<>();
+        errorEvent.put("topic", originalTopic);
+        errorEvent.put("errorType", error.getClass().getSimpleName());
+        errorEvent.put("error", String.valueOf(error.getMessage()));
+        errorEvent.put("timestamp", Instant.now().toString());
+        errorEvent.put("originalMessage", new String(message, StandardCharsets.UTF_8));
+        if (dlqAttempt > 0) {
+            // Para que errors-handler continúe su backoff en lugar de reiniciarlo
+            errorEvent.put("retryAttempt", dlqAttempt);
+        }
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(errorEvent);
+        } catch (Exception e) {
+            // Reintentar no lo corrige: se descarta para no retener el ack para siempre
+            publishFailures.increment();
+            logger.error("❌ No se pudo serializar el evento de error: {}", e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        send(new ProducerRecord<>(properties.getDeadLetterTopic(), payload), 0, done, () -> {
+            deadLettered.increment();
+            logger.error("☠️ Reintentos agotados ({}) - Evento enviado a {} - Topic original: {}, Error: {}",
+                    attempt, properties.getDeadLetterTopic(), originalTopic, error.getMessage());
+        });
+        return done;
+    }
+
+    private void send(ProducerRecord<String, byte[]> record, int attempt, CompletableFuture<Void> done,
+                      Runnable onPublished) {
+        if (!running) {
+            abandon(record, done);
+            return;
+        }
+        try {
+            kafkaTemplate.send(record).addCallback(
+                    result -> {
+                        onPublished.run();
+                        done.complete(null);
+                    },
+                    failure -> retryLater(record, attempt, done, onPublished, failure));
+        } catch (RuntimeException e) {
+            retryLater(record, attempt, done, onPublished, e);
+        }
+    }
+
+    private void retryLater(ProducerRecord<String, byte[]> record, int attempt, CompletableFuture<Void> done,
+                            Runnable onPublished, Throwable failure) {
+        publishFailures.increment();
+        if (!running) {
+            abandon(record, done);
+            return;
+        }
+        long backoff = Math.min(properties.getPublishBackoffMs() << Math.min(attempt, 16),
+                properties.getPublishMaxBackoffMs());
+        publishRetries.increment();
+        logger.warn("⚠️ No se pudo publicar en {} ({}), reintento en {} ms", record.topic(), failure.getMessage(), backoff);
+        awaitingRetry.put(done, record);
+        try {
+            retryExecutor.schedule(() -> {
+                if (awaitingRetry.remove(done) != null) {
+                    send(record, attempt + 1, done, onPublished);
+                }
+            }, backoff, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (awaitingRetry.remove(done) != null) {
+                abandon(record, done);
+            }
+        }
+    }
+
+    private static void abandon(ProducerRecord<String, byte[]> record, CompletableFuture<Void> done) {
+        logger.error("❌ Evento sin publicar en {} al detener: el registro se volverá a leer de Kafka", record.topic());
+        done.completeExceptionally(new IllegalStateException("Publicación en " + record.topic() + " abandonada al detener"));
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,31 @@
+package com.claro.ecuador.events.retry;
+
+/**
+ * Nivel de reintento: topic y demora antes de volver a procesar
+ *
+ * @author Global HITSS
+ */
+public final class RetryTier {
+
+    private final String name;
+    private final String topic;
+    private final long delayMs;
+
+    RetryTier(String name, String topic, long delayMs) {
+        this.name = name;
+        this.topic = topic;
+        this.delayMs = delayMs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public long getDelayMs() {
+        return delayMs;
+    }
+}
@@ -0,0 +1,113 @@
+package com.claro.ecuador.events.audit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Consultas con límite, rotación y retención con consultas en curso
+ *
+ * @author Global HITSS
+ */
+public class AuditJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AuditJournal journal;
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.newFolder("audit");
+        journal = new AuditJournal();
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "directory", directory.getAbsolutePath());
+        ReflectionTestUtils.setField(journal, "segmentBytes", 4096);
+        ReflectionTestUtils.setField(journal, "rollIntervalMs", 3600000L);
+        ReflectionTestUtils.setField(journal, "indexIntervalBytes", 256);
+        ReflectionTestUtils.setField(journal, "fsyncPolicy", "none");
+        ReflectionTestUtils.setField(journal, "retentionMs", 0L);
+        ReflectionTestUtils.setField(journal, "retentionBytes", 0L);
+        journal.init();
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    public void readStopsAtMaxRecords() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            journal.append(0, "u-1", "LOGIN", "e-" + i);
+        }
+        assertTrue(segmentFiles() > 1);
+
+        List<AuditRecord> records = new ArrayList<>();
+        int delivered = journal.read("u-1", 0, Long.MAX_VALUE, 5, records::add);
+
+        assertEquals(5, delivered);
+        assertEquals(5, records.size());
+        assertEquals(200, journal.read("u-1", 0, Long.MAX_VALUE, Integer.MAX_VALUE, record -> { }));
+    }
+
+    @Test
+    public void retentionWaitsForQueryInProgress() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            journal.append(0, "u-1", "LOGIN", "e-" + i);
+        }
+        int segmentsBefore = segmentFiles();
+
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> query = reader.submit(() -> journal.read("u-1", 0, Long.MAX_VALUE, 1, record -> {
+                reading.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+            // Rotar y aplicar retención mientras la consulta tiene fijado el primer segmento
+            for (int i = 0; i < 100; i++) {
+                journal.append(0, "u-2", "LOGIN", "f-" + i);
+            }
+            ReflectionTestUtils.setField(journal, "retentionBytes", 1L);
+            journal.enforceRetention();
+            assertTrue(new File(directory, String.format("audit-%020d.seg", 0)).exists());
+
+            release.countDown();
+            assertEquals(1, (int) query.get(5, TimeUnit.SECONDS));
+            assertFalse(new File(directory, String.format("audit-%020d.seg", 0)).exists());
+            assertTrue(segmentFiles() < segmentsBefore);
+        } finally {
+            reader.shutdownNow();
+        }
+    }
+
+    private int segmentFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".seg"));
+        return files == null ? 0 : files.length;
+    }
+}
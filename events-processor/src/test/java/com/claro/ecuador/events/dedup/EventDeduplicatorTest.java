@@ -0,0 +1,76 @@
+package com.claro.ecuador.events.dedup;
+
+import com.claro.ecuador.events.parsing.EventHeaderExtractor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Deduplicación por clave acotada (tipo + fuente + ID) repartida en stripes
+ *
+ * @author Global HITSS
+ */
+public class EventDeduplicatorTest {
+
+    private final EventHeaderExtractor extractor = new EventHeaderExtractor(new ObjectMapper());
+    private EventDeduplicator deduplicator;
+
+    @Before
+    public void setUp() {
+        deduplicator = new EventDeduplicator();
+        ReflectionTestUtils.setField(deduplicator, "enabled", true);
+        ReflectionTestUtils.setField(deduplicator, "retentionMs", 600000L);
+        ReflectionTestUtils.setField(deduplicator, "exactCapacity", 1000);
+        ReflectionTestUtils.setField(deduplicator, "bloomMemoryBytes", 65536L);
+        ReflectionTestUtils.setField(deduplicator, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(deduplicator, "trustBloom", false);
+        ReflectionTestUtils.setField(deduplicator, "stripeCount", 5);
+        deduplicator.init();
+    }
+
+    @Test
+    public void sharedSalesforceIdIsScopedByTypeAndSource() throws IOException {
+        String customer = "{\"Id\":\"001XX000003DHP0\",\"type\":\"customer\",\"origin\":\"salesforce\"}";
+        String order = "{\"Id\":\"001XX000003DHP0\",\"type\":\"order\",\"origin\":\"salesforce\"}";
+
+        assertFalse(deduplicator.isDuplicate(key(customer)));
+        assertFalse(deduplicator.isDuplicate(key(order)));
+        assertTrue(deduplicator.isDuplicate(key(customer)));
+        assertEquals(1L, deduplicator.stats().get("exactHits"));
+    }
+
+    @Test
+    public void eventIdWinsOverRecordIdAndMissingIdIsNeverDuplicate() throws IOException {
+        String first = "{\"Id\":\"001A\",\"eventId\":\"evt-1\",\"eventType\":\"USER_ACTION\",\"source\":\"web\"}";
+        String redelivery = "{\"eventId\":\"evt-1\",\"source\":\"web\",\"Id\":\"001B\",\"eventType\":\"USER_ACTION\"}";
+
+        assertFalse(deduplicator.isDuplicate(key(first)));
+        assertTrue(deduplicator.isDuplicate(key(redelivery)));
+
+        assertNull(key("{\"eventType\":\"USER_ACTION\"}"));
+        assertFalse(deduplicator.isDuplicate(null));
+    }
+
+    @Test
+    public void forgottenKeyIsNotDuplicate() throws IOException {
+        String event = "{\"eventId\":\"evt-2\",\"eventType\":\"NOTIFICATION\",\"source\":\"crm\"}";
+
+        assertFalse(deduplicator.isDuplicate(key(event)));
+        deduplicator.forget(key(event));
+        assertFalse(deduplicator.isDuplicate(key(event)));
+        assertEquals(8, deduplicator.stats().get("stripes"));
+    }
+
+    private String key(String json) throws IOException {
+        return extractor.extractDedupKey(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,106 @@
+package com.claro.ecuador.events.handler;
+
+import com.claro.ecuador.commons.instrumentation.PipelineMetrics;
+import com.claro.ecuador.events.parsing.EventHeader;
+import com.claro.ecuador.events.parsing.LazyEventPayload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Futuro de dispatch: un handler aislado resuelve el registro recién cuando termina en su executor
+ *
+ * @author Global HITSS
+ */
+public class EventHandlerRegistryTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean fail;
+
+    private EventHandlerRegistry registry;
+
+    @Before
+    public void setUp() {
+        HandlerExecutorProperties.Executor executor = new HandlerExecutorProperties.Executor();
+        executor.setThreads(1);
+        executor.setQueueCapacity(10);
+        HandlerExecutorProperties properties = new HandlerExecutorProperties();
+        properties.getExecutors().put("notification", executor);
+
+        registry = new EventHandlerRegistry(Arrays.asList(handler("NOTIFICATION"), handler("USER_ACTION")),
+                properties, mock(PipelineMetrics.class));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        release.countDown();
+        registry.shutdown();
+    }
+
+    @Test
+    public void isolatedHandlerCompletesWhenItFinishes() throws Exception {
+        CompletableFuture<Void> handled = registry.dispatch("NOTIFICATION", payload("NOTIFICATION"), null);
+
+        assertFalse(handled.isDone());
+        release.countDown();
+        handled.get(5, TimeUnit.SECONDS);
+
+        assertTrue(registry.dispatch("user_action", payload("USER_ACTION"), null).isDone());
+        assertNull(registry.dispatch("UNKNOWN", payload("UNKNOWN"), null));
+    }
+
+    @Test
+    public void isolatedFailureCompletesExceptionally() throws Exception {
+        fail = true;
+        release.countDown();
+        CompletableFuture<Void> handled = registry.dispatch("NOTIFICATION", payload("NOTIFICATION"), null);
+
+        try {
+            handled.get(5, TimeUnit.SECONDS);
+            fail("El handler aislado falló: el futuro debe completarse con error");
+        } catch (ExecutionException e) {
+            assertEquals("fallo en handler", e.getCause().getMessage());
+        }
+    }
+
+    private EventHandler handler(String eventType) {
+        return new EventHandler() {
+            @Override
+            public String eventType() {
+                return eventType;
+            }
+
+            @Override
+            public void handle(LazyEventPayload payload) throws Exception {
+                if (!"NOTIFICATION".equals(eventType)) {
+                    return;
+                }
+                release.await(5, TimeUnit.SECONDS);
+                if (fail) {
+                    throw new IllegalStateException("fallo en handler");
+                }
+            }
+        };
+    }
+
+    private static LazyEventPayload payload(String eventType) {
+        String json = "{\"eventId\":\"evt-1\",\"eventType\":\"" + eventType + "\"}";
+        return new LazyEventPayload(json.getBytes(StandardCharsets.UTF_8),
+                new EventHeader("evt-1", eventType, "test", null), new ObjectMapper());
+    }
+}
@@ -0,0 +1,104 @@
+package com.claro.ecuador.events.notification;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Entregas fallidas hacia el camino de reintentos y espera acotada por atraso
+ *
+ * @author Global HITSS
+ */
+public class NotificationDispatcherTest {
+
+    private NotificationDispatcher dispatcher;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    public void failedDeliveryNotifiesEveryCoalescedEvent() throws Exception {
+        CountDownLatch notified = new CountDownLatch(2);
+        List<Exception> failures = new CopyOnWriteArrayList<>();
+        dispatcher = dispatcher(properties(10), new NotificationSender() {
+            @Override
+            public String channel() {
+                return "email";
+            }
+
+            @Override
+            public void send(String recipient, List<String> messages) {
+                throw new IllegalStateException("SMTP caído");
+            }
+        });
+
+        dispatcher.submit("email", "ana@claro.com.ec", "uno", error -> {
+            failures.add(error);
+            notified.countDown();
+        });
+        dispatcher.submit("email", "ana@claro.com.ec", "dos", error -> {
+            failures.add(error);
+            notified.countDown();
+        });
+
+        assertTrue(notified.await(5, TimeUnit.SECONDS));
+        assertEquals(2, failures.size());
+        assertEquals("SMTP caído", failures.get(0).getMessage());
+    }
+
+    @Test
+    public void submitWaitsAboveHighWaterMarkAndRejectsWhenNotDrained() {
+        NotificationProperties properties = properties(60000);
+        properties.setMaxPending(4);
+        properties.setHighWaterMark(2);
+        properties.setLowWaterMark(1);
+        properties.setBackpressureWaitMs(50);
+        dispatcher = dispatcher(properties, null);
+
+        dispatcher.submit("email", "a", "uno", null);
+        dispatcher.submit("email", "b", "dos", null);
+
+        long start = System.currentTimeMillis();
+        try {
+            dispatcher.submit("email", "c", "tres", null);
+            fail("Se esperaba rechazo por atraso");
+        } catch (RejectedExecutionException e) {
+            assertTrue(System.currentTimeMillis() - start >= 50);
+        }
+        assertEquals(1L, dispatcher.stats().get("waits"));
+        assertEquals(1L, dispatcher.stats().get("rejected"));
+    }
+
+    private static NotificationProperties properties(long coalesceWindowMs) {
+        NotificationProperties properties = new NotificationProperties();
+        properties.setCoalesceWindowMs(coalesceWindowMs);
+        properties.setTickMs(5);
+        properties.setDeliveryThreads(1);
+        properties.setShutdownTimeoutMs(100);
+        return properties;
+    }
+
+    private static NotificationDispatcher dispatcher(NotificationProperties properties, NotificationSender sender) {
+        NotificationDispatcher dispatcher = new NotificationDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "properties", properties);
+        ReflectionTestUtils.setField(dispatcher, "notificationSenders",
+                sender == null ? Collections.<NotificationSender>emptyList() : Collections.singletonList(sender));
+        dispatcher.start();
+        return dispatcher;
+    }
+}
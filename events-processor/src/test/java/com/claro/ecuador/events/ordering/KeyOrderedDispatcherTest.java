@@ -0,0 +1,71 @@
+package com.claro.ecuador.events.ordering;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Espera acotada por lugar en un lane lleno
+ *
+ * @author Global HITSS
+ */
+public class KeyOrderedDispatcherTest {
+
+    private KeyOrderedDispatcher dispatcher;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        dispatcher = new KeyOrderedDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "ordering", "key");
+        ReflectionTestUtils.setField(dispatcher, "laneCount", 1);
+        ReflectionTestUtils.setField(dispatcher, "laneQueueCapacity", 1);
+        ReflectionTestUtils.setField(dispatcher, "capacityWaitMs", 100L);
+        dispatcher.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        release.countDown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void fullLaneRejectsAfterCapacityWait() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        assertTrue(dispatcher.dispatch("a", () -> {
+            running.countDown();
+            awaitRelease();
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertTrue(dispatcher.dispatch("a", () -> { }));
+
+        long start = System.nanoTime();
+        assertFalse(dispatcher.dispatch("a", () -> { }));
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("esperó " + waitedMs + " ms", waitedMs >= 90 && waitedMs < 2000);
+        assertEquals(1L, dispatcher.stats().get("rejected"));
+    }
+
+    @Test
+    public void stoppedLaneRejectsWithoutWaiting() throws Exception {
+        dispatcher.shutdown();
+        assertFalse(dispatcher.dispatch("a", () -> { }));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.claro.ecuador.events.ordering;
+
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Commit por marca de agua, pausa de particiones saturadas y revocación con registros en vuelo
+ *
+ * @author Global HITSS
+ */
+public class OffsetWatermarkTrackerTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("Events", 0);
+
+    private OffsetWatermarkTracker tracker;
+    private MockConsumer<String, byte[]> consumer;
+
+    @Before
+    public void setUp() {
+        tracker = new OffsetWatermarkTracker();
+        ReflectionTestUtils.setField(tracker, "maxPendingPerPartition", 4);
+        ReflectionTestUtils.setField(tracker, "revokeTimeoutMs", 50L);
+        ReflectionTestUtils.setField(tracker, "capacityWaitMs", 20L);
+
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(Collections.singletonList(PARTITION));
+        Map<TopicPartition, Long> beginning = new HashMap<>();
+        beginning.put(PARTITION, 0L);
+        consumer.updateBeginningOffsets(beginning);
+    }
+
+    @Test
+    public void commitsUpToOldestIncompleteRecord() throws Exception {
+        OffsetTicket first = tracker.track(PARTITION, 0);
+        OffsetTicket second = tracker.track(PARTITION, 1);
+        tracker.track(PARTITION, 2);
+
+        second.complete();
+        tracker.commit(consumer);
+        assertEquals(0, consumer.committed(PARTITION).offset());
+
+        first.complete();
+        first.complete();
+        tracker.commit(consumer);
+        assertEquals(2, consumer.committed(PARTITION).offset());
+    }
+
+    @Test
+    public void pausesSaturatedPartitionAndResumesAtHalfCapacity() throws Exception {
+        OffsetTicket[] tickets = new OffsetTicket[4];
+        for (int i = 0; i < 4; i++) {
+            tickets[i] = tracker.track(PARTITION, i);
+        }
+        assertNull(tracker.track(PARTITION, 4));
+
+        tracker.pause(consumer, Collections.singletonMap(PARTITION, 4L));
+        assertTrue(consumer.paused().contains(PARTITION));
+        assertEquals(4, consumer.position(PARTITION));
+
+        tickets[0].complete();
+        tracker.resumeDrained(consumer);
+        assertTrue(consumer.paused().contains(PARTITION));
+
+        tickets[1].complete();
+        tracker.resumeDrained(consumer);
+        assertFalse(consumer.paused().contains(PARTITION));
+    }
+
+    @Test
+    public void cancelledTicketIsReadAgain() throws Exception {
+        tracker.track(PARTITION, 0).complete();
+        OffsetTicket undispatched = tracker.track(PARTITION, 1);
+
+        tracker.cancel(undispatched);
+        tracker.commit(consumer);
+
+        assertEquals(1, consumer.committed(PARTITION).offset());
+    }
+
+    @Test
+    public void completionsFromRevokedAssignmentAreIgnored() throws Exception {
+        OffsetTicket first = tracker.track(PARTITION, 0);
+        OffsetTicket inFlight1 = tracker.track(PARTITION, 1);
+        OffsetTicket inFlight2 = tracker.track(PARTITION, 2);
+        first.complete();
+
+        // Los lanes siguen con 1 y 2 cuando vence revoke-timeout-ms
+        tracker.onPartitionsRevokedBeforeCommit(consumer, Collections.singletonList(PARTITION));
+        assertEquals(1, consumer.committed(PARTITION).offset());
+
+        // La partición vuelve a este consumidor y se relee desde el commit
+        OffsetTicket reassigned = tracker.track(PARTITION, 1);
+        assertNotNull(tracker.track(PARTITION, 2));
+        assertNotNull(tracker.track(PARTITION, 3));
+
+        inFlight1.complete();
+        inFlight2.complete();
+        reassigned.complete();
+        tracker.commit(consumer);
+
+        // Solo el offset 1 de la nueva asignación terminó
+        assertEquals(2, consumer.committed(PARTITION).offset());
+        assertEquals(2L, tracker.stats().get("staleCompletions"));
+    }
+}
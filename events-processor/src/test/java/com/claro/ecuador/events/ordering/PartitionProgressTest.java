@@ -0,0 +1,95 @@
+package com.claro.ecuador.events.ordering;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Marca de agua contigua y espera acotada por lugar en una partición key-ordered
+ *
+ * @author Global HITSS
+ */
+public class PartitionProgressTest {
+
+    @Test
+    public void watermarkAdvancesOnlyOverContiguousCompletions() throws Exception {
+        PartitionProgress progress = new PartitionProgress(10);
+        long first = progress.track(100, 0);
+        long second = progress.track(101, 0);
+        long third = progress.track(105, 0);
+
+        progress.complete(third);
+        progress.complete(second);
+        assertEquals(100, progress.watermark());
+        assertEquals(100, progress.advanceCommit());
+
+        progress.complete(first);
+        assertEquals(106, progress.watermark());
+        assertEquals(106, progress.advanceCommit());
+        assertEquals(-1, progress.advanceCommit());
+        assertEquals(0, progress.pending());
+    }
+
+    @Test
+    public void trackGivesUpAfterTimeoutWhenFull() throws Exception {
+        PartitionProgress progress = new PartitionProgress(2);
+        progress.track(0, 0);
+        progress.track(1, 0);
+
+        long start = System.nanoTime();
+        assertEquals(-1, progress.track(2, 100));
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("esperó " + waitedMs + " ms", waitedMs >= 90 && waitedMs < 2000);
+    }
+
+    @Test
+    public void trackWakesUpWhenARecordCompletes() throws Exception {
+        PartitionProgress progress = new PartitionProgress(1);
+        long first = progress.track(0, 0);
+
+        Thread completer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            progress.complete(first);
+        });
+        completer.start();
+        assertEquals(1, progress.track(1, 5000));
+        completer.join();
+    }
+
+    @Test
+    public void cancelReturnsWatermarkToTheUndispatchedOffset() throws Exception {
+        PartitionProgress progress = new PartitionProgress(10);
+        progress.complete(progress.track(7, 0));
+        long undispatched = progress.track(8, 0);
+
+        progress.cancel(undispatched);
+
+        assertEquals(0, progress.pending());
+        assertEquals(8, progress.watermark());
+        assertEquals(8, progress.advanceCommit());
+    }
+
+    @Test
+    public void drainedToHalfAndAwaitDrained() throws Exception {
+        PartitionProgress progress = new PartitionProgress(4);
+        long[] tickets = new long[4];
+        for (int i = 0; i < 4; i++) {
+            tickets[i] = progress.track(i, 0);
+        }
+        progress.complete(tickets[0]);
+        assertFalse(progress.drainedToHalf());
+        progress.complete(tickets[1]);
+        assertTrue(progress.drainedToHalf());
+
+        assertFalse(progress.awaitDrained(20));
+        progress.complete(tickets[3]);
+        progress.complete(tickets[2]);
+        assertTrue(progress.awaitDrained(20));
+    }
+}
@@ -0,0 +1,153 @@
+package com.claro.ecuador.events.retry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * El futuro de publicación se completa solo con la confirmación del broker, los envíos fallidos
+ * se reintentan y al detener se libera a quien espera
+ *
+ * @author Global HITSS
+ */
+public class RetryPublisherTest {
+
+    private static final RetryTier FIRST_TIER = new RetryTier("5s", "Events.retry.5s", 5000);
+
+    private RetryPublisher publisher;
+    private final List<SettableListenableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>();
+    private final List<ProducerRecord<String, byte[]>> records = new ArrayList<>();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        RetryProperties properties = new RetryProperties();
+        properties.setPublishBackoffMs(10);
+        properties.setPublishMaxBackoffMs(20);
+        properties.setPublishTimeoutMs(50);
+
+        RetryPolicy retryPolicy = mock(RetryPolicy.class);
+        when(retryPolicy.getTiers()).thenReturn(Collections.singletonList(FIRST_TIER));
+        when(retryPolicy.tierFor(0)).thenReturn(FIRST_TIER);
+
+        KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            SettableListenableFuture<SendResult<String, byte[]>> send = new SettableListenableFuture<>();
+            synchronized (sends) {
+                records.add(invocation.getArgument(0));
+                sends.add(send);
+            }
+            return send;
+        });
+
+        publisher = new RetryPublisher();
+        ReflectionTestUtils.setField(publisher, "properties", properties);
+        ReflectionTestUtils.setField(publisher, "retryPolicy", retryPolicy);
+        ReflectionTestUtils.setField(publisher, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(publisher, "objectMapper", new ObjectMapper());
+        publisher.init();
+    }
+
+    @After
+    public void tearDown() {
+        publisher.stop();
+    }
+
+    @Test
+    public void completesOnlyAfterBrokerConfirms() throws Exception {
+        CompletableFuture<Void> published = publisher.publishFailure(message(), "Events", 0, 0, new RuntimeException("x"));
+
+        assertFalse(published.isDone());
+        assertFalse(publisher.await(published));
+        assertEquals("Events.retry.5s", records.get(0).topic());
+
+        sends.get(0).set(null);
+        assertTrue(publisher.await(published));
+        assertEquals(1L, tierStats().get("published"));
+    }
+
+    @Test
+    public void retriesFailedSendUntilConfirmed() throws Exception {
+        CompletableFuture<Void> published = publisher.publishFailure(message(), "Events", 0, 0, new RuntimeException("x"));
+
+        sends.get(0).setException(new IllegalStateException("broker caído"));
+        waitForSends(2);
+        assertFalse(published.isDone());
+
+        sends.get(1).set(null);
+        published.get(1, TimeUnit.SECONDS);
+        assertEquals(1L, publisher.stats().get("publishRetries"));
+        assertEquals(1L, publisher.stats().get("publishFailures"));
+    }
+
+    @Test
+    public void exhaustedTiersGoToDeadLetterTopic() throws Exception {
+        CompletableFuture<Void> published = publisher.publishFailure(message(), "Events", 1, 0, new RuntimeException("x"));
+
+        assertEquals("errors.events", records.get(0).topic());
+        assertFalse(published.isDone());
+        sends.get(0).set(null);
+        published.get(1, TimeUnit.SECONDS);
+        assertEquals(1L, publisher.stats().get("deadLettered"));
+    }
+
+    @Test
+    public void stopReleasesPendingRetries() {
+        ReflectionTestUtils.setField(publisher, "properties", slowBackoff());
+        CompletableFuture<Void> published = publisher.publishFailure(message(), "Events", 0, 0, new RuntimeException("x"));
+        sends.get(0).setException(new IllegalStateException("broker caído"));
+
+        publisher.stop();
+        assertTrue(published.isCompletedExceptionally());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> tierStats() {
+        Map<String, Object> tiers = (Map<String, Object>) publisher.stats().get("tiers");
+        return (Map<String, Object>) tiers.get("5s");
+    }
+
+    private void waitForSends(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (System.currentTimeMillis() < deadline) {
+            synchronized (sends) {
+                if (sends.size() >= expected) {
+                    return;
+                }
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Se esperaban " + expected + " envíos");
+    }
+
+    private static RetryProperties slowBackoff() {
+        RetryProperties properties = new RetryProperties();
+        properties.setPublishBackoffMs(60000);
+        properties.setPublishMaxBackoffMs(60000);
+        return properties;
+    }
+
+    private static byte[] message() {
+        return "{\"eventId\":\"e-1\",\"eventType\":\"USER_ACTION\"}".getBytes();
+    }
+}
@@ -0,0 +1,75 @@
+package com.claro.ecuador.commons.instrumentation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Instrumentación del pipeline; cada microservicio la enlaza con su prefijo
+ * (events-processor.instrumentation, error-handler.instrumentation, back-logstash-connect.instrumentation)
+ * Los límites de los buckets son fijos: cada serie ocupa memoria constante sin importar el volumen.
+ *
+ * @author Global HITSS
+ */
+public class InstrumentationProperties {
+
+    private boolean enabled = true;
+
+    // Topics y tipos distintos por topic con serie propia; el resto se etiqueta como "other"
+    private int maxTopics = 20;
+    private int maxTypesPerTopic = 50;
+
+    // Límites de los buckets de duración por etapa
+    private List<Duration> stageBuckets = new ArrayList<>(Arrays.asList(
+            Duration.ofNanos(50_000), Duration.ofNanos(100_000), Duration.ofNanos(250_000), Duration.ofNanos(500_000),
+            Duration.ofMillis(1), Duration.ofMillis(2), Duration.ofMillis(5), Duration.ofMillis(10),
+            Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(5)));
+
+    // Límites de los buckets de lag desde el timestamp del evento
+    private List<Duration> lagBuckets = new ArrayList<>(Arrays.asList(
+            Duration.ofMillis(100), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(5),
+            Duration.ofSeconds(15), Duration.ofSeconds(30), Duration.ofMinutes(1), Duration.ofMinutes(5),
+            Duration.ofMinutes(15), Duration.ofHours(1), Duration.ofHours(6), Duration.ofDays(1)));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxTopics() {
+        return maxTopics;
+    }
+
+    public void setMaxTopics(int maxTopics) {
+        this.maxTopics = maxTopics;
+    }
+
+    public int getMaxTypesPerTopic() {
+        return maxTypesPerTopic;
+    }
+
+    public void setMaxTypesPerTopic(int maxTypesPerTopic) {
+        this.maxTypesPerTopic = maxTypesPerTopic;
+    }
+
+    public List<Duration> getStageBuckets() {
+        return stageBuckets;
+    }
+
+    public void setStageBuckets(List<Duration> stageBuckets) {
+        this.stageBuckets = stageBuckets;
+    }
+
+    public List<Duration> getLagBuckets() {
+        return lagBuckets;
+    }
+
+    public void setLagBuckets(List<Duration> lagBuckets) {
+        this.lagBuckets = lagBuckets;
+    }
+}
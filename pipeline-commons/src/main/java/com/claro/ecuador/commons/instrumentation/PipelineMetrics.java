@@ -0,0 +1,188 @@
+package com.claro.ecuador.commons.instrumentation;
+
+import com.claro.ecuador.commons.time.EventTimestamps;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas Micrometer del pipeline de consumo, expuestas en /actuator/prometheus
+ * - pipeline.stage: duración de cada etapa por topic y tipo (tipo de evento, errorType o event_type)
+ *   - events-processor: parse, dispatch, handler, store
+ *   - errors-handler: parse, classify, handler, store, alert (topic original del error)
+ *   - back-logstash-connect: validate y enrich por registro, deliver por lote (tipo "batch")
+ * - pipeline.event.lag: desde el campo timestamp del evento hasta su procesamiento
+ * - pipeline.records: registros por topic, tipo y resultado (rate() da registros por segundo)
+ * El lag por partición y la tasa de consumo del cliente Kafka los publica KafkaConsumerMetrics
+ * (kafka.consumer.records.lag, kafka.consumer.records.consumed.rate).
+ *
+ * Los histogramas usan buckets fijos (InstrumentationProperties): memoria constante por serie y percentiles
+ * calculados en Prometheus con histogram_quantile. Los medidores se cachean por etapa/topic/tipo, así que
+ * una medición no crea objetos; topics y tipos distintos están acotados y el excedente va como "other".
+ *
+ * Lo declara cada microservicio como bean, con su prefijo de configuración.
+ *
+ * @author Global HITSS
+ */
+public class PipelineMetrics {
+
+    // Topic de los eventos generales (los reintentos se miden con su topic original)
+    public static final String EVENTS_TOPIC = "Events";
+
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_DISPATCH = "dispatch";
+    public static final String STAGE_CLASSIFY = "classify";
+    public static final String STAGE_VALIDATE = "validate";
+    public static final String STAGE_ENRICH = "enrich";
+    public static final String STAGE_HANDLER = "handler";
+    public static final String STAGE_STORE = "store";
+    public static final String STAGE_ALERT = "alert";
+    public static final String STAGE_DELIVER = "deliver";
+
+    // Tipo de las mediciones por lote y topic de un lote con registros de varios topics
+    public static final String TYPE_BATCH = "batch";
+    public static final String MIXED_TOPICS = "mixed";
+
+    public static final String OUTCOME_PROCESSED = "processed";
+    public static final String OUTCOME_DUPLICATE = "duplicate";
+    public static final String OUTCOME_REJECTED = "rejected";
+    public static final String OUTCOME_FAILED = "failed";
+
+    private static final String UNKNOWN = "unknown";
+    private static final String OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final InstrumentationProperties properties;
+
+    private final boolean enabled;
+    private final Duration[] stageBuckets;
+    private final Duration[] lagBuckets;
+
+    // etapa/resultado -> topic -> tipo -> medidor (claves ya acotadas por tag)
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, Timer>>> stageTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, Timer>> lagTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, Counter>>> recordCounters = new ConcurrentHashMap<>();
+
+    // Valores de etiqueta admitidos: topics y, por topic, tipos
+    private final ConcurrentMap<String, Boolean> knownTopics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, Boolean>> knownTypes = new ConcurrentHashMap<>();
+
+    public PipelineMetrics(InstrumentationProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.enabled = properties.isEnabled();
+        this.stageBuckets = properties.getStageBuckets().toArray(new Duration[0]);
+        this.lagBuckets = properties.getLagBuckets().toArray(new Duration[0]);
+    }
+
+    /**
+     * Inicio de una etapa, para pasar luego a recordStage
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void recordStage(String stage, String topic, String type, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        String topicTag = topicTag(topic);
+        String typeTag = typeTag(topicTag, type);
+        ConcurrentMap<String, Timer> timers = child(child(stageTimers, stage), topicTag);
+        Timer timer = timers.get(typeTag);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(typeTag, key -> Timer.builder("pipeline.stage")
+                    .description("Duración de cada etapa del pipeline")
+                    .tags("stage", stage, "topic", topicTag, "type", typeTag)
+                    .sla(stageBuckets)
+                    .register(meterRegistry));
+        }
+        timer.record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Lag extremo a extremo desde el timestamp del evento (ISO-8601 con zona o epoch en milisegundos)
+     * Los timestamps ausentes o con otro formato se ignoran.
+     */
+    public void recordLag(String topic, String type, String eventTimestamp) {
+        if (!enabled || eventTimestamp == null) {
+            return;
+        }
+        long eventMillis = EventTimestamps.parseEpochMillis(eventTimestamp);
+        if (eventMillis == EventTimestamps.UNPARSEABLE) {
+            return;
+        }
+        // Relojes desfasados: un evento "del futuro" cuenta como lag 0
+        long lag = Math.max(0L, System.currentTimeMillis() - eventMillis);
+        String topicTag = topicTag(topic);
+        String typeTag = typeTag(topicTag, type);
+        ConcurrentMap<String, Timer> timers = child(lagTimers, topicTag);
+        Timer timer = timers.get(typeTag);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(typeTag, key -> Timer.builder("pipeline.event.lag")
+                    .description("Tiempo desde el timestamp del evento hasta su procesamiento")
+                    .tags("topic", topicTag, "type", typeTag)
+                    .sla(lagBuckets)
+                    .register(meterRegistry));
+        }
+        timer.record(lag, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordOutcome(String topic, String type, String outcome) {
+        if (!enabled) {
+            return;
+        }
+        String topicTag = topicTag(topic);
+        String typeTag = typeTag(topicTag, type);
+        ConcurrentMap<String, Counter> counters = child(child(recordCounters, outcome), topicTag);
+        Counter counter = counters.get(typeTag);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(typeTag, key -> Counter.builder("pipeline.records")
+                    .description("Registros consumidos por resultado")
+                    .tags("outcome", outcome, "topic", topicTag, "type", typeTag)
+                    .register(meterRegistry));
+        }
+        counter.increment();
+    }
+
+    private String topicTag(String topic) {
+        return topic == null ? UNKNOWN : admit(knownTopics, topic, properties.getMaxTopics());
+    }
+
+    private String typeTag(String topicTag, String type) {
+        return type == null ? UNKNOWN : admit(child(knownTypes, topicTag), type, properties.getMaxTypesPerTopic());
+    }
+
+    /**
+     * El valor conserva su nombre mientras haya lugar; pasado el máximo se etiqueta "other" sin guardarse
+     */
+    private static String admit(ConcurrentMap<String, Boolean> known, String value, int max) {
+        if (known.containsKey(value)) {
+            return value;
+        }
+        if (known.size() >= max) {
+            return OTHER;
+        }
+        synchronized (known) {
+            if (known.size() >= max && !known.containsKey(value)) {
+                return OTHER;
+            }
+            known.put(value, Boolean.TRUE);
+            return value;
+        }
+    }
+
+    /**
+     * Submapa por clave; get primero para no bloquear el bin en el caso común (computeIfAbsent de Java 8)
+     */
+    private static <V> ConcurrentMap<String, V> child(ConcurrentMap<String, ConcurrentMap<String, V>> parent, String key) {
+        ConcurrentMap<String, V> child = parent.get(key);
+        return child != null ? child : parent.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+}
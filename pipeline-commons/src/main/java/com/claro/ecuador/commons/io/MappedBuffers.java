@@ -0,0 +1,71 @@
+package com.claro.ecuador.commons.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Liberación explícita de archivos mapeados en memoria
+ * Un MappedByteBuffer sigue mapeado hasta que el GC lo recolecta: el espacio de un segmento borrado no se
+ * recupera en disco y en Windows el archivo ni siquiera se puede borrar. unmap() usa Unsafe.invokeCleaner
+ * (Java 9+) o el Cleaner del DirectByteBuffer (Java 8); si ninguno está disponible queda a cargo del GC.
+ *
+ * Después de unmap() cualquier acceso al buffer (o a un duplicate()) termina la JVM: el llamador debe
+ * garantizar que nadie más lo usa.
+ *
+ * @author Global HITSS
+ */
+public final class MappedBuffers {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedBuffers.class);
+
+    private static final Unmapper UNMAPPER = findUnmapper();
+
+    private MappedBuffers() {
+    }
+
+    /**
+     * @return false si el buffer queda mapeado hasta que lo recolecte el GC
+     */
+    public static boolean unmap(MappedByteBuffer buffer) {
+        if (UNMAPPER == null || buffer == null) {
+            return false;
+        }
+        try {
+            UNMAPPER.unmap(buffer);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("⚠️ No se pudo liberar un archivo mapeado, queda a cargo del GC: {}", e.toString());
+            return false;
+        }
+    }
+
+    private static Unmapper findUnmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", java.nio.ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+            return buffer -> invokeCleaner.invoke(unsafe, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 8: sin invokeCleaner
+        }
+        try {
+            Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> clean.invoke(cleaner.invoke(buffer));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("⚠️ Esta JVM no permite liberar archivos mapeados; se liberan al recolectarse: {}", e.toString());
+            return null;
+        }
+    }
+
+    private interface Unmapper {
+
+        void unmap(MappedByteBuffer buffer) throws ReflectiveOperationException;
+    }
+}
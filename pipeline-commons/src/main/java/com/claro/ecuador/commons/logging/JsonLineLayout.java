@@ -0,0 +1,60 @@
+package com.claro.ecuador.commons.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.LayoutBase;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Un objeto JSON por línea (<servicio>.logging.format=json), listo para indexar sin grok:
+ * {"@timestamp","application","level","logger","thread","message", campos del MDC, "stack_trace"}
+ *
+ * @author Global HITSS
+ */
+public class JsonLineLayout extends LayoutBase<ILoggingEvent> {
+
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT).withZone(ZoneOffset.UTC);
+
+    private String application;
+
+    @Override
+    public String doLayout(ILoggingEvent event) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"@timestamp\":\"").append(TIMESTAMP.format(Instant.ofEpochMilli(event.getTimeStamp()))).append('"');
+        field(json, "application", application);
+        field(json, "level", event.getLevel().toString());
+        field(json, "logger", event.getLoggerName());
+        field(json, "thread", event.getThreadName());
+        field(json, "message", event.getFormattedMessage());
+        for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+            field(json, entry.getKey(), entry.getValue());
+        }
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            field(json, "stack_trace", ThrowableProxyUtil.asString(throwable));
+        }
+        return json.append('}').append(CoreConstants.LINE_SEPARATOR).toString();
+    }
+
+    private static void field(StringBuilder json, String name, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        json.append(",\"").append(encoder.quoteAsString(name)).append("\":\"");
+        json.append(encoder.quoteAsString(value)).append('"');
+    }
+
+    public void setApplication(String application) {
+        this.application = application;
+    }
+}
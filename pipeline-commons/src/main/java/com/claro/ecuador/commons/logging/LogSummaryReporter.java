@@ -0,0 +1,85 @@
+package com.claro.ecuador.commons.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.IntervalTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Línea de resumen por intervalo que reemplaza a los INFO por registro cuando se muestrean:
+ * registros por resultado (contador pipeline.records de PipelineMetrics) y logs descartados
+ * por SampledLogFilter en el intervalo. No escribe nada si no hubo actividad.
+ *
+ * Lo declara cada microservicio como bean, con su nombre y su <servicio>.logging.summary-interval-ms.
+ *
+ * @author Global HITSS
+ */
+public class LogSummaryReporter implements SchedulingConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogSummaryReporter.class);
+
+    private final MeterRegistry meterRegistry;
+    // Nombre del servicio en la línea de resumen (ej. EVENTS PROCESSOR)
+    private final String service;
+    private final long summaryIntervalMs;
+
+    // Totales acumulados en el resumen anterior, por resultado (solo el hilo del scheduler)
+    private final Map<String, Double> lastTotals = new HashMap<>();
+
+    public LogSummaryReporter(MeterRegistry meterRegistry, String service, long summaryIntervalMs) {
+        this.meterRegistry = meterRegistry;
+        this.service = service;
+        this.summaryIntervalMs = summaryIntervalMs;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(new IntervalTask(this::report, summaryIntervalMs, summaryIntervalMs));
+    }
+
+    public void report() {
+        Map<String, Double> totals = new HashMap<>();
+        for (Counter counter : meterRegistry.find("pipeline.records").counters()) {
+            totals.merge(counter.getId().getTag("outcome"), counter.count(), Double::sum);
+        }
+        Map<String, Long> records = new TreeMap<>();
+        long recordCount = 0;
+        for (Map.Entry<String, Double> total : totals.entrySet()) {
+            Double last = lastTotals.put(total.getKey(), total.getValue());
+            long delta = (long) (total.getValue() - (last == null ? 0.0 : last));
+            records.put(total.getKey(), delta);
+            recordCount += delta;
+        }
+
+        SampledLogFilter filter = sampledLogFilter();
+        long sampledOut = filter != null ? filter.drainSampledOut() : 0;
+        long suppressed = filter != null ? filter.drainSuppressed() : 0;
+        if (recordCount == 0 && sampledOut == 0 && suppressed == 0) {
+            return;
+        }
+        logger.info("📊 {} - Resumen {} s - registros: {} {} | logs omitidos por muestreo: {}, repetidos suprimidos: {}",
+                   service, summaryIntervalMs / 1000, recordCount, records, sampledOut, suppressed);
+    }
+
+    private static SampledLogFilter sampledLogFilter() {
+        ILoggerFactory factory = LoggerFactory.getILoggerFactory();
+        if (factory instanceof LoggerContext) {
+            for (TurboFilter filter : ((LoggerContext) factory).getTurboFilterList()) {
+                if (filter instanceof SampledLogFilter) {
+                    return (SampledLogFilter) filter;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,171 @@
+package com.claro.ecuador.commons.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Muestreo y límite de repetidos para los logs por registro (configurado en logback-spring.xml)
+ * - Muestreo: en los loggers de sampledLoggers (prefijos) los eventos por debajo de ERROR se
+ *   conservan con probabilidad sampleRate; los ERROR se conservan siempre
+ * - Límite de repetidos: por logger y mensaje (formato sin argumentos) pasan a lo sumo rateLimit
+ *   eventos por rateLimitIntervalMs; los ERROR con excepción no se limitan
+ * Decide antes de formatear el mensaje, así un evento descartado no paga el toString de sus
+ * argumentos ni el encolado en el appender. Los descartes se informan en LogSummaryReporter.
+ *
+ * @author Global HITSS
+ */
+public class SampledLogFilter extends TurboFilter {
+
+    private double sampleRate = 1.0;
+    private String sampledLoggers = "";
+    // 0 = sin límite de repetidos
+    private int rateLimit = 0;
+    private long rateLimitIntervalMs = 10000;
+    // Mensajes distintos con ventana propia; los que superan el tope no se limitan
+    private int maxKeys = 1000;
+
+    private String[] prefixes = new String[0];
+    private final ConcurrentMap<String, Boolean> sampledByLogger = new ConcurrentHashMap<>();
+    // logger -> formato -> ventana
+    private final ConcurrentMap<String, ConcurrentMap<String, Window>> windows = new ConcurrentHashMap<>();
+    private final AtomicInteger keys = new AtomicInteger();
+
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+
+    @Override
+    public void start() {
+        prefixes = sampledLoggers.trim().isEmpty() ? new String[0] : sampledLoggers.trim().split("\\s*,\\s*");
+        if (sampleRate < 0 || sampleRate > 1) {
+            addError("sampleRate debe estar entre 0 y 1: " + sampleRate);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Sin nivel (consultas isXxxEnabled) o deshabilitado por nivel: no se cuenta
+        if (format == null || level == null || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (sampleRate < 1.0 && level.levelInt < Level.ERROR_INT && isSampled(logger.getName())
+                && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.increment();
+            return FilterReply.DENY;
+        }
+        if (rateLimit > 0 && !(level.levelInt >= Level.ERROR_INT && hasThrowable(params, t))
+                && !admit(logger.getName(), format)) {
+            suppressed.increment();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    /**
+     * Eventos descartados por muestreo desde la última consulta
+     */
+    public long drainSampledOut() {
+        return sampledOut.sumThenReset();
+    }
+
+    /**
+     * Eventos suprimidos por el límite de repetidos desde la última consulta
+     */
+    public long drainSuppressed() {
+        return suppressed.sumThenReset();
+    }
+
+    private boolean isSampled(String loggerName) {
+        Boolean sampled = sampledByLogger.get(loggerName);
+        if (sampled == null) {
+            sampled = Boolean.FALSE;
+            for (String prefix : prefixes) {
+                if (loggerName.startsWith(prefix)) {
+                    sampled = Boolean.TRUE;
+                    break;
+                }
+            }
+            sampledByLogger.put(loggerName, sampled);
+        }
+        return sampled;
+    }
+
+    private boolean admit(String loggerName, String format) {
+        Window window = window(loggerName, format);
+        if (window == null) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - window.start >= rateLimitIntervalMs) {
+            synchronized (window) {
+                if (now - window.start >= rateLimitIntervalMs) {
+                    window.count.set(0);
+                    window.start = now;
+                }
+            }
+        }
+        return window.count.incrementAndGet() <= rateLimit;
+    }
+
+    private Window window(String loggerName, String format) {
+        ConcurrentMap<String, Window> byFormat = windows.get(loggerName);
+        if (byFormat == null) {
+            byFormat = windows.computeIfAbsent(loggerName, name -> new ConcurrentHashMap<>());
+        }
+        Window window = byFormat.get(format);
+        if (window != null) {
+            return window;
+        }
+        if (keys.get() >= maxKeys) {
+            return null;
+        }
+        return byFormat.computeIfAbsent(format, key -> {
+            keys.incrementAndGet();
+            return new Window();
+        });
+    }
+
+    private static boolean hasThrowable(Object[] params, Throwable t) {
+        // SLF4J pasa la excepción como último argumento; logback la separa después del filtro
+        return t != null || (params != null && params.length > 0 && params[params.length - 1] instanceof Throwable);
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public void setSampledLoggers(String sampledLoggers) {
+        this.sampledLoggers = sampledLoggers == null ? "" : sampledLoggers;
+    }
+
+    public void setRateLimit(int rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public void setRateLimitIntervalMs(long rateLimitIntervalMs) {
+        this.rateLimitIntervalMs = rateLimitIntervalMs;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Ventana fija de conteo de un mensaje
+     */
+    private static final class Window {
+
+        private volatile long start = System.currentTimeMillis();
+        private final AtomicInteger count = new AtomicInteger();
+    }
+}
@@ -0,0 +1,473 @@
+package com.claro.ecuador.commons.sink;
+
+import com.claro.ecuador.commons.time.EventTimestamps;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sink de indexación masiva hacia Elasticsearch (_bulk NDJSON)
+ * Acumula documentos y envía un lote al alcanzar el tamaño configurado o al vencer el
+ * intervalo de flush. Limita las peticiones en vuelo (el productor espera un permiso
+ * cuando se alcanza el límite) y ante fallos parciales reintenta solo los ítems
+ * con error transitorio (429 / 5xx).
+ *
+ * Índices: transforma-ecuador-{tipo}-YYYY.MM.dd (UTC) según el @timestamp del documento, la misma
+ * convención que back-logstash-connect (LogstashEventEnricher) y Logstash: si el documento no trae
+ * @timestamp es la hora de ingesta, no la del evento. Quien llama pasa el @timestamp que puso en el
+ * documento, o usa index(tipo, documento) para la hora actual.
+ * Los documentos que se descartan (rechazo no transitorio o reintentos agotados) se registran uno a
+ * uno con su índice e ID (eventId / id / Id) para poder reprocesarlos.
+ * Cada documento ocupa una sola línea del NDJSON: los que traen saltos de línea (JSON indentado)
+ * se compactan antes de entrar al buffer.
+ *
+ * Lo declara cada microservicio como bean, con su prefijo de configuración.
+ *
+ * @author Global HITSS
+ */
+public class ElasticsearchBulkSink implements SchedulingConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ElasticsearchBulkSink.class);
+
+    private static final String INDEX_PREFIX = "transforma-ecuador-";
+    private static final DateTimeFormatter INDEX_DATE = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+    private static final byte[] NEWLINE = {'\n'};
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+    // Días distintos con líneas de acción cacheadas (eventos atrasados o reprocesados)
+    private static final int MAX_CACHED_DAYS = 32;
+    private static final String INDEX_FIELD = "\"_index\":\"";
+    // Campos que identifican un documento descartado en el log, en orden de preferencia
+    private static final String[] ID_FIELDS = {"eventId", "id", "Id"};
+
+    private final ElasticsearchSinkProperties properties;
+    private final String elasticsearchUrl;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    private CloseableHttpClient httpClient;
+    private ExecutorService flushExecutor;
+    private Semaphore inFlight;
+    private String bulkEndpoint;
+
+    // Buffer actual protegido por el monitor de la instancia
+    private List<BulkItem> buffer = new ArrayList<>();
+    private int bufferedBytes;
+
+    // Línea de acción por día y tipo, para no formatear por documento (se usa con el monitor tomado)
+    private final Map<Long, Map<String, byte[]>> actionsByDay = new HashMap<>();
+
+    private final LongAdder indexed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder bulkRequests = new LongAdder();
+    private final LongAdder compacted = new LongAdder();
+
+    /**
+     * @param elasticsearchUrl URL(s) separadas por coma de spring.elasticsearch.rest.uris (se usa la primera)
+     */
+    public ElasticsearchBulkSink(ElasticsearchSinkProperties properties, String elasticsearchUrl,
+                                 ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.elasticsearchUrl = elasticsearchUrl;
+        this.objectMapper = objectMapper;
+        this.enabled = properties.isEnabled();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("💤 Sink de Elasticsearch deshabilitado");
+            return;
+        }
+        int maxInFlight = properties.getMaxInFlight();
+        PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager();
+        connections.setMaxTotal(maxInFlight);
+        connections.setDefaultMaxPerRoute(maxInFlight);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(properties.getRequestTimeoutMs())
+                .setSocketTimeout(properties.getRequestTimeoutMs())
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connections)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.flushExecutor = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "es-bulk-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.inFlight = new Semaphore(maxInFlight);
+        // filter_path reduce la respuesta al estado por ítem
+        String baseUrl = elasticsearchUrl.split(",")[0].trim();
+        this.bulkEndpoint = (baseUrl.endsWith("/") ? baseUrl : baseUrl + "/")
+                + "_bulk?filter_path=errors,items.*.status,items.*.error.reason";
+
+        logger.info("🔌 Sink de Elasticsearch activo - URL: {}, lote: {} docs / {} bytes, en vuelo: {}",
+                   baseUrl, properties.getBulkActions(), properties.getBulkSizeBytes(), maxInFlight);
+    }
+
+    /**
+     * Flush periódico por tiempo (flush-interval-ms)
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        if (enabled) {
+            registrar.addFixedDelayTask(this::flush, properties.getFlushIntervalMs());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Agrega un documento JSON sin @timestamp al índice del día actual (hora de ingesta) del tipo indicado
+     */
+    public void index(String type, byte[] document) {
+        index(type, document, EventTimestamps.UNPARSEABLE);
+    }
+
+    /**
+     * Agrega un documento JSON al índice diario del tipo indicado para la fecha de su @timestamp
+     * Bloquea solo si ya hay max-in-flight lotes en vuelo y el buffer está lleno.
+     *
+     * @param timestampMillis @timestamp del documento en milisegundos, o EventTimestamps.UNPARSEABLE para
+     *                        usar la fecha actual
+     */
+    public void index(String type, byte[] document, long timestampMillis) {
+        if (!enabled) {
+            return;
+        }
+        byte[] line = singleLine(document);
+        if (line == null) {
+            return;
+        }
+        long millis = timestampMillis != EventTimestamps.UNPARSEABLE ? timestampMillis : System.currentTimeMillis();
+        List<BulkItem> ready = null;
+        synchronized (this) {
+            buffer.add(new BulkItem(indexAction(type, Math.floorDiv(millis, DAY_MS)), line));
+            bufferedBytes += line.length;
+            if (buffer.size() >= properties.getBulkActions() || bufferedBytes >= properties.getBulkSizeBytes()) {
+                ready = swapBuffer();
+            }
+        }
+        if (ready != null) {
+            submit(ready);
+        }
+    }
+
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<BulkItem> ready;
+        synchronized (this) {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            ready = swapBuffer();
+        }
+        submit(ready);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (this) {
+            stats.put("buffered", buffer.size());
+        }
+        stats.put("inFlight", enabled ? properties.getMaxInFlight() - inFlight.availablePermits() : 0);
+        stats.put("bulkRequests", bulkRequests.sum());
+        stats.put("indexed", indexed.sum());
+        stats.put("retried", retried.sum());
+        stats.put("failed", failed.sum());
+        stats.put("compacted", compacted.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        // Esperar a que terminen los lotes en vuelo
+        inFlight.acquire(properties.getMaxInFlight());
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(properties.getRequestTimeoutMs(), TimeUnit.MILLISECONDS);
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            logger.warn("Error cerrando cliente HTTP de Elasticsearch: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * El documento en una sola línea: un salto de línea dentro del JSON partiría el NDJSON y
+     * desalinearía acción y documento en el resto del lote. Solo se re-serializan los que traen
+     * \n o \r (en un JSON válido solo pueden ser espacio entre tokens).
+     *
+     * @return el documento compactado, o null si no es JSON válido (se cuenta como fallido)
+     */
+    private byte[] singleLine(byte[] document) {
+        boolean multiLine = false;
+        for (byte b : document) {
+            if (b == '\n' || b == '\r') {
+                multiLine = true;
+                break;
+            }
+        }
+        if (!multiLine) {
+            return document;
+        }
+        JsonFactory factory = objectMapper.getFactory();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(document.length);
+        try (JsonParser parser = factory.createParser(document)) {
+            if (parser.nextToken() == null) {
+                throw new IOException("documento vacío");
+            }
+            try (JsonGenerator generator = factory.createGenerator(out)) {
+                generator.copyCurrentStructure(parser);
+            }
+            if (parser.nextToken() != null) {
+                throw new IOException("contenido después del documento");
+            }
+        } catch (IOException e) {
+            failed.increment();
+            logger.error("❌ Documento descartado, no es un JSON válido para _bulk: {}", e.getMessage());
+            return null;
+        }
+        compacted.increment();
+        return out.toByteArray();
+    }
+
+    private List<BulkItem> swapBuffer() {
+        List<BulkItem> ready = buffer;
+        buffer = new ArrayList<>(properties.getBulkActions());
+        bufferedBytes = 0;
+        return ready;
+    }
+
+    private void submit(List<BulkItem> items) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop(items, "flush interrumpido");
+            return;
+        }
+        flushExecutor.execute(() -> {
+            try {
+                sendWithRetries(items);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Envía el lote; los ítems con fallo transitorio se reintentan con backoff exponencial
+     */
+    private void sendWithRetries(List<BulkItem> items) {
+        List<BulkItem> pending = items;
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            if (attempt > 0) {
+                if (attempt > properties.getMaxRetries()) {
+                    drop(pending, "reintentos agotados (" + properties.getMaxRetries() + ")");
+                    return;
+                }
+                retried.add(pending.size());
+                if (!sleep(properties.getRetryBackoffMs() << (attempt - 1))) {
+                    drop(pending, "reintento interrumpido");
+                    return;
+                }
+            }
+            pending = sendBulk(pending);
+        }
+    }
+
+    /**
+     * Ejecuta una petición _bulk y devuelve los ítems que deben reintentarse
+     */
+    private List<BulkItem> sendBulk(List<BulkItem> items) {
+        bulkRequests.increment();
+        HttpPost post = new HttpPost(bulkEndpoint);
+        post.setEntity(new ByteArrayEntity(toNdjson(items), ContentType.create("application/x-ndjson")));
+
+        try (CloseableHttpResponse response = httpClient.execute(post)) {
+            int status = response.getStatusLine().getStatusCode();
+            byte[] body = response.getEntity() != null ? EntityUtils.toByteArray(response.getEntity()) : new byte[0];
+
+            if (status == 429 || status >= 500) {
+                logger.warn("⚠️ Elasticsearch respondió {} al _bulk, se reintenta el lote completo", status);
+                return items;
+            }
+            if (status >= 300) {
+                logger.error("❌ Elasticsearch rechazó el _bulk con estado {}: {}", status,
+                            new String(body, StandardCharsets.UTF_8));
+                drop(items, "_bulk rechazado con estado " + status);
+                return new ArrayList<>();
+            }
+            return collectRetryable(items, objectMapper.readTree(body));
+
+        } catch (IOException e) {
+            logger.warn("⚠️ Error de conexión con Elasticsearch ({}), se reintenta el lote", e.getMessage());
+            return items;
+        }
+    }
+
+    private List<BulkItem> collectRetryable(List<BulkItem> items, JsonNode response) {
+        if (!response.path("errors").asBoolean(false)) {
+            indexed.add(items.size());
+            return new ArrayList<>();
+        }
+        List<BulkItem> retry = new ArrayList<>();
+        JsonNode results = response.path("items");
+        for (int i = 0; i < items.size(); i++) {
+            // Cada ítem viene como {"index": {"status": ..., "error": {...}}}
+            JsonNode result = results.path(i).elements().hasNext() ? results.path(i).elements().next() : null;
+            int status = result != null ? result.path("status").asInt(500) : 500;
+            if (status < 300) {
+                indexed.increment();
+            } else if (status == 429 || status >= 500) {
+                retry.add(items.get(i));
+            } else {
+                drop(items.get(i), "estado " + status + ": " + result.path("error").path("reason").asText());
+            }
+        }
+        return retry;
+    }
+
+    private void drop(List<BulkItem> items, String reason) {
+        for (BulkItem item : items) {
+            drop(item, reason);
+        }
+    }
+
+    /**
+     * Cuenta y registra un documento descartado con su índice e ID
+     */
+    private void drop(BulkItem item, String reason) {
+        failed.increment();
+        logger.error("❌ Documento descartado por Elasticsearch ({}) - Índice: {}, ID: {}",
+                reason, indexName(item.action), documentId(item.document));
+    }
+
+    private String documentId(byte[] document) {
+        try {
+            JsonNode node = objectMapper.readTree(document);
+            for (String field : ID_FIELDS) {
+                JsonNode id = node.get(field);
+                if (id != null && id.isValueNode()) {
+                    return id.asText();
+                }
+            }
+        } catch (IOException e) {
+            // Ya validado al entrar al buffer
+        }
+        return "sin ID";
+    }
+
+    private static String indexName(byte[] action) {
+        String line = new String(action, StandardCharsets.UTF_8);
+        int start = line.indexOf(INDEX_FIELD) + INDEX_FIELD.length();
+        return line.substring(start, line.indexOf('"', start));
+    }
+
+    private byte[] toNdjson(List<BulkItem> items) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(estimateSize(items));
+        for (BulkItem item : items) {
+            out.write(item.action, 0, item.action.length);
+            out.write(NEWLINE, 0, 1);
+            out.write(item.document, 0, item.document.length);
+            out.write(NEWLINE, 0, 1);
+        }
+        return out.toByteArray();
+    }
+
+    private static int estimateSize(List<BulkItem> items) {
+        int size = 0;
+        for (BulkItem item : items) {
+            size += item.action.length + item.document.length + 2;
+        }
+        return size;
+    }
+
+    /**
+     * Línea {"index":{"_index":...}} del índice diario del tipo (se llama con el monitor tomado)
+     */
+    private byte[] indexAction(String type, long epochDay) {
+        Map<String, byte[]> actionsByType = actionsByDay.get(epochDay);
+        if (actionsByType == null) {
+            if (actionsByDay.size() >= MAX_CACHED_DAYS) {
+                actionsByDay.clear();
+            }
+            actionsByType = new HashMap<>();
+            actionsByDay.put(epochDay, actionsByType);
+        }
+        byte[] action = actionsByType.get(type);
+        if (action == null) {
+            String index = INDEX_PREFIX + type + "-" + LocalDate.ofEpochDay(epochDay).format(INDEX_DATE);
+            action = ("{\"index\":{\"_index\":\"" + index + "\"}}").getBytes(StandardCharsets.UTF_8);
+            actionsByType.put(type, action);
+        }
+        return action;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class BulkItem {
+
+        private final byte[] action;
+        private final byte[] document;
+
+        private BulkItem(byte[] action, byte[] document) {
+            this.action = action;
+            this.document = document;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.claro.ecuador.commons.sink;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/elasticsearchsink
+ * Documentos en buffer, lotes en vuelo, indexados, reintentados, fallidos y compactados
+ *
+ * @author Global HITSS
+ */
+@Endpoint(id = "elasticsearchsink")
+public class ElasticsearchSinkEndpoint {
+
+    private final ElasticsearchBulkSink elasticsearchBulkSink;
+
+    public ElasticsearchSinkEndpoint(ElasticsearchBulkSink elasticsearchBulkSink) {
+        this.elasticsearchBulkSink = elasticsearchBulkSink;
+    }
+
+    @ReadOperation
+    public Map<String, Object> sink() {
+        return elasticsearchBulkSink.stats();
+    }
+}
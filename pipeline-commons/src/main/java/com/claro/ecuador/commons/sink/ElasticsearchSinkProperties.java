@@ -0,0 +1,89 @@
+package com.claro.ecuador.commons.sink;
+
+/**
+ * Configuración del sink _bulk; cada microservicio la enlaza con su prefijo
+ * (events-processor.elasticsearch, error-handler.elasticsearch)
+ *
+ * @author Global HITSS
+ */
+public class ElasticsearchSinkProperties {
+
+    private boolean enabled = false;
+
+    // Un lote se envía al llegar a bulk-actions documentos / bulk-size-bytes o cada flush-interval-ms
+    private int bulkActions = 500;
+    private int bulkSizeBytes = 5242880;
+    private long flushIntervalMs = 1000;
+
+    // Peticiones _bulk simultáneas; el productor espera un permiso al alcanzar el límite
+    private int maxInFlight = 2;
+
+    // Reintentos de los ítems con 429 / 5xx, con backoff exponencial desde retry-backoff-ms
+    private int maxRetries = 3;
+    private long retryBackoffMs = 500;
+    private int requestTimeoutMs = 10000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBulkActions() {
+        return bulkActions;
+    }
+
+    public void setBulkActions(int bulkActions) {
+        this.bulkActions = bulkActions;
+    }
+
+    public int getBulkSizeBytes() {
+        return bulkSizeBytes;
+    }
+
+    public void setBulkSizeBytes(int bulkSizeBytes) {
+        this.bulkSizeBytes = bulkSizeBytes;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryBackoffMs() {
+        return retryBackoffMs;
+    }
+
+    public void setRetryBackoffMs(long retryBackoffMs) {
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    public int getRequestTimeoutMs() {
+        return requestTimeoutMs;
+    }
+
+    public void setRequestTimeoutMs(int requestTimeoutMs) {
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+}
@@ -0,0 +1,101 @@
+package com.claro.ecuador.commons.time;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Parseo del campo timestamp de los eventos: ISO-8601 con zona o epoch en milisegundos
+ * El formato de los productores (yyyy-MM-ddTHH:mm:ss[.fracción](Z|±HH:mm)) se resuelve sin pasar por
+ * DateTimeFormatter, que asigna varios objetos por parseo; otras formas ISO usan OffsetDateTime.
+ *
+ * @author Global HITSS
+ */
+public final class EventTimestamps {
+
+    // Valor de retorno para timestamps ausentes o con otro formato
+    public static final long UNPARSEABLE = Long.MIN_VALUE;
+
+    private EventTimestamps() {
+    }
+
+    public static long parseEpochMillis(String timestamp) {
+        if (timestamp == null || timestamp.isEmpty()) {
+            return UNPARSEABLE;
+        }
+        try {
+            if (timestamp.indexOf('-', 1) < 0 && timestamp.indexOf(':') < 0) {
+                return Long.parseLong(timestamp);
+            }
+            long millis = parseIsoMillis(timestamp);
+            return millis != UNPARSEABLE ? millis : OffsetDateTime.parse(timestamp).toInstant().toEpochMilli();
+        } catch (NumberFormatException | DateTimeException e) {
+            return UNPARSEABLE;
+        }
+    }
+
+    private static long parseIsoMillis(String text) {
+        int length = text.length();
+        if (length < 20 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return UNPARSEABLE;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || second < 0 || second > 59) {
+            return UNPARSEABLE;
+        }
+        int index = 19;
+        int millis = 0;
+        if (text.charAt(index) == '.') {
+            int start = ++index;
+            while (index < length && Character.isDigit(text.charAt(index))) {
+                if (index - start < 3) {
+                    millis = millis * 10 + (text.charAt(index) - '0');
+                }
+                index++;
+            }
+            if (index == start) {
+                return UNPARSEABLE;
+            }
+            for (int scale = index - start; scale < 3; scale++) {
+                millis *= 10;
+            }
+        }
+        int offsetSeconds;
+        if (index == length - 1 && text.charAt(index) == 'Z') {
+            offsetSeconds = 0;
+        } else if (index == length - 6 && (text.charAt(index) == '+' || text.charAt(index) == '-')
+                && text.charAt(index + 3) == ':') {
+            int offsetHours = digits(text, index + 1, 2);
+            int offsetMinutes = digits(text, index + 4, 2);
+            if (offsetHours < 0 || offsetMinutes < 0) {
+                return UNPARSEABLE;
+            }
+            offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (text.charAt(index) == '-' ? -1 : 1);
+        } else {
+            return UNPARSEABLE;
+        }
+        // LocalDate.of valida el día del mes (DateTimeException)
+        long epochSecond = LocalDate.of(year, month, day).toEpochDay() * 86_400L
+                + hour * 3600 + minute * 60 + second - offsetSeconds;
+        return epochSecond * 1000L + millis;
+    }
+
+    private static int digits(String text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,88 @@
+package com.claro.ecuador.commons.instrumentation;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Series por etapa, lag y resultado con los topics y tipos acotados
+ *
+ * @author Global HITSS
+ */
+public class PipelineMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private PipelineMetrics metrics;
+
+    @Before
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        InstrumentationProperties properties = new InstrumentationProperties();
+        properties.setMaxTopics(2);
+        properties.setMaxTypesPerTopic(1);
+        metrics = new PipelineMetrics(properties, registry);
+    }
+
+    @Test
+    public void recordsStageAndOutcomeByTopicAndType() {
+        metrics.recordStage(PipelineMetrics.STAGE_PARSE, PipelineMetrics.EVENTS_TOPIC, "CUSTOMER_UPDATED", metrics.start());
+        metrics.recordStage(PipelineMetrics.STAGE_PARSE, PipelineMetrics.EVENTS_TOPIC, "CUSTOMER_UPDATED", metrics.start());
+        metrics.recordOutcome(PipelineMetrics.EVENTS_TOPIC, "CUSTOMER_UPDATED", PipelineMetrics.OUTCOME_PROCESSED);
+
+        Timer timer = registry.find("pipeline.stage")
+                .tags("stage", "parse", "topic", "Events", "type", "CUSTOMER_UPDATED").timer();
+        assertNotNull(timer);
+        assertEquals(2, timer.count());
+        assertEquals(1.0, registry.find("pipeline.records")
+                .tags("outcome", "processed", "topic", "Events", "type", "CUSTOMER_UPDATED").counter().count(), 0.0);
+    }
+
+    @Test
+    public void tagsTopicsAndTypesBeyondTheLimitAsOther() {
+        metrics.recordOutcome("Events", "A", PipelineMetrics.OUTCOME_PROCESSED);
+        metrics.recordOutcome("Events", "B", PipelineMetrics.OUTCOME_PROCESSED);
+        metrics.recordOutcome("salesforce.orders", "A", PipelineMetrics.OUTCOME_PROCESSED);
+        metrics.recordOutcome("salesforce.customer", "A", PipelineMetrics.OUTCOME_PROCESSED);
+        metrics.recordOutcome(null, null, PipelineMetrics.OUTCOME_FAILED);
+
+        assertNotNull(registry.find("pipeline.records").tags("topic", "Events", "type", "other").counter());
+        assertNotNull(registry.find("pipeline.records").tags("topic", "other", "type", "A").counter());
+        assertNull(registry.find("pipeline.records").tags("topic", "salesforce.customer").counter());
+        assertNotNull(registry.find("pipeline.records").tags("topic", "unknown", "type", "unknown").counter());
+    }
+
+    @Test
+    public void recordsLagFromIsoAndEpochTimestamps() {
+        long now = System.currentTimeMillis();
+        metrics.recordLag("Events", "A", Instant.ofEpochMilli(now - 60_000).toString());
+        metrics.recordLag("Events", "A", Long.toString(now - 60_000));
+        metrics.recordLag("Events", "A", "ayer");
+        metrics.recordLag("Events", "A", null);
+
+        Timer lag = registry.find("pipeline.event.lag").tags("topic", "Events", "type", "A").timer();
+        assertEquals(2, lag.count());
+        assertTrue(lag.max(TimeUnit.MILLISECONDS) >= 60_000);
+    }
+
+    @Test
+    public void disabledMetricsRegisterNothing() {
+        InstrumentationProperties properties = new InstrumentationProperties();
+        properties.setEnabled(false);
+        PipelineMetrics disabled = new PipelineMetrics(properties, registry);
+
+        disabled.recordStage(PipelineMetrics.STAGE_STORE, "Events", "A", disabled.start());
+        disabled.recordLag("Events", "A", "2024-03-05T10:15:30Z");
+        disabled.recordOutcome("Events", "A", PipelineMetrics.OUTCOME_FAILED);
+
+        assertTrue(registry.getMeters().isEmpty());
+    }
+}
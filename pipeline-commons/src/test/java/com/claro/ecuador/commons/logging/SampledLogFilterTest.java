@@ -0,0 +1,80 @@
+package com.claro.ecuador.commons.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Muestreo por prefijo de logger y límite de repetidos por mensaje, con los ERROR siempre admitidos
+ *
+ * @author Global HITSS
+ */
+public class SampledLogFilterTest {
+
+    private LoggerContext context;
+    private Logger consumer;
+    private Logger other;
+
+    @Before
+    public void setUp() {
+        context = new LoggerContext();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        consumer = context.getLogger("com.claro.ecuador.events.consumer.GeneralEventsConsumer");
+        other = context.getLogger("com.claro.ecuador.events.config.KafkaBatchConfig");
+    }
+
+    @Test
+    public void samplesOnlyConfiguredLoggersBelowError() {
+        SampledLogFilter filter = filter(0.0, "com.claro.ecuador.events.consumer", 0);
+
+        assertEquals(FilterReply.DENY, decide(filter, consumer, Level.INFO, "Evento {}"));
+        assertEquals(FilterReply.DENY, decide(filter, consumer, Level.WARN, "Evento {}"));
+        assertEquals(FilterReply.NEUTRAL, decide(filter, consumer, Level.ERROR, "Evento {}"));
+        assertEquals(FilterReply.NEUTRAL, decide(filter, other, Level.INFO, "Evento {}"));
+        assertEquals(2L, filter.drainSampledOut());
+        assertEquals(0L, filter.drainSampledOut());
+    }
+
+    @Test
+    public void limitsRepeatedMessagesPerLoggerAndFormat() {
+        SampledLogFilter filter = filter(1.0, "", 2);
+
+        assertEquals(FilterReply.NEUTRAL, decide(filter, consumer, Level.INFO, "Evento {}"));
+        assertEquals(FilterReply.NEUTRAL, decide(filter, consumer, Level.INFO, "Evento {}"));
+        assertEquals(FilterReply.DENY, decide(filter, consumer, Level.INFO, "Evento {}"));
+        assertEquals(FilterReply.NEUTRAL, decide(filter, consumer, Level.INFO, "Otro {}"));
+        assertEquals(FilterReply.NEUTRAL, decide(filter, other, Level.INFO, "Evento {}"));
+        // Los ERROR con excepción no se limitan
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, consumer, Level.ERROR, "Evento {}",
+                new Object[]{"x", new IllegalStateException("fallo")}, null));
+        assertEquals(1L, filter.drainSuppressed());
+    }
+
+    @Test
+    public void ignoresEventsDisabledByLevel() {
+        SampledLogFilter filter = filter(0.0, "com.claro.ecuador.events.consumer", 0);
+
+        assertEquals(FilterReply.NEUTRAL, decide(filter, consumer, Level.DEBUG, "Evento {}"));
+        assertEquals(0L, filter.drainSampledOut());
+    }
+
+    private SampledLogFilter filter(double sampleRate, String sampledLoggers, int rateLimit) {
+        SampledLogFilter filter = new SampledLogFilter();
+        filter.setContext(context);
+        filter.setSampleRate(sampleRate);
+        filter.setSampledLoggers(sampledLoggers);
+        filter.setRateLimit(rateLimit);
+        filter.setRateLimitIntervalMs(60_000);
+        filter.start();
+        return filter;
+    }
+
+    private static FilterReply decide(SampledLogFilter filter, Logger logger, Level level, String format) {
+        return filter.decide(null, logger, level, format, new Object[]{"x"}, null);
+    }
+}
@@ -0,0 +1,237 @@
+package com.claro.ecuador.commons.sink;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sink _bulk contra un endpoint HTTP de prueba que responde lo que cada test encola
+ *
+ * @author Global HITSS
+ */
+public class ElasticsearchBulkSinkTest {
+
+    private static final String ALL_OK = "{\"errors\":false}";
+
+    private HttpServer server;
+    private final ConcurrentLinkedQueue<StubResponse> responses = new ConcurrentLinkedQueue<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private ElasticsearchBulkSink sink;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/_bulk", exchange -> {
+            requests.add(new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8));
+            StubResponse response = responses.poll();
+            if (response == null) {
+                response = new StubResponse(200, ALL_OK);
+            }
+            byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(response.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void retriesOnlyTransientItemsOfPartialFailure() throws Exception {
+        responses.add(new StubResponse(200, "{\"errors\":true,\"items\":["
+                + "{\"index\":{\"status\":201}},"
+                + "{\"index\":{\"status\":429,\"error\":{\"reason\":\"rejected execution\"}}},"
+                + "{\"index\":{\"status\":400,\"error\":{\"reason\":\"mapper_parsing_exception\"}}}]}"));
+        responses.add(new StubResponse(200, ALL_OK));
+        sink = newSink(3);
+
+        sink.index("general", json("{\"id\":1}"));
+        sink.index("general", json("{\"id\":2}"));
+        sink.index("general", json("{\"id\":3}"));
+        sink.stop();
+
+        assertEquals(2, requests.size());
+        assertEquals(6, lines(requests.get(0)).length);
+        String[] retry = lines(requests.get(1));
+        assertEquals(2, retry.length);
+        assertEquals("{\"id\":2}", retry[1]);
+
+        Map<String, Object> stats = sink.stats();
+        assertEquals(2L, stats.get("indexed"));
+        assertEquals(1L, stats.get("retried"));
+        assertEquals(1L, stats.get("failed"));
+    }
+
+    @Test
+    public void retriesWholeBatchOnServerError() throws Exception {
+        responses.add(new StubResponse(503, "{\"error\":\"unavailable\"}"));
+        responses.add(new StubResponse(200, ALL_OK));
+        sink = newSink(2);
+
+        sink.index("general", json("{\"id\":1}"));
+        sink.index("general", json("{\"id\":2}"));
+        sink.stop();
+
+        assertEquals(2, requests.size());
+        assertEquals(requests.get(0), requests.get(1));
+        assertEquals(2L, sink.stats().get("indexed"));
+        assertEquals(2L, sink.stats().get("retried"));
+        assertEquals(0L, sink.stats().get("failed"));
+    }
+
+    @Test
+    public void dropsBatchAfterMaxRetries() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            responses.add(new StubResponse(429, "{}"));
+        }
+        sink = newSink(1);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        Logger sinkLogger = (Logger) LoggerFactory.getLogger(ElasticsearchBulkSink.class);
+        sinkLogger.addAppender(appender);
+        try {
+            sink.index("general", json("{\"eventId\":\"evt-1\"}"), Instant.parse("2024-03-05T10:00:00Z").toEpochMilli());
+            sink.stop();
+        } finally {
+            sinkLogger.detachAppender(appender);
+        }
+
+        // Intento inicial + max-retries (2)
+        assertEquals(3, requests.size());
+        assertEquals(0L, sink.stats().get("indexed"));
+        assertEquals(1L, sink.stats().get("failed"));
+        // Cada documento descartado queda identificado en el log
+        String dropped = appender.list.get(appender.list.size() - 1).getFormattedMessage();
+        assertTrue(dropped, dropped.contains("transforma-ecuador-general-2024.03.05"));
+        assertTrue(dropped, dropped.contains("evt-1"));
+    }
+
+    @Test
+    public void compactsMultiLineDocumentsIntoOneNdjsonLine() throws Exception {
+        sink = newSink(10);
+
+        sink.index("general", json("{\n  \"id\": 1,\n  \"data\": {\r\n    \"name\": \"a b\"\n  }\n}"));
+        sink.index("general", json("{\"id\":2}"));
+        sink.stop();
+
+        assertEquals(1, requests.size());
+        String[] lines = lines(requests.get(0));
+        assertEquals(4, lines.length);
+        assertEquals("{\"id\":1,\"data\":{\"name\":\"a b\"}}", lines[1]);
+        assertEquals("{\"id\":2}", lines[3]);
+        assertEquals(1L, sink.stats().get("compacted"));
+    }
+
+    @Test
+    public void discardsInvalidMultiLineDocument() throws Exception {
+        sink = newSink(10);
+
+        sink.index("general", json("{\n  \"id\": "));
+        sink.index("general", json("{\"id\":2}"));
+        sink.stop();
+
+        assertEquals(1, requests.size());
+        assertEquals(2, lines(requests.get(0)).length);
+        assertEquals(1L, sink.stats().get("failed"));
+        assertEquals(1L, sink.stats().get("indexed"));
+    }
+
+    @Test
+    public void namesDailyIndexAfterDocumentTimestamp() throws Exception {
+        sink = newSink(10);
+
+        sink.index("general", json("{\"id\":1}"), Instant.parse("2024-03-05T23:59:59Z").toEpochMilli());
+        sink.index("errors", json("{\"id\":2}"), Instant.parse("2023-12-31T00:00:00Z").toEpochMilli());
+        sink.stop();
+
+        String[] lines = lines(requests.get(0));
+        assertEquals("{\"index\":{\"_index\":\"transforma-ecuador-general-2024.03.05\"}}", lines[0]);
+        assertEquals("{\"index\":{\"_index\":\"transforma-ecuador-errors-2023.12.31\"}}", lines[2]);
+    }
+
+    @Test
+    public void disabledSinkSendsNothing() throws Exception {
+        ElasticsearchSinkProperties properties = new ElasticsearchSinkProperties();
+        sink = new ElasticsearchBulkSink(properties, baseUrl(), new ObjectMapper());
+        sink.start();
+
+        sink.index("general", json("{\"id\":1}"));
+        sink.flush();
+        sink.stop();
+
+        assertTrue(requests.isEmpty());
+    }
+
+    private ElasticsearchBulkSink newSink(int bulkActions) {
+        ElasticsearchSinkProperties properties = new ElasticsearchSinkProperties();
+        properties.setEnabled(true);
+        properties.setBulkActions(bulkActions);
+        properties.setMaxInFlight(1);
+        properties.setMaxRetries(2);
+        properties.setRetryBackoffMs(5);
+        properties.setRequestTimeoutMs(5000);
+        ElasticsearchBulkSink bulkSink = new ElasticsearchBulkSink(properties, baseUrl(), new ObjectMapper());
+        bulkSink.start();
+        return bulkSink;
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static byte[] json(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String[] lines(String ndjson) {
+        assertTrue("El NDJSON termina en salto de línea", ndjson.endsWith("\n"));
+        return ndjson.substring(0, ndjson.length() - 1).split("\n", -1);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class StubResponse {
+
+        private final int status;
+        private final String body;
+
+        private StubResponse(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}